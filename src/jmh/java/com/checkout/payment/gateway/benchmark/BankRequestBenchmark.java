@@ -0,0 +1,57 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Building the {@link BankRequest} from a validated payment request, as
+ * {@code PaymentGatewayService} does, and serializing it for the bank.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BankRequestBenchmark {
+
+  private ObjectMapper objectMapper;
+  private PostPaymentRequest paymentRequest;
+  private BankRequest bankRequest;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    paymentRequest = BenchmarkPayments.validRequest();
+    bankRequest = build();
+  }
+
+  @Benchmark
+  public BankRequest build() {
+    return new BankRequest(
+        paymentRequest.getCardNumber(),
+        paymentRequest.getExpiryDate(),
+        paymentRequest.getCurrency(),
+        paymentRequest.getAmount(),
+        paymentRequest.getCvv()
+    );
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(bankRequest);
+  }
+
+  @Benchmark
+  public byte[] buildAndSerialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(build());
+  }
+}
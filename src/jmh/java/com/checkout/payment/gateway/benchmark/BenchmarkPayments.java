@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Fixtures shared by the benchmarks, so every benchmark measures the same payment.
+ */
+final class BenchmarkPayments {
+
+  static final byte[] REQUEST_JSON = """
+      {
+        "card_number": "2222405343248877",
+        "expiry_month": 12,
+        "expiry_year": 2030,
+        "currency": "GBP",
+        "amount": 100,
+        "cvv": 123
+      }
+      """.getBytes(StandardCharsets.UTF_8);
+
+  private BenchmarkPayments() {
+  }
+
+  static PostPaymentRequest validRequest() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv(123);
+    return request;
+  }
+
+  static PostPaymentResponse authorizedPayment(UUID id) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+}
@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.id.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The whole of {@link PaymentGatewayService#processPayment} with a {@link BankClient} that
+ * authorizes immediately, so only the gateway's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentGatewayServiceBenchmark {
+
+  private IdempotencyCache idempotencyCache;
+  private PaymentGatewayService service;
+  private PostPaymentRequest request;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    BankResponse authorized = new BankResponse();
+    authorized.setAuthorized(true);
+    authorized.setAuthorizationCode("AUTH123");
+    BankClient bankClient = new BankClient(null, null, null, null, null) {
+      @Override
+      public BankResponse processPayment(BankRequest bankRequest) {
+        return authorized;
+      }
+    };
+
+    idempotencyCache = new IdempotencyCache(Duration.ofHours(24), Duration.ofMinutes(1));
+    service = new PaymentGatewayService(
+        new PaymentsRepository(new ConcurrentPaymentStore(1 << 20, 16)), bankClient,
+        idempotencyCache, new PaymentMetrics(new SimpleMeterRegistry()),
+        // Only the blocking path is measured, which stores on the calling thread
+        new RandomPaymentIdGenerator(), Runnable::run);
+    request = BenchmarkPayments.validRequest();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    idempotencyCache.close();
+  }
+
+  @Benchmark
+  public PostPaymentResponse processPayment() {
+    return service.processPayment(request);
+  }
+}
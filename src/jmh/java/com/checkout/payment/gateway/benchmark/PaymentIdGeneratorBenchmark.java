@@ -0,0 +1,65 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.id.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.id.TimeOrderedPaymentIdGenerator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link PaymentIdGenerator#nextId} for each generator with 1, 4, 16 and 32 threads, to show how
+ * {@link UUID#randomUUID()}'s shared {@code SecureRandom} scales against per-thread state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentIdGeneratorBenchmark {
+
+  @Param({"random", "time-ordered"})
+  public String generator;
+
+  private PaymentIdGenerator ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ids = switch (generator) {
+      case "random" -> new RandomPaymentIdGenerator();
+      case "time-ordered" -> new TimeOrderedPaymentIdGenerator();
+      default -> throw new IllegalArgumentException("Unknown generator " + generator);
+    };
+  }
+
+  @Benchmark
+  @Threads(1)
+  public UUID nextId1Thread() {
+    return ids.nextId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public UUID nextId4Threads() {
+    return ids.nextId();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public UUID nextId16Threads() {
+    return ids.nextId();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public UUID nextId32Threads() {
+    return ids.nextId();
+  }
+}
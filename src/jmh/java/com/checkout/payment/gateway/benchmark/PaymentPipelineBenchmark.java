@@ -0,0 +1,106 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import com.checkout.payment.gateway.id.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link PaymentGatewayService#processPaymentAsync(PostPaymentRequest)} through each engine, with
+ * a {@link BankClient} that authorizes immediately, so only the gateway's own work and the
+ * hand-offs between threads are measured. Sampled, so the results carry latency percentiles as
+ * well as the mean; {@code futures} is the chain of futures and {@code pipeline-*} the
+ * {@link PaymentPipeline} with each wait strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentPipelineBenchmark {
+
+  @Param({"futures", "pipeline-sleeping", "pipeline-yielding", "pipeline-busy-spin"})
+  public String engine;
+
+  private IdempotencyCache idempotencyCache;
+  private ExecutorService storeExecutor;
+  private PaymentPipeline pipeline;
+  private PaymentGatewayService service;
+  private PostPaymentRequest request;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    BankResponse authorized = new BankResponse();
+    authorized.setAuthorized(true);
+    authorized.setAuthorizationCode("AUTH123");
+    // Already complete, so it can be shared: callbacks added to it run at once
+    CompletableFuture<BankResponse> bankCall = CompletableFuture.completedFuture(authorized);
+    BankClient bankClient = new BankClient(null, null, null, null, null) {
+      @Override
+      public CompletableFuture<BankResponse> processPaymentAsync(BankRequest bankRequest) {
+        return bankCall;
+      }
+    };
+
+    PaymentsRepository repository =
+        new PaymentsRepository(new ConcurrentPaymentStore(1 << 20, 16));
+    PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry());
+    if (engine.startsWith("pipeline-")) {
+      PipelineWaitStrategy waitStrategy = PipelineWaitStrategy.valueOf(
+          engine.substring("pipeline-".length()).replace('-', '_').toUpperCase());
+      pipeline = new PaymentPipeline(repository, bankClient, paymentMetrics,
+          new RandomPaymentIdGenerator(), 8192, waitStrategy);
+    }
+    idempotencyCache = new IdempotencyCache(Duration.ofHours(24), Duration.ofMinutes(1));
+    storeExecutor = Executors.newFixedThreadPool(16);
+    service = new PaymentGatewayService(repository, bankClient, idempotencyCache, paymentMetrics,
+        new RandomPaymentIdGenerator(), storeExecutor, pipeline);
+    request = BenchmarkPayments.validRequest();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    if (pipeline != null) {
+      pipeline.close();
+      pipeline = null;
+    }
+    idempotencyCache.close();
+    storeExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public PostPaymentResponse processPayment1Thread() {
+    return service.processPaymentAsync(request).join();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public PostPaymentResponse processPayment16Threads() {
+    return service.processPaymentAsync(request).join();
+  }
+}
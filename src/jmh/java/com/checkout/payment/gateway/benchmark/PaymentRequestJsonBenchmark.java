@@ -0,0 +1,95 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * The JSON of one payment: reading the {@code POST /payments} body, writing the bank request,
+ * reading the bank response and writing the payment response. Each is measured with an
+ * {@link ObjectMapper} configured the way Spring MVC configures its own, and with
+ * {@link PaymentJsonCodec}. Run with {@code -PjmhProfilers=gc} to see bytes allocated per
+ * operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentRequestJsonBenchmark {
+
+  private static final byte[] BANK_RESPONSE_JSON =
+      "{\"authorized\":true,\"authorization_code\":\"0bb07405-6d44-4b50-a8f1-5ad0b0a0a2d0\"}"
+          .getBytes(StandardCharsets.UTF_8);
+
+  private ObjectMapper objectMapper;
+  private BankRequest bankRequest;
+  private PostPaymentResponse payment;
+  private ByteArrayOutputStream out;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    bankRequest = new BankRequest("2222405343248877", "12/2030", "GBP", 100, 123);
+    payment = BenchmarkPayments.authorizedPayment(UUID.randomUUID());
+    out = new ByteArrayOutputStream(512);
+  }
+
+  @Benchmark
+  public PostPaymentRequest deserialize() throws IOException {
+    return objectMapper.readValue(BenchmarkPayments.REQUEST_JSON, PostPaymentRequest.class);
+  }
+
+  @Benchmark
+  public PostPaymentRequest codecDeserialize() throws IOException {
+    return PaymentJsonCodec.readPaymentRequest(BenchmarkPayments.REQUEST_JSON);
+  }
+
+  @Benchmark
+  public byte[] serializeBankRequest() throws IOException {
+    return objectMapper.writeValueAsBytes(bankRequest);
+  }
+
+  @Benchmark
+  public byte[] codecSerializeBankRequest() {
+    return PaymentJsonCodec.writeBankRequest(bankRequest);
+  }
+
+  @Benchmark
+  public BankResponse deserializeBankResponse() throws IOException {
+    return objectMapper.readValue(BANK_RESPONSE_JSON, BankResponse.class);
+  }
+
+  @Benchmark
+  public BankResponse codecDeserializeBankResponse() throws IOException {
+    return PaymentJsonCodec.readBankResponse(BANK_RESPONSE_JSON);
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serializeResponse() throws IOException {
+    out.reset();
+    objectMapper.writeValue(out, payment);
+    return out;
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream codecSerializeResponse() throws IOException {
+    out.reset();
+    PaymentJsonCodec.writePaymentResponse(payment, out);
+    return out;
+  }
+}
@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.validation.PaymentRequestValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * Bean Validation of {@link PostPaymentRequest}, including the class-level
+ * {@code FutureExpiryDateValidator}, for a valid request and for one that fails several
+ * constraints and has to build violation messages. The {@code fast} variants run the same
+ * requests through {@link PaymentRequestValidator}, which the controller uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentRequestValidationBenchmark {
+
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private PaymentRequestValidator fastValidator;
+  private Errors validRequestErrors;
+  private PostPaymentRequest validRequest;
+  private PostPaymentRequest invalidRequest;
+
+  @Setup
+  public void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    fastValidator = new PaymentRequestValidator(new SpringValidatorAdapter(validator), true,
+        Clock.systemDefaultZone());
+    validRequest = BenchmarkPayments.validRequest();
+    // A valid request adds no errors, so one binding result serves every invocation
+    validRequestErrors = new BeanPropertyBindingResult(validRequest, "postPaymentRequest");
+
+    invalidRequest = BenchmarkPayments.validRequest();
+    invalidRequest.setCardNumber("1234");
+    invalidRequest.setExpiryYear(2025);
+    invalidRequest.setExpiryMonth(1);
+    invalidRequest.setCurrency("EUR");
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PostPaymentRequest>> validRequest() {
+    return validator.validate(validRequest);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PostPaymentRequest>> invalidRequest() {
+    return validator.validate(invalidRequest);
+  }
+
+  @Benchmark
+  public Errors fastValidRequest() {
+    fastValidator.validate(validRequest, validRequestErrors);
+    return validRequestErrors;
+  }
+
+  @Benchmark
+  public Errors fastInvalidRequest() {
+    Errors errors = new BeanPropertyBindingResult(invalidRequest, "postPaymentRequest");
+    fastValidator.validate(invalidRequest, errors);
+    return errors;
+  }
+}
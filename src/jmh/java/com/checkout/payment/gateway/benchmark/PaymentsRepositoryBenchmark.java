@@ -0,0 +1,177 @@
+package com.checkout.payment.gateway.benchmark;
+
+import com.checkout.payment.gateway.enums.BackpressurePolicy;
+import com.checkout.payment.gateway.enums.FsyncPolicy;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.OffHeapPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.repository.persistence.DurablePaymentStore;
+import com.checkout.payment.gateway.repository.persistence.PaymentLog;
+import com.checkout.payment.gateway.repository.persistence.PaymentSnapshots;
+import com.checkout.payment.gateway.repository.tiered.TieredPaymentStore;
+import com.checkout.payment.gateway.repository.writebehind.WriteBehindPaymentStore;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link PaymentsRepository#add} and {@link PaymentsRepository#get} on each store type with 1, 4
+ * and 16 threads. Reads cycle through {@link #PRELOADED} payments written during setup. Writes
+ * cycle through {@link #WRITE_IDS} further ids, inserting on the first pass and overwriting after
+ * that, so the fixed-capacity stores never fill up however long the run.
+ *
+ * <p>{@code durable} logs every write with a 5ms group commit, and {@code write-behind} puts the
+ * same durable store behind a {@link WriteBehindPaymentStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentsRepositoryBenchmark {
+
+  private static final int PRELOADED = 100_000;
+  private static final int WRITE_IDS = 1_000_000;
+  private static final long CAPACITY = 2 * (PRELOADED + WRITE_IDS);
+
+  @Param({"concurrent", "off-heap", "tiered", "durable", "write-behind"})
+  public String store;
+
+  private Path coldFile;
+  private Path logDirectory;
+  private PaymentStore paymentStore;
+  private PaymentsRepository repository;
+  private UUID[] ids;
+  private PostPaymentResponse[] writes;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    paymentStore = createStore();
+    repository = new PaymentsRepository(paymentStore);
+    ids = new UUID[PRELOADED];
+    List<PostPaymentResponse> preloaded = new ArrayList<>(PRELOADED);
+    for (int i = 0; i < PRELOADED; i++) {
+      ids[i] = UUID.randomUUID();
+      preloaded.add(BenchmarkPayments.authorizedPayment(ids[i]));
+    }
+    // One batch, so the durable stores do not wait for a group commit per payment
+    paymentStore.putAll(preloaded);
+    writes = new PostPaymentResponse[WRITE_IDS];
+    for (int i = 0; i < WRITE_IDS; i++) {
+      writes[i] = BenchmarkPayments.authorizedPayment(UUID.randomUUID());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    repository = null;
+    if (paymentStore instanceof Closeable closeable) {
+      closeable.close();
+    }
+    paymentStore = null;
+    if (logDirectory != null) {
+      try (Stream<Path> files = Files.walk(logDirectory)) {
+        for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(file);
+        }
+      }
+      logDirectory = null;
+    }
+    if (coldFile != null) {
+      Files.deleteIfExists(coldFile);
+      coldFile = null;
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    // Threads start at different offsets so they do not all write the same payment
+    private int next = ThreadLocalRandom.current().nextInt(WRITE_IDS);
+
+    int next(int bound) {
+      next = next + 1 >= bound ? 0 : next + 1;
+      return next;
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void add1Thread(Cursor cursor) {
+    repository.add(writes[cursor.next(WRITE_IDS)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void add4Threads(Cursor cursor) {
+    repository.add(writes[cursor.next(WRITE_IDS)]);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void add16Threads(Cursor cursor) {
+    repository.add(writes[cursor.next(WRITE_IDS)]);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Optional<PostPaymentResponse> get1Thread(Cursor cursor) {
+    return repository.get(ids[cursor.next(PRELOADED)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Optional<PostPaymentResponse> get4Threads(Cursor cursor) {
+    return repository.get(ids[cursor.next(PRELOADED)]);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Optional<PostPaymentResponse> get16Threads(Cursor cursor) {
+    return repository.get(ids[cursor.next(PRELOADED)]);
+  }
+
+  private PaymentStore createStore() throws IOException {
+    return switch (store) {
+      case "concurrent" -> new ConcurrentPaymentStore((int) CAPACITY, 16);
+      case "off-heap" -> new OffHeapPaymentStore(CAPACITY);
+      case "tiered" -> {
+        coldFile = Files.createTempFile("payments-cold", ".tier");
+        yield new TieredPaymentStore(PRELOADED / 2, PRELOADED * 2, CAPACITY, coldFile);
+      }
+      case "durable" -> durableStore();
+      case "write-behind" -> new WriteBehindPaymentStore(durableStore(), 1 << 16, 512,
+          BackpressurePolicy.BLOCK, Duration.ofSeconds(1));
+      default -> throw new IllegalArgumentException("Unknown store " + store);
+    };
+  }
+
+  private PaymentStore durableStore() throws IOException {
+    logDirectory = Files.createTempDirectory("payments-log");
+    PaymentLog log = new PaymentLog(logDirectory, 64L << 20, FsyncPolicy.GROUP_COMMIT,
+        Duration.ofMillis(5));
+    return new DurablePaymentStore(new ConcurrentPaymentStore((int) CAPACITY, 16), log,
+        new PaymentSnapshots(logDirectory, 2), Duration.ofHours(1));
+  }
+}
@@ -0,0 +1,189 @@
+package com.checkout.payment.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop load against {@code POST /payments} and {@code GET /payments/{id}}.
+ *
+ * <p>Request {@code i} is due at {@code start + i / rate} whether or not earlier requests have
+ * completed. Latency is measured from that due time rather than from when the request was
+ * actually sent, so a stalled gateway is charged for every request that queued up behind the
+ * stall instead of only the one that was stuck in it. This is the coordinated omission correction;
+ * the uncorrected service time, measured from the actual send, is recorded alongside it so the two
+ * can be compared.
+ */
+final class LoadGenerator {
+
+  private static final int RECENT_IDS = 4096;
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final HttpClient httpClient;
+  private final URI payments;
+  private final ExecutorService executor;
+  private final LoadTestOptions options;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicReferenceArray<String> recentIds = new AtomicReferenceArray<>(RECENT_IDS);
+  private final AtomicLong createdIds = new AtomicLong();
+
+  LoadGenerator(HttpClient httpClient, URI target, ExecutorService executor,
+      LoadTestOptions options) {
+    this.httpClient = httpClient;
+    this.payments = target.resolve("/payments");
+    this.executor = executor;
+    this.options = options;
+  }
+
+  LoadResult run(Duration duration) throws InterruptedException {
+    Run run = new Run();
+    Semaphore inFlight = new Semaphore(options.maxInFlight());
+    SplittableRandom random = new SplittableRandom();
+    long intervalNanos = Math.max(1, 1_000_000_000L / options.rate());
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+
+    for (long i = 0; ; i++) {
+      long due = start + i * intervalNanos;
+      if (due - end >= 0) {
+        break;
+      }
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      // Blocking here puts sends behind schedule; measuring from due keeps that delay visible
+      inFlight.acquire();
+      boolean read = random.nextDouble() < options.readRatio() && createdIds.get() > 0;
+      String body = read ? null : options.paymentMix().nextBody(random);
+      int slot = random.nextInt(RECENT_IDS);
+      executor.execute(() -> {
+        try {
+          if (read) {
+            get(run, due, slot);
+          } else {
+            post(run, due, body);
+          }
+        } finally {
+          inFlight.release();
+        }
+      });
+    }
+    inFlight.acquire(options.maxInFlight());
+    inFlight.release(options.maxInFlight());
+    return run.result(System.nanoTime() - start);
+  }
+
+  private void post(Run run, long due, String body) {
+    HttpRequest request = HttpRequest.newBuilder(payments)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    HttpResponse<String> response = send(run.post, run, "POST", due, request);
+    if (response != null && response.statusCode() == 200) {
+      try {
+        JsonNode id = objectMapper.readTree(response.body()).get("id");
+        if (id != null) {
+          long created = createdIds.getAndIncrement();
+          recentIds.set((int) (created % RECENT_IDS), id.asText());
+        }
+      } catch (IOException e) {
+        run.count("POST unreadable-body");
+      }
+    }
+  }
+
+  private void get(Run run, long due, int slot) {
+    // Before RECENT_IDS payments exist only the filled slots can be picked
+    long created = createdIds.get();
+    String id = recentIds.get((int) (created < RECENT_IDS ? slot % created : slot));
+    if (id == null) {
+      // A POST has claimed the slot but not yet stored its id; sending would be a false 404
+      run.count("GET skipped");
+      return;
+    }
+    HttpRequest request = HttpRequest.newBuilder(payments.resolve("/payments/" + id)).GET().build();
+    send(run.get, run, "GET", due, request);
+  }
+
+  private HttpResponse<String> send(Operation operation, Run run, String method, long due,
+      HttpRequest request) {
+    long sent = System.nanoTime();
+    try {
+      HttpResponse<String> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+      operation.record(due, sent, System.nanoTime());
+      run.count(method + " " + response.statusCode());
+      return response;
+    } catch (IOException e) {
+      operation.record(due, sent, System.nanoTime());
+      run.count(method + " " + e.getClass().getSimpleName());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private static final class Run {
+
+    private final Operation post = new Operation();
+    private final Operation get = new Operation();
+    private final Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+
+    void count(String response) {
+      responses.computeIfAbsent(response, key -> new LongAdder()).increment();
+    }
+
+    LoadResult result(long elapsedNanos) {
+      Map<String, Long> counts = new TreeMap<>();
+      responses.forEach((response, count) -> counts.put(response, count.sum()));
+      return new LoadResult(elapsedNanos, post.latency.getIntervalHistogram(),
+          post.serviceTime.getIntervalHistogram(), get.latency.getIntervalHistogram(),
+          get.serviceTime.getIntervalHistogram(), counts);
+    }
+  }
+
+  private static final class Operation {
+
+    private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+
+    void record(long due, long sent, long completed) {
+      latency.recordValue(completed - due);
+      serviceTime.recordValue(completed - sent);
+    }
+  }
+
+  /**
+   * Histograms are in nanoseconds.
+   */
+  record LoadResult(long elapsedNanos, Histogram postLatency, Histogram postServiceTime,
+                    Histogram getLatency, Histogram getServiceTime, Map<String, Long> responses) {
+
+    long completed() {
+      return postLatency.getTotalCount() + getLatency.getTotalCount();
+    }
+
+    double throughput() {
+      return completed() * 1e9 / elapsedNanos;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.checkout.payment.gateway.loadtest;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.loadtest.LoadGenerator.LoadResult;
+import com.checkout.payment.gateway.simulator.BankSimulator;
+import com.checkout.payment.gateway.simulator.LatencyDistribution;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives the gateway at a fixed arrival rate and writes a latency report, e.g. through
+ * {@code ./gradlew loadTest}. Options:
+ * <ul>
+ *   <li>{@code --target=http://localhost:8090}: gateway to load. Without it a gateway is started
+ *   in process against an in-process {@link BankSimulator}</li>
+ *   <li>{@code --gateway=payments.processing.mode=async,payments.store.type=off-heap}: properties
+ *   of the in-process gateway</li>
+ *   <li>{@code --bank-latency=lognormal:20ms,0.5}: in-process simulator latency, see
+ *   {@link LatencyDistribution#parse(String)}</li>
+ *   <li>{@code --rate=1000}, {@code --duration=30s}, {@code --warmup=10s},
+ *   {@code --max-in-flight=2000}</li>
+ *   <li>{@code --read-ratio=0.2}: fraction of requests that are {@code GET /payments/{id}}</li>
+ *   <li>{@code --outcomes=authorized=80,declined=15,error=5}: POST mix by bank outcome</li>
+ *   <li>{@code --label=...}, {@code --report=build/reports/loadtest/<label>.txt}</li>
+ * </ul>
+ */
+public final class LoadTestMain {
+
+  private LoadTestMain() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+
+    BankSimulator simulator = null;
+    ConfigurableApplicationContext gateway = null;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      URI target = options.target();
+      if (target == null) {
+        simulator = new BankSimulator(0, LatencyDistribution.parse(options.bankLatency()), 0, 0);
+        simulator.start();
+        gateway = startGateway(options, simulator);
+        target = URI.create("http://localhost:"
+            + gateway.getEnvironment().getProperty("local.server.port"));
+      }
+
+      HttpClient httpClient = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .executor(executor)
+          .build();
+      LoadGenerator generator = new LoadGenerator(httpClient, target, executor, options);
+
+      System.out.printf("Warming up for %s%n", options.warmup());
+      generator.run(options.warmup());
+      System.out.printf("Running %d req/s for %s%n", options.rate(), options.duration());
+      LoadResult result = generator.run(options.duration());
+
+      String report = LoadTestReport.format(options, result);
+      LoadTestReport.write(options.report(), report);
+      System.out.println(report.substring(0, report.indexOf("POST latency distribution")));
+      System.out.printf("Report written to %s%n", options.report().toAbsolutePath());
+    } finally {
+      if (gateway != null) {
+        gateway.close();
+      }
+      if (simulator != null) {
+        simulator.close();
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext startGateway(LoadTestOptions options,
+      BankSimulator simulator) {
+    // Passed as command-line arguments so they override application.properties
+    List<String> args = new ArrayList<>(List.of(
+        "--server.port=0",
+        "--bank.simulator.url=" + simulator.getUrl(),
+        // Connection limits should not be what the test measures unless asked to
+        "--bank.client.pool.max-connections=" + options.maxInFlight(),
+        "--bank.client.pool.max-connections-per-route=" + options.maxInFlight(),
+        "--bank.client.bulkhead.max-concurrent-calls=" + options.maxInFlight(),
+        "--server.tomcat.max-connections=" + 2 * options.maxInFlight(),
+        "--logging.level.com.checkout=WARN"));
+    options.gatewayProperties().forEach((name, value) -> args.add("--" + name + "=" + value));
+    return new SpringApplicationBuilder(PaymentGatewayApplication.class)
+        .run(args.toArray(String[]::new));
+  }
+}
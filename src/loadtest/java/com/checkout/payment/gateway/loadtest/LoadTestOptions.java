@@ -0,0 +1,60 @@
+package com.checkout.payment.gateway.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Command-line options of {@link LoadTestMain}.
+ *
+ * @param target gateway base URL, or {@code null} to start a gateway and bank simulator in
+ *     process
+ * @param rate requests per second, sent on schedule whether or not earlier ones have completed
+ * @param maxInFlight requests outstanding at once; beyond it sends fall behind schedule and the
+ *     delay shows up in the corrected latencies
+ * @param readRatio fraction of requests that are {@code GET /payments/{id}}
+ * @param gatewayProperties Spring properties for the in-process gateway, to compare modes
+ */
+record LoadTestOptions(URI target, int rate, Duration duration, Duration warmup, int maxInFlight,
+                       double readRatio, PaymentMix paymentMix, String bankLatency, Path report,
+                       String label, Map<String, String> gatewayProperties) {
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      int equals = arg.indexOf('=');
+      options.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+
+    Map<String, String> gatewayProperties = new LinkedHashMap<>();
+    String gateway = options.getOrDefault("gateway", "");
+    for (String property : gateway.split(",")) {
+      if (!property.isBlank()) {
+        String[] nameAndValue = property.trim().split("=", 2);
+        gatewayProperties.put(nameAndValue[0], nameAndValue.length > 1 ? nameAndValue[1] : "");
+      }
+    }
+
+    String target = options.get("target");
+    String label = options.getOrDefault("label", gatewayProperties.isEmpty()
+        ? "default" : String.join("_", gatewayProperties.values()));
+    return new LoadTestOptions(
+        target == null || target.isBlank() ? null : URI.create(target),
+        Integer.parseInt(options.getOrDefault("rate", "1000")),
+        DurationStyle.detectAndParse(options.getOrDefault("duration", "30s")),
+        DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s")),
+        Integer.parseInt(options.getOrDefault("max-in-flight", "2000")),
+        Double.parseDouble(options.getOrDefault("read-ratio", "0.2")),
+        PaymentMix.parse(options.getOrDefault("outcomes", "authorized=80,declined=15,error=5")),
+        options.getOrDefault("bank-latency", "lognormal:20ms,0.5"),
+        Path.of(options.getOrDefault("report", "build/reports/loadtest/" + label + ".txt")),
+        label,
+        gatewayProperties);
+  }
+}
@@ -0,0 +1,83 @@
+package com.checkout.payment.gateway.loadtest;
+
+import com.checkout.payment.gateway.loadtest.LoadGenerator.LoadResult;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Plain-text report of a load test run: a percentile summary per operation, followed by the full
+ * HdrHistogram percentile distributions, which the HdrHistogram plotter can read.
+ */
+final class LoadTestReport {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private LoadTestReport() {
+  }
+
+  static String format(LoadTestOptions options, LoadResult result) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+
+    out.printf("Load test %s at %s%n", options.label(), Instant.now());
+    out.printf("target: %s%n", options.target() == null
+        ? "in-process gateway, bank latency " + options.bankLatency()
+        : options.target());
+    out.printf("gateway properties: %s%n", options.gatewayProperties());
+    out.printf("schedule: %d req/s for %s after %s warm-up, max in flight %d%n",
+        options.rate(), options.duration(), options.warmup(), options.maxInFlight());
+    out.printf("mix: %.0f%% GET, POST outcomes %s%n", options.readRatio() * 100,
+        options.paymentMix());
+    out.printf("%nthroughput: %.1f req/s (%d completed, %.1f req/s scheduled)%n",
+        result.throughput(), result.completed(), (double) options.rate());
+    out.printf("responses: %s%n%n", result.responses());
+
+    out.printf("%-18s %10s %10s %10s %10s %10s %10s%n",
+        "ms", "count", "p50", "p90", "p99", "p99.9", "max");
+    summary(out, "POST latency", result.postLatency());
+    summary(out, "POST service time", result.postServiceTime());
+    summary(out, "GET latency", result.getLatency());
+    summary(out, "GET service time", result.getServiceTime());
+    out.printf("%nLatency is measured from when each request was due, service time from when it"
+        + " was sent.%n");
+
+    distribution(out, "POST latency", result.postLatency());
+    distribution(out, "GET latency", result.getLatency());
+    return buffer.toString(StandardCharsets.UTF_8);
+  }
+
+  static void write(Path file, String report) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.writeString(file, report);
+  }
+
+  private static void summary(PrintStream out, String name, Histogram histogram) {
+    out.printf("%-18s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n", name,
+        histogram.getTotalCount(),
+        millis(histogram.getValueAtPercentile(50)),
+        millis(histogram.getValueAtPercentile(90)),
+        millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)),
+        millis(histogram.getMaxValue()));
+  }
+
+  private static void distribution(PrintStream out, String name, Histogram histogram) {
+    out.printf("%n%s distribution (ms)%n", name);
+    if (histogram.getTotalCount() > 0) {
+      histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+}
@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.loadtest;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted mix of payment request bodies by the outcome the bank simulator gives them, which it
+ * picks from the last card digit.
+ */
+final class PaymentMix {
+
+  private static final String AUTHORIZED_CARD = "2222405343248877";
+  private static final String DECLINED_CARD = "2222405343248844";
+  private static final String BANK_ERROR_CARD = "2222405343248810";
+
+  private final int authorized;
+  private final int declined;
+  private final int bankError;
+  private final String[] bodies = {
+      body(AUTHORIZED_CARD), body(DECLINED_CARD), body(BANK_ERROR_CARD)};
+
+  PaymentMix(int authorized, int declined, int bankError) {
+    if (authorized < 0 || declined < 0 || bankError < 0
+        || authorized + declined + bankError == 0) {
+      throw new IllegalArgumentException("Outcome weights must be non-negative and not all zero");
+    }
+    this.authorized = authorized;
+    this.declined = declined;
+    this.bankError = bankError;
+  }
+
+  /**
+   * Parses {@code authorized=80,declined=15,error=5}. Omitted outcomes get a weight of 0.
+   */
+  static PaymentMix parse(String spec) {
+    int authorized = 0;
+    int declined = 0;
+    int bankError = 0;
+    for (String part : spec.split(",")) {
+      String[] nameAndWeight = part.trim().split("=", 2);
+      int weight = Integer.parseInt(nameAndWeight[1].trim());
+      switch (nameAndWeight[0].trim().toLowerCase(Locale.ROOT)) {
+        case "authorized" -> authorized = weight;
+        case "declined" -> declined = weight;
+        case "error" -> bankError = weight;
+        default -> throw new IllegalArgumentException("Unknown outcome: " + nameAndWeight[0]);
+      }
+    }
+    return new PaymentMix(authorized, declined, bankError);
+  }
+
+  String nextBody(RandomGenerator random) {
+    int pick = random.nextInt(authorized + declined + bankError);
+    if (pick < authorized) {
+      return bodies[0];
+    }
+    return pick < authorized + declined ? bodies[1] : bodies[2];
+  }
+
+  @Override
+  public String toString() {
+    return "authorized=" + authorized + ",declined=" + declined + ",error=" + bankError;
+  }
+
+  private static String body(String cardNumber) {
+    return """
+        {"card_number":"%s","expiry_month":12,"expiry_year":2030,"currency":"GBP",\
+        "amount":100,"cvv":123}""".formatted(cardNumber);
+  }
+}
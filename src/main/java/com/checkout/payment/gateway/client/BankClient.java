@@ -1,15 +1,48 @@
 package com.checkout.payment.gateway.client;
 
+import com.checkout.payment.gateway.client.model.BankBatchResult;
 import com.checkout.payment.gateway.client.model.BankRequest;
 import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.client.resilience.AdaptiveTimeout;
+import com.checkout.payment.gateway.client.resilience.BankCallGuard;
+import com.checkout.payment.gateway.client.resilience.Hedging;
+import com.checkout.payment.gateway.client.resilience.LatencyHistogram;
+import com.checkout.payment.gateway.client.routing.BankEndpoint;
+import com.checkout.payment.gateway.client.routing.BankRouter;
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.tracing.Span;
+import com.checkout.payment.gateway.tracing.TraceContext;
+import com.checkout.payment.gateway.tracing.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 @Component
@@ -17,34 +50,385 @@ public class BankClient {
 
   private static final Logger LOG = LoggerFactory.getLogger(BankClient.class);
 
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
   private final RestTemplate restTemplate;
+  private final HttpClient httpClient;
+  private final BankCallGuard guard;
+  private final BankRouter router;
+  private final Tracer tracer;
+
+  @Value("${bank.client.read-timeout:10s}")
+  private Duration readTimeout;
+
+  @Value("${bank.client.batching.enabled:false}")
+  private boolean batchingEnabled;
+
+  @Value("${bank.client.batching.max-size:32}")
+  private int maxBatchSize;
+
+  @Value("${bank.client.batching.max-delay:500us}")
+  private Duration maxBatchDelay;
+
+  @Value("${bank.client.latency.window:1m}")
+  private Duration latencyWindow;
+
+  @Value("${bank.client.latency.min-samples:100}")
+  private long latencyMinSamples;
+
+  @Value("${bank.client.adaptive-timeout.enabled:false}")
+  private boolean adaptiveTimeoutEnabled;
+
+  @Value("${bank.client.adaptive-timeout.percentile:99.9}")
+  private double timeoutPercentile;
+
+  @Value("${bank.client.adaptive-timeout.multiplier:3}")
+  private double timeoutMultiplier;
+
+  @Value("${bank.client.adaptive-timeout.min:250ms}")
+  private Duration minTimeout;
+
+  @Value("${bank.client.hedging.enabled:false}")
+  private boolean hedgingEnabled;
+
+  @Value("${bank.client.hedging.percentile:95}")
+  private double hedgePercentile;
 
-  @Value("${bank.simulator.url:http://localhost:8080}")
-  private String bankSimulatorUrl;
+  @Value("${bank.client.hedging.min-delay:5ms}")
+  private Duration minHedgeDelay;
 
-  public BankClient() {
-    this.restTemplate = new RestTemplate();
+  @Value("${bank.client.hedging.url:}")
+  private String hedgeUrl;
+
+  private MicroBatcher<BatchedCall, BankResponse> batcher;
+  private LatencyHistogram latencies;
+  private AdaptiveTimeout adaptiveTimeout;
+  private Hedging hedging;
+  private BankEndpoint hedgeEndpoint;
+
+  public BankClient(RestTemplate restTemplate, HttpClient bankHttpClient,
+      BankCallGuard bankCallGuard, BankRouter bankRouter, Tracer tracer) {
+    this.restTemplate = restTemplate;
+    this.httpClient = bankHttpClient;
+    this.guard = bankCallGuard;
+    this.router = bankRouter;
+    this.tracer = tracer;
+  }
+
+  /**
+   * Sends payments through a {@link MicroBatcher} to the bank's {@code POST /payments/batch} when
+   * {@code bank.client.batching.enabled} is set.
+   */
+  @PostConstruct
+  void startBatching() {
+    if (batchingEnabled) {
+      batcher = new MicroBatcher<>("bank-batcher", maxBatchSize, maxBatchDelay, this::sendBatch);
+    }
   }
 
+  /**
+   * Tracks the latency of each bank call when timeouts adapt to it
+   * ({@code bank.client.adaptive-timeout.enabled}) or slow calls are hedged
+   * ({@code bank.client.hedging.enabled}). Hedged authorizations carry an {@code Idempotency-Key}
+   * shared by both copies, so hedging is only safe against a bank that honours it.
+   */
+  @PostConstruct
+  void startLatencyTracking() {
+    if (adaptiveTimeoutEnabled || hedgingEnabled) {
+      latencies = new LatencyHistogram(latencyWindow);
+    }
+    if (adaptiveTimeoutEnabled) {
+      adaptiveTimeout = new AdaptiveTimeout(latencies, timeoutPercentile, timeoutMultiplier,
+          minTimeout, readTimeout, latencyMinSamples);
+    }
+    if (hedgingEnabled) {
+      hedging = new Hedging(latencies, hedgePercentile, minHedgeDelay, latencyMinSamples);
+      if (!hedgeUrl.isEmpty()) {
+        hedgeEndpoint = new BankEndpoint(hedgeUrl);
+      }
+    }
+  }
+
+  @PreDestroy
+  void stopBatching() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  /**
+   * @return the hedging of slow calls, or null unless {@code bank.client.hedging.enabled} is set
+   */
+  @Nullable
+  public Hedging getHedging() {
+    return hedging;
+  }
+
+  /**
+   * Sends the payment with the pooled {@link RestTemplate} and waits for the answer. Batching,
+   * hedging and adaptive timeouts are only done by the asynchronous {@link HttpClient}, so when
+   * any of them is on the payment goes through {@link #processPaymentAsync} instead and the
+   * calling thread waits on its future: the RestTemplate's connection pool is not used, and a
+   * virtual thread parks on the future rather than on the socket.
+   */
   public BankResponse processPayment(BankRequest request) {
-    String bankUrl = bankSimulatorUrl + "/payments";
+    if (batcher != null || latencies != null) {
+      try {
+        return processPaymentAsync(request).join();
+      } catch (CompletionException ex) {
+        throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+      }
+    }
+    BankEndpoint endpoint = router.select(request.getCurrency());
+    String bankUrl = endpoint.getUrl() + "/payments";
 
+    Span span = tracer.startSpan("bank POST /payments");
     HttpHeaders headers = new HttpHeaders();
     headers.setContentType(MediaType.APPLICATION_JSON);
+    if (span.isSampled()) {
+      headers.set(TraceContext.HEADER, span.getContext().toTraceparent());
+    }
 
     HttpEntity<BankRequest> entity = new HttpEntity<>(request, headers);
 
     LOG.debug("Calling bank simulator at {} with request: {}", bankUrl, request);
     
-    ResponseEntity<BankResponse> response = restTemplate.postForEntity(
-        bankUrl,
-        entity,
-        BankResponse.class
-    );
+    ResponseEntity<BankResponse> response;
+    try {
+      response = guard.call(() -> callEndpoint(endpoint, () -> restTemplate.postForEntity(
+          bankUrl,
+          entity,
+          BankResponse.class
+      )));
+    } catch (RuntimeException ex) {
+      span.end(ex);
+      throw ex;
+    }
+    span.end();
 
     BankResponse bankResponse = response.getBody();
     LOG.debug("Bank simulator response: {}", bankResponse);
     
     return bankResponse;
   }
+
+  /**
+   * Non-blocking variant of {@link #processPayment(BankRequest)}. The future fails with the same
+   * exception types the blocking call throws, so callers can share their error handling; a
+   * {@link com.checkout.payment.gateway.exception.BankCallRejectedException} is thrown directly,
+   * unless the payment is batched, in which case it fails the future.
+   */
+  public CompletableFuture<BankResponse> processPaymentAsync(BankRequest request) {
+    Span span = tracer.startSpan("bank POST /payments");
+    CompletableFuture<BankResponse> bankCall;
+    if (batcher != null) {
+      bankCall = batcher.submit(new BatchedCall(request, span));
+    } else {
+      try {
+        bankCall = sendAsync(request, span);
+      } catch (RuntimeException ex) {
+        span.end(ex);
+        throw ex;
+      }
+    }
+    if (!span.isSampled()) {
+      return bankCall;
+    }
+    return bankCall.whenComplete((bankResponse, ex) -> span.end(unwrap(ex)));
+  }
+
+  private CompletableFuture<BankResponse> sendAsync(BankRequest request, Span span) {
+    BankEndpoint endpoint = router.select(request.getCurrency());
+    LOG.debug("Calling bank simulator asynchronously at {}/payments with request: {}",
+        endpoint.getUrl(), request);
+    byte[] body = PaymentJsonCodec.writeBankRequest(request);
+    if (hedging == null) {
+      return send(endpoint, body, null, span);
+    }
+    // Both copies carry the same key, so the bank authorizes the payment once
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String idempotencyKey = new UUID(random.nextLong(), random.nextLong()).toString();
+    return hedging.call(() -> send(endpoint, body, idempotencyKey, span),
+        // Routed when it is sent, so it avoids an endpoint slowed down by the first copy
+        () -> send(hedgeEndpoint != null ? hedgeEndpoint : router.select(request.getCurrency()),
+            body, idempotencyKey, span));
+  }
+
+  private CompletableFuture<BankResponse> send(BankEndpoint endpoint, byte[] body,
+      String idempotencyKey, Span span) {
+    String bankUrl = endpoint.getUrl() + "/payments";
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(bankUrl))
+        .timeout(timeout())
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+    if (idempotencyKey != null) {
+      builder.header(IDEMPOTENCY_KEY, idempotencyKey);
+    }
+    if (span.isSampled()) {
+      builder.header(TraceContext.HEADER, span.getContext().toTraceparent());
+    }
+    HttpRequest httpRequest = builder.build();
+
+    return guard.callAsync(() -> {
+      endpoint.onStart();
+      long start = System.nanoTime();
+      return httpClient
+          .sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+          .handle((response, ex) -> {
+            long elapsed = System.nanoTime() - start;
+            endpoint.onComplete(elapsed, ex != null);
+            // Failures count too, so a timeout that is too short for the bank grows again
+            if (latencies != null) {
+              latencies.record(elapsed);
+            }
+            if (ex != null) {
+              throw ioError(bankUrl, ex);
+            }
+            BankResponse bankResponse = readResponse(response);
+            LOG.debug("Bank simulator response: {}", bankResponse);
+            return bankResponse;
+          });
+    });
+  }
+
+  /**
+   * Sends a batch from the {@link MicroBatcher} as one request, or a batch of one as a plain
+   * payment. The batch counts as a single call for the circuit breaker and bulkhead, and each
+   * payment fails with the exception its own call would have thrown.
+   */
+  private void sendBatch(List<BatchedCall> calls, List<CompletableFuture<BankResponse>> results) {
+    if (calls.size() == 1) {
+      CompletableFuture<BankResponse> result = results.get(0);
+      sendAsync(calls.get(0).request(), calls.get(0).span()).whenComplete((bankResponse, ex) -> {
+        if (ex != null) {
+          result.completeExceptionally(unwrap(ex));
+        } else {
+          result.complete(bankResponse);
+        }
+      });
+      return;
+    }
+
+    BankEndpoint endpoint = router.select(null);
+    String bankUrl = endpoint.getUrl() + "/payments/batch";
+    LOG.debug("Calling bank simulator at {} with {} payments", bankUrl, calls.size());
+    HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(bankUrl))
+        .timeout(timeout())
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(PaymentJsonCodec.writeBankBatchRequest(
+            calls.stream().map(BatchedCall::request).toList())))
+        .build();
+
+    guard.callAsync(() -> {
+          endpoint.onStart();
+          long start = System.nanoTime();
+          return httpClient
+              .sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+              .handle((response, ex) -> {
+                endpoint.onComplete(System.nanoTime() - start, ex != null);
+                if (ex != null) {
+                  throw ioError(bankUrl, ex);
+                }
+                return readBatchResponse(response, calls.size());
+              });
+        })
+        .whenComplete((batchResults, ex) -> {
+          for (int i = 0; i < results.size(); i++) {
+            if (ex != null) {
+              results.get(i).completeExceptionally(unwrap(ex));
+            } else {
+              complete(results.get(i), batchResults.get(i));
+            }
+          }
+        });
+  }
+
+  private Duration timeout() {
+    return adaptiveTimeout != null ? adaptiveTimeout.timeout() : readTimeout;
+  }
+
+  /**
+   * Runs a blocking call to {@code endpoint}, recording its latency and outcome for routing. Only
+   * I/O errors and timeouts count against the endpoint: a 5xx is an answer about one payment, such
+   * as the simulator's 503 for cards ending in 0, and must not eject a healthy endpoint.
+   */
+  private static <T> T callEndpoint(BankEndpoint endpoint, Supplier<T> bankCall) {
+    endpoint.onStart();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      T result = bankCall.get();
+      failed = false;
+      return result;
+    } catch (HttpStatusCodeException ex) {
+      failed = false;
+      throw ex;
+    } finally {
+      endpoint.onComplete(System.nanoTime() - start, failed);
+    }
+  }
+
+  private static void complete(CompletableFuture<BankResponse> result,
+      BankBatchResult batchResult) {
+    byte[] errorBody = batchResult.getErrorMessage() != null
+        ? batchResult.getErrorMessage().getBytes(StandardCharsets.UTF_8) : new byte[0];
+    try {
+      checkStatus(batchResult.getStatus(), errorBody);
+    } catch (RuntimeException ex) {
+      result.completeExceptionally(ex);
+      return;
+    }
+    result.complete(batchResult.toBankResponse());
+  }
+
+  private List<BankBatchResult> readBatchResponse(HttpResponse<byte[]> response, int size) {
+    checkStatus(response.statusCode(), response.body());
+    List<BankBatchResult> results;
+    try {
+      results = PaymentJsonCodec.readBankBatchResponse(response.body());
+    } catch (IOException e) {
+      throw new ResourceAccessException("Unable to read bank response: " + e.getMessage(), e);
+    }
+    if (results.size() != size) {
+      throw new ResourceAccessException(
+          "Bank answered " + results.size() + " results for " + size + " payments");
+    }
+    return results;
+  }
+
+  private BankResponse readResponse(HttpResponse<byte[]> response) {
+    checkStatus(response.statusCode(), response.body());
+    try {
+      return PaymentJsonCodec.readBankResponse(response.body());
+    } catch (IOException e) {
+      throw new ResourceAccessException("Unable to read bank response: " + e.getMessage(), e);
+    }
+  }
+
+  private static void checkStatus(int statusCode, byte[] body) {
+    HttpStatusCode status = HttpStatusCode.valueOf(statusCode);
+    HttpStatus knownStatus = HttpStatus.resolve(statusCode);
+    String statusText = knownStatus != null ? knownStatus.getReasonPhrase() : "";
+    if (status.is4xxClientError()) {
+      throw HttpClientErrorException.create(status, statusText, null, body,
+          StandardCharsets.UTF_8);
+    }
+    if (status.is5xxServerError()) {
+      throw HttpServerErrorException.create(status, statusText, null, body,
+          StandardCharsets.UTF_8);
+    }
+  }
+
+  private static ResourceAccessException ioError(String bankUrl, Throwable ex) {
+    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+    return new ResourceAccessException("I/O error on POST request for \"" + bankUrl + "\": "
+        + cause.getMessage(), cause instanceof IOException io ? io : null);
+  }
+
+  private static Throwable unwrap(Throwable ex) {
+    return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+  }
+
+  private record BatchedCall(BankRequest request, Span span) {
+  }
 }
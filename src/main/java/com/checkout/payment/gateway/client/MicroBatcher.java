@@ -0,0 +1,167 @@
+package com.checkout.payment.gateway.client;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces items submitted from many threads into batches of up to {@code maxBatchSize}, sent by
+ * a {@link BatchSender} from a single dispatcher thread.
+ *
+ * <p>The dispatcher sends whatever is queued as soon as it is free, and only holds a batch open
+ * for more items when the recent arrival rate says at least one more will come within
+ * {@code maxDelay}. It then waits for as long as the batch should take to fill, up to
+ * {@code maxDelay}. A lone request at low traffic is therefore sent at once, while a burst is
+ * sent in full batches.
+ */
+public class MicroBatcher<T, R> implements Closeable {
+
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final BatchSender<T, R> sender;
+  private final BlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+  private final Thread dispatcher;
+  private volatile boolean running = true;
+
+  // Only touched by the dispatcher thread
+  private double arrivalsPerNano;
+  private long lastSampleNanos;
+
+  public MicroBatcher(String name, int maxBatchSize, Duration maxDelay,
+      BatchSender<T, R> sender) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1");
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.sender = sender;
+    // Start as if the queue had been idle for a whole window
+    this.lastSampleNanos = System.nanoTime() - maxDelayNanos;
+    this.dispatcher = new Thread(this::dispatch, name);
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+  }
+
+  public CompletableFuture<R> submit(T item) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    queue.add(new Pending<>(item, result));
+    if (!running) {
+      failQueued();
+    }
+    return result;
+  }
+
+  /**
+   * Stops the dispatcher. Items not yet sent fail; batches already sent complete as usual.
+   */
+  @Override
+  public void close() {
+    running = false;
+    dispatcher.interrupt();
+    try {
+      dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    failQueued();
+  }
+
+  private void dispatch() {
+    List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (running) {
+        batch.add(queue.take());
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        recordArrivals(batch.size());
+        long linger = lingerNanos(batch.size());
+        if (linger > 0) {
+          int ready = batch.size();
+          long deadline = System.nanoTime() + linger;
+          while (batch.size() < maxBatchSize) {
+            Pending<T, R> next =
+                queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+          }
+          recordArrivals(batch.size() - ready);
+        }
+        send(batch);
+        batch = new ArrayList<>(maxBatchSize);
+      }
+    } catch (InterruptedException e) {
+      fail(batch);
+    }
+  }
+
+  /**
+   * How long to hold a batch of {@code size} open for more items.
+   */
+  private long lingerNanos(int size) {
+    if (size >= maxBatchSize || arrivalsPerNano * maxDelayNanos < 1) {
+      return 0;
+    }
+    return Math.min(maxDelayNanos, (long) ((maxBatchSize - size) / arrivalsPerNano));
+  }
+
+  /**
+   * Folds {@code count} arrivals since the last sample into the arrival rate. A sample counts for
+   * more the longer it covers, and one covering a whole window replaces the estimate, so the rate
+   * drops as soon as the queue has been idle for {@code maxDelay}.
+   */
+  private void recordArrivals(int count) {
+    long now = System.nanoTime();
+    long elapsed = Math.max(1, now - lastSampleNanos);
+    double weight = maxDelayNanos > 0 ? Math.min(1, elapsed / (double) maxDelayNanos) : 1;
+    arrivalsPerNano += weight * (count / (double) elapsed - arrivalsPerNano);
+    lastSampleNanos = now;
+  }
+
+  private void send(List<Pending<T, R>> batch) {
+    List<T> items = new ArrayList<>(batch.size());
+    List<CompletableFuture<R>> results = new ArrayList<>(batch.size());
+    for (Pending<T, R> pending : batch) {
+      items.add(pending.item());
+      results.add(pending.result());
+    }
+    try {
+      sender.send(items, results);
+    } catch (RuntimeException ex) {
+      results.forEach(result -> result.completeExceptionally(ex));
+    }
+  }
+
+  private void failQueued() {
+    List<Pending<T, R>> queued = new ArrayList<>();
+    queue.drainTo(queued);
+    fail(queued);
+  }
+
+  private static <T, R> void fail(List<Pending<T, R>> batch) {
+    IllegalStateException closed = new IllegalStateException("Batcher is closed");
+    batch.forEach(pending -> pending.result().completeExceptionally(closed));
+  }
+
+  /**
+   * Sends a batch without blocking and completes each item's result when the answer arrives.
+   */
+  @FunctionalInterface
+  public interface BatchSender<T, R> {
+
+    /**
+     * @param items the batch, in the order the items were submitted
+     * @param results the futures to complete, one per item in the same order
+     */
+    void send(List<T> items, List<CompletableFuture<R>> results);
+  }
+
+  private record Pending<T, R>(T item, CompletableFuture<R> result) {
+  }
+}
@@ -0,0 +1,72 @@
+package com.checkout.payment.gateway.client.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One element of the bank's answer to {@code POST /payments/batch}: the status and body the
+ * bank would have answered to the payment on its own.
+ */
+public class BankBatchResult {
+
+  private int status;
+
+  private boolean authorized;
+
+  @JsonProperty("authorization_code")
+  private String authorizationCode;
+
+  @JsonProperty("error_message")
+  private String errorMessage;
+
+  public BankBatchResult() {
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  public boolean isAuthorized() {
+    return authorized;
+  }
+
+  public void setAuthorized(boolean authorized) {
+    this.authorized = authorized;
+  }
+
+  public String getAuthorizationCode() {
+    return authorizationCode;
+  }
+
+  public void setAuthorizationCode(String authorizationCode) {
+    this.authorizationCode = authorizationCode;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+
+  public BankResponse toBankResponse() {
+    BankResponse response = new BankResponse();
+    response.setAuthorized(authorized);
+    response.setAuthorizationCode(authorizationCode);
+    return response;
+  }
+
+  @Override
+  public String toString() {
+    return "BankBatchResult{" +
+        "status=" + status +
+        ", authorized=" + authorized +
+        ", authorizationCode='" + authorizationCode + '\'' +
+        ", errorMessage='" + errorMessage + '\'' +
+        '}';
+  }
+}
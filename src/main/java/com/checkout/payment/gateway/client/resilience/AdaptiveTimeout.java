@@ -0,0 +1,36 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import java.time.Duration;
+
+/**
+ * A bank call timeout that follows the bank's recent latency: {@code multiplier} times the
+ * {@code percentile} of the {@link LatencyHistogram}, kept between {@code min} and {@code max}.
+ * Until the histogram holds {@code minSamples} latencies the timeout is {@code max}.
+ */
+public class AdaptiveTimeout {
+
+  private final LatencyHistogram.Percentile observed;
+  private final double multiplier;
+  private final long minNanos;
+  private final long maxNanos;
+
+  public AdaptiveTimeout(LatencyHistogram latencies, double percentile, double multiplier,
+      Duration min, Duration max, long minSamples) {
+    if (min.compareTo(max) > 0) {
+      throw new IllegalArgumentException("Minimum timeout must not exceed the maximum");
+    }
+    this.observed = latencies.percentile(percentile, minSamples);
+    this.multiplier = multiplier;
+    this.minNanos = min.toNanos();
+    this.maxNanos = max.toNanos();
+  }
+
+  public Duration timeout() {
+    long observedNanos = observed.nanos();
+    if (observedNanos < 0) {
+      return Duration.ofNanos(maxNanos);
+    }
+    return Duration.ofNanos(
+        Math.max(minNanos, Math.min(maxNanos, (long) (observedNanos * multiplier))));
+  }
+}
@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import java.time.Duration;
+
+/**
+ * Additive increase, multiplicative decrease. Each successful call raises the limit by one while
+ * at least half of it is in use, and each failed call, or one slower than {@code slowCall},
+ * multiplies it by {@code backoffRatio}.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long slowCallNanos;
+  private int limit;
+
+  public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+      Duration slowCall) {
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.slowCallNanos = slowCall.toNanos();
+    this.limit = ConcurrencyLimiter.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  @Override
+  public int getLimit() {
+    return limit;
+  }
+
+  @Override
+  public int onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (dropped || rttNanos > slowCallNanos) {
+      limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    } else if (inFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+    return limit;
+  }
+}
@@ -0,0 +1,146 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Runs bank calls behind a {@link CircuitBreaker}, a {@link Bulkhead} and, optionally, an adaptive
+ * {@link ConcurrencyLimiter}. A call is rejected with a {@link BankCallRejectedException} before
+ * it reaches the bank when the circuit is open or too many calls are already in flight.
+ *
+ * <p>5xx responses and I/O errors count as failures. 4xx responses count as successes, since the
+ * bank answered and a rejected request says nothing about its health. The concurrency limit only
+ * backs off on I/O errors and timeouts, since a 5xx may be the bank's answer for one payment.
+ */
+public class BankCallGuard {
+
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+  private final ConcurrencyLimiter limiter;
+  private final LongAdder circuitOpenRejections = new LongAdder();
+  private final LongAdder bulkheadFullRejections = new LongAdder();
+  private final LongAdder limitReachedRejections = new LongAdder();
+
+  public BankCallGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+    this(circuitBreaker, bulkhead, null);
+  }
+
+  /**
+   * @param limiter applied after the bulkhead, which stays a hard ceiling, or {@code null}
+   */
+  public BankCallGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+      ConcurrencyLimiter limiter) {
+    this.circuitBreaker = circuitBreaker;
+    this.bulkhead = bulkhead;
+    this.limiter = limiter;
+  }
+
+  public <T> T call(Supplier<T> bankCall) {
+    acquire();
+    long start = System.nanoTime();
+    try {
+      T result = bankCall.get();
+      onSuccess(System.nanoTime() - start);
+      return result;
+    } catch (RuntimeException ex) {
+      record(ex, System.nanoTime() - start);
+      throw ex;
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  /**
+   * Asynchronous variant of {@link #call}. The bulkhead and limiter permits are held until the
+   * returned future completes, and a rejection is thrown directly rather than through the future.
+   */
+  public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> bankCall) {
+    acquire();
+    long start = System.nanoTime();
+    CompletableFuture<T> future;
+    try {
+      future = bankCall.get();
+    } catch (RuntimeException ex) {
+      record(ex, System.nanoTime() - start);
+      bulkhead.release();
+      throw ex;
+    }
+    return future.whenComplete((result, ex) -> {
+      bulkhead.release();
+      if (ex == null) {
+        onSuccess(System.nanoTime() - start);
+      } else {
+        record(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex,
+            System.nanoTime() - start);
+      }
+    });
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public Bulkhead getBulkhead() {
+    return bulkhead;
+  }
+
+  public long getCircuitOpenRejections() {
+    return circuitOpenRejections.sum();
+  }
+
+  public long getBulkheadFullRejections() {
+    return bulkheadFullRejections.sum();
+  }
+
+  /**
+   * The adaptive limiter, or {@code null} when only the bulkhead caps concurrent calls.
+   */
+  public ConcurrencyLimiter getLimiter() {
+    return limiter;
+  }
+
+  public long getLimitReachedRejections() {
+    return limitReachedRejections.sum();
+  }
+
+  private void acquire() {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      circuitOpenRejections.increment();
+      throw new BankCallRejectedException("Bank circuit breaker is open");
+    }
+    if (!bulkhead.tryAcquire()) {
+      circuitBreaker.releasePermission();
+      bulkheadFullRejections.increment();
+      throw new BankCallRejectedException("Bank bulkhead is full");
+    }
+    if (limiter != null && !limiter.tryAcquire()) {
+      bulkhead.release();
+      circuitBreaker.releasePermission();
+      limitReachedRejections.increment();
+      throw new BankCallRejectedException("Bank concurrency limit reached");
+    }
+  }
+
+  private void onSuccess(long durationNanos) {
+    if (limiter != null) {
+      limiter.release(durationNanos, false);
+    }
+    circuitBreaker.onSuccess(durationNanos);
+  }
+
+  private void record(Throwable ex, long durationNanos) {
+    if (ex instanceof HttpClientErrorException) {
+      onSuccess(durationNanos);
+      return;
+    }
+    if (limiter != null) {
+      limiter.release(durationNanos, !(ex instanceof HttpServerErrorException));
+    }
+    circuitBreaker.onFailure(durationNanos);
+  }
+}
@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent bank calls. Callers that cannot get a permit within
+ * {@code maxWait} are turned away instead of queueing behind a slow bank.
+ */
+public class Bulkhead {
+
+  private final Semaphore permits;
+  private final int maxConcurrentCalls;
+  private final long maxWaitNanos;
+
+  public Bulkhead(int maxConcurrentCalls, Duration maxWait) {
+    this.permits = new Semaphore(maxConcurrentCalls);
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxWaitNanos = maxWait.toNanos();
+  }
+
+  public boolean tryAcquire() {
+    if (maxWaitNanos <= 0) {
+      return permits.tryAcquire();
+    }
+    try {
+      return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  public int getMaxConcurrentCalls() {
+    return maxConcurrentCalls;
+  }
+}
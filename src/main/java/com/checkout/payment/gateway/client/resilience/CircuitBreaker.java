@@ -0,0 +1,214 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import com.checkout.payment.gateway.enums.CircuitState;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code windowSize} calls are kept in a
+ * ring, and once at least {@code minimumCalls} are recorded the circuit opens if either the
+ * failure rate or the slow-call rate reaches its threshold. After {@code openDuration} the next
+ * {@code halfOpenCalls} calls are let through as probes, and their outcomes alone decide whether
+ * the circuit closes or opens again.
+ *
+ * <p>Permission checks in the closed state and while the open duration runs are a single
+ * volatile read; only recording outcomes and state changes take the lock.
+ */
+public class CircuitBreaker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final int windowSize;
+  private final int minimumCalls;
+  private final float failureRateThreshold;
+  private final float slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final LongSupplier nanoClock;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final List<BiConsumer<CircuitState, CircuitState>> transitionListeners =
+      new CopyOnWriteArrayList<>();
+
+  private volatile CircuitState state = CircuitState.CLOSED;
+  private volatile long openUntil;
+
+  // Sliding window, guarded by lock
+  private final byte[] outcomes;
+  private int next;
+  private int recorded;
+  private int failures;
+  private int slowCalls;
+  private int halfOpenPermitted;
+
+  public CircuitBreaker(int windowSize, int minimumCalls, float failureRateThreshold,
+      float slowCallRateThreshold, Duration slowCallDuration, Duration openDuration,
+      int halfOpenCalls) {
+    this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+        slowCallDuration, openDuration, halfOpenCalls, System::nanoTime);
+  }
+
+  CircuitBreaker(int windowSize, int minimumCalls, float failureRateThreshold,
+      float slowCallRateThreshold, Duration slowCallDuration, Duration openDuration,
+      int halfOpenCalls, LongSupplier nanoClock) {
+    if (minimumCalls < 1 || minimumCalls > windowSize) {
+      throw new IllegalArgumentException("Minimum calls must be between 1 and the window size");
+    }
+    if (halfOpenCalls < 1 || halfOpenCalls > windowSize) {
+      throw new IllegalArgumentException("Half-open calls must be between 1 and the window size");
+    }
+    this.windowSize = windowSize;
+    this.minimumCalls = minimumCalls;
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.slowCallNanos = slowCallDuration.toNanos();
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenCalls = halfOpenCalls;
+    this.nanoClock = nanoClock;
+    this.outcomes = new byte[windowSize];
+  }
+
+  /**
+   * Returns whether a call may go to the bank. In the half-open state each {@code true} uses up
+   * one probe, which must be followed by {@link #onSuccess}, {@link #onFailure} or
+   * {@link #releasePermission}.
+   */
+  public boolean tryAcquirePermission() {
+    CircuitState current = state;
+    if (current == CircuitState.CLOSED) {
+      return true;
+    }
+    if (current == CircuitState.OPEN && nanoClock.getAsLong() - openUntil < 0) {
+      return false;
+    }
+
+    lock.lock();
+    try {
+      if (state == CircuitState.OPEN) {
+        if (nanoClock.getAsLong() - openUntil < 0) {
+          return false;
+        }
+        transitionTo(CircuitState.HALF_OPEN);
+      }
+      if (state == CircuitState.CLOSED) {
+        return true;
+      }
+      if (halfOpenPermitted < halfOpenCalls) {
+        halfOpenPermitted++;
+        return true;
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Hands back a permission that was not used to call the bank, so a half-open probe slot is not
+   * lost.
+   */
+  public void releasePermission() {
+    if (state != CircuitState.HALF_OPEN) {
+      return;
+    }
+    lock.lock();
+    try {
+      if (state == CircuitState.HALF_OPEN && halfOpenPermitted > recorded) {
+        halfOpenPermitted--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void onSuccess(long durationNanos) {
+    record(durationNanos >= slowCallNanos ? SLOW : 0);
+  }
+
+  public void onFailure(long durationNanos) {
+    record((byte) (FAILED | (durationNanos >= slowCallNanos ? SLOW : 0)));
+  }
+
+  /**
+   * Registers a listener called with the previous and new state on every transition. Listeners
+   * run while the breaker is locked and must not block.
+   */
+  public void onStateTransition(BiConsumer<CircuitState, CircuitState> listener) {
+    transitionListeners.add(listener);
+  }
+
+  public CircuitState getState() {
+    return state;
+  }
+
+  private void record(byte outcome) {
+    lock.lock();
+    try {
+      switch (state) {
+        case CLOSED -> {
+          add(outcome);
+          if (recorded >= minimumCalls && thresholdReached()) {
+            transitionTo(CircuitState.OPEN);
+          }
+        }
+        case HALF_OPEN -> {
+          add(outcome);
+          if (recorded >= halfOpenCalls) {
+            transitionTo(thresholdReached() ? CircuitState.OPEN : CircuitState.CLOSED);
+          }
+        }
+        case OPEN -> {
+          // Calls admitted before the circuit opened no longer affect it
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void add(byte outcome) {
+    if (recorded == windowSize) {
+      byte evicted = outcomes[next];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      recorded++;
+    }
+    outcomes[next] = outcome;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+    next = next + 1 == windowSize ? 0 : next + 1;
+  }
+
+  private boolean thresholdReached() {
+    return failures * 100f / recorded >= failureRateThreshold
+        || slowCalls * 100f / recorded >= slowCallRateThreshold;
+  }
+
+  private void transitionTo(CircuitState newState) {
+    CircuitState previous = state;
+    next = 0;
+    recorded = 0;
+    failures = 0;
+    slowCalls = 0;
+    halfOpenPermitted = 0;
+    if (newState == CircuitState.OPEN) {
+      openUntil = nanoClock.getAsLong() + openNanos;
+    }
+    state = newState;
+
+    LOG.warn("Circuit breaker transitioned from {} to {}", previous, newState);
+    for (BiConsumer<CircuitState, CircuitState> listener : transitionListeners) {
+      listener.accept(previous, newState);
+    }
+  }
+}
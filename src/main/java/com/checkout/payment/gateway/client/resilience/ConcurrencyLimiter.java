@@ -0,0 +1,106 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps concurrent bank calls at a limit that a {@link LimitAlgorithm} moves with the bank's
+ * round-trip times, so calls are held back as soon as the bank starts to slow down rather than
+ * when every thread is stuck waiting on it. Callers that cannot start within {@code maxWait} are
+ * turned away.
+ */
+public class ConcurrencyLimiter {
+
+  private final LimitAlgorithm algorithm;
+  private final long maxWaitNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition callFinished = lock.newCondition();
+  private volatile int limit;
+
+  public ConcurrencyLimiter(LimitAlgorithm algorithm, Duration maxWait) {
+    this.algorithm = algorithm;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.limit = algorithm.getLimit();
+  }
+
+  public boolean tryAcquire() {
+    if (tryStart()) {
+      return true;
+    }
+    return maxWaitNanos > 0 && awaitStart();
+  }
+
+  /**
+   * Ends a call let through by {@link #tryAcquire} and feeds its outcome to the algorithm.
+   *
+   * @param rttNanos how long the call took
+   * @param dropped whether it failed with an I/O error or timed out
+   */
+  public void release(long rttNanos, boolean dropped) {
+    int callsInFlight = inFlight.getAndDecrement();
+    synchronized (algorithm) {
+      limit = algorithm.onSample(rttNanos, callsInFlight, dropped);
+    }
+    if (waiting.get() > 0) {
+      lock.lock();
+      try {
+        callFinished.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private boolean tryStart() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private boolean awaitStart() {
+    long remaining = maxWaitNanos;
+    lock.lock();
+    // Counted before checking again, so a call finishing from here on signals this thread
+    waiting.incrementAndGet();
+    try {
+      while (!tryStart()) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = callFinished.awaitNanos(remaining);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      waiting.decrementAndGet();
+      lock.unlock();
+    }
+  }
+
+  static int clamp(int value, int min, int max) {
+    if (min < 1 || min > max) {
+      throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+    }
+    return Math.max(min, Math.min(max, value));
+  }
+}
@@ -0,0 +1,66 @@
+package com.checkout.payment.gateway.client.resilience;
+
+/**
+ * Compares a short-run average of round-trip times with a long-run one. While they agree, within
+ * {@code tolerance}, the limit grows by about its square root per call, which leaves a small
+ * queue at the bank; once recent calls are slower the limit shrinks in proportion, by at most
+ * half. Changes are smoothed so a single slow call barely moves it.
+ *
+ * <p>The long-run average catches up quickly once recent calls are twice as fast, so the limit
+ * recovers after a brownout instead of judging the bank against its slowest period.
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+  private static final double SHORT_WEIGHT = 2.0 / (10 + 1);
+  private static final double LONG_WEIGHT = 2.0 / (600 + 1);
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private double estimatedLimit;
+  private double shortRttNanos;
+  private double longRttNanos;
+
+  public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+      double smoothing) {
+    if (tolerance < 1) {
+      throw new IllegalArgumentException("tolerance must be at least 1");
+    }
+    if (smoothing <= 0 || smoothing > 1) {
+      throw new IllegalArgumentException("smoothing must be above 0 and at most 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.smoothing = smoothing;
+    this.estimatedLimit = ConcurrencyLimiter.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  @Override
+  public int getLimit() {
+    return (int) estimatedLimit;
+  }
+
+  @Override
+  public int onSample(long rttNanos, int inFlight, boolean dropped) {
+    if (longRttNanos == 0) {
+      shortRttNanos = rttNanos;
+      longRttNanos = rttNanos;
+    }
+    shortRttNanos += SHORT_WEIGHT * (rttNanos - shortRttNanos);
+    longRttNanos += LONG_WEIGHT * (rttNanos - longRttNanos);
+    if (longRttNanos > shortRttNanos * 2) {
+      longRttNanos *= 0.95;
+    }
+    // A limit that is not being used says nothing about how much the bank can take
+    if (inFlight * 2 < estimatedLimit) {
+      return getLimit();
+    }
+    double gradient = Math.max(0.5, Math.min(1, tolerance * longRttNanos / shortRttNanos));
+    double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+        estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+    return getLimit();
+  }
+}
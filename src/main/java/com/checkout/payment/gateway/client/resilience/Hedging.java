@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a call that has not answered within the {@code percentile} of recent
+ * latencies, and takes whichever copy succeeds first. Only calls the bank can safely receive
+ * twice may be hedged.
+ *
+ * <p>A call that fails before the delay is not hedged: hedging cuts the latency tail, it does not
+ * retry errors. Once both copies are out the call fails only if both do, and the slower copy's
+ * answer is ignored. A hedge the {@link BankCallGuard} refuses is simply not sent, so hedges never
+ * push the bank past the bulkhead.
+ */
+public class Hedging {
+
+  private final LatencyHistogram.Percentile latency;
+  private final long minDelayNanos;
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+
+  public Hedging(LatencyHistogram latencies, double percentile, Duration minDelay,
+      long minSamples) {
+    this.latency = latencies.percentile(percentile, minSamples);
+    this.minDelayNanos = minDelay.toNanos();
+  }
+
+  /**
+   * @param primary starts the first copy; a rejection it throws is thrown directly
+   * @param hedge starts the second copy
+   */
+  public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> primary,
+      Supplier<CompletableFuture<T>> hedge) {
+    CompletableFuture<T> first = primary.get();
+    long delayNanos = delayNanos();
+    if (delayNanos < 0) {
+      return first;
+    }
+
+    HedgedCall<T> call = new HedgedCall<>();
+    first.whenComplete((value, ex) -> call.settle(value, ex, false));
+    Executor delayed = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS);
+    delayed.execute(() -> {
+      if (call.result.isDone() || !call.running.compareAndSet(1, 2)) {
+        return;
+      }
+      CompletableFuture<T> second;
+      try {
+        second = hedge.get();
+      } catch (BankCallRejectedException ex) {
+        if (call.running.decrementAndGet() == 0) {
+          // The first copy failed while the hedge was being refused
+          first.whenComplete((value, firstEx) -> call.result.completeExceptionally(firstEx));
+        }
+        return;
+      } catch (RuntimeException ex) {
+        second = CompletableFuture.failedFuture(ex);
+      }
+      hedges.increment();
+      second.whenComplete((value, ex) -> call.settle(value, ex, true));
+    });
+    return call.result;
+  }
+
+  /**
+   * How long to wait before hedging, or -1 while too few latencies are known to tell.
+   */
+  public long delayNanos() {
+    long observed = latency.nanos();
+    return observed < 0 ? -1 : Math.max(minDelayNanos, observed);
+  }
+
+  /**
+   * Second copies sent.
+   */
+  public long getHedges() {
+    return hedges.sum();
+  }
+
+  /**
+   * Calls answered by the second copy.
+   */
+  public long getHedgeWins() {
+    return hedgeWins.sum();
+  }
+
+  private final class HedgedCall<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    // Copies still running; the call fails when this reaches zero without an answer
+    private final AtomicInteger running = new AtomicInteger(1);
+    private final AtomicBoolean answered = new AtomicBoolean();
+
+    private void settle(T value, Throwable ex, boolean hedge) {
+      if (ex == null) {
+        if (answered.compareAndSet(false, true)) {
+          if (hedge) {
+            hedgeWins.increment();
+          }
+          result.complete(value);
+        }
+      } else if (running.decrementAndGet() == 0) {
+        result.completeExceptionally(ex);
+      }
+    }
+  }
+}
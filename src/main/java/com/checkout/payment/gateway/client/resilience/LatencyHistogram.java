@@ -0,0 +1,174 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Latencies recorded over the last {@code window}, for percentiles that follow the bank as it
+ * speeds up or slows down. The window is split into {@link #SLICES} slices that are reused in
+ * turn, so samples age out a slice at a time.
+ *
+ * <p>Buckets are log-linear over microseconds: exact below 8, then 8 per power of two, so a
+ * percentile is at most 12.5% above the true value. Recording is a couple of atomic increments;
+ * a slice being reused may lose the odd sample recorded while it is cleared. Computing a
+ * percentile scans every bucket of the window, so callers on the request path read it through a
+ * {@link Percentile}, which recomputes it at most every {@link #PERCENTILE_REFRESH_NANOS}.
+ */
+public class LatencyHistogram {
+
+  static final int SLICES = 6;
+  static final long PERCENTILE_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final long sliceNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicLongArray[] slices = new AtomicLongArray[SLICES];
+  private final AtomicLongArray sliceEpochs = new AtomicLongArray(SLICES);
+
+  public LatencyHistogram(Duration window) {
+    this(window, System::nanoTime);
+  }
+
+  LatencyHistogram(Duration window, LongSupplier nanoClock) {
+    this.sliceNanos = Math.max(1, window.toNanos() / SLICES);
+    this.nanoClock = nanoClock;
+    for (int i = 0; i < SLICES; i++) {
+      // One count per bucket, then the slice's total
+      slices[i] = new AtomicLongArray(BUCKETS + 1);
+      sliceEpochs.set(i, Long.MIN_VALUE);
+    }
+  }
+
+  public void record(long nanos) {
+    long epoch = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+    int index = (int) Math.floorMod(epoch, SLICES);
+    AtomicLongArray slice = slices[index];
+    long sliceEpoch = sliceEpochs.get(index);
+    if (sliceEpoch != epoch) {
+      if (sliceEpoch > epoch) {
+        return;
+      }
+      if (sliceEpochs.compareAndSet(index, sliceEpoch, epoch)) {
+        for (int i = 0; i <= BUCKETS; i++) {
+          slice.set(i, 0);
+        }
+      }
+    }
+    slice.incrementAndGet(bucket(Math.max(0, nanos) / 1_000));
+    slice.incrementAndGet(BUCKETS);
+  }
+
+  /**
+   * Latencies recorded in the window.
+   */
+  public long count() {
+    long epoch = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+    long count = 0;
+    for (int i = 0; i < SLICES; i++) {
+      if (isLive(i, epoch)) {
+        count += slices[i].get(BUCKETS);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the latency in nanoseconds that {@code percentile}% of the window's samples did not
+   *     exceed, rounded up to the end of its bucket, or -1 if fewer than {@code minSamples} were
+   *     recorded
+   */
+  public long percentileNanos(double percentile, long minSamples) {
+    long epoch = Math.floorDiv(nanoClock.getAsLong(), sliceNanos);
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < SLICES; i++) {
+      if (isLive(i, epoch)) {
+        AtomicLongArray slice = slices[i];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+          long count = slice.get(bucket);
+          counts[bucket] += count;
+          total += count;
+        }
+      }
+    }
+    if (total == 0 || total < minSamples) {
+      return -1;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return (upperBoundMicros(bucket) + 1) * 1_000;
+      }
+    }
+    return (upperBoundMicros(BUCKETS - 1) + 1) * 1_000;
+  }
+
+  /**
+   * @return a cached view of {@link #percentileNanos(double, long)}
+   */
+  public Percentile percentile(double percentile, long minSamples) {
+    return new Percentile(percentile, minSamples);
+  }
+
+  private boolean isLive(int index, long epoch) {
+    long sliceEpoch = sliceEpochs.get(index);
+    return sliceEpoch <= epoch && sliceEpoch > epoch - SLICES;
+  }
+
+  static int bucket(long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBoundMicros(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int shift = exponent - SUB_BUCKET_BITS;
+    long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * One percentile of the histogram, recomputed by the first caller after each refresh interval;
+   * callers meanwhile get the previous value.
+   */
+  public final class Percentile {
+
+    private final double percentile;
+    private final long minSamples;
+    private final AtomicLong refreshAt = new AtomicLong(nanoClock.getAsLong());
+    private volatile long nanos = -1;
+
+    private Percentile(double percentile, long minSamples) {
+      this.percentile = percentile;
+      this.minSamples = minSamples;
+    }
+
+    /**
+     * @see LatencyHistogram#percentileNanos(double, long)
+     */
+    public long nanos() {
+      long now = nanoClock.getAsLong();
+      long due = refreshAt.get();
+      if (now - due >= 0 && refreshAt.compareAndSet(due, now + PERCENTILE_REFRESH_NANOS)) {
+        nanos = percentileNanos(percentile, minSamples);
+      }
+      return nanos;
+    }
+  }
+}
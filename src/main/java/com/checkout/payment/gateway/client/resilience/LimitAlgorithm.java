@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.client.resilience;
+
+/**
+ * Works out a {@link ConcurrencyLimiter}'s limit from the bank calls it lets through. Calls are
+ * made one at a time, so implementations need not be thread-safe.
+ */
+public interface LimitAlgorithm {
+
+  int getLimit();
+
+  /**
+   * @param rttNanos how long the call took
+   * @param inFlight calls in flight when it finished, itself included
+   * @param dropped whether it failed with an I/O error or timed out; a 5xx answer is not a drop
+   * @return the new limit
+   */
+  int onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,171 @@
+package com.checkout.payment.gateway.client.routing;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * One bank endpoint and what the {@link BankRouter} knows about it: a peak-EWMA of its latency,
+ * the calls in flight, a health score and whether it is ejected.
+ *
+ * <p>The latency estimate jumps straight to any slower sample and decays towards faster ones over
+ * {@code decay}, so an endpoint that stalls is avoided at once and only trusted again gradually.
+ * The health score is a moving average of call outcomes, 1 when every recent call succeeded.
+ * After {@code ejectAfterFailures} failures in a row the endpoint is ejected for
+ * {@code baseEjection}, and for that much longer each time it is ejected again before a call
+ * succeeds, up to {@code maxEjection}.
+ */
+public class BankEndpoint {
+
+  private static final double HEALTH_WEIGHT = 0.1;
+  private static final double MIN_HEALTH = 0.01;
+  // Cost of an endpoint with calls in flight but no latency recorded yet, so it takes one call
+  // at a time until its first answer
+  private static final double UNPROBED_COST = 1e18;
+
+  private final String url;
+  private final Map<String, Integer> currencyWeights;
+  private final double decayNanos;
+  private final int ejectAfterFailures;
+  private final long baseEjectionNanos;
+  private final long maxEjectionNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  // Written under the lock, read without it
+  private volatile double latencyNanos;
+  private volatile long lastSampleNanos;
+  private volatile double health = 1;
+  private volatile long ejectedUntilNanos;
+  private volatile boolean ejected;
+  private volatile long ejectionCount;
+
+  // Guarded by this
+  private int consecutiveFailures;
+  private int ejectionsInARow;
+
+  /**
+   * An endpoint that takes every currency, with default health settings.
+   */
+  public BankEndpoint(String url) {
+    this(url, Map.of(), Duration.ofSeconds(10), 5, Duration.ofSeconds(30), Duration.ofMinutes(5));
+  }
+
+  /**
+   * @param currencyWeights weight per currency code; empty to take every currency with weight 1
+   */
+  public BankEndpoint(String url, Map<String, Integer> currencyWeights, Duration decay,
+      int ejectAfterFailures, Duration baseEjection, Duration maxEjection) {
+    this(url, currencyWeights, decay, ejectAfterFailures, baseEjection, maxEjection,
+        System::nanoTime);
+  }
+
+  BankEndpoint(String url, Map<String, Integer> currencyWeights, Duration decay,
+      int ejectAfterFailures, Duration baseEjection, Duration maxEjection, LongSupplier nanoClock) {
+    this.url = url;
+    this.currencyWeights = Map.copyOf(currencyWeights);
+    this.decayNanos = Math.max(1, decay.toNanos());
+    this.ejectAfterFailures = ejectAfterFailures;
+    this.baseEjectionNanos = baseEjection.toNanos();
+    this.maxEjectionNanos = maxEjection.toNanos();
+    this.nanoClock = nanoClock;
+    this.lastSampleNanos = nanoClock.getAsLong();
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * @param currency a currency code, or {@code null} for a request that may carry any currency
+   * @return this endpoint's weight for {@code currency}, 0 if it does not take it
+   */
+  public int weight(String currency) {
+    if (currencyWeights.isEmpty()) {
+      return 1;
+    }
+    return currency == null ? 0 : currencyWeights.getOrDefault(currency, 0);
+  }
+
+  public void onStart() {
+    inFlight.incrementAndGet();
+  }
+
+  /**
+   * Ends a call begun with {@link #onStart}.
+   *
+   * @param failed whether it failed with an I/O error or timed out; a 5xx answer is not a failure
+   *     of the endpoint
+   */
+  public void onComplete(long rttNanos, boolean failed) {
+    inFlight.decrementAndGet();
+    long now = nanoClock.getAsLong();
+    synchronized (this) {
+      double latency = latencyNanos;
+      latencyNanos = rttNanos > latency ? rttNanos
+          : latency + (1 - decayFactor(now)) * (rttNanos - latency);
+      lastSampleNanos = now;
+      health = Math.max(MIN_HEALTH, health + HEALTH_WEIGHT * ((failed ? 0 : 1) - health));
+      if (!failed) {
+        consecutiveFailures = 0;
+        ejectionsInARow = 0;
+      } else if (++consecutiveFailures >= ejectAfterFailures && !isEjected(now)) {
+        consecutiveFailures = 0;
+        ejectionsInARow++;
+        ejectedUntilNanos = now + Math.min(maxEjectionNanos, baseEjectionNanos * ejectionsInARow);
+        ejected = true;
+        ejectionCount++;
+      }
+    }
+  }
+
+  /**
+   * Latency times calls in flight, divided by health: what the router minimises. The latency
+   * decays towards zero while no call completes, so an idle endpoint is tried again.
+   */
+  public double cost(long now) {
+    int calls = inFlight.get();
+    double latency = decayedLatency(now);
+    double cost = latency == 0 && calls > 0 ? UNPROBED_COST + calls : latency * (calls + 1);
+    return cost / health;
+  }
+
+  public boolean isEjected(long now) {
+    if (ejected && now - ejectedUntilNanos >= 0) {
+      ejected = false;
+    }
+    return ejected;
+  }
+
+  public boolean isEjected() {
+    return isEjected(nanoClock.getAsLong());
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public double getHealth() {
+    return health;
+  }
+
+  /**
+   * The peak-EWMA latency, decayed to now.
+   */
+  public double getLatencyNanos() {
+    return decayedLatency(nanoClock.getAsLong());
+  }
+
+  public long getEjectionCount() {
+    return ejectionCount;
+  }
+
+  private double decayedLatency(long now) {
+    return latencyNanos * decayFactor(now);
+  }
+
+  private double decayFactor(long now) {
+    return Math.exp(-Math.max(0, now - lastSampleNanos) / decayNanos);
+  }
+}
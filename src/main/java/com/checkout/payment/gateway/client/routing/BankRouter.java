@@ -0,0 +1,126 @@
+package com.checkout.payment.gateway.client.routing;
+
+import com.checkout.payment.gateway.enums.RoutingPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the {@link BankEndpoint} for each bank call according to a {@link RoutingPolicy}.
+ *
+ * <p>Only endpoints that take the payment's currency and are not ejected are considered. When
+ * every endpoint taking the currency is ejected they are all considered again, since a call to
+ * an unhealthy bank beats failing every payment; when none takes it, every endpoint is.
+ */
+public class BankRouter {
+
+  private final List<BankEndpoint> endpoints;
+  private final RoutingPolicy policy;
+  private final LongSupplier nanoClock;
+
+  public BankRouter(List<BankEndpoint> endpoints, RoutingPolicy policy) {
+    this(endpoints, policy, System::nanoTime);
+  }
+
+  BankRouter(List<BankEndpoint> endpoints, RoutingPolicy policy, LongSupplier nanoClock) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("At least one bank endpoint is required");
+    }
+    this.endpoints = List.copyOf(endpoints);
+    this.policy = policy;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * @param currency the payment's currency, or {@code null} for a batch that may carry any
+   */
+  public BankEndpoint select(String currency) {
+    if (endpoints.size() == 1) {
+      return endpoints.get(0);
+    }
+    long now = nanoClock.getAsLong();
+    List<BankEndpoint> candidates = candidates(currency, now);
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+    return switch (policy) {
+      case PEAK_EWMA -> cheapest(candidates, now);
+      case POWER_OF_TWO_CHOICES -> lessLoadedOfTwo(candidates, now);
+      case CURRENCY_WEIGHTED -> weightedRandom(candidates, currency);
+    };
+  }
+
+  public List<BankEndpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  private List<BankEndpoint> candidates(String currency, long now) {
+    List<BankEndpoint> taking = new ArrayList<>(endpoints.size());
+    List<BankEndpoint> available = new ArrayList<>(endpoints.size());
+    for (BankEndpoint endpoint : endpoints) {
+      if (endpoint.weight(currency) > 0) {
+        taking.add(endpoint);
+        if (!endpoint.isEjected(now)) {
+          available.add(endpoint);
+        }
+      }
+    }
+    if (!available.isEmpty()) {
+      return available;
+    }
+    return taking.isEmpty() ? endpoints : taking;
+  }
+
+  private static BankEndpoint cheapest(List<BankEndpoint> candidates, long now) {
+    BankEndpoint cheapest = null;
+    double lowestCost = Double.MAX_VALUE;
+    // Start at a random endpoint so ties, such as before any latency is known, are spread out
+    int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+    for (int i = 0; i < candidates.size(); i++) {
+      BankEndpoint endpoint = candidates.get((offset + i) % candidates.size());
+      double cost = endpoint.cost(now);
+      if (cheapest == null || cost < lowestCost) {
+        cheapest = endpoint;
+        lowestCost = cost;
+      }
+    }
+    return cheapest;
+  }
+
+  private static BankEndpoint lessLoadedOfTwo(List<BankEndpoint> candidates, long now) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    BankEndpoint a = candidates.get(first);
+    BankEndpoint b = candidates.get(second);
+    double loadA = (a.getInFlight() + 1) / a.getHealth();
+    double loadB = (b.getInFlight() + 1) / b.getHealth();
+    if (loadA != loadB) {
+      return loadA < loadB ? a : b;
+    }
+    return a.cost(now) <= b.cost(now) ? a : b;
+  }
+
+  private static BankEndpoint weightedRandom(List<BankEndpoint> candidates, String currency) {
+    double[] weights = new double[candidates.size()];
+    double total = 0;
+    for (int i = 0; i < candidates.size(); i++) {
+      BankEndpoint endpoint = candidates.get(i);
+      // Endpoints not taking the currency are only candidates when none does, and weigh the same
+      weights[i] = Math.max(1, endpoint.weight(currency)) * endpoint.getHealth();
+      total += weights[i];
+    }
+    double pick = ThreadLocalRandom.current().nextDouble(total);
+    for (int i = 0; i < candidates.size(); i++) {
+      pick -= weights[i];
+      if (pick < 0) {
+        return candidates.get(i);
+      }
+    }
+    return candidates.get(candidates.size() - 1);
+  }
+}
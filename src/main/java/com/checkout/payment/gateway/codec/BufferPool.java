@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.codec;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small lock-free pool of byte arrays. Slots are probed from a random start rather than kept per
+ * thread, so it works the same for virtual threads, which would each get a fresh
+ * {@code ThreadLocal}. An empty pool hands out a new array; a full one drops what is released.
+ */
+final class BufferPool {
+
+  private static final int PROBES = 4;
+
+  private final AtomicReferenceArray<byte[]> slots;
+  private final int bufferSize;
+  private final int maxPooledSize;
+
+  BufferPool(int slots, int bufferSize, int maxPooledSize) {
+    this.slots = new AtomicReferenceArray<>(slots);
+    this.bufferSize = bufferSize;
+    this.maxPooledSize = maxPooledSize;
+  }
+
+  byte[] acquire() {
+    int length = slots.length();
+    int start = ThreadLocalRandom.current().nextInt(length);
+    for (int i = 0; i < PROBES; i++) {
+      byte[] buffer = slots.getAndSet((start + i) % length, null);
+      if (buffer != null) {
+        return buffer;
+      }
+    }
+    return new byte[bufferSize];
+  }
+
+  void release(byte[] buffer) {
+    if (buffer.length > maxPooledSize) {
+      return;
+    }
+    int length = slots.length();
+    int start = ThreadLocalRandom.current().nextInt(length);
+    for (int i = 0; i < PROBES; i++) {
+      if (slots.compareAndSet((start + i) % length, null, buffer)) {
+        return;
+      }
+    }
+  }
+}
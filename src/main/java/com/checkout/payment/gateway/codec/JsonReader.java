@@ -0,0 +1,426 @@
+package com.checkout.payment.gateway.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull reader over the UTF-8 bytes of a flat JSON object, or an array of them. Field names are
+ * compared as raw bytes and numbers parsed in place, so only string values allocate. Nested values
+ * are skipped rather than read.
+ */
+final class JsonReader {
+
+  private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+  private final byte[] buffer;
+  private final int end;
+  private int position;
+  private boolean firstField;
+  private boolean firstElement;
+
+  private int nameStart;
+  private int nameEnd;
+  private String escapedName;
+
+  // Set by scanString
+  private int stringEnd;
+  private boolean stringEscaped;
+  private boolean stringAscii;
+
+  JsonReader(byte[] buffer, int length) {
+    this.buffer = buffer;
+    this.end = length;
+  }
+
+  void beginObject() throws MalformedJsonException {
+    if (peek() != '{') {
+      throw error("Expected a JSON object");
+    }
+    position++;
+    firstField = true;
+  }
+
+  void beginArray() throws MalformedJsonException {
+    if (peek() != '[') {
+      throw error("Expected a JSON array");
+    }
+    position++;
+    firstElement = true;
+  }
+
+  /**
+   * Moves to the next element of the array, consuming the comma before it.
+   *
+   * @return false at the end of the array
+   */
+  boolean nextElement() throws MalformedJsonException {
+    int c = peek();
+    if (c == ']') {
+      position++;
+      return false;
+    }
+    if (!firstElement) {
+      if (c != ',') {
+        throw error("Expected ',' or ']'");
+      }
+      position++;
+    }
+    firstElement = false;
+    return true;
+  }
+
+  /**
+   * Reads the next field name and its colon, leaving the reader at the value.
+   *
+   * @return false at the end of the object
+   */
+  boolean nextField() throws MalformedJsonException {
+    int c = peek();
+    if (c == '}') {
+      position++;
+      return false;
+    }
+    if (!firstField) {
+      if (c != ',') {
+        throw error("Expected ',' or '}'");
+      }
+      position++;
+      c = peek();
+    }
+    firstField = false;
+    if (c != '"') {
+      throw error("Expected a field name");
+    }
+    position++;
+    nameStart = position;
+    scanString();
+    nameEnd = stringEnd;
+    escapedName = stringEscaped ? decodeString(nameStart, nameEnd) : null;
+    if (peek() != ':') {
+      throw error("Expected ':'");
+    }
+    position++;
+    return true;
+  }
+
+  boolean nameEquals(byte[] name) {
+    if (escapedName != null) {
+      return escapedName.equals(new String(name, StandardCharsets.ISO_8859_1));
+    }
+    return Arrays.equals(buffer, nameStart, nameEnd, name, 0, name.length);
+  }
+
+  String currentName() {
+    return escapedName != null
+        ? escapedName
+        : new String(buffer, nameStart, nameEnd - nameStart, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Consumes the value if it is {@code null}.
+   */
+  boolean nextIsNull() throws MalformedJsonException {
+    if (peek() != 'n') {
+      return false;
+    }
+    literal(NULL);
+    return true;
+  }
+
+  /**
+   * Reads a string, or the text of a number or boolean.
+   */
+  String readString() throws MalformedJsonException {
+    int c = peek();
+    int start = position;
+    if (c == '"') {
+      position++;
+      scanString();
+      return decodeString(start + 1, stringEnd);
+    }
+    if (c == '-' || isDigit(c)) {
+      scanNumber();
+    } else if (c == 't') {
+      literal(TRUE);
+    } else if (c == 'f') {
+      literal(FALSE);
+    } else {
+      throw error("Expected a string for '" + currentName() + "'");
+    }
+    return new String(buffer, start, position - start, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Reads a number, or a string holding one. A fractional number is truncated.
+   */
+  int readInt() throws MalformedJsonException {
+    int c = peek();
+    int start = position;
+    if (c == '"') {
+      position++;
+      scanString();
+      if (stringEscaped) {
+        throw error("Expected a number for '" + currentName() + "'");
+      }
+      return parseInt(start + 1, stringEnd);
+    }
+    if (c != '-' && !isDigit(c)) {
+      throw error("Expected a number for '" + currentName() + "'");
+    }
+    if (scanNumber()) {
+      return parseInt(start, position);
+    }
+    double value = Double.parseDouble(
+        new String(buffer, start, position - start, StandardCharsets.ISO_8859_1));
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw error("Number out of range for '" + currentName() + "'");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Reads a boolean, or a string holding {@code true} or {@code false}.
+   */
+  boolean readBoolean() throws MalformedJsonException {
+    int c = peek();
+    if (c == 't') {
+      literal(TRUE);
+      return true;
+    }
+    if (c == 'f') {
+      literal(FALSE);
+      return false;
+    }
+    if (c == '"') {
+      int start = position + 1;
+      position++;
+      scanString();
+      if (Arrays.equals(buffer, start, stringEnd, TRUE, 0, TRUE.length)) {
+        return true;
+      }
+      if (Arrays.equals(buffer, start, stringEnd, FALSE, 0, FALSE.length)) {
+        return false;
+      }
+    }
+    throw error("Expected a boolean for '" + currentName() + "'");
+  }
+
+  void skipValue() throws MalformedJsonException {
+    int c = peek();
+    switch (c) {
+      case '"' -> {
+        position++;
+        scanString();
+      }
+      case '{', '[' -> skipContainer();
+      case 't' -> literal(TRUE);
+      case 'f' -> literal(FALSE);
+      case 'n' -> literal(NULL);
+      default -> {
+        if (c != '-' && !isDigit(c)) {
+          throw error("Unexpected character '" + (char) c + "'");
+        }
+        scanNumber();
+      }
+    }
+  }
+
+  private void skipContainer() throws MalformedJsonException {
+    int depth = 0;
+    while (position < end) {
+      byte b = buffer[position++];
+      if (b == '"') {
+        scanString();
+      } else if (b == '{' || b == '[') {
+        depth++;
+      } else if (b == '}' || b == ']') {
+        if (--depth == 0) {
+          return;
+        }
+      }
+    }
+    throw error("Unexpected end of input");
+  }
+
+  /**
+   * Skips whitespace and returns the next byte without consuming it.
+   */
+  private int peek() throws MalformedJsonException {
+    while (position < end) {
+      byte b = buffer[position];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return b & 0xFF;
+      }
+      position++;
+    }
+    throw error("Unexpected end of input");
+  }
+
+  private void literal(byte[] literal) throws MalformedJsonException {
+    if (end - position < literal.length
+        || !Arrays.equals(buffer, position, position + literal.length, literal, 0,
+        literal.length)) {
+      throw error("Unexpected token");
+    }
+    position += literal.length;
+  }
+
+  /**
+   * Finds the closing quote of a string whose opening quote has been consumed, and moves past it.
+   */
+  private void scanString() throws MalformedJsonException {
+    boolean escaped = false;
+    boolean ascii = true;
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == '"') {
+        stringEnd = position++;
+        stringEscaped = escaped;
+        stringAscii = ascii;
+        return;
+      }
+      if (b == '\\') {
+        escaped = true;
+        position += 2;
+        continue;
+      }
+      if (b < 0) {
+        ascii = false;
+      } else if (b < 0x20) {
+        throw error("Unescaped control character in string");
+      }
+      position++;
+    }
+    throw error("Unterminated string");
+  }
+
+  /**
+   * Moves past a number.
+   *
+   * @return whether it was an integer, without a fraction or exponent
+   */
+  private boolean scanNumber() throws MalformedJsonException {
+    if (position < end && buffer[position] == '-') {
+      position++;
+    }
+    if (digits() == 0) {
+      throw error("Malformed number");
+    }
+    boolean integer = true;
+    if (position < end && buffer[position] == '.') {
+      position++;
+      integer = false;
+      if (digits() == 0) {
+        throw error("Malformed number");
+      }
+    }
+    if (position < end && (buffer[position] == 'e' || buffer[position] == 'E')) {
+      position++;
+      integer = false;
+      if (position < end && (buffer[position] == '+' || buffer[position] == '-')) {
+        position++;
+      }
+      if (digits() == 0) {
+        throw error("Malformed number");
+      }
+    }
+    return integer;
+  }
+
+  private int digits() {
+    int start = position;
+    while (position < end && isDigit(buffer[position])) {
+      position++;
+    }
+    return position - start;
+  }
+
+  private int parseInt(int start, int stop) throws MalformedJsonException {
+    while (start < stop && buffer[start] == ' ') {
+      start++;
+    }
+    while (stop > start && buffer[stop - 1] == ' ') {
+      stop--;
+    }
+    boolean negative = start < stop && buffer[start] == '-';
+    int i = negative ? start + 1 : start;
+    if (i == stop) {
+      throw error("Expected a number for '" + currentName() + "'");
+    }
+    long value = 0;
+    for (; i < stop; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw error("Expected a number for '" + currentName() + "'");
+      }
+      value = value * 10 + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        throw error("Number out of range for '" + currentName() + "'");
+      }
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw error("Number out of range for '" + currentName() + "'");
+    }
+    return (int) value;
+  }
+
+  private String decodeString(int start, int stop) throws MalformedJsonException {
+    if (!stringEscaped) {
+      return new String(buffer, start, stop - start,
+          stringAscii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+    StringBuilder builder = new StringBuilder(stop - start);
+    int run = start;
+    int i = start;
+    while (i < stop) {
+      if (buffer[i] != '\\') {
+        i++;
+        continue;
+      }
+      builder.append(new String(buffer, run, i - run, StandardCharsets.UTF_8));
+      char escape = (char) buffer[i + 1];
+      i += 2;
+      switch (escape) {
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {
+          builder.append(hexChar(i, stop));
+          i += 4;
+        }
+        default -> builder.append(escape);
+      }
+      run = i;
+    }
+    builder.append(new String(buffer, run, stop - run, StandardCharsets.UTF_8));
+    return builder.toString();
+  }
+
+  private char hexChar(int start, int stop) throws MalformedJsonException {
+    if (stop - start < 4) {
+      throw error("Malformed unicode escape");
+    }
+    int value = 0;
+    for (int i = start; i < start + 4; i++) {
+      int digit = Character.digit(buffer[i], 16);
+      if (digit < 0) {
+        throw error("Malformed unicode escape");
+      }
+      value = value << 4 | digit;
+    }
+    return (char) value;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private MalformedJsonException error(String message) {
+    return new MalformedJsonException(message + " at offset " + position);
+  }
+}
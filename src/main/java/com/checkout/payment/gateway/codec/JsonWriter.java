@@ -0,0 +1,243 @@
+package com.checkout.payment.gateway.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Writes a JSON object as UTF-8 into a byte array, growing it when needed. Numbers and ids are
+ * formatted straight into the array.
+ */
+final class JsonWriter {
+
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+  private static final byte[] MIN_INT = Integer.toString(Integer.MIN_VALUE).getBytes();
+  private static final byte[] HEX_DIGITS = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+  private static final int UUID_LENGTH = 36;
+
+  private byte[] buffer;
+  private int length;
+  private boolean firstField;
+
+  JsonWriter(byte[] buffer) {
+    this.buffer = buffer;
+  }
+
+  void beginObject() {
+    ensureCapacity(1);
+    buffer[length++] = '{';
+    firstField = true;
+  }
+
+  void endObject() {
+    ensureCapacity(1);
+    buffer[length++] = '}';
+    firstField = false;
+  }
+
+  void beginArray() {
+    ensureCapacity(1);
+    buffer[length++] = '[';
+  }
+
+  void endArray() {
+    ensureCapacity(1);
+    buffer[length++] = ']';
+  }
+
+  /**
+   * Separates the elements of an array.
+   */
+  void comma() {
+    ensureCapacity(1);
+    buffer[length++] = ',';
+  }
+
+  void newline() {
+    ensureCapacity(1);
+    buffer[length++] = '\n';
+  }
+
+  /**
+   * Writes a field name, which must be ASCII and need no escaping, and its colon.
+   */
+  void name(byte[] name) {
+    ensureCapacity(name.length + 4);
+    if (!firstField) {
+      buffer[length++] = ',';
+    }
+    firstField = false;
+    buffer[length++] = '"';
+    System.arraycopy(name, 0, buffer, length, name.length);
+    length += name.length;
+    buffer[length++] = '"';
+    buffer[length++] = ':';
+  }
+
+  /**
+   * Writes a field name that may need escaping, and its colon.
+   */
+  void name(String name) {
+    ensureCapacity(1);
+    if (!firstField) {
+      buffer[length++] = ',';
+    }
+    firstField = false;
+    string(name);
+    ensureCapacity(1);
+    buffer[length++] = ':';
+  }
+
+  void nullValue() {
+    ensureCapacity(NULL.length);
+    System.arraycopy(NULL, 0, buffer, length, NULL.length);
+    length += NULL.length;
+  }
+
+  void string(String value) {
+    if (value == null) {
+      nullValue();
+      return;
+    }
+    int size = value.length();
+    ensureCapacity(size + 2);
+    buffer[length++] = '"';
+    for (int i = 0; i < size; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+        buffer[length++] = (byte) c;
+      } else {
+        i = escape(value, i);
+      }
+    }
+    ensureCapacity(1);
+    buffer[length++] = '"';
+  }
+
+  void number(int value) {
+    if (value == Integer.MIN_VALUE) {
+      ensureCapacity(MIN_INT.length);
+      System.arraycopy(MIN_INT, 0, buffer, length, MIN_INT.length);
+      length += MIN_INT.length;
+      return;
+    }
+    ensureCapacity(11);
+    if (value < 0) {
+      buffer[length++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+      digits++;
+    }
+    for (int i = length + digits - 1; i >= length; i--) {
+      buffer[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    length += digits;
+  }
+
+  /**
+   * Writes the canonical 36 character form without going through {@link UUID#toString()}.
+   */
+  void uuid(UUID id) {
+    if (id == null) {
+      nullValue();
+      return;
+    }
+    ensureCapacity(UUID_LENGTH + 2);
+    buffer[length++] = '"';
+    long most = id.getMostSignificantBits();
+    long least = id.getLeastSignificantBits();
+    hex(most >>> 32, 8);
+    buffer[length++] = '-';
+    hex(most >>> 16, 4);
+    buffer[length++] = '-';
+    hex(most, 4);
+    buffer[length++] = '-';
+    hex(least >>> 48, 4);
+    buffer[length++] = '-';
+    hex(least, 12);
+    buffer[length++] = '"';
+  }
+
+  byte[] buffer() {
+    return buffer;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, length);
+  }
+
+  void writeTo(OutputStream out) throws IOException {
+    out.write(buffer, 0, length);
+  }
+
+  private void hex(long value, int digits) {
+    for (int i = length + digits - 1; i >= length; i--) {
+      buffer[i] = HEX_DIGITS[(int) value & 0xF];
+      value >>>= 4;
+    }
+    length += digits;
+  }
+
+  /**
+   * Writes the character at {@code index} escaped or UTF-8 encoded.
+   *
+   * @return the index of the last character consumed, which is past {@code index} for a
+   *     surrogate pair
+   */
+  private int escape(String value, int index) {
+    ensureCapacity(6);
+    char c = value.charAt(index);
+    switch (c) {
+      case '"' -> twoCharEscape('"');
+      case '\\' -> twoCharEscape('\\');
+      case '\b' -> twoCharEscape('b');
+      case '\f' -> twoCharEscape('f');
+      case '\n' -> twoCharEscape('n');
+      case '\r' -> twoCharEscape('r');
+      case '\t' -> twoCharEscape('t');
+      default -> {
+        if (c < 0x20) {
+          buffer[length++] = '\\';
+          buffer[length++] = 'u';
+          hex(c, 4);
+        } else if (c < 0x800) {
+          buffer[length++] = (byte) (0xC0 | c >> 6);
+          buffer[length++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+          buffer[length++] = (byte) (0xE0 | c >> 12);
+          buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+          buffer[length++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+            && Character.isLowSurrogate(value.charAt(index + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++index));
+          buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+          buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+          buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+          buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+          // Unpaired surrogate, replaced the way String.getBytes does
+          buffer[length++] = '?';
+        }
+      }
+    }
+    // Leave room for the rest of the string to take the ASCII fast path
+    ensureCapacity(value.length() - index + 1);
+    return index;
+  }
+
+  private void twoCharEscape(char c) {
+    buffer[length++] = '\\';
+    buffer[length++] = (byte) c;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (length + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.codec;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link PaymentJsonCodec} for input that is not JSON, or not the shape of the type
+ * being read.
+ */
+public class MalformedJsonException extends IOException {
+
+  public MalformedJsonException(String message) {
+    super(message);
+  }
+
+  public MalformedJsonException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
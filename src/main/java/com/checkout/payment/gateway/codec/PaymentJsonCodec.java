@@ -0,0 +1,335 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.client.model.BankBatchResult;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON for the four types on the payment path, bank batches and the lines of a batch response,
+ * without {@code ObjectMapper} data binding. Bodies are read from the stream into a pooled buffer
+ * and parsed in place, fields are matched by their bytes and numbers go straight into the setters
+ * as primitives; output is formatted into a pooled buffer and written to the stream in one call.
+ * What is left to allocate is the model objects and their strings.
+ *
+ * <p>The JSON is the same as the annotated models produce through {@code ObjectMapper}, and
+ * reading is as lenient as Spring's default mapper: unknown fields are skipped and numbers may be
+ * sent as strings. An explicit {@code null} is treated like a missing field.
+ */
+public final class PaymentJsonCodec {
+
+  /**
+   * Payment bodies are a few hundred bytes; larger ones are read into a grown copy.
+   */
+  private static final int BUFFER_SIZE = 1024;
+  private static final int MAX_POOLED_SIZE = 16 * 1024;
+  private static final int MAX_BODY_SIZE = 1024 * 1024;
+  private static final BufferPool BUFFERS = new BufferPool(
+      4 * Runtime.getRuntime().availableProcessors(), BUFFER_SIZE, MAX_POOLED_SIZE);
+
+  private static final byte[] ID = ascii("id");
+  private static final byte[] STATUS = ascii("status");
+  private static final byte[] CARD_NUMBER_LAST_FOUR = ascii("cardNumberLastFour");
+  private static final byte[] EXPIRY_MONTH = ascii("expiryMonth");
+  private static final byte[] EXPIRY_YEAR = ascii("expiryYear");
+  private static final byte[] CURRENCY = ascii("currency");
+  private static final byte[] AMOUNT = ascii("amount");
+  private static final byte[] CARD_NUMBER = ascii("card_number");
+  private static final byte[] EXPIRY_MONTH_FIELD = ascii("expiry_month");
+  private static final byte[] EXPIRY_YEAR_FIELD = ascii("expiry_year");
+  private static final byte[] EXPIRY_DATE = ascii("expiry_date");
+  private static final byte[] CVV = ascii("cvv");
+  private static final byte[] AUTHORIZED = ascii("authorized");
+  private static final byte[] AUTHORIZATION_CODE = ascii("authorization_code");
+  private static final byte[] ERROR_MESSAGE = ascii("error_message");
+  private static final byte[] INDEX = ascii("index");
+  private static final byte[] PAYMENT = ascii("payment");
+  private static final byte[] ERROR = ascii("error");
+  private static final byte[] MESSAGE = ascii("message");
+  private static final byte[] ERRORS = ascii("errors");
+
+  private PaymentJsonCodec() {
+  }
+
+  public static PostPaymentRequest readPaymentRequest(InputStream in) throws IOException {
+    return read(in, PaymentJsonCodec::readPaymentRequest);
+  }
+
+  public static PostPaymentRequest readPaymentRequest(byte[] json) throws IOException {
+    return readPaymentRequest(new JsonReader(json, json.length));
+  }
+
+  static PostPaymentRequest readPaymentRequest(byte[] json, int length)
+      throws MalformedJsonException {
+    return readPaymentRequest(new JsonReader(json, length));
+  }
+
+  public static BankResponse readBankResponse(InputStream in) throws IOException {
+    return read(in, PaymentJsonCodec::readBankResponse);
+  }
+
+  public static BankResponse readBankResponse(byte[] json) throws IOException {
+    return readBankResponse(new JsonReader(json, json.length));
+  }
+
+  public static void writePaymentResponse(PostPaymentResponse payment, OutputStream out)
+      throws IOException {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writePaymentResponse(payment, writer);
+      writer.writeTo(out);
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  public static void writeBankRequest(BankRequest request, OutputStream out) throws IOException {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writeBankRequest(request, writer);
+      writer.writeTo(out);
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  public static byte[] writeBankRequest(BankRequest request) {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writeBankRequest(request, writer);
+      return writer.toByteArray();
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  /**
+   * The body of a bank batch request: the requests as a JSON array, in order.
+   */
+  public static byte[] writeBankBatchRequest(List<BankRequest> requests) {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writer.beginArray();
+      for (int i = 0; i < requests.size(); i++) {
+        if (i > 0) {
+          writer.comma();
+        }
+        writeBankRequest(requests.get(i), writer);
+      }
+      writer.endArray();
+      return writer.toByteArray();
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  public static List<BankBatchResult> readBankBatchResponse(byte[] json) throws IOException {
+    JsonReader reader = new JsonReader(json, json.length);
+    List<BankBatchResult> results = new ArrayList<>();
+    reader.beginArray();
+    while (reader.nextElement()) {
+      results.add(readBankBatchResult(reader));
+    }
+    return results;
+  }
+
+  /**
+   * One line of a batch response for a processed payment:
+   * {@code {"index":0,"status":200,"payment":{...}}}.
+   */
+  public static byte[] writeBatchPayment(int index, PostPaymentResponse payment) {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writer.beginObject();
+      writer.name(INDEX);
+      writer.number(index);
+      writer.name(STATUS);
+      writer.number(200);
+      writer.name(PAYMENT);
+      writePaymentResponse(payment, writer);
+      writer.endObject();
+      writer.newline();
+      return writer.toByteArray();
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  /**
+   * One line of a batch response for a payment that failed, with the status and message the
+   * single payment endpoint would have answered:
+   * {@code {"index":1,"status":400,"error":{"message":"...","errors":{...}}}}. {@code errors}
+   * holds validation errors by field and may be null.
+   */
+  public static byte[] writeBatchError(int index, int status, String message,
+      Map<String, String> errors) {
+    JsonWriter writer = new JsonWriter(BUFFERS.acquire());
+    try {
+      writer.beginObject();
+      writer.name(INDEX);
+      writer.number(index);
+      writer.name(STATUS);
+      writer.number(status);
+      writer.name(ERROR);
+      writer.beginObject();
+      writer.name(MESSAGE);
+      writer.string(message);
+      if (errors != null) {
+        writer.name(ERRORS);
+        writer.beginObject();
+        for (Map.Entry<String, String> error : errors.entrySet()) {
+          writer.name(error.getKey());
+          writer.string(error.getValue());
+        }
+        writer.endObject();
+      }
+      writer.endObject();
+      writer.endObject();
+      writer.newline();
+      return writer.toByteArray();
+    } finally {
+      BUFFERS.release(writer.buffer());
+    }
+  }
+
+  private static PostPaymentRequest readPaymentRequest(JsonReader reader)
+      throws MalformedJsonException {
+    PostPaymentRequest request = new PostPaymentRequest();
+    reader.beginObject();
+    while (reader.nextField()) {
+      if (reader.nextIsNull()) {
+        continue;
+      }
+      if (reader.nameEquals(CARD_NUMBER)) {
+        request.setCardNumber(reader.readString());
+      } else if (reader.nameEquals(EXPIRY_MONTH_FIELD)) {
+        request.setExpiryMonth(reader.readInt());
+      } else if (reader.nameEquals(EXPIRY_YEAR_FIELD)) {
+        request.setExpiryYear(reader.readInt());
+      } else if (reader.nameEquals(CURRENCY)) {
+        request.setCurrency(reader.readString());
+      } else if (reader.nameEquals(AMOUNT)) {
+        request.setAmount(reader.readInt());
+      } else if (reader.nameEquals(CVV)) {
+        request.setCvv(reader.readInt());
+      } else {
+        reader.skipValue();
+      }
+    }
+    return request;
+  }
+
+  private static BankResponse readBankResponse(JsonReader reader) throws MalformedJsonException {
+    BankResponse response = new BankResponse();
+    reader.beginObject();
+    while (reader.nextField()) {
+      if (reader.nextIsNull()) {
+        continue;
+      }
+      if (reader.nameEquals(AUTHORIZED)) {
+        response.setAuthorized(reader.readBoolean());
+      } else if (reader.nameEquals(AUTHORIZATION_CODE)) {
+        response.setAuthorizationCode(reader.readString());
+      } else {
+        reader.skipValue();
+      }
+    }
+    return response;
+  }
+
+  private static BankBatchResult readBankBatchResult(JsonReader reader)
+      throws MalformedJsonException {
+    BankBatchResult result = new BankBatchResult();
+    reader.beginObject();
+    while (reader.nextField()) {
+      if (reader.nextIsNull()) {
+        continue;
+      }
+      if (reader.nameEquals(STATUS)) {
+        result.setStatus(reader.readInt());
+      } else if (reader.nameEquals(AUTHORIZED)) {
+        result.setAuthorized(reader.readBoolean());
+      } else if (reader.nameEquals(AUTHORIZATION_CODE)) {
+        result.setAuthorizationCode(reader.readString());
+      } else if (reader.nameEquals(ERROR_MESSAGE)) {
+        result.setErrorMessage(reader.readString());
+      } else {
+        reader.skipValue();
+      }
+    }
+    return result;
+  }
+
+  private static void writePaymentResponse(PostPaymentResponse payment, JsonWriter writer) {
+    writer.beginObject();
+    writer.name(ID);
+    writer.uuid(payment.getId());
+    writer.name(STATUS);
+    writer.string(payment.getStatus() != null ? payment.getStatus().getName() : null);
+    writer.name(CARD_NUMBER_LAST_FOUR);
+    writer.number(payment.getCardNumberLastFour());
+    writer.name(EXPIRY_MONTH);
+    writer.number(payment.getExpiryMonth());
+    writer.name(EXPIRY_YEAR);
+    writer.number(payment.getExpiryYear());
+    writer.name(CURRENCY);
+    writer.string(payment.getCurrency());
+    writer.name(AMOUNT);
+    writer.number(payment.getAmount());
+    writer.endObject();
+  }
+
+  private static void writeBankRequest(BankRequest request, JsonWriter writer) {
+    writer.beginObject();
+    writer.name(CARD_NUMBER);
+    writer.string(request.getCardNumber());
+    writer.name(EXPIRY_DATE);
+    writer.string(request.getExpiryDate());
+    writer.name(CURRENCY);
+    writer.string(request.getCurrency());
+    writer.name(AMOUNT);
+    writer.number(request.getAmount());
+    writer.name(CVV);
+    writer.number(request.getCvv());
+    writer.endObject();
+  }
+
+  private static <T> T read(InputStream in, Parser<T> parser) throws IOException {
+    byte[] buffer = BUFFERS.acquire();
+    try {
+      int length = 0;
+      int read;
+      while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+        length += read;
+        if (length == buffer.length) {
+          if (length >= MAX_BODY_SIZE) {
+            throw new MalformedJsonException("Body is larger than " + MAX_BODY_SIZE + " bytes");
+          }
+          buffer = Arrays.copyOf(buffer, length * 2);
+        }
+      }
+      return parser.parse(new JsonReader(buffer, length));
+    } finally {
+      BUFFERS.release(buffer);
+    }
+  }
+
+  private static byte[] ascii(String name) {
+    return name.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  @FunctionalInterface
+  private interface Parser<T> {
+
+    T parse(JsonReader reader) throws MalformedJsonException;
+  }
+}
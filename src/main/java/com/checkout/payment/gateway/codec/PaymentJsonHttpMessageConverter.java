@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Reads and writes the payment path types with {@link PaymentJsonCodec}, straight from and to the
+ * request and response streams. Registered as a bean, Spring Boot puts it ahead of the Jackson
+ * converter in both Spring MVC and the bank {@code RestTemplate}; every other type still goes to
+ * Jackson.
+ */
+public class PaymentJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+  public PaymentJsonHttpMessageConverter() {
+    super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON,
+        new MediaType("application", "*+json"));
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return isReadable(clazz) || isWritable(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return isReadable(clazz) && canRead(mediaType);
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return isWritable(clazz) && canWrite(mediaType);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+      throws IOException {
+    try {
+      if (clazz == PostPaymentRequest.class) {
+        return PaymentJsonCodec.readPaymentRequest(inputMessage.getBody());
+      }
+      return PaymentJsonCodec.readBankResponse(inputMessage.getBody());
+    } catch (MalformedJsonException e) {
+      throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e,
+          inputMessage);
+    }
+  }
+
+  @Override
+  protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+      throws IOException {
+    if (object instanceof PostPaymentResponse payment) {
+      PaymentJsonCodec.writePaymentResponse(payment, outputMessage.getBody());
+    } else {
+      PaymentJsonCodec.writeBankRequest((BankRequest) object, outputMessage.getBody());
+    }
+  }
+
+  private static boolean isReadable(Class<?> clazz) {
+    return clazz == PostPaymentRequest.class || clazz == BankResponse.class;
+  }
+
+  private static boolean isWritable(Class<?> clazz) {
+    return clazz == PostPaymentResponse.class || clazz == BankRequest.class;
+  }
+}
@@ -0,0 +1,129 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads payment requests one at a time from a JSON array or from newline delimited JSON, so a
+ * batch is parsed as it arrives rather than buffered whole. Each object is collected by tracking
+ * its braces and then parsed by {@link PaymentJsonCodec}.
+ *
+ * <p>An object that does not parse fails on its own and the next call carries on with the one
+ * after it. Input that cannot be split into objects, such as a value that is not an object or a
+ * truncated body, ends the stream.
+ */
+public final class PaymentRequestReader {
+
+  private static final int CHUNK_SIZE = 8 * 1024;
+  private static final int ITEM_SIZE = 1024;
+  private static final int MAX_ITEM_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final byte[] chunk = new byte[CHUNK_SIZE];
+  private int position;
+  private int limit;
+
+  private byte[] item = new byte[ITEM_SIZE];
+  private int itemLength;
+  private boolean finished;
+
+  public PaymentRequestReader(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads the next request.
+   *
+   * @return null at the end of the input
+   * @throws MalformedJsonException if the next request is not valid JSON
+   */
+  public PostPaymentRequest next() throws IOException {
+    if (finished) {
+      return null;
+    }
+    int c = nextStructural();
+    if (c == -1) {
+      finished = true;
+      return null;
+    }
+    if (c != '{') {
+      finished = true;
+      throw new MalformedJsonException(
+          "Expected a JSON object but found '" + (char) c + "'");
+    }
+    collectObject();
+    return PaymentJsonCodec.readPaymentRequest(item, itemLength);
+  }
+
+  /**
+   * Skips whitespace and the brackets and commas between items.
+   */
+  private int nextStructural() throws IOException {
+    int c;
+    do {
+      c = read();
+    } while (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == '['
+        || c == ']');
+    return c;
+  }
+
+  /**
+   * Copies the object whose opening brace has been read, up to its closing brace, into
+   * {@link #item}.
+   */
+  private void collectObject() throws IOException {
+    itemLength = 0;
+    append('{');
+    int depth = 1;
+    boolean inString = false;
+    boolean escaped = false;
+    while (depth > 0) {
+      int c = read();
+      if (c == -1) {
+        finished = true;
+        throw new MalformedJsonException("Unexpected end of input");
+      }
+      append(c);
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == '"') {
+          inString = false;
+        }
+      } else if (c == '"') {
+        inString = true;
+      } else if (c == '{' || c == '[') {
+        depth++;
+      } else if (c == '}' || c == ']') {
+        depth--;
+      }
+    }
+  }
+
+  private void append(int c) throws MalformedJsonException {
+    if (itemLength == item.length) {
+      if (itemLength >= MAX_ITEM_SIZE) {
+        finished = true;
+        throw new MalformedJsonException("Item is larger than " + MAX_ITEM_SIZE + " bytes");
+      }
+      item = Arrays.copyOf(item, itemLength * 2);
+    }
+    item[itemLength++] = (byte) c;
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      int read = in.read(chunk, 0, chunk.length);
+      if (read <= 0) {
+        return -1;
+      }
+      position = 0;
+      limit = read;
+    }
+    return chunk[position++] & 0xFF;
+  }
+}
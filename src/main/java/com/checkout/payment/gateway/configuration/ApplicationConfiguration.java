@@ -1,19 +1,158 @@
 package com.checkout.payment.gateway.configuration;
 
+import com.checkout.payment.gateway.codec.PaymentJsonHttpMessageConverter;
+import com.checkout.payment.gateway.enums.BankTransport;
+import com.checkout.payment.gateway.enums.ThreadingMode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class ApplicationConfiguration {
 
+  @Value("${bank.client.transport:pooled}")
+  private BankTransport transport;
+
+  @Value("${bank.client.connect-timeout:2s}")
+  private Duration connectTimeout;
+
+  @Value("${bank.client.read-timeout:10s}")
+  private Duration readTimeout;
+
+  @Value("${bank.client.pool.max-connections:200}")
+  private int maxConnections;
+
+  @Value("${bank.client.pool.max-connections-per-route:100}")
+  private int maxConnectionsPerRoute;
+
+  @Value("${bank.client.pool.idle-eviction:30s}")
+  private Duration idleEviction;
+
+  @Value("${bank.client.pool.validate-after-inactivity:2s}")
+  private Duration validateAfterInactivity;
+
+  @Value("${bank.client.async.threads:4}")
+  private int asyncThreads;
+
+  @Value("${bank.client.async.http2:false}")
+  private boolean http2;
+
+  @Value("${payments.threads.mode:platform}")
+  private ThreadingMode threadingMode;
+
   @Bean
-  public RestTemplate restTemplate(RestTemplateBuilder builder) {
+  public ClientHttpRequestFactory bankRequestFactory(MeterRegistry meterRegistry) {
+    if (transport == BankTransport.SIMPLE) {
+      SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+      requestFactory.setConnectTimeout((int) connectTimeout.toMillis());
+      requestFactory.setReadTimeout((int) readTimeout.toMillis());
+      return requestFactory;
+    }
+
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                .build())
+            .build();
+    registerPoolMetrics(connectionManager, meterRegistry);
+
+    CloseableHttpClient httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .build())
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.of(idleEviction))
+        .build();
+    // Closed with the request factory when the context shuts down
+    return new HttpComponentsClientHttpRequestFactory(httpClient);
+  }
+
+  @Bean
+  public RestTemplate restTemplate(RestTemplateBuilder builder,
+      ClientHttpRequestFactory bankRequestFactory) {
     return builder
-        .setConnectTimeout(Duration.ofMillis(10000))
-        .setReadTimeout(Duration.ofMillis(10000))
+        .requestFactory(() -> bankRequestFactory)
+        .build();
+  }
+
+  /**
+   * Spring Boot adds converter beans ahead of its defaults, for Spring MVC and for the
+   * {@link RestTemplateBuilder} alike.
+   */
+  @Bean
+  public PaymentJsonHttpMessageConverter paymentJsonHttpMessageConverter() {
+    return new PaymentJsonHttpMessageConverter();
+  }
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService bankClientExecutor() {
+    if (threadingMode == ThreadingMode.VIRTUAL) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("bank-client-", 0).factory());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(asyncThreads, runnable -> {
+      Thread thread = new Thread(runnable, "bank-client-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Non-blocking client for the asynchronous payment pipeline. A handful of threads drive any
+   * number of in-flight requests, since none of them block on the bank.
+   */
+  @Bean
+  public HttpClient bankHttpClient(ExecutorService bankClientExecutor) {
+    return HttpClient.newBuilder()
+        .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+        .connectTimeout(connectTimeout)
+        .executor(bankClientExecutor)
         .build();
   }
+
+  private static void registerPoolMetrics(PoolingHttpClientConnectionManager connectionManager,
+      MeterRegistry meterRegistry) {
+    registerPoolGauge("leased", PoolStats::getLeased, connectionManager, meterRegistry);
+    registerPoolGauge("pending", PoolStats::getPending, connectionManager, meterRegistry);
+    registerPoolGauge("available", PoolStats::getAvailable, connectionManager, meterRegistry);
+    registerPoolGauge("max", PoolStats::getMax, connectionManager, meterRegistry);
+  }
+
+  private static void registerPoolGauge(String state, ToIntFunction<PoolStats> stat,
+      PoolingHttpClientConnectionManager connectionManager, MeterRegistry meterRegistry) {
+    Gauge.builder("bank.client.pool.connections", connectionManager,
+            manager -> stat.applyAsInt(manager.getTotalStats()))
+        .tag("state", state)
+        .description("Connections to the bank by pool state")
+        .register(meterRegistry);
+  }
 }
@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.client.routing.BankEndpoint;
+import com.checkout.payment.gateway.client.routing.BankRouter;
+import com.checkout.payment.gateway.enums.RoutingPolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BankRoutingConfiguration {
+
+  @Value("${bank.simulator.url:http://localhost:8080}")
+  private String bankSimulatorUrl;
+
+  /**
+   * Comma-separated endpoints, each a URL optionally followed by {@code ;CURRENCY=weight} pairs,
+   * e.g. {@code http://acquirer-a;GBP=3;EUR=1,http://acquirer-b}. Empty for
+   * {@code bank.simulator.url} alone.
+   */
+  @Value("${bank.client.routing.endpoints:}")
+  private String endpoints;
+
+  @Value("${bank.client.routing.policy:peak-ewma}")
+  private RoutingPolicy policy;
+
+  @Value("${bank.client.routing.latency-decay:10s}")
+  private Duration latencyDecay;
+
+  @Value("${bank.client.routing.ejection.consecutive-failures:5}")
+  private int ejectAfterFailures;
+
+  @Value("${bank.client.routing.ejection.base-duration:30s}")
+  private Duration baseEjection;
+
+  @Value("${bank.client.routing.ejection.max-duration:5m}")
+  private Duration maxEjection;
+
+  @Bean
+  public BankRouter bankRouter(MeterRegistry meterRegistry) {
+    List<BankEndpoint> bankEndpoints = new ArrayList<>();
+    for (String spec : (endpoints.isBlank() ? bankSimulatorUrl : endpoints).split(",")) {
+      bankEndpoints.add(endpoint(spec.trim()));
+    }
+    BankRouter router = new BankRouter(bankEndpoints, policy);
+    if (bankEndpoints.size() > 1) {
+      bankEndpoints.forEach(endpoint -> registerMetrics(endpoint, meterRegistry));
+    }
+    return router;
+  }
+
+  private BankEndpoint endpoint(String spec) {
+    String[] parts = spec.split(";");
+    Map<String, Integer> currencyWeights = new HashMap<>();
+    for (int i = 1; i < parts.length; i++) {
+      String[] weight = parts[i].split("=");
+      if (weight.length != 2) {
+        throw new IllegalArgumentException("Expected CURRENCY=weight in bank endpoint: " + spec);
+      }
+      currencyWeights.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+    }
+    return new BankEndpoint(parts[0].trim(), currencyWeights, latencyDecay, ejectAfterFailures,
+        baseEjection, maxEjection);
+  }
+
+  private static void registerMetrics(BankEndpoint endpoint, MeterRegistry meterRegistry) {
+    String url = endpoint.getUrl();
+    Gauge.builder("bank.client.endpoint.latency", endpoint, e -> e.getLatencyNanos() / 1e9)
+        .tag("endpoint", url)
+        .baseUnit("seconds")
+        .description("Peak-EWMA latency of the bank endpoint")
+        .register(meterRegistry);
+    Gauge.builder("bank.client.endpoint.in-flight", endpoint, BankEndpoint::getInFlight)
+        .tag("endpoint", url)
+        .description("Bank calls in flight to the endpoint")
+        .register(meterRegistry);
+    Gauge.builder("bank.client.endpoint.health", endpoint, BankEndpoint::getHealth)
+        .tag("endpoint", url)
+        .description("Moving average of call outcomes at the endpoint, 1 when all succeeded")
+        .register(meterRegistry);
+    Gauge.builder("bank.client.endpoint.ejected", endpoint, e -> e.isEjected() ? 1 : 0)
+        .tag("endpoint", url)
+        .description("1 while the endpoint is ejected after consecutive failures, 0 otherwise")
+        .register(meterRegistry);
+    FunctionCounter.builder("bank.client.endpoint.ejections", endpoint,
+            BankEndpoint::getEjectionCount)
+        .tag("endpoint", url)
+        .description("Times the endpoint was ejected after consecutive failures")
+        .register(meterRegistry);
+  }
+}
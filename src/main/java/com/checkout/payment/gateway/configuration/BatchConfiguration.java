@@ -0,0 +1,52 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.service.BatchPaymentService;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+
+@Configuration
+public class BatchConfiguration {
+
+  @Value("${payments.batch.parallelism:32}")
+  private int parallelism;
+
+  @Value("${payments.batch.max-items:10000}")
+  private int maxItems;
+
+  @Value("${payments.batch.max-concurrent-batches:8}")
+  private int maxConcurrentBatches;
+
+  /**
+   * One thread per batch in progress, which reads the body and writes the results. Batches past
+   * {@code payments.batch.max-concurrent-batches} are turned away rather than queued.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService batchPaymentExecutor() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return new ThreadPoolExecutor(0, maxConcurrentBatches, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "batch-payment-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Validates batch items with the same validator as {@code @Valid} request bodies.
+   */
+  @Bean
+  public BatchPaymentService batchPaymentService(PaymentGatewayService paymentGatewayService,
+      @Qualifier("mvcValidator") Validator mvcValidator, ExecutorService batchPaymentExecutor) {
+    return new BatchPaymentService(paymentGatewayService, mvcValidator, batchPaymentExecutor,
+        parallelism, maxItems);
+  }
+}
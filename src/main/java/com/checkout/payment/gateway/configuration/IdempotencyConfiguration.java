@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.service.IdempotencyCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfiguration {
+
+  @Value("${payments.idempotency.ttl:24h}")
+  private Duration ttl;
+
+  @Value("${payments.idempotency.sweep-interval:1m}")
+  private Duration sweepInterval;
+
+  @Bean
+  public IdempotencyCache idempotencyCache(MeterRegistry meterRegistry) {
+    IdempotencyCache cache = new IdempotencyCache(ttl, sweepInterval);
+    Gauge.builder("payments.idempotency.keys", cache, IdempotencyCache::size)
+        .description("Idempotency keys currently remembered")
+        .register(meterRegistry);
+    FunctionCounter.builder("payments.idempotency.replays", cache, IdempotencyCache::getReplays)
+        .description("Requests answered from a previous request with the same Idempotency-Key")
+        .register(meterRegistry);
+    return cache;
+  }
+}
@@ -0,0 +1,33 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.ServerTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfiguration {
+
+  @Bean
+  public PaymentMetrics paymentMetrics(MeterRegistry meterRegistry) {
+    return new PaymentMetrics(meterRegistry);
+  }
+
+  /**
+   * Adds a {@code Server-Timing} header with the validation, bank and persistence time of each
+   * payment request.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "payments.server-timing.enabled", havingValue = "true")
+  public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+    FilterRegistrationBean<ServerTimingFilter> registration =
+        new FilterRegistrationBean<>(new ServerTimingFilter());
+    registration.addUrlPatterns("/payments", "/payments/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+    return registration;
+  }
+}
@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.enums.PaymentIdType;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.id.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.id.TimeOrderedPaymentIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaymentIdConfiguration {
+
+  @Value("${payments.id.type:random}")
+  private PaymentIdType type;
+
+  @Value("${payments.id.node-id:0}")
+  private int nodeId;
+
+  @Value("${payments.id.node-bits:0}")
+  private int nodeBits;
+
+  @Bean
+  public PaymentIdGenerator paymentIdGenerator() {
+    return switch (type) {
+      case RANDOM -> new RandomPaymentIdGenerator();
+      case TIME_ORDERED -> new TimeOrderedPaymentIdGenerator(nodeId, nodeBits);
+    };
+  }
+}
@@ -0,0 +1,218 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.enums.BackpressurePolicy;
+import com.checkout.payment.gateway.enums.FsyncPolicy;
+import com.checkout.payment.gateway.enums.PaymentStoreType;
+import com.checkout.payment.gateway.enums.ThreadingMode;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.OffHeapPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import com.checkout.payment.gateway.repository.persistence.DurablePaymentStore;
+import com.checkout.payment.gateway.repository.persistence.PaymentLog;
+import com.checkout.payment.gateway.repository.persistence.PaymentSnapshots;
+import com.checkout.payment.gateway.repository.tiered.TierStats;
+import com.checkout.payment.gateway.repository.tiered.TieredPaymentStore;
+import com.checkout.payment.gateway.repository.writebehind.WriteBehindPaymentStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class PaymentStoreConfiguration {
+
+  @Value("${payments.store.type:concurrent}")
+  private PaymentStoreType type;
+
+  @Value("${payments.store.initial-capacity:65536}")
+  private int initialCapacity;
+
+  @Value("${payments.store.off-heap.capacity:1000000}")
+  private long offHeapCapacity;
+
+  @Value("${payments.store.tiered.hot-capacity:100000}")
+  private int hotCapacity;
+
+  @Value("${payments.store.tiered.warm-capacity:1000000}")
+  private int warmCapacity;
+
+  @Value("${payments.store.tiered.cold-capacity:5000000}")
+  private long coldCapacity;
+
+  @Value("${payments.store.tiered.cold-file:data/payments-cold.tier}")
+  private String coldFile;
+
+  @Value("${payments.persistence.enabled:false}")
+  private boolean persistenceEnabled;
+
+  @Value("${payments.persistence.directory:data/payments}")
+  private String persistenceDirectory;
+
+  @Value("${payments.persistence.segment-size:64MB}")
+  private DataSize segmentSize;
+
+  @Value("${payments.persistence.fsync:group-commit}")
+  private FsyncPolicy fsyncPolicy;
+
+  @Value("${payments.persistence.group-commit-interval:5ms}")
+  private Duration groupCommitInterval;
+
+  @Value("${payments.persistence.snapshot-interval:5m}")
+  private Duration snapshotInterval;
+
+  @Value("${payments.persistence.snapshots-retained:2}")
+  private int snapshotsRetained;
+
+  @Value("${payments.store.write-behind.enabled:false}")
+  private boolean writeBehindEnabled;
+
+  @Value("${payments.store.write-behind.capacity:65536}")
+  private int writeBehindCapacity;
+
+  @Value("${payments.store.write-behind.max-batch-size:512}")
+  private int writeBehindMaxBatchSize;
+
+  @Value("${payments.store.write-behind.backpressure:block}")
+  private BackpressurePolicy backpressure;
+
+  @Value("${payments.store.write-behind.max-block:1s}")
+  private Duration writeBehindMaxBlock;
+
+  @Value("${payments.store.async.threads:16}")
+  private int asyncThreads;
+
+  @Value("${payments.threads.mode:platform}")
+  private ThreadingMode threadingMode;
+
+  @Bean
+  public PaymentStore paymentStore(MeterRegistry meterRegistry) {
+    PaymentStore store = inMemoryStore();
+    if (store instanceof TieredPaymentStore tieredStore) {
+      registerTierMetrics(tieredStore, meterRegistry);
+    }
+    Gauge.builder("payments.store.size", store, PaymentStore::size)
+        .description("Number of payments held by the payment store")
+        .register(meterRegistry);
+    if (persistenceEnabled) {
+      store = durableStore(store, meterRegistry);
+    }
+    if (!writeBehindEnabled) {
+      return store;
+    }
+
+    WriteBehindPaymentStore writeBehindStore = new WriteBehindPaymentStore(store,
+        writeBehindCapacity, writeBehindMaxBatchSize, backpressure, writeBehindMaxBlock);
+    Gauge.builder("payments.store.write-behind.queued", writeBehindStore,
+            WriteBehindPaymentStore::getQueued)
+        .description("Payments acknowledged but not yet written to the payment store")
+        .register(meterRegistry);
+    FunctionCounter.builder("payments.store.write-behind.overflows", writeBehindStore,
+            WriteBehindPaymentStore::getOverflows)
+        .description("Payments put while the write-behind buffer was full")
+        .register(meterRegistry);
+    FunctionCounter.builder("payments.store.write-behind.failures", writeBehindStore,
+            WriteBehindPaymentStore::getWriteFailures)
+        .description("Write-behind batches the payment store failed to write, then retried")
+        .register(meterRegistry);
+    return writeBehindStore;
+  }
+
+  /**
+   * Runs the repository writes of asynchronous payments, which may wait on an fsync, so they do
+   * not hold up the bank client's threads.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService paymentStoreExecutor() {
+    if (threadingMode == ThreadingMode.VIRTUAL) {
+      return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("payment-store-", 0).factory());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(asyncThreads, runnable -> {
+      Thread thread = new Thread(runnable, "payment-store-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private PaymentStore durableStore(PaymentStore store, MeterRegistry meterRegistry) {
+    Path directory = Path.of(persistenceDirectory);
+    PaymentLog log = new PaymentLog(directory, segmentSize.toBytes(), fsyncPolicy,
+        groupCommitInterval);
+    DurablePaymentStore durableStore = new DurablePaymentStore(store, log,
+        new PaymentSnapshots(directory, snapshotsRetained), snapshotInterval);
+    TimeGauge.builder("payments.store.recovery.duration", durableStore, TimeUnit.MILLISECONDS,
+            s -> s.getRecoveryDuration().toMillis())
+        .description("Time taken to load the latest snapshot and replay the log on startup")
+        .register(meterRegistry);
+    Gauge.builder("payments.store.recovery.payments", durableStore,
+            DurablePaymentStore::getRecoveredPayments)
+        .description("Number of payments recovered on startup")
+        .register(meterRegistry);
+    return durableStore;
+  }
+
+  private PaymentStore inMemoryStore() {
+    switch (type) {
+      case OFF_HEAP:
+        return new OffHeapPaymentStore(offHeapCapacity);
+      case TIERED:
+        Path coldPath = Path.of(coldFile);
+        createParentDirectories(coldPath);
+        return new TieredPaymentStore(hotCapacity, warmCapacity, coldCapacity, coldPath);
+      case CONCURRENT:
+      default:
+        return new ConcurrentPaymentStore(initialCapacity,
+            Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  private static void registerTierMetrics(TieredPaymentStore store, MeterRegistry meterRegistry) {
+    registerTierMetrics("hot", store.getHotStats(), store, TieredPaymentStore::getHotSize,
+        meterRegistry);
+    registerTierMetrics("warm", store.getWarmStats(), store, TieredPaymentStore::getWarmSize,
+        meterRegistry);
+    registerTierMetrics("cold", store.getColdStats(), store, TieredPaymentStore::getColdSize,
+        meterRegistry);
+  }
+
+  private static void registerTierMetrics(String tier, TierStats stats, TieredPaymentStore store,
+      ToLongFunction<TieredPaymentStore> size, MeterRegistry meterRegistry) {
+    FunctionCounter.builder("payments.store.tier.hits", stats, TierStats::getHits)
+        .tag("tier", tier)
+        .register(meterRegistry);
+    FunctionCounter.builder("payments.store.tier.misses", stats, TierStats::getMisses)
+        .tag("tier", tier)
+        .register(meterRegistry);
+    FunctionCounter.builder("payments.store.tier.evictions", stats, TierStats::getEvictions)
+        .tag("tier", tier)
+        .register(meterRegistry);
+    Gauge.builder("payments.store.tier.size", store, s -> size.applyAsLong(s))
+        .tag("tier", tier)
+        .register(meterRegistry);
+  }
+
+  private static void createParentDirectories(Path file) {
+    try {
+      if (file.toAbsolutePath().getParent() != null) {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to create directory for " + file, e);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.PaymentPipeline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs asynchronous payments through a {@link PaymentPipeline} when
+ * {@code payments.processing.engine=pipeline}, instead of a chain of futures per payment.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.processing.engine", havingValue = "pipeline")
+public class PipelineConfiguration {
+
+  @Value("${payments.pipeline.capacity:8192}")
+  private int capacity;
+
+  @Value("${payments.pipeline.wait-strategy:sleeping}")
+  private PipelineWaitStrategy waitStrategy;
+
+  @Bean
+  public PaymentPipeline paymentPipeline(PaymentsRepository paymentsRepository,
+      BankClient bankClient, PaymentMetrics paymentMetrics, PaymentIdGenerator paymentIdGenerator,
+      MeterRegistry meterRegistry) {
+    PaymentPipeline pipeline = new PaymentPipeline(paymentsRepository, bankClient, paymentMetrics,
+        paymentIdGenerator, capacity, waitStrategy);
+    Gauge.builder("payments.pipeline.in-flight", pipeline, PaymentPipeline::getInFlight)
+        .description("Payments submitted to the pipeline and not yet answered")
+        .register(meterRegistry);
+    return pipeline;
+  }
+}
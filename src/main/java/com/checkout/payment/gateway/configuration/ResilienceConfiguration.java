@@ -0,0 +1,171 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.resilience.AimdLimit;
+import com.checkout.payment.gateway.client.resilience.BankCallGuard;
+import com.checkout.payment.gateway.client.resilience.Bulkhead;
+import com.checkout.payment.gateway.client.resilience.CircuitBreaker;
+import com.checkout.payment.gateway.client.resilience.ConcurrencyLimiter;
+import com.checkout.payment.gateway.client.resilience.GradientLimit;
+import com.checkout.payment.gateway.client.resilience.Hedging;
+import com.checkout.payment.gateway.client.resilience.LimitAlgorithm;
+import com.checkout.payment.gateway.enums.CircuitState;
+import com.checkout.payment.gateway.enums.ConcurrencyLimitAlgorithm;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfiguration {
+
+  @Value("${bank.client.circuit-breaker.window-size:100}")
+  private int windowSize;
+
+  @Value("${bank.client.circuit-breaker.minimum-calls:20}")
+  private int minimumCalls;
+
+  @Value("${bank.client.circuit-breaker.failure-rate-threshold:50}")
+  private float failureRateThreshold;
+
+  @Value("${bank.client.circuit-breaker.slow-call-rate-threshold:80}")
+  private float slowCallRateThreshold;
+
+  @Value("${bank.client.circuit-breaker.slow-call-duration:2s}")
+  private Duration slowCallDuration;
+
+  @Value("${bank.client.circuit-breaker.open-duration:10s}")
+  private Duration openDuration;
+
+  @Value("${bank.client.circuit-breaker.half-open-calls:5}")
+  private int halfOpenCalls;
+
+  @Value("${bank.client.bulkhead.max-concurrent-calls:0}")
+  private int maxConcurrentCalls;
+
+  @Value("${bank.client.bulkhead.max-wait:0ms}")
+  private Duration maxWait;
+
+  @Value("${bank.client.concurrency-limit.algorithm:none}")
+  private ConcurrencyLimitAlgorithm limitAlgorithm;
+
+  @Value("${bank.client.concurrency-limit.initial-limit:20}")
+  private int initialLimit;
+
+  @Value("${bank.client.concurrency-limit.min-limit:4}")
+  private int minLimit;
+
+  @Value("${bank.client.concurrency-limit.max-limit:200}")
+  private int maxLimit;
+
+  @Value("${bank.client.concurrency-limit.max-wait:0ms}")
+  private Duration limitMaxWait;
+
+  @Value("${bank.client.concurrency-limit.aimd.backoff-ratio:0.9}")
+  private double backoffRatio;
+
+  @Value("${bank.client.concurrency-limit.aimd.slow-call-duration:2s}")
+  private Duration limitSlowCallDuration;
+
+  @Value("${bank.client.concurrency-limit.gradient.tolerance:1.5}")
+  private double tolerance;
+
+  @Value("${bank.client.concurrency-limit.gradient.smoothing:0.2}")
+  private double smoothing;
+
+  @Bean
+  public BankCallGuard bankCallGuard(MeterRegistry meterRegistry) {
+    CircuitBreaker circuitBreaker = new CircuitBreaker(windowSize, minimumCalls,
+        failureRateThreshold, slowCallRateThreshold, slowCallDuration, openDuration,
+        halfOpenCalls);
+    // Unbounded unless a cap is configured, so the bulkhead never turns calls away by default
+    Bulkhead bulkhead = new Bulkhead(
+        maxConcurrentCalls > 0 ? maxConcurrentCalls : Integer.MAX_VALUE, maxWait);
+    BankCallGuard guard = new BankCallGuard(circuitBreaker, bulkhead, concurrencyLimiter());
+    registerMetrics(guard, meterRegistry);
+    return guard;
+  }
+
+  /**
+   * Counts the hedges {@link BankClient} sends and how many of them answered first, when hedging
+   * is on.
+   */
+  @Bean
+  public MeterBinder hedgingMetrics(BankClient bankClient) {
+    return meterRegistry -> {
+      Hedging hedging = bankClient.getHedging();
+      if (hedging == null) {
+        return;
+      }
+      FunctionCounter.builder("bank.client.hedges", hedging, Hedging::getHedges)
+          .description("Second copies of slow bank calls sent")
+          .register(meterRegistry);
+      FunctionCounter.builder("bank.client.hedge.wins", hedging, Hedging::getHedgeWins)
+          .description("Hedged bank calls answered by the second copy")
+          .register(meterRegistry);
+    };
+  }
+
+  private ConcurrencyLimiter concurrencyLimiter() {
+    LimitAlgorithm algorithm = switch (limitAlgorithm) {
+      case NONE -> null;
+      case AIMD -> new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio,
+          limitSlowCallDuration);
+      case GRADIENT -> new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing);
+    };
+    return algorithm == null ? null : new ConcurrencyLimiter(algorithm, limitMaxWait);
+  }
+
+  private static void registerMetrics(BankCallGuard guard, MeterRegistry meterRegistry) {
+    CircuitBreaker circuitBreaker = guard.getCircuitBreaker();
+    for (CircuitState state : CircuitState.values()) {
+      Gauge.builder("bank.client.circuit.state", circuitBreaker,
+              breaker -> breaker.getState() == state ? 1 : 0)
+          .tag("state", tagValue(state))
+          .description("1 for the current bank circuit breaker state, 0 otherwise")
+          .register(meterRegistry);
+    }
+    circuitBreaker.onStateTransition((from, to) -> meterRegistry.counter(
+            "bank.client.circuit.transitions", "from", tagValue(from), "to", tagValue(to))
+        .increment());
+
+    registerRejectionCounter("circuit-open", BankCallGuard::getCircuitOpenRejections, guard,
+        meterRegistry);
+    registerRejectionCounter("bulkhead-full", BankCallGuard::getBulkheadFullRejections, guard,
+        meterRegistry);
+    Gauge.builder("bank.client.bulkhead.available", guard.getBulkhead(),
+            Bulkhead::getAvailablePermits)
+        .description("Bank calls that can still start before the bulkhead rejects")
+        .register(meterRegistry);
+
+    ConcurrencyLimiter limiter = guard.getLimiter();
+    if (limiter != null) {
+      registerRejectionCounter("limit-reached", BankCallGuard::getLimitReachedRejections, guard,
+          meterRegistry);
+      Gauge.builder("bank.client.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+          .description("Concurrent bank calls currently allowed by the adaptive limiter")
+          .register(meterRegistry);
+      Gauge.builder("bank.client.concurrency.in-flight", limiter, ConcurrencyLimiter::getInFlight)
+          .description("Bank calls in flight through the adaptive limiter")
+          .register(meterRegistry);
+    }
+  }
+
+  private static void registerRejectionCounter(String reason, ToLongFunction<BankCallGuard> count,
+      BankCallGuard guard, MeterRegistry meterRegistry) {
+    FunctionCounter.builder("bank.client.rejected", guard, g -> count.applyAsLong(g))
+        .tag("reason", reason)
+        .description("Bank calls rejected without reaching the bank")
+        .register(meterRegistry);
+  }
+
+  private static String tagValue(CircuitState state) {
+    return state.name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
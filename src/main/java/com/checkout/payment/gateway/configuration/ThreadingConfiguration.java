@@ -0,0 +1,24 @@
+package com.checkout.payment.gateway.configuration;
+
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs request handling on virtual threads when {@code payments.threads.mode=virtual}. A request
+ * blocked on the bank then parks its virtual thread instead of holding one of Tomcat's
+ * {@code server.tomcat.threads.max} workers, so in-flight requests are bounded by connections
+ * rather than threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.threads.mode", havingValue = "virtual")
+public class ThreadingConfiguration {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("tomcat-handler-", 0).factory()));
+  }
+}
@@ -0,0 +1,36 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.tracing.Tracer;
+import com.checkout.payment.gateway.tracing.TracingEndpoint;
+import com.checkout.payment.gateway.tracing.TracingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class TracingConfiguration {
+
+  @Value("${payments.tracing.sampling-rate:0}")
+  private double samplingRate;
+
+  @Bean
+  public Tracer tracer() {
+    return new Tracer(samplingRate);
+  }
+
+  @Bean
+  public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+    FilterRegistrationBean<TracingFilter> registration =
+        new FilterRegistrationBean<>(new TracingFilter(tracer));
+    registration.addUrlPatterns("/payments", "/payments/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+
+  @Bean
+  public TracingEndpoint tracingEndpoint(Tracer tracer) {
+    return new TracingEndpoint(tracer);
+  }
+}
@@ -0,0 +1,40 @@
+package com.checkout.payment.gateway.configuration;
+
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.TimingValidator;
+import com.checkout.payment.gateway.model.validation.PaymentRequestValidator;
+import java.time.Clock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ValidationConfiguration implements WebMvcConfigurer {
+
+  private final ObjectProvider<jakarta.validation.Validator> beanValidator;
+  private final ObjectProvider<PaymentMetrics> paymentMetrics;
+
+  @Value("${payments.validation.luhn-check:true}")
+  private boolean luhnCheck;
+
+  public ValidationConfiguration(ObjectProvider<jakarta.validation.Validator> beanValidator,
+      ObjectProvider<PaymentMetrics> paymentMetrics) {
+    this.beanValidator = beanValidator;
+    this.paymentMetrics = paymentMetrics;
+  }
+
+  /**
+   * Validates {@code @Valid} payment request bodies with {@link PaymentRequestValidator} instead
+   * of Hibernate Validator, and times it.
+   */
+  @Override
+  public Validator getValidator() {
+    return new TimingValidator(
+        new PaymentRequestValidator(new SpringValidatorAdapter(beanValidator.getObject()),
+            luhnCheck, Clock.systemDefaultZone()),
+        paymentMetrics.getObject());
+  }
+}
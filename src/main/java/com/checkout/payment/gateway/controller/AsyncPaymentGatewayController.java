@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Replaces {@link PaymentGatewayController} when {@code payments.processing.mode=async}. The
+ * servlet thread is released as soon as the bank call is issued and the response is written when
+ * the returned future completes.
+ */
+@RestController("asyncApi")
+@ConditionalOnProperty(name = "payments.processing.mode", havingValue = "async")
+public class AsyncPaymentGatewayController {
+
+  private final PaymentGatewayService paymentGatewayService;
+
+  public AsyncPaymentGatewayController(PaymentGatewayService paymentGatewayService) {
+    this.paymentGatewayService = paymentGatewayService;
+  }
+
+  @PostMapping("/payments")
+  public CompletableFuture<ResponseEntity<PostPaymentResponse>> processPayment(
+      @Valid @RequestBody PostPaymentRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+    return paymentGatewayService.processPaymentAsync(request, idempotencyKey)
+        .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
+  }
+
+  @GetMapping("/payments/{id}")
+  public ResponseEntity<PostPaymentResponse> getPostPaymentEventById(@PathVariable UUID id) {
+    return new ResponseEntity<>(paymentGatewayService.getPaymentById(id), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,48 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.service.BatchPaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Accepts many payments in one request, as a JSON array or as newline delimited JSON, and streams
+ * one NDJSON line back per payment as it completes. Available in both processing modes.
+ */
+@RestController
+public class BatchPaymentController {
+
+  private final BatchPaymentService batchPaymentService;
+
+  @Value("${payments.batch.timeout:10m}")
+  private Duration timeout;
+
+  public BatchPaymentController(BatchPaymentService batchPaymentService) {
+    this.batchPaymentService = batchPaymentService;
+  }
+
+  @PostMapping(path = "/payments/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<ResponseBodyEmitter> processPayments(HttpServletRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey)
+      throws IOException {
+    ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis());
+    batchPaymentService.processAsync(request.getInputStream(), idempotencyKey,
+            line -> emitter.send(line, MediaType.APPLICATION_NDJSON))
+        .whenComplete((ignored, ex) -> {
+          if (ex != null) {
+            emitter.completeWithError(ex);
+          } else {
+            emitter.complete();
+          }
+        });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+  }
+}
@@ -5,15 +5,18 @@ import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
 import jakarta.validation.Valid;
 import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController("api")
+@ConditionalOnProperty(name = "payments.processing.mode", havingValue = "sync", matchIfMissing = true)
 public class PaymentGatewayController {
 
   private final PaymentGatewayService paymentGatewayService;
@@ -24,8 +27,9 @@ public class PaymentGatewayController {
 
   @PostMapping("/payments")
   public ResponseEntity<PostPaymentResponse> processPayment(
-      @Valid @RequestBody PostPaymentRequest request) {
-    PostPaymentResponse response = paymentGatewayService.processPayment(request);
+      @Valid @RequestBody PostPaymentRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+    PostPaymentResponse response = paymentGatewayService.processPayment(request, idempotencyKey);
     return new ResponseEntity<>(response, HttpStatus.OK);
   }
 
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.enums;
+
+public enum BackpressurePolicy {
+  // Wait for the writer to free a slot
+  BLOCK,
+  // Write to the store on the caller's thread, as if write-behind were off
+  WRITE_THROUGH
+}
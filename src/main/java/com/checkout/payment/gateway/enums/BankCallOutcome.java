@@ -0,0 +1,24 @@
+package com.checkout.payment.gateway.enums;
+
+public enum BankCallOutcome {
+  AUTHORIZED("authorized"),
+  DECLINED("declined"),
+  // Bank answered 4xx
+  CLIENT_ERROR("client-error"),
+  // Bank answered 5xx
+  SERVER_ERROR("server-error"),
+  // Circuit open or bulkhead full, the bank was never called
+  REJECTED("rejected"),
+  // Timeout, connection failure or anything else without a bank answer
+  EXCEPTION("exception");
+
+  private final String tag;
+
+  BankCallOutcome(String tag) {
+    this.tag = tag;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.enums;
+
+public enum BankTransport {
+  // Apache HttpClient with a pool of persistent keep-alive connections
+  POOLED,
+  // JDK HttpURLConnection, one connection per request unless the JDK keep-alive cache reuses it
+  SIMPLE
+}
@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+public enum CircuitState {
+  // Calls flow to the bank and their outcomes fill the sliding window
+  CLOSED,
+  // Calls are rejected without reaching the bank until the open duration elapses
+  OPEN,
+  // A limited number of probe calls decide whether to close or reopen
+  HALF_OPEN
+}
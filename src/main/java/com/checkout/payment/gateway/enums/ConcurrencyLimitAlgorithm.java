@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+public enum ConcurrencyLimitAlgorithm {
+  // No adaptive limit; only the bulkhead caps concurrent bank calls
+  NONE,
+  // Grow the limit by one while it is in use, cut it by a ratio on a failed or slow call
+  AIMD,
+  // Scale the limit by how far recent round-trip times have drifted from the long-run average
+  GRADIENT
+}
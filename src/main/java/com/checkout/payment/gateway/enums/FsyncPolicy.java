@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+public enum FsyncPolicy {
+  // Force every record to disk before the append returns
+  PER_WRITE,
+  // Force on a fixed interval; appends wait for the flush that covers them
+  GROUP_COMMIT,
+  // Leave flushing to the operating system page cache
+  OS
+}
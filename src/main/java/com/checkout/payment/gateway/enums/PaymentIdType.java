@@ -0,0 +1,6 @@
+package com.checkout.payment.gateway.enums;
+
+public enum PaymentIdType {
+  RANDOM,
+  TIME_ORDERED
+}
@@ -0,0 +1,7 @@
+package com.checkout.payment.gateway.enums;
+
+public enum PaymentStoreType {
+  CONCURRENT,
+  OFF_HEAP,
+  TIERED
+}
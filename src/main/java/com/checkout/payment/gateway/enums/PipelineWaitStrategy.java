@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+public enum PipelineWaitStrategy {
+  // Spin, then yield, then park for the shortest time the OS allows; little CPU when idle
+  SLEEPING,
+  // Spin, then yield; lower latency, but each stage keeps a core busy while the pipeline is idle
+  YIELDING,
+  // Spin only; lowest latency, and a core per stage permanently
+  BUSY_SPIN
+}
@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.enums;
+
+public enum ProcessingEngine {
+  // Each asynchronous payment is a chain of CompletableFuture stages
+  FUTURES,
+  // Asynchronous payments pass through the ring-buffer stages of a PaymentPipeline
+  PIPELINE
+}
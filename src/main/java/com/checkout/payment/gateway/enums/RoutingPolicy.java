@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+public enum RoutingPolicy {
+  // The endpoint with the lowest peak-EWMA latency times calls in flight
+  PEAK_EWMA,
+  // The less loaded of two endpoints picked at random
+  POWER_OF_TWO_CHOICES,
+  // A random endpoint, in proportion to its weight for the payment's currency
+  CURRENCY_WEIGHTED
+}
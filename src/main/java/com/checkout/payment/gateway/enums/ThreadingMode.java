@@ -0,0 +1,8 @@
+package com.checkout.payment.gateway.enums;
+
+public enum ThreadingMode {
+  // Tomcat's bounded pool of platform worker threads, one per in-flight request
+  PLATFORM,
+  // A virtual thread per request and per bank call, unmounted while blocked on I/O
+  VIRTUAL
+}
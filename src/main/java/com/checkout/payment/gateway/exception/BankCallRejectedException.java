@@ -0,0 +1,13 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Thrown instead of calling the bank when the circuit breaker is open, the bulkhead is full or
+ * the adaptive concurrency limit is reached. It carries no stack trace, since it is raised on
+ * every request during an outage and must be cheap.
+ */
+public class BankCallRejectedException extends RuntimeException {
+
+  public BankCallRejectedException(String message) {
+    super(message, null, false, false);
+  }
+}
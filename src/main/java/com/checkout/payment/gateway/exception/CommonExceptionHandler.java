@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -24,13 +25,37 @@ public class CommonExceptionHandler {
         ex.getHttpStatus());
   }
 
+  /**
+   * Rejections are expected under load and already logged where they are decided, so they are
+   * not logged again with a trace on every request.
+   */
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleServiceUnavailable(ServiceUnavailableException ex) {
+    LOG.debug("Request turned away: {}", ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()), ex.getHttpStatus());
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, Object>> handleValidationExceptions(
       MethodArgumentNotValidException ex) {
     Map<String, Object> response = new HashMap<>();
-    Map<String, String> errors = new HashMap<>();
+    Map<String, String> errors = validationErrors(ex.getBindingResult());
+
+    response.put("error", "Validation failed");
+    response.put("errors", errors);
+    
+    LOG.warn("Validation failed: {}", errors);
     
-    ex.getBindingResult().getAllErrors().forEach((error) -> {
+    return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Validation errors by field, with the class-level expiry date check reported as
+   * {@code expiryDate}.
+   */
+  public static Map<String, String> validationErrors(Errors bindingResult) {
+    Map<String, String> errors = new HashMap<>();
+    bindingResult.getAllErrors().forEach((error) -> {
       if (error instanceof FieldError) {
         FieldError fieldError = (FieldError) error;
         String fieldName = fieldError.getField();
@@ -41,12 +66,6 @@ public class CommonExceptionHandler {
         errors.put("expiryDate", errorMessage);
       }
     });
-     
-    response.put("error", "Validation failed");
-    response.put("errors", errors);
-    
-    LOG.warn("Validation failed: {}", errors);
-    
-    return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    return errors;
   }
 }
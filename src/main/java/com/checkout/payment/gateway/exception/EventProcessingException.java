@@ -10,6 +10,12 @@ public class EventProcessingException extends RuntimeException{
     super(message);
     this.httpStatus = httpStatus;
   }
+
+  protected EventProcessingException(String message, HttpStatus httpStatus,
+      boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+    this.httpStatus = httpStatus;
+  }
   
   public HttpStatus getHttpStatus() {
     return httpStatus;
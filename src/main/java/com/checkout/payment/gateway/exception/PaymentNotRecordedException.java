@@ -0,0 +1,20 @@
+package com.checkout.payment.gateway.exception;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when the bank has already decided a payment but the gateway failed to store it. Unlike
+ * a bank failure this is not safe to retry, since a retry would be authorized again, so the
+ * payment's {@code Idempotency-Key} stays claimed and repeats get this same error.
+ */
+public class PaymentNotRecordedException extends EventProcessingException {
+
+  public PaymentNotRecordedException(UUID paymentId, PaymentStatus status, Throwable cause) {
+    super("Payment " + paymentId + " was " + status.getName().toLowerCase()
+        + " by the bank but could not be recorded. Do not retry; please contact support team.",
+        HttpStatus.INTERNAL_SERVER_ERROR);
+    initCause(cause);
+  }
+}
@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A 503 for a request turned away before any work was done: the bank call was rejected by the
+ * resilience guards, or the gateway has too much in progress. Like
+ * {@link BankCallRejectedException} it carries no stack trace, since during an outage or a burst
+ * it is raised on every request.
+ */
+public class ServiceUnavailableException extends EventProcessingException {
+
+  public ServiceUnavailableException(String message) {
+    super(message, HttpStatus.SERVICE_UNAVAILABLE, false);
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.id;
+
+import java.util.UUID;
+
+/**
+ * Source of payment ids. Called concurrently from request threads; every id must be unique.
+ */
+public interface PaymentIdGenerator {
+
+  UUID nextId();
+}
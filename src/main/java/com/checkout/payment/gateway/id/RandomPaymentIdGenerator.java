@@ -0,0 +1,14 @@
+package com.checkout.payment.gateway.id;
+
+import java.util.UUID;
+
+/**
+ * Version 4 ids from {@link UUID#randomUUID()}, which draws on a shared {@code SecureRandom}.
+ */
+public class RandomPaymentIdGenerator implements PaymentIdGenerator {
+
+  @Override
+  public UUID nextId() {
+    return UUID.randomUUID();
+  }
+}
@@ -0,0 +1,82 @@
+package com.checkout.payment.gateway.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Version 7 ids (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter, then an
+ * optional node id and random bits. Ids sort by creation time, so stores and logs keyed by id see
+ * appends rather than scattered inserts.
+ *
+ * <p>Each thread keeps its own last timestamp and counter and draws from
+ * {@link ThreadLocalRandom}, so no state is shared between threads. Within a thread ids strictly
+ * increase: the counter starts at a random value in the lower half of its range each millisecond
+ * and counts up, and when it runs out, or the clock steps back, the thread carries on from the
+ * last timestamp it used. Across threads ids are ordered to the millisecond only.
+ *
+ * <p>Giving each instance of the gateway its own {@code nodeId} in the top {@code nodeBits} of the
+ * random part rules out collisions between instances; the random bits that remain separate
+ * threads within an instance. The ids reveal when a payment was made and are not unguessable.
+ */
+public class TimeOrderedPaymentIdGenerator implements PaymentIdGenerator {
+
+  public static final int MAX_NODE_BITS = 16;
+
+  private static final long VERSION = 7L << 12;
+  private static final long VARIANT = 1L << 63;
+  private static final int COUNTER_BITS = 12;
+  private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+  private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+  private final long node;
+  private final int randomBits;
+  private final LongSupplier clock;
+  private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+  public TimeOrderedPaymentIdGenerator() {
+    this(0, 0);
+  }
+
+  public TimeOrderedPaymentIdGenerator(int nodeId, int nodeBits) {
+    this(nodeId, nodeBits, System::currentTimeMillis);
+  }
+
+  TimeOrderedPaymentIdGenerator(int nodeId, int nodeBits, LongSupplier clock) {
+    if (nodeBits < 0 || nodeBits > MAX_NODE_BITS) {
+      throw new IllegalArgumentException("nodeBits must be between 0 and " + MAX_NODE_BITS);
+    }
+    if (nodeId < 0 || nodeId >= 1 << nodeBits) {
+      throw new IllegalArgumentException("nodeId " + nodeId + " does not fit in " + nodeBits
+          + " bits");
+    }
+    this.randomBits = 62 - nodeBits;
+    this.node = (long) nodeId << randomBits;
+    this.clock = clock;
+  }
+
+  @Override
+  public UUID nextId() {
+    State current = state.get();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long now = clock.getAsLong();
+    if (now > current.millis) {
+      current.millis = now;
+      current.counter = random.nextInt(COUNTER_SEED_BOUND);
+    } else if (current.counter < MAX_COUNTER) {
+      current.counter++;
+    } else {
+      current.millis++;
+      current.counter = random.nextInt(COUNTER_SEED_BOUND);
+    }
+    long msb = current.millis << 16 | VERSION | current.counter;
+    long lsb = VARIANT | node | random.nextLong() >>> (64 - randomBits);
+    return new UUID(msb, lsb);
+  }
+
+  private static final class State {
+
+    private long millis = -1;
+    private int counter;
+  }
+}
@@ -0,0 +1,146 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.enums.BankCallOutcome;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Timers and counters for each stage of payment processing. Every meter is registered up front
+ * and looked up by enum ordinal, and durations are plain {@link System#nanoTime()} differences,
+ * so recording allocates nothing and can stay on in production.
+ *
+ * <ul>
+ *   <li>{@code payments.stage{stage}}: validation, bank-request (building it), repository-write
+ *   and total</li>
+ *   <li>{@code payments.bank.call{outcome}}: bank round trip by {@link BankCallOutcome}</li>
+ *   <li>{@code payments.status{status}}: payments by final {@link PaymentStatus}</li>
+ *   <li>{@code payments.bank.in.flight}: bank calls started but not yet answered</li>
+ * </ul>
+ */
+public class PaymentMetrics {
+
+  private static final Duration MIN_EXPECTED = Duration.ofNanos(1_000);
+  private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+  private final Timer validation;
+  private final Timer bankRequest;
+  private final Timer repositoryWrite;
+  private final Timer total;
+  private final Timer[] bankCalls = new Timer[BankCallOutcome.values().length];
+  private final Counter[] statuses = new Counter[PaymentStatus.values().length];
+  private final AtomicInteger bankCallsInFlight = new AtomicInteger();
+
+  public PaymentMetrics(MeterRegistry meterRegistry) {
+    validation = stageTimer("validation", meterRegistry);
+    bankRequest = stageTimer("bank-request", meterRegistry);
+    repositoryWrite = stageTimer("repository-write", meterRegistry);
+    total = stageTimer("total", meterRegistry);
+    for (BankCallOutcome outcome : BankCallOutcome.values()) {
+      bankCalls[outcome.ordinal()] = Timer.builder("payments.bank.call")
+          .tag("outcome", outcome.getTag())
+          .description("Round trip to the bank by outcome")
+          .publishPercentileHistogram()
+          .minimumExpectedValue(MIN_EXPECTED)
+          .maximumExpectedValue(MAX_EXPECTED)
+          .register(meterRegistry);
+    }
+    for (PaymentStatus status : PaymentStatus.values()) {
+      statuses[status.ordinal()] = Counter.builder("payments.status")
+          .tag("status", status.name().toLowerCase(Locale.ROOT))
+          .description("Payments by final status")
+          .register(meterRegistry);
+    }
+    Gauge.builder("payments.bank.in.flight", bankCallsInFlight, AtomicInteger::get)
+        .description("Bank calls started and not yet answered")
+        .register(meterRegistry);
+  }
+
+  /**
+   * The stage methods return the elapsed time they recorded, for {@link ServerTiming}.
+   */
+  public long validationCompleted(long startNanos, boolean rejected) {
+    if (rejected) {
+      statuses[PaymentStatus.REJECTED.ordinal()].increment();
+    }
+    return record(validation, startNanos);
+  }
+
+  public void bankRequestBuilt(long startNanos) {
+    record(bankRequest, startNanos);
+  }
+
+  /**
+   * @return the start time to pass to {@link #bankCallCompleted} or {@link #bankCallFailed}
+   */
+  public long bankCallStarted() {
+    bankCallsInFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  public long bankCallCompleted(long startNanos, boolean authorized) {
+    bankCallsInFlight.decrementAndGet();
+    BankCallOutcome outcome = authorized ? BankCallOutcome.AUTHORIZED : BankCallOutcome.DECLINED;
+    return record(bankCalls[outcome.ordinal()], startNanos);
+  }
+
+  public long bankCallFailed(long startNanos, Throwable failure) {
+    bankCallsInFlight.decrementAndGet();
+    return record(bankCalls[toOutcome(failure).ordinal()], startNanos);
+  }
+
+  public long repositoryWritten(long startNanos) {
+    return record(repositoryWrite, startNanos);
+  }
+
+  public void paymentCompleted(long startNanos, PaymentStatus status) {
+    record(total, startNanos);
+    statuses[status.ordinal()].increment();
+  }
+
+  public void paymentFailed(long startNanos) {
+    record(total, startNanos);
+  }
+
+  public int getBankCallsInFlight() {
+    return bankCallsInFlight.get();
+  }
+
+  private static BankCallOutcome toOutcome(Throwable failure) {
+    if (failure instanceof BankCallRejectedException) {
+      return BankCallOutcome.REJECTED;
+    }
+    if (failure instanceof HttpClientErrorException) {
+      return BankCallOutcome.CLIENT_ERROR;
+    }
+    if (failure instanceof HttpServerErrorException) {
+      return BankCallOutcome.SERVER_ERROR;
+    }
+    return BankCallOutcome.EXCEPTION;
+  }
+
+  private static long record(Timer timer, long startNanos) {
+    long elapsed = System.nanoTime() - startNanos;
+    timer.record(elapsed, TimeUnit.NANOSECONDS);
+    return elapsed;
+  }
+
+  private static Timer stageTimer(String stage, MeterRegistry meterRegistry) {
+    return Timer.builder("payments.stage")
+        .tag("stage", stage)
+        .description("Time spent in each stage of processing a payment")
+        .publishPercentileHistogram()
+        .minimumExpectedValue(MIN_EXPECTED)
+        .maximumExpectedValue(MAX_EXPECTED)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,79 @@
+package com.checkout.payment.gateway.metrics;
+
+import java.util.Locale;
+
+/**
+ * Where one request spent its time, reported in its {@code Server-Timing} response header when
+ * {@code payments.server-timing.enabled} is set. {@link ServerTimingFilter} makes it current for
+ * the request thread; without it {@link #current()} returns a shared instance that records
+ * nothing.
+ */
+public class ServerTiming {
+
+  public static final String HEADER = "Server-Timing";
+
+  static final String ATTRIBUTE = ServerTiming.class.getName();
+
+  private static final ServerTiming NOOP = new ServerTiming();
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+  private final long startNanos = System.nanoTime();
+  private volatile long validationNanos;
+  private volatile long bankNanos;
+  private volatile long persistenceNanos;
+
+  public static ServerTiming current() {
+    ServerTiming current = CURRENT.get();
+    return current != null ? current : NOOP;
+  }
+
+  static void makeCurrent(ServerTiming serverTiming) {
+    CURRENT.set(serverTiming);
+  }
+
+  static void clearCurrent() {
+    CURRENT.remove();
+  }
+
+  public void addValidation(long nanos) {
+    if (this != NOOP) {
+      validationNanos += nanos;
+    }
+  }
+
+  public void addBank(long nanos) {
+    if (this != NOOP) {
+      bankNanos += nanos;
+    }
+  }
+
+  public void addPersistence(long nanos) {
+    if (this != NOOP) {
+      persistenceNanos += nanos;
+    }
+  }
+
+  /**
+   * @param traceparent the request's trace, added as a description so it can be looked up, or
+   *     {@code null}
+   */
+  String toHeader(String traceparent) {
+    StringBuilder header = new StringBuilder(128);
+    metric(header, "validation", validationNanos);
+    metric(header, "bank", bankNanos);
+    metric(header, "persistence", persistenceNanos);
+    metric(header, "total", System.nanoTime() - startNanos);
+    if (traceparent != null) {
+      header.append(", traceparent;desc=\"").append(traceparent).append('"');
+    }
+    return header.toString();
+  }
+
+  private static void metric(StringBuilder header, String name, long nanos) {
+    if (!header.isEmpty()) {
+      header.append(", ");
+    }
+    header.append(name).append(";dur=")
+        .append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+  }
+}
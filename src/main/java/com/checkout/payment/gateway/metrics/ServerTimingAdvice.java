@@ -0,0 +1,39 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.tracing.TraceContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the {@code Server-Timing} header just before the response body is written, which is the
+ * last point at which headers can still be set.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType,
+      Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType,
+      MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request, ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest servletRequest
+        && servletRequest.getServletRequest().getAttribute(ServerTiming.ATTRIBUTE)
+        instanceof ServerTiming serverTiming) {
+      Object trace = servletRequest.getServletRequest().getAttribute(TraceContext.HEADER);
+      response.getHeaders().set(ServerTiming.HEADER, serverTiming.toHeader(
+          trace instanceof TraceContext context ? context.toTraceparent() : null));
+    }
+    return body;
+  }
+}
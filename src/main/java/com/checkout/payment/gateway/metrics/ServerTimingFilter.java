@@ -0,0 +1,29 @@
+package com.checkout.payment.gateway.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts a {@link ServerTiming} for each request. It is kept as a request attribute as well as a
+ * thread local, so {@link ServerTimingAdvice} still finds it when an asynchronous response is
+ * written from another thread.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    ServerTiming serverTiming = new ServerTiming();
+    request.setAttribute(ServerTiming.ATTRIBUTE, serverTiming);
+    ServerTiming.makeCurrent(serverTiming);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ServerTiming.clearCurrent();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.checkout.payment.gateway.metrics;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Wraps the MVC validator to time the validation stage of {@code @Valid} request bodies and to
+ * count payment requests rejected by it.
+ */
+public class TimingValidator implements SmartValidator {
+
+  private final SmartValidator delegate;
+  private final PaymentMetrics paymentMetrics;
+
+  public TimingValidator(SmartValidator delegate, PaymentMetrics paymentMetrics) {
+    this.delegate = delegate;
+    this.paymentMetrics = paymentMetrics;
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return delegate.supports(clazz);
+  }
+
+  @Override
+  public void validate(Object target, Errors errors) {
+    long start = System.nanoTime();
+    delegate.validate(target, errors);
+    completed(start, target, errors);
+  }
+
+  @Override
+  public void validate(Object target, Errors errors, Object... validationHints) {
+    long start = System.nanoTime();
+    delegate.validate(target, errors, validationHints);
+    completed(start, target, errors);
+  }
+
+  @Override
+  public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+      Object... validationHints) {
+    delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+  }
+
+  private void completed(long start, Object target, Errors errors) {
+    ServerTiming.current().addValidation(paymentMetrics.validationCompleted(start,
+        target instanceof PostPaymentRequest && errors.hasErrors()));
+  }
+}
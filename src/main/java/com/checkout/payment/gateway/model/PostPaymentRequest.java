@@ -62,7 +62,7 @@ public class PostPaymentRequest implements Serializable {
     return "";
   }
 
-  public int getExpiryMonth() {
+  public Integer getExpiryMonth() {
     return expiryMonth;
   }
 
@@ -70,7 +70,7 @@ public class PostPaymentRequest implements Serializable {
     this.expiryMonth = expiryMonth;
   }
 
-  public int getExpiryYear() {
+  public Integer getExpiryYear() {
     return expiryYear;
   }
 
@@ -86,7 +86,7 @@ public class PostPaymentRequest implements Serializable {
     this.currency = currency;
   }
 
-  public int getAmount() {
+  public Integer getAmount() {
     return amount;
   }
 
@@ -94,7 +94,7 @@ public class PostPaymentRequest implements Serializable {
     this.amount = amount;
   }
 
-  public int getCvv() {
+  public Integer getCvv() {
     return cvv;
   }
 
@@ -0,0 +1,47 @@
+package com.checkout.payment.gateway.model.validation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+
+/**
+ * The current month as a single int ({@code year * 12 + month - 1}), cached until the clock
+ * passes the start of the next month. Reading it costs one clock read and one comparison instead
+ * of the {@code YearMonth.now()} date arithmetic on every request.
+ */
+final class CurrentMonth {
+
+  private final Clock clock;
+  private volatile Snapshot snapshot;
+
+  CurrentMonth(Clock clock) {
+    this.clock = clock;
+    this.snapshot = snapshot(clock.millis());
+  }
+
+  int get() {
+    Snapshot current = snapshot;
+    long now = clock.millis();
+    if (now >= current.nextMonthMillis() || now < current.monthStartMillis()) {
+      // Any thread seeing the tick recomputes; they all arrive at the same value
+      current = snapshot(now);
+      snapshot = current;
+    }
+    return current.month();
+  }
+
+  static int of(int year, int month) {
+    return year * 12 + month - 1;
+  }
+
+  private Snapshot snapshot(long nowMillis) {
+    YearMonth month = YearMonth.from(Instant.ofEpochMilli(nowMillis).atZone(clock.getZone()));
+    ZonedDateTime start = month.atDay(1).atStartOfDay(clock.getZone());
+    return new Snapshot(of(month.getYear(), month.getMonthValue()),
+        start.toInstant().toEpochMilli(), start.plusMonths(1).toInstant().toEpochMilli());
+  }
+
+  private record Snapshot(int month, long monthStartMillis, long nextMonthMillis) {
+  }
+}
@@ -0,0 +1,143 @@
+package com.checkout.payment.gateway.model.validation;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.time.Clock;
+import java.util.Set;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Hand-written equivalent of the Bean Validation constraints on {@link PostPaymentRequest},
+ * used for request bodies instead of Hibernate Validator: no reflection, no regular expressions
+ * and no allocation for a valid request. Errors carry the same fields and messages as the
+ * annotations, so {@code CommonExceptionHandler} builds the same response.
+ *
+ * <p>When {@code luhnCheck} is set, card numbers must also pass the Luhn checksum, so a mistyped
+ * number is rejected before it costs a bank round trip. Any other type is passed to
+ * {@code delegate}.
+ */
+public class PaymentRequestValidator implements SmartValidator {
+
+  private static final int MIN_EXPIRY_YEAR = 2025;
+  private static final Set<String> CURRENCIES = Set.of("GBP", "USD", "CNY");
+
+  private final SmartValidator delegate;
+  private final boolean luhnCheck;
+  private final CurrentMonth currentMonth;
+
+  public PaymentRequestValidator(SmartValidator delegate, boolean luhnCheck, Clock clock) {
+    this.delegate = delegate;
+    this.luhnCheck = luhnCheck;
+    this.currentMonth = new CurrentMonth(clock);
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return PostPaymentRequest.class.isAssignableFrom(clazz) || delegate.supports(clazz);
+  }
+
+  @Override
+  public void validate(Object target, Errors errors) {
+    if (target instanceof PostPaymentRequest request) {
+      validate(request, errors);
+    } else {
+      delegate.validate(target, errors);
+    }
+  }
+
+  @Override
+  public void validate(Object target, Errors errors, Object... validationHints) {
+    if (target instanceof PostPaymentRequest request) {
+      validate(request, errors);
+    } else {
+      delegate.validate(target, errors, validationHints);
+    }
+  }
+
+  @Override
+  public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+      Object... validationHints) {
+    delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+  }
+
+  private void validate(PostPaymentRequest request, Errors errors) {
+    validateCardNumber(request.getCardNumber(), errors);
+
+    Integer expiryMonth = request.getExpiryMonth();
+    Integer expiryYear = request.getExpiryYear();
+    boolean monthValid = false;
+    boolean yearValid = false;
+    if (expiryMonth == null) {
+      errors.rejectValue("expiryMonth", "NotNull", "Expiry month is required");
+    } else if (expiryMonth < 1 || expiryMonth > 12) {
+      errors.rejectValue("expiryMonth", expiryMonth < 1 ? "Min" : "Max",
+          "Expiry month must be between 1 and 12");
+    } else {
+      monthValid = true;
+    }
+    if (expiryYear == null) {
+      errors.rejectValue("expiryYear", "NotNull", "Expiry year is required");
+    } else if (expiryYear < MIN_EXPIRY_YEAR) {
+      errors.rejectValue("expiryYear", "Min", "Expiry year must be 2025 or later");
+    } else {
+      yearValid = true;
+    }
+    // Like FutureExpiryDateValidator, only checked once the month and year are valid
+    if (monthValid && yearValid
+        && CurrentMonth.of(expiryYear, expiryMonth) < currentMonth.get()) {
+      errors.reject("FutureExpiryDate", "Card expiry date must be in the future");
+    }
+
+    String currency = request.getCurrency();
+    if (currency == null) {
+      errors.rejectValue("currency", "NotNull", "Currency is required");
+    } else if (!CURRENCIES.contains(currency)) {
+      errors.rejectValue("currency", "Pattern", "Currency must be one of: GBP, USD, CNY");
+    }
+
+    Integer amount = request.getAmount();
+    if (amount == null) {
+      errors.rejectValue("amount", "NotNull", "Amount is required");
+    } else if (amount <= 0) {
+      errors.rejectValue("amount", "Positive", "Amount must be greater than 0");
+    }
+
+    Integer cvv = request.getCvv();
+    if (cvv == null) {
+      errors.rejectValue("cvv", "NotNull", "CVV is required");
+    } else if (cvv < 100 || cvv > 9999) {
+      errors.rejectValue("cvv", cvv < 100 ? "Min" : "Max", "CVV must be between 3-4 digits");
+    }
+  }
+
+  private void validateCardNumber(String cardNumber, Errors errors) {
+    if (cardNumber == null) {
+      errors.rejectValue("cardNumber", "NotNull", "Card number is required");
+      return;
+    }
+    int length = cardNumber.length();
+    if (length < 14 || length > 19) {
+      errors.rejectValue("cardNumber", "Pattern", "Card number must be between 14-19 digits");
+      return;
+    }
+    // Digits are checked and the Luhn sum taken in one pass, from the check digit leftwards
+    int sum = 0;
+    for (int i = length - 1, position = 0; i >= 0; i--, position++) {
+      int digit = cardNumber.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        errors.rejectValue("cardNumber", "Pattern", "Card number must be between 14-19 digits");
+        return;
+      }
+      if ((position & 1) == 1) {
+        digit *= 2;
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+      sum += digit;
+    }
+    if (luhnCheck && sum % 10 != 0) {
+      errors.rejectValue("cardNumber", "LuhnCheck", "Card number is not valid");
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.checkout.payment.gateway.pipeline;
+
+/**
+ * The work of one stage, called by its {@link EventProcessor} for each event in sequence order.
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+  /**
+   * @param endOfBatch whether this is the last event available for now, so work held back to be
+   *     done once per batch should be done
+   */
+  void onEvent(E event, long sequence, boolean endOfBatch);
+}
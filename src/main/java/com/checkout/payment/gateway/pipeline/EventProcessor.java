@@ -0,0 +1,62 @@
+package com.checkout.payment.gateway.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one stage on its own thread: takes every event its {@link SequenceBarrier} lets through,
+ * in order and as many at a time as are available, and moves its {@link Sequence} past the whole
+ * batch once handled, so the stages after it follow a single write per batch.
+ */
+public class EventProcessor<E> implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EventProcessor.class);
+
+  private final RingBuffer<E> ringBuffer;
+  private final SequenceBarrier barrier;
+  private final EventHandler<E> handler;
+  private final Sequence sequence = new Sequence(-1);
+  private volatile boolean running = true;
+
+  public EventProcessor(RingBuffer<E> ringBuffer, SequenceBarrier barrier,
+      EventHandler<E> handler) {
+    this.ringBuffer = ringBuffer;
+    this.barrier = barrier;
+    this.handler = handler;
+  }
+
+  /**
+   * Last sequence this stage has finished with.
+   */
+  public Sequence getSequence() {
+    return sequence;
+  }
+
+  @Override
+  public void run() {
+    long next = sequence.get() + 1;
+    while (running) {
+      long available = barrier.waitFor(next);
+      if (available < next) {
+        continue;
+      }
+      for (; next <= available; next++) {
+        try {
+          handler.onEvent(ringBuffer.get(next), next, next == available);
+        } catch (RuntimeException ex) {
+          // A handler should not throw; if one does, the stage must still move on
+          LOG.error("Pipeline stage failed on sequence {}", next, ex);
+        }
+      }
+      sequence.set(available);
+    }
+  }
+
+  /**
+   * Stops the stage after the batch it is handling.
+   */
+  public void halt() {
+    running = false;
+    barrier.alert();
+  }
+}
@@ -0,0 +1,133 @@
+package com.checkout.payment.gateway.pipeline;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Fixed ring of events created up front and reused, written by any number of producers and read
+ * by stages that each follow the one before through a {@link SequenceBarrier}.
+ *
+ * <p>A producer claims the next sequence with {@link #next} by moving the cursor on with a CAS,
+ * fills the event at that sequence in place, then {@link #publish}es it. The cursor alone cannot
+ * say which claimed sequences are filled, so publishing records the lap the sequence is on in a
+ * per-slot flag. A claim waits while it would lap the slowest of the gating sequences, normally
+ * the last stage's, so an event is never overwritten before every stage is done with it.
+ */
+public class RingBuffer<E> {
+
+  private final Object[] entries;
+  private final int mask;
+  private final int indexShift;
+  private final AtomicIntegerArray published;
+  private final Sequence cursor = new Sequence(-1);
+  // Slowest gating sequence last seen, so a claim far from the wrap point reads no other line
+  private final Sequence gatingCache = new Sequence(-1);
+  private volatile Sequence[] gatingSequences = new Sequence[0];
+
+  /**
+   * @param capacity events in the ring, a power of two
+   */
+  public RingBuffer(int capacity, Supplier<E> factory) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+    }
+    this.entries = new Object[capacity];
+    this.mask = capacity - 1;
+    this.indexShift = Integer.numberOfTrailingZeros(capacity);
+    this.published = new AtomicIntegerArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      entries[i] = factory.get();
+      published.set(i, -1);
+    }
+  }
+
+  /**
+   * Sequences a claim must not lap. Set before the first claim.
+   */
+  public void setGatingSequences(Sequence... sequences) {
+    this.gatingSequences = sequences.clone();
+  }
+
+  @SuppressWarnings("unchecked")
+  public E get(long sequence) {
+    return (E) entries[(int) sequence & mask];
+  }
+
+  /**
+   * Claims the next sequence, waiting while the ring is full. The event at it must be
+   * {@link #publish}ed even if the producer has nothing to put in it, or the stages stop there.
+   */
+  public long next() {
+    while (true) {
+      long current = cursor.get();
+      long next = current + 1;
+      long wrapPoint = next - entries.length;
+      long cachedGating = gatingCache.get();
+      if (wrapPoint > cachedGating || cachedGating > current) {
+        long gating = Sequence.minimum(gatingSequences, current);
+        if (wrapPoint > gating) {
+          LockSupport.parkNanos(1);
+          continue;
+        }
+        gatingCache.set(gating);
+      } else if (cursor.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Claims the next sequence like {@link #next}, but returns {@code -1} at once when the ring is
+   * full. For producers that would rather turn work away than wait.
+   */
+  public long tryNext() {
+    while (true) {
+      long current = cursor.get();
+      long next = current + 1;
+      long wrapPoint = next - entries.length;
+      long cachedGating = gatingCache.get();
+      if (wrapPoint > cachedGating || cachedGating > current) {
+        long gating = Sequence.minimum(gatingSequences, current);
+        if (wrapPoint > gating) {
+          return -1;
+        }
+        gatingCache.set(gating);
+      } else if (cursor.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+  public void publish(long sequence) {
+    published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+  }
+
+  public boolean isPublished(long sequence) {
+    return published.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+  }
+
+  /**
+   * @return the highest sequence from {@code lowerBound} up to {@code availableSequence} with all
+   *     before it published, or {@code lowerBound - 1} if {@code lowerBound} is not published yet
+   */
+  public long highestPublished(long lowerBound, long availableSequence) {
+    for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+      if (!isPublished(sequence)) {
+        return sequence - 1;
+      }
+    }
+    return availableSequence;
+  }
+
+  /**
+   * Highest sequence claimed so far; it may not be published yet.
+   */
+  public long getCursor() {
+    return cursor.get();
+  }
+
+  public int getCapacity() {
+    return entries.length;
+  }
+}
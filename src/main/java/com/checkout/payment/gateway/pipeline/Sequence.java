@@ -0,0 +1,45 @@
+package com.checkout.payment.gateway.pipeline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A position in a {@link RingBuffer}: the last sequence a producer claimed or a stage finished.
+ * The value sits in the middle of an array so that padding on both sides keeps two sequences
+ * written by different threads off the same cache line.
+ */
+public class Sequence {
+
+  private static final int PADDING = 7;
+
+  private final AtomicLongArray value = new AtomicLongArray(2 * PADDING + 1);
+
+  public Sequence(long initial) {
+    value.set(PADDING, initial);
+  }
+
+  public long get() {
+    return value.get(PADDING);
+  }
+
+  /**
+   * Ordered write: everything the thread wrote before is visible to a thread that reads the new
+   * value, without the cost of a full fence.
+   */
+  public void set(long sequence) {
+    value.lazySet(PADDING, sequence);
+  }
+
+  public boolean compareAndSet(long expected, long sequence) {
+    return value.compareAndSet(PADDING, expected, sequence);
+  }
+
+  /**
+   * @return the lowest of {@code sequences}, or {@code minimum} if it is lower or there are none
+   */
+  static long minimum(Sequence[] sequences, long minimum) {
+    for (Sequence sequence : sequences) {
+      minimum = Math.min(minimum, sequence.get());
+    }
+    return minimum;
+  }
+}
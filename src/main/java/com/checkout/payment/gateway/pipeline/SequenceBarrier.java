@@ -0,0 +1,83 @@
+package com.checkout.payment.gateway.pipeline;
+
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a stage waits on before it may take an event: the stages before it, or for the first
+ * stage the producers' published events. Waiting follows the {@link PipelineWaitStrategy}; no
+ * producer or stage ever signals another, so publishing costs a single ordered write.
+ */
+public class SequenceBarrier {
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 100;
+  private static final long SLEEP_NANOS = 100;
+
+  private final RingBuffer<?> ringBuffer;
+  private final Sequence[] dependencies;
+  private final PipelineWaitStrategy waitStrategy;
+  private volatile boolean alerted;
+
+  /**
+   * @param dependencies stages whose events this one follows; none for the first stage
+   */
+  public SequenceBarrier(RingBuffer<?> ringBuffer, PipelineWaitStrategy waitStrategy,
+      Sequence... dependencies) {
+    this.ringBuffer = ringBuffer;
+    this.waitStrategy = waitStrategy;
+    this.dependencies = dependencies.clone();
+  }
+
+  /**
+   * Waits until {@code sequence} may be taken, or the barrier is {@link #alert}ed.
+   *
+   * @return the highest sequence that may be taken, which is below {@code sequence} only when
+   *     alerted
+   */
+  public long waitFor(long sequence) {
+    int tries = SPIN_TRIES + YIELD_TRIES;
+    while (true) {
+      long available = dependencies.length == 0
+          ? ringBuffer.highestPublished(sequence, ringBuffer.getCursor())
+          : Sequence.minimum(dependencies, Long.MAX_VALUE);
+      if (available >= sequence || alerted) {
+        return available;
+      }
+      tries = idle(tries);
+    }
+  }
+
+  private int idle(int tries) {
+    switch (waitStrategy) {
+      case BUSY_SPIN -> Thread.onSpinWait();
+      case YIELDING -> {
+        if (tries > YIELD_TRIES) {
+          Thread.onSpinWait();
+          return tries - 1;
+        }
+        Thread.yield();
+      }
+      case SLEEPING -> {
+        if (tries > YIELD_TRIES) {
+          Thread.onSpinWait();
+        } else if (tries > 0) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(SLEEP_NANOS);
+          return tries;
+        }
+        return tries - 1;
+      }
+      default -> throw new IllegalStateException("Unknown wait strategy " + waitStrategy);
+    }
+    return tries;
+  }
+
+  /**
+   * Wakes the stage waiting on this barrier so it can see it is being stopped.
+   */
+  public void alert() {
+    alerted = true;
+  }
+}
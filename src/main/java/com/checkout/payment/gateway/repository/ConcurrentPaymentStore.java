@@ -0,0 +1,39 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Heap store backed by a pre-sized {@link ConcurrentHashMap}. Reads are lock-free and writes only
+ * lock the bin they land in, so request threads never contend on a single monitor.
+ */
+public class ConcurrentPaymentStore implements PaymentStore {
+
+  private final ConcurrentHashMap<UUID, PostPaymentResponse> payments;
+
+  public ConcurrentPaymentStore(int initialCapacity, int concurrencyLevel) {
+    this.payments = new ConcurrentHashMap<>(initialCapacity, 0.75f, concurrencyLevel);
+  }
+
+  @Override
+  public void put(PostPaymentResponse payment) {
+    payments.put(payment.getId(), payment);
+  }
+
+  @Override
+  public PostPaymentResponse get(UUID id) {
+    return payments.get(id);
+  }
+
+  @Override
+  public long size() {
+    return payments.mappingCount();
+  }
+
+  @Override
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    payments.values().forEach(action);
+  }
+}
@@ -0,0 +1,220 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash table of {@link PaymentRecordCodec} slots held in direct memory, so stored
+ * payments cost 32 bytes each and are invisible to the garbage collector. Payments are only
+ * materialised as objects when they are read.
+ *
+ * <p>Writers are serialised by a {@link StampedLock}; readers probe optimistically and only fall
+ * back to the read lock if a write overlapped the lookup.
+ *
+ * <p>When given a file, the table is memory-mapped from it instead, so the operating system pages
+ * records to disk. A file left by an earlier run with the same capacity is reopened with its
+ * records; one of any other size is recreated. It is a cache tier, not a durable store: a record
+ * being written when the process died may be lost.
+ */
+public class OffHeapPaymentStore implements PaymentStore {
+
+  private static final int RECORD_SIZE = PaymentRecordCodec.RECORD_SIZE;
+  // 2^20 slots * 32 bytes = 32MB per page, keeping every offset well inside an int
+  private static final int MAX_PAGE_SHIFT = 20;
+  private static final double MAX_LOAD_FACTOR = 0.75;
+  private static final int SCAN_CHUNK_SLOTS = 4096;
+
+  private final ByteBuffer[] pages;
+  private final int pageShift;
+  private final int pageMask;
+  private final long slotMask;
+  private final long capacity;
+  private final StampedLock lock = new StampedLock();
+  private volatile long size;
+
+  public OffHeapPaymentStore(long capacity) {
+    this(capacity, null);
+  }
+
+  public OffHeapPaymentStore(long capacity, Path file) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    long slots = Long.highestOneBit((long) Math.ceil(capacity / MAX_LOAD_FACTOR) * 2 - 1);
+    this.capacity = capacity;
+    this.slotMask = slots - 1;
+    this.pageShift = (int) Math.min(MAX_PAGE_SHIFT, Long.numberOfTrailingZeros(slots));
+    this.pageMask = (1 << pageShift) - 1;
+    this.pages = file == null
+        ? allocatePages((int) (slots >>> pageShift), (1 << pageShift) * RECORD_SIZE)
+        : mapPages(file, (int) (slots >>> pageShift), (1 << pageShift) * RECORD_SIZE);
+    if (file != null) {
+      this.size = countRecords();
+    }
+  }
+
+  @Override
+  public void put(PostPaymentResponse payment) {
+    long msb = payment.getId().getMostSignificantBits();
+    long lsb = payment.getId().getLeastSignificantBits();
+    long stamp = lock.writeLock();
+    try {
+      for (long slot = hash(msb, lsb) & slotMask; ; slot = (slot + 1) & slotMask) {
+        ByteBuffer page = page(slot);
+        int offset = offset(slot);
+        if (!PaymentRecordCodec.isPresent(page, offset)) {
+          if (size >= capacity) {
+            throw new IllegalStateException("Off-heap payment store is full: " + capacity);
+          }
+          PaymentRecordCodec.encode(page, offset, payment);
+          size++;
+          return;
+        }
+        if (PaymentRecordCodec.hasId(page, offset, msb, lsb)) {
+          PaymentRecordCodec.encode(page, offset, payment);
+          return;
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public PostPaymentResponse get(UUID id) {
+    long stamp = lock.tryOptimisticRead();
+    PostPaymentResponse payment = find(id);
+    if (lock.validate(stamp)) {
+      return payment;
+    }
+    stamp = lock.readLock();
+    try {
+      return find(id);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    // Lock a chunk of slots at a time so a full scan never stalls writers for long, and call the
+    // action outside the lock so it is free to use other stores
+    List<PostPaymentResponse> chunkPayments = new ArrayList<>(SCAN_CHUNK_SLOTS);
+    for (ByteBuffer page : pages) {
+      for (int chunk = 0; chunk < page.capacity(); chunk += SCAN_CHUNK_SLOTS * RECORD_SIZE) {
+        int end = Math.min(page.capacity(), chunk + SCAN_CHUNK_SLOTS * RECORD_SIZE);
+        long stamp = lock.readLock();
+        try {
+          for (int offset = chunk; offset < end; offset += RECORD_SIZE) {
+            if (PaymentRecordCodec.isPresent(page, offset)) {
+              chunkPayments.add(PaymentRecordCodec.decode(page, offset));
+            }
+          }
+        } finally {
+          lock.unlockRead(stamp);
+        }
+        chunkPayments.forEach(action);
+        chunkPayments.clear();
+      }
+    }
+  }
+
+  public long capacity() {
+    return capacity;
+  }
+
+  private PostPaymentResponse find(UUID id) {
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    // The load factor guarantees an empty slot, the bound only guards against torn optimistic reads
+    for (long probe = 0, slot = hash(msb, lsb) & slotMask; probe <= slotMask;
+        probe++, slot = (slot + 1) & slotMask) {
+      ByteBuffer page = page(slot);
+      int offset = offset(slot);
+      if (!PaymentRecordCodec.isPresent(page, offset)) {
+        return null;
+      }
+      if (PaymentRecordCodec.hasId(page, offset, msb, lsb)) {
+        return PaymentRecordCodec.decode(page, offset);
+      }
+    }
+    return null;
+  }
+
+  private static ByteBuffer[] allocatePages(int count, int pageSize) {
+    ByteBuffer[] pages = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      pages[i] = ByteBuffer.allocateDirect(pageSize);
+    }
+    return pages;
+  }
+
+  private long countRecords() {
+    long records = 0;
+    for (ByteBuffer page : pages) {
+      for (int offset = 0; offset < page.capacity(); offset += RECORD_SIZE) {
+        if (PaymentRecordCodec.isPresent(page, offset)) {
+          records++;
+        }
+      }
+    }
+    return records;
+  }
+
+  private static ByteBuffer[] mapPages(Path file, int count, int pageSize) {
+    ByteBuffer[] pages = new ByteBuffer[count];
+    long length = (long) count * pageSize;
+    try {
+      // Slots are placed by hashing into the whole table, so a table of another size is unusable
+      if (Files.exists(file) && Files.size(file) != length) {
+        Files.delete(file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to recreate payment store file " + file, e);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      for (int i = 0; i < count; i++) {
+        pages[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * pageSize, pageSize);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to map payment store file " + file, e);
+    }
+    return pages;
+  }
+
+  private ByteBuffer page(long slot) {
+    return pages[(int) (slot >>> pageShift)];
+  }
+
+  private int offset(long slot) {
+    return ((int) slot & pageMask) * RECORD_SIZE;
+  }
+
+  // Murmur3 finaliser so that ids which only differ in a few bits still spread across the table
+  private static long hash(long msb, long lsb) {
+    long h = msb ^ Long.rotateLeft(lsb, 32);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
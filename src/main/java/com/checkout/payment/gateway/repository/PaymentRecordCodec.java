@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Fixed-width binary layout of a stored payment.
+ *
+ * <pre>
+ *  0  id (most significant bits)    long
+ *  8  id (least significant bits)   long
+ * 16  amount                        int
+ * 20  expiry year                   short
+ * 22  card number last four         short
+ * 24  expiry month                  byte
+ * 25  status (ordinal + 1, 0=null)  byte
+ * 26  currency (ASCII, 0 padded)    3 bytes
+ * 29  flags                         byte
+ * 30  reserved                      2 bytes
+ * </pre>
+ */
+public final class PaymentRecordCodec {
+
+  public static final int RECORD_SIZE = 32;
+
+  static final int FLAGS_OFFSET = 29;
+  static final byte FLAG_PRESENT = 1;
+
+  private static final int CURRENCY_LENGTH = 3;
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+  private PaymentRecordCodec() {
+  }
+
+  public static void encode(ByteBuffer buffer, int offset, PostPaymentResponse payment) {
+    UUID id = payment.getId();
+    buffer.putLong(offset, id.getMostSignificantBits());
+    buffer.putLong(offset + 8, id.getLeastSignificantBits());
+    buffer.putInt(offset + 16, payment.getAmount());
+    buffer.putShort(offset + 20, (short) payment.getExpiryYear());
+    buffer.putShort(offset + 22, (short) payment.getCardNumberLastFour());
+    buffer.put(offset + 24, (byte) payment.getExpiryMonth());
+    buffer.put(offset + 25,
+        payment.getStatus() == null ? 0 : (byte) (payment.getStatus().ordinal() + 1));
+    encodeCurrency(buffer, offset + 26, payment.getCurrency());
+    buffer.put(offset + FLAGS_OFFSET, FLAG_PRESENT);
+    buffer.putShort(offset + 30, (short) 0);
+  }
+
+  public static PostPaymentResponse decode(ByteBuffer buffer, int offset) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(new UUID(buffer.getLong(offset), buffer.getLong(offset + 8)));
+    payment.setAmount(buffer.getInt(offset + 16));
+    payment.setExpiryYear(buffer.getShort(offset + 20));
+    payment.setCardNumberLastFour(buffer.getShort(offset + 22));
+    payment.setExpiryMonth(buffer.get(offset + 24));
+    int status = buffer.get(offset + 25);
+    payment.setStatus(status == 0 ? null : STATUSES[status - 1]);
+    payment.setCurrency(decodeCurrency(buffer, offset + 26));
+    return payment;
+  }
+
+  public static boolean isPresent(ByteBuffer buffer, int offset) {
+    return buffer.get(offset + FLAGS_OFFSET) == FLAG_PRESENT;
+  }
+
+  public static boolean hasId(ByteBuffer buffer, int offset, long mostSigBits, long leastSigBits) {
+    return buffer.getLong(offset) == mostSigBits && buffer.getLong(offset + 8) == leastSigBits;
+  }
+
+  private static void encodeCurrency(ByteBuffer buffer, int offset, String currency) {
+    if (currency != null && currency.length() > CURRENCY_LENGTH) {
+      throw new IllegalArgumentException("Currency code does not fit a payment record: " + currency);
+    }
+    for (int i = 0; i < CURRENCY_LENGTH; i++) {
+      buffer.put(offset + i,
+          currency != null && i < currency.length() ? (byte) currency.charAt(i) : 0);
+    }
+  }
+
+  private static String decodeCurrency(ByteBuffer buffer, int offset) {
+    byte[] bytes = new byte[CURRENCY_LENGTH];
+    int length = 0;
+    while (length < CURRENCY_LENGTH && buffer.get(offset + length) != 0) {
+      bytes[length] = buffer.get(offset + length);
+      length++;
+    }
+    return length == 0 ? null : new String(bytes, 0, length, StandardCharsets.US_ASCII);
+  }
+}
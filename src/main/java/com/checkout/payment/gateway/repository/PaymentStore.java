@@ -0,0 +1,35 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine behind {@link PaymentsRepository}. Implementations are called concurrently from
+ * request threads and must not lose writes or block readers.
+ */
+public interface PaymentStore {
+
+  void put(PostPaymentResponse payment);
+
+  /**
+   * Stores a batch of payments, in order. Stores that pay a fixed cost per write, such as an
+   * fsync, override this to pay it once for the batch.
+   */
+  default void putAll(List<PostPaymentResponse> payments) {
+    payments.forEach(this::put);
+  }
+
+  /**
+   * @return the stored payment, or {@code null} if no payment exists for the given id
+   */
+  PostPaymentResponse get(UUID id);
+
+  long size();
+
+  /**
+   * Visits every stored payment. Payments written concurrently may or may not be visited.
+   */
+  void forEach(Consumer<PostPaymentResponse> action);
+}
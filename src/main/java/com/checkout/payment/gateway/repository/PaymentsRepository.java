@@ -1,7 +1,7 @@
 package com.checkout.payment.gateway.repository;
 
 import com.checkout.payment.gateway.model.PostPaymentResponse;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.stereotype.Repository;
@@ -9,14 +9,22 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class PaymentsRepository {
 
-  private final HashMap<UUID, PostPaymentResponse> payments = new HashMap<>();
+  private final PaymentStore store;
+
+  public PaymentsRepository(PaymentStore store) {
+    this.store = store;
+  }
 
   public void add(PostPaymentResponse payment) {
-    payments.put(payment.getId(), payment);
+    store.put(payment);
+  }
+
+  public void addAll(List<PostPaymentResponse> payments) {
+    store.putAll(payments);
   }
 
   public Optional<PostPaymentResponse> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
+    return Optional.ofNullable(store.get(id));
   }
 
 }
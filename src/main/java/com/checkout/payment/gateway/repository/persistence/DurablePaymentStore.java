@@ -0,0 +1,152 @@
+package com.checkout.payment.gateway.repository.persistence;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Makes another {@link PaymentStore} durable by appending every payment to a {@link PaymentLog}
+ * before it becomes visible.
+ *
+ * <p>Snapshots are written in the background and the log is truncated behind them, so startup
+ * loads the latest snapshot and only replays the log tail written after it.
+ */
+public class DurablePaymentStore implements PaymentStore, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DurablePaymentStore.class);
+
+  private final PaymentStore delegate;
+  private final PaymentLog log;
+  private final PaymentSnapshots snapshots;
+  // Writers share the lock; a snapshot takes it exclusively only to capture a consistent position
+  private final ReentrantReadWriteLock positionLock = new ReentrantReadWriteLock();
+  private final ScheduledExecutorService snapshotScheduler;
+
+  private volatile Duration recoveryDuration = Duration.ZERO;
+  private volatile long recoveredPayments;
+  private LogPosition lastSnapshotPosition;
+
+  public DurablePaymentStore(PaymentStore delegate, PaymentLog log, PaymentSnapshots snapshots,
+      Duration snapshotInterval) {
+    this.delegate = delegate;
+    this.log = log;
+    this.snapshots = snapshots;
+    recover();
+
+    this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "payment-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMillis = snapshotInterval.toMillis();
+    snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis,
+        intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void put(PostPaymentResponse payment) {
+    positionLock.readLock().lock();
+    try {
+      log.append(payment);
+      delegate.put(payment);
+    } finally {
+      positionLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Appends the batch to the log under one group commit, then makes it visible.
+   */
+  @Override
+  public void putAll(List<PostPaymentResponse> payments) {
+    positionLock.readLock().lock();
+    try {
+      log.appendAll(payments);
+      payments.forEach(delegate::put);
+    } finally {
+      positionLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public PostPaymentResponse get(UUID id) {
+    return delegate.get(id);
+  }
+
+  @Override
+  public long size() {
+    return delegate.size();
+  }
+
+  @Override
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    delegate.forEach(action);
+  }
+
+  /**
+   * Writes a snapshot of the store and deletes the log segments it makes redundant.
+   */
+  public synchronized void snapshot() {
+    LogPosition position;
+    positionLock.writeLock().lock();
+    try {
+      position = log.position();
+    } finally {
+      positionLock.writeLock().unlock();
+    }
+    if (position.equals(lastSnapshotPosition)) {
+      return;
+    }
+    // Payments written while the snapshot is taken may be included; replaying them is harmless
+    LogPosition replayFrom = snapshots.write(delegate, position);
+    log.deleteSegmentsBefore(replayFrom.segment());
+    lastSnapshotPosition = position;
+  }
+
+  public Duration getRecoveryDuration() {
+    return recoveryDuration;
+  }
+
+  public long getRecoveredPayments() {
+    return recoveredPayments;
+  }
+
+  @Override
+  public void close() {
+    snapshotScheduler.shutdownNow();
+    log.close();
+  }
+
+  private void recover() {
+    long start = System.nanoTime();
+    LogPosition position = snapshots.load(delegate).orElse(LogPosition.START);
+    long[] replayed = {0};
+    log.replay(position, payment -> {
+      delegate.put(payment);
+      replayed[0]++;
+    });
+    lastSnapshotPosition = replayed[0] == 0 ? position : null;
+    recoveredPayments = delegate.size();
+    recoveryDuration = Duration.ofNanos(System.nanoTime() - start);
+    LOG.info("Recovered {} payments ({} replayed from the payment log) in {} ms",
+        recoveredPayments, replayed[0], recoveryDuration.toMillis());
+  }
+
+  private void snapshotQuietly() {
+    try {
+      snapshot();
+    } catch (RuntimeException e) {
+      LOG.error("Failed to write payment snapshot", e);
+    }
+  }
+}
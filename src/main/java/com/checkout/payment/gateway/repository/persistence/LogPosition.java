@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.repository.persistence;
+
+/**
+ * Position of an entry in the {@link PaymentLog}: the segment index and the byte offset of the
+ * entry within that segment.
+ */
+public record LogPosition(long segment, int offset) implements Comparable<LogPosition> {
+
+  public static final LogPosition START = new LogPosition(0, 0);
+
+  @Override
+  public int compareTo(LogPosition other) {
+    int bySegment = Long.compare(segment, other.segment);
+    return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+  }
+}
@@ -0,0 +1,390 @@
+package com.checkout.payment.gateway.repository.persistence;
+
+import com.checkout.payment.gateway.enums.FsyncPolicy;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentRecordCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of payment records split into fixed-size, memory-mapped segment files.
+ *
+ * <p>Each entry is a 4-byte marker, a CRC32C of the record and a {@link PaymentRecordCodec}
+ * record. Segments are pre-sized and zero filled, so replay stops at the first entry without a
+ * marker or with a bad checksum, which also discards a record torn by a crash.
+ */
+public class PaymentLog implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentLog.class);
+
+  static final int ENTRY_SIZE = 8 + PaymentRecordCodec.RECORD_SIZE;
+
+  private static final int ENTRY_MARKER = 0x50415931;
+  private static final Pattern SEGMENT_NAME = Pattern.compile("payments-(\\d{20})\\.log");
+
+  private final Path directory;
+  private final int segmentSize;
+  private final FsyncPolicy fsyncPolicy;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushed = lock.newCondition();
+  private final ByteBuffer scratch = ByteBuffer.allocate(PaymentRecordCodec.RECORD_SIZE);
+  private final CRC32C crc = new CRC32C();
+  private final Thread flusher;
+
+  private long segmentIndex;
+  private MappedByteBuffer segment;
+  private int writeOffset;
+  private long appendedSequence;
+  private long durableSequence;
+  private long forces;
+  private RuntimeException flushFailure;
+  private volatile boolean closed;
+
+  public PaymentLog(Path directory, long segmentSize, FsyncPolicy fsyncPolicy,
+      Duration groupCommitInterval) {
+    this.directory = directory;
+    this.segmentSize = (int) (Math.min(segmentSize, Integer.MAX_VALUE) / ENTRY_SIZE * ENTRY_SIZE);
+    this.fsyncPolicy = fsyncPolicy;
+    if (this.segmentSize == 0) {
+      throw new IllegalArgumentException("Segment size is smaller than one entry: " + segmentSize);
+    }
+    try {
+      Files.createDirectories(directory);
+      List<Long> segments = segmentIndexes();
+      segmentIndex = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+      segment = map(segmentIndex);
+      writeOffset = validLength(segment);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to open payment log in " + directory, e);
+    }
+
+    if (fsyncPolicy == FsyncPolicy.GROUP_COMMIT) {
+      long intervalNanos = groupCommitInterval.toNanos();
+      flusher = new Thread(() -> runFlusher(intervalNanos), "payment-log-flusher");
+      flusher.setDaemon(true);
+      flusher.start();
+    } else {
+      flusher = null;
+    }
+  }
+
+  public void append(PostPaymentResponse payment) {
+    long sequence;
+    lock.lock();
+    try {
+      ensureOpen();
+      sequence = appendLocked(payment);
+      if (fsyncPolicy == FsyncPolicy.PER_WRITE) {
+        forceLocked(writeOffset - ENTRY_SIZE, sequence);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (fsyncPolicy == FsyncPolicy.GROUP_COMMIT) {
+      awaitDurable(sequence);
+    }
+  }
+
+  /**
+   * Appends {@code payments} in order and makes them durable with a single fsync, or a single
+   * group commit, for the whole batch.
+   */
+  public void appendAll(List<PostPaymentResponse> payments) {
+    if (payments.isEmpty()) {
+      return;
+    }
+    long sequence = 0;
+    lock.lock();
+    try {
+      ensureOpen();
+      long firstSegment = segmentIndex;
+      int firstOffset = writeOffset;
+      for (PostPaymentResponse payment : payments) {
+        sequence = appendLocked(payment);
+      }
+      if (fsyncPolicy == FsyncPolicy.PER_WRITE) {
+        // Segments rotated away from during the batch were forced whole by rotate()
+        forceLocked(segmentIndex == firstSegment ? firstOffset : 0, sequence);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (fsyncPolicy == FsyncPolicy.GROUP_COMMIT) {
+      awaitDurable(sequence);
+    }
+  }
+
+  /**
+   * Number of times segment pages have been forced to disk.
+   */
+  long getForces() {
+    lock.lock();
+    try {
+      return forces;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the position the next entry will be appended at
+   */
+  public LogPosition position() {
+    lock.lock();
+    try {
+      return writeOffset + ENTRY_SIZE > segmentSize
+          ? new LogPosition(segmentIndex + 1, 0)
+          : new LogPosition(segmentIndex, writeOffset);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replays every intact entry at or after the given position, oldest first.
+   */
+  public void replay(LogPosition from, Consumer<PostPaymentResponse> consumer) {
+    try {
+      for (long index : segmentIndexes()) {
+        if (index < from.segment()) {
+          continue;
+        }
+        MappedByteBuffer buffer = index == segmentIndex ? segment : map(index);
+        int offset = index == from.segment() ? from.offset() : 0;
+        for (; offset + ENTRY_SIZE <= segmentSize; offset += ENTRY_SIZE) {
+          PostPaymentResponse payment = read(buffer, offset);
+          if (payment == null) {
+            break;
+          }
+          consumer.accept(payment);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to replay payment log in " + directory, e);
+    }
+  }
+
+  /**
+   * Deletes segments that only hold entries before the given segment, once a snapshot covers them.
+   */
+  public void deleteSegmentsBefore(long segment) {
+    try {
+      for (long index : segmentIndexes()) {
+        if (index >= segment || index == segmentIndex) {
+          break;
+        }
+        Files.deleteIfExists(segmentFile(index));
+        LOG.debug("Deleted payment log segment {}", index);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to truncate payment log in " + directory, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (fsyncPolicy != FsyncPolicy.OS) {
+        segment.force();
+        forces++;
+        durableSequence = appendedSequence;
+        flushed.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (flusher != null) {
+      flusher.interrupt();
+    }
+  }
+
+  private void write(PostPaymentResponse payment) {
+    PaymentRecordCodec.encode(scratch, 0, payment);
+    crc.reset();
+    crc.update(scratch.array(), 0, PaymentRecordCodec.RECORD_SIZE);
+    segment.put(writeOffset + 8, scratch.array(), 0, PaymentRecordCodec.RECORD_SIZE);
+    segment.putInt(writeOffset + 4, (int) crc.getValue());
+    segment.putInt(writeOffset, ENTRY_MARKER);
+    writeOffset += ENTRY_SIZE;
+  }
+
+  private PostPaymentResponse read(ByteBuffer buffer, int offset) {
+    if (buffer.getInt(offset) != ENTRY_MARKER) {
+      return null;
+    }
+    byte[] record = new byte[PaymentRecordCodec.RECORD_SIZE];
+    buffer.get(offset + 8, record);
+    CRC32C checksum = new CRC32C();
+    checksum.update(record);
+    if ((int) checksum.getValue() != buffer.getInt(offset + 4)) {
+      LOG.warn("Discarding torn payment log entry at offset {}", offset);
+      return null;
+    }
+    return PaymentRecordCodec.decode(ByteBuffer.wrap(record), 0);
+  }
+
+  private int validLength(ByteBuffer buffer) {
+    int offset = 0;
+    while (offset + ENTRY_SIZE <= segmentSize && read(buffer, offset) != null) {
+      offset += ENTRY_SIZE;
+    }
+    return offset;
+  }
+
+  private void rotate() {
+    if (fsyncPolicy != FsyncPolicy.OS) {
+      // Entries in older segments must already be durable once the flusher moves on
+      segment.force();
+      forces++;
+    }
+    try {
+      segment = map(++segmentIndex);
+      writeOffset = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to create payment log segment " + segmentIndex, e);
+    }
+    LOG.info("Rotated payment log to segment {}", segmentIndex);
+  }
+
+  private long appendLocked(PostPaymentResponse payment) {
+    if (writeOffset + ENTRY_SIZE > segmentSize) {
+      rotate();
+    }
+    write(payment);
+    return ++appendedSequence;
+  }
+
+  /**
+   * Forces the current segment from {@code offset} up to the write offset, making every entry up
+   * to {@code sequence} durable.
+   */
+  private void forceLocked(int offset, long sequence) {
+    segment.force(offset, writeOffset - offset);
+    forces++;
+    durableSequence = sequence;
+  }
+
+  private void awaitDurable(long sequence) {
+    lock.lock();
+    try {
+      while (durableSequence < sequence) {
+        ensureOpen();
+        if (flushFailure != null) {
+          throw new UncheckedIOException(
+              new IOException("Payment log could not be forced to disk", flushFailure));
+        }
+        flushed.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void runFlusher(long intervalNanos) {
+    while (!closed) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(intervalNanos);
+      } catch (InterruptedException e) {
+        return;
+      }
+      MappedByteBuffer target;
+      long sequence;
+      lock.lock();
+      try {
+        if (durableSequence == appendedSequence || closed) {
+          continue;
+        }
+        target = segment;
+        sequence = appendedSequence;
+      } finally {
+        lock.unlock();
+      }
+      // Forcing outside the lock lets appends continue while the pages are written back
+      try {
+        force(target);
+      } catch (RuntimeException e) {
+        // Dirty pages may have been dropped, so nothing appended from here on can be trusted
+        LOG.error("Unable to force payment log, failing group-committed appends", e);
+        lock.lock();
+        try {
+          flushFailure = e;
+          flushed.signalAll();
+        } finally {
+          lock.unlock();
+        }
+        return;
+      }
+      lock.lock();
+      try {
+        forces++;
+        durableSequence = Math.max(durableSequence, sequence);
+        flushed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Writes the segment's dirty pages back to disk on the flusher thread.
+   */
+  void force(MappedByteBuffer target) {
+    target.force();
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Payment log is closed");
+    }
+  }
+
+  private Path segmentFile(long index) {
+    return directory.resolve(String.format("payments-%020d.log", index));
+  }
+
+  private MappedByteBuffer map(long index) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+  }
+
+  private List<Long> segmentIndexes() throws IOException {
+    List<Long> indexes = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(file -> {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          indexes.add(Long.parseLong(matcher.group(1)));
+        }
+      });
+    }
+    indexes.sort(null);
+    return indexes;
+  }
+}
@@ -0,0 +1,204 @@
+package com.checkout.payment.gateway.repository.persistence;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentRecordCodec;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Point-in-time snapshots of a {@link PaymentStore}, each tagged with the {@link LogPosition} from
+ * which the log has to be replayed to bring the snapshot up to date.
+ *
+ * <p>A snapshot file is a 32-byte header (marker, record count, log position) followed by
+ * {@link PaymentRecordCodec} records. Files are written under a temporary name and only renamed
+ * into place once forced to disk, so a visible snapshot is always complete.
+ */
+public class PaymentSnapshots {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentSnapshots.class);
+
+  private static final int RECORD_SIZE = PaymentRecordCodec.RECORD_SIZE;
+  private static final int HEADER_SIZE = RECORD_SIZE;
+  private static final long SNAPSHOT_MARKER = 0x50415953_4e415031L;
+  private static final int WRITE_BUFFER_RECORDS = 32 * 1024;
+  private static final int LOAD_CHUNK_RECORDS = 1 << 20;
+  private static final Pattern SNAPSHOT_NAME =
+      Pattern.compile("snapshot-(\\d{20})-(\\d{10})\\.snap");
+
+  private final Path directory;
+  private final int retained;
+
+  public PaymentSnapshots(Path directory, int retained) {
+    this.directory = directory;
+    this.retained = Math.max(1, retained);
+  }
+
+  /**
+   * Writes every payment in the store to a new snapshot and prunes older snapshots.
+   *
+   * @return the log position from which replay must start for the oldest retained snapshot
+   */
+  public LogPosition write(PaymentStore store, LogPosition position) {
+    Path target = directory.resolve(fileName(position));
+    Path temporary = directory.resolve(target.getFileName() + ".tmp");
+    long count;
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      count = writeRecords(channel, store);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putLong(SNAPSHOT_MARKER).putLong(count).putLong(position.segment())
+          .putInt(position.offset()).flip();
+      channel.write(header, 0);
+      channel.force(true);
+    } catch (IOException e) {
+      deleteQuietly(temporary);
+      throw new UncheckedIOException("Unable to write payment snapshot " + target, e);
+    }
+    try {
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+      LOG.info("Wrote payment snapshot {} with {} payments", target.getFileName(), count);
+      return prune();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to publish payment snapshot " + target, e);
+    }
+  }
+
+  /**
+   * Loads the latest snapshot into the store, decoding chunks of the memory-mapped file in
+   * parallel.
+   *
+   * @return the log position to replay from, or empty if there is no snapshot
+   */
+  public Optional<LogPosition> load(PaymentStore store) {
+    List<Path> snapshots = snapshots();
+    for (int i = snapshots.size() - 1; i >= 0; i--) {
+      Optional<LogPosition> position = load(snapshots.get(i), store);
+      if (position.isPresent()) {
+        return position;
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Optional<LogPosition> load(Path snapshot, PaymentStore store) {
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      channel.read(header, 0);
+      long count = header.getLong(8);
+      if (header.getLong(0) != SNAPSHOT_MARKER
+          || channel.size() != HEADER_SIZE + count * RECORD_SIZE) {
+        LOG.warn("Skipping corrupt payment snapshot {}", snapshot.getFileName());
+        return Optional.empty();
+      }
+
+      long chunks = (count + LOAD_CHUNK_RECORDS - 1) / LOAD_CHUNK_RECORDS;
+      LongStream.range(0, chunks).parallel().forEach(chunk -> {
+        long first = chunk * LOAD_CHUNK_RECORDS;
+        int records = (int) Math.min(LOAD_CHUNK_RECORDS, count - first);
+        MappedByteBuffer buffer = map(channel, HEADER_SIZE + first * RECORD_SIZE,
+            (long) records * RECORD_SIZE);
+        for (int i = 0; i < records; i++) {
+          store.put(PaymentRecordCodec.decode(buffer, i * RECORD_SIZE));
+        }
+      });
+      LOG.info("Loaded payment snapshot {} with {} payments", snapshot.getFileName(), count);
+      return Optional.of(new LogPosition(header.getLong(16), header.getInt(24)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to load payment snapshot " + snapshot, e);
+    }
+  }
+
+  private long writeRecords(FileChannel channel, PaymentStore store) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * RECORD_SIZE);
+    long[] count = {0};
+    channel.position(HEADER_SIZE);
+    store.forEach((PostPaymentResponse payment) -> {
+      if (!buffer.hasRemaining()) {
+        flush(channel, buffer);
+      }
+      PaymentRecordCodec.encode(buffer, buffer.position(), payment);
+      buffer.position(buffer.position() + RECORD_SIZE);
+      count[0]++;
+    });
+    flush(channel, buffer);
+    return count[0];
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long position, long size) {
+    try {
+      return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private LogPosition prune() throws IOException {
+    List<Path> snapshots = snapshots();
+    int excess = snapshots.size() - retained;
+    for (int i = 0; i < excess; i++) {
+      Files.deleteIfExists(snapshots.get(i));
+    }
+    return position(snapshots.get(Math.max(0, excess)));
+  }
+
+  private List<Path> snapshots() {
+    try (Stream<Path> files = Files.list(directory)) {
+      List<Path> snapshots = new ArrayList<>();
+      files.filter(file -> SNAPSHOT_NAME.matcher(file.getFileName().toString()).matches())
+          .sorted()
+          .forEach(snapshots::add);
+      return snapshots;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to list payment snapshots in " + directory, e);
+    }
+  }
+
+  private static LogPosition position(Path snapshot) {
+    Matcher matcher = SNAPSHOT_NAME.matcher(snapshot.getFileName().toString());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not a payment snapshot: " + snapshot);
+    }
+    return new LogPosition(Long.parseLong(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+  }
+
+  private static String fileName(LogPosition position) {
+    return String.format("snapshot-%020d-%010d.snap", position.segment(), position.offset());
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Unable to delete {}", file, e);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Variable-length encoding of a payment without its id, which the warm tier already holds as the
+ * key. A typical payment takes about 10 bytes rather than a 32-byte fixed record.
+ *
+ * <pre>
+ * header          byte     status (ordinal + 1, 0=null) in bits 0-1, currency form in bits 2-3
+ * currency        2 bytes  three letters A-Z at 5 bits each, when packed
+ *                 n bytes  varint length then ASCII, otherwise; absent when null
+ * expiry month    varint
+ * expiry year     varint
+ * last four       varint
+ * amount          varint
+ * </pre>
+ *
+ * <p>Varints hold 7 bits per byte, so a negative value, which no valid payment has, takes 5.
+ */
+final class CompactPaymentCodec {
+
+  private static final int CURRENCY_NULL = 0;
+  private static final int CURRENCY_PACKED = 1;
+  private static final int CURRENCY_RAW = 2;
+  private static final int MAX_VARINT_SIZE = 5;
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+  private CompactPaymentCodec() {
+  }
+
+  static byte[] encode(PostPaymentResponse payment) {
+    String currency = payment.getCurrency();
+    int currencyForm = currency == null ? CURRENCY_NULL
+        : isPackable(currency) ? CURRENCY_PACKED : CURRENCY_RAW;
+    byte[] buffer = new byte[1 + (currencyForm == CURRENCY_RAW
+        ? MAX_VARINT_SIZE + currency.length() : 2) + 4 * MAX_VARINT_SIZE];
+    PaymentStatus status = payment.getStatus();
+    buffer[0] = (byte) ((status == null ? 0 : status.ordinal() + 1) | currencyForm << 2);
+    int position = 1;
+    if (currencyForm == CURRENCY_PACKED) {
+      int packed = (currency.charAt(0) - 'A') << 10 | (currency.charAt(1) - 'A') << 5
+          | (currency.charAt(2) - 'A');
+      buffer[position++] = (byte) (packed >>> 8);
+      buffer[position++] = (byte) packed;
+    } else if (currencyForm == CURRENCY_RAW) {
+      byte[] ascii = currency.getBytes(StandardCharsets.US_ASCII);
+      position = putVarint(buffer, position, ascii.length);
+      System.arraycopy(ascii, 0, buffer, position, ascii.length);
+      position += ascii.length;
+    }
+    position = putVarint(buffer, position, payment.getExpiryMonth());
+    position = putVarint(buffer, position, payment.getExpiryYear());
+    position = putVarint(buffer, position, payment.getCardNumberLastFour());
+    position = putVarint(buffer, position, payment.getAmount());
+    return Arrays.copyOf(buffer, position);
+  }
+
+  static PostPaymentResponse decode(UUID id, byte[] record) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    int header = record[0];
+    int status = header & 0x3;
+    payment.setStatus(status == 0 ? null : STATUSES[status - 1]);
+    int[] position = {1};
+    int currencyForm = header >>> 2 & 0x3;
+    if (currencyForm == CURRENCY_PACKED) {
+      int packed = (record[1] & 0xFF) << 8 | (record[2] & 0xFF);
+      position[0] = 3;
+      payment.setCurrency(new String(new char[] {(char) ('A' + (packed >>> 10 & 0x1F)),
+          (char) ('A' + (packed >>> 5 & 0x1F)), (char) ('A' + (packed & 0x1F))}));
+    } else if (currencyForm == CURRENCY_RAW) {
+      int length = getVarint(record, position);
+      payment.setCurrency(new String(record, position[0], length, StandardCharsets.US_ASCII));
+      position[0] += length;
+    }
+    payment.setExpiryMonth(getVarint(record, position));
+    payment.setExpiryYear(getVarint(record, position));
+    payment.setCardNumberLastFour(getVarint(record, position));
+    payment.setAmount(getVarint(record, position));
+    return payment;
+  }
+
+  private static boolean isPackable(String currency) {
+    if (currency.length() != 3) {
+      return false;
+    }
+    for (int i = 0; i < 3; i++) {
+      char c = currency.charAt(i);
+      if (c < 'A' || c > 'Z') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int putVarint(byte[] buffer, int position, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+    return position;
+  }
+
+  /**
+   * Reads a varint at {@code position[0]} and moves the position past it.
+   */
+  private static int getVarint(byte[] record, int[] position) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = record[position[0]++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+}
@@ -0,0 +1,178 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded on-heap tier using a segmented LRU policy. New payments enter a probation segment and
+ * are promoted to a protected segment when read again, so a burst of one-off writes cannot flush
+ * the payments merchants are actively polling.
+ *
+ * <p>The tier is split into independently locked stripes. Evicted payments are handed to the
+ * eviction listener while the stripe lock is still held, so a payment is never missing from every
+ * tier at once.
+ */
+public class HotPaymentTier {
+
+  private static final double PROTECTED_RATIO = 0.8;
+
+  private final Stripe[] stripes;
+  private final Consumer<PostPaymentResponse> evictionListener;
+  private final TierStats stats = new TierStats();
+
+  public HotPaymentTier(int capacity, Consumer<PostPaymentResponse> evictionListener) {
+    int stripeCount = Integer.highestOneBit(
+        Math.max(1, Math.min(capacity / 16, Runtime.getRuntime().availableProcessors() * 4)));
+    this.stripes = new Stripe[stripeCount];
+    int stripeCapacity = Math.max(1, (capacity + stripeCount - 1) / stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(stripeCapacity);
+    }
+    this.evictionListener = evictionListener;
+  }
+
+  public PostPaymentResponse get(UUID id) {
+    PostPaymentResponse payment = stripe(id).get(id);
+    if (payment != null) {
+      stats.recordHit();
+    } else {
+      stats.recordMiss();
+    }
+    return payment;
+  }
+
+  public void put(PostPaymentResponse payment) {
+    stripe(payment.getId()).put(payment);
+  }
+
+  public boolean contains(UUID id) {
+    return stripe(id).contains(id);
+  }
+
+  public long size() {
+    long size = 0;
+    for (Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    for (Stripe stripe : stripes) {
+      stripe.snapshot().forEach(action);
+    }
+  }
+
+  public TierStats getStats() {
+    return stats;
+  }
+
+  private Stripe stripe(UUID id) {
+    int hash = id.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  private final class Stripe {
+
+    private final int capacity;
+    private final int protectedCapacity;
+    private final LinkedHashMap<UUID, PostPaymentResponse> probation =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<UUID, PostPaymentResponse> protectedSegment =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Stripe(int capacity) {
+      this.capacity = capacity;
+      this.protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+    }
+
+    private PostPaymentResponse get(UUID id) {
+      lock.lock();
+      try {
+        PostPaymentResponse payment = protectedSegment.get(id);
+        if (payment != null) {
+          return payment;
+        }
+        payment = probation.remove(id);
+        if (payment != null) {
+          protectedSegment.put(id, payment);
+          if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<UUID, PostPaymentResponse> eldest = eldest(protectedSegment);
+            probation.put(eldest.getKey(), eldest.getValue());
+          }
+          evictOverflow();
+        }
+        return payment;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void put(PostPaymentResponse payment) {
+      lock.lock();
+      try {
+        if (protectedSegment.containsKey(payment.getId())) {
+          protectedSegment.put(payment.getId(), payment);
+        } else {
+          probation.put(payment.getId(), payment);
+          evictOverflow();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean contains(UUID id) {
+      lock.lock();
+      try {
+        return protectedSegment.containsKey(id) || probation.containsKey(id);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int size() {
+      lock.lock();
+      try {
+        return protectedSegment.size() + probation.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<PostPaymentResponse> snapshot() {
+      lock.lock();
+      try {
+        List<PostPaymentResponse> payments = new ArrayList<>(protectedSegment.values());
+        payments.addAll(probation.values());
+        return payments;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void evictOverflow() {
+      while (probation.size() + protectedSegment.size() > capacity && !probation.isEmpty()) {
+        PostPaymentResponse evicted = eldest(probation).getValue();
+        stats.recordEviction();
+        evictionListener.accept(evicted);
+      }
+    }
+
+    private Map.Entry<UUID, PostPaymentResponse> eldest(
+        LinkedHashMap<UUID, PostPaymentResponse> segment) {
+      Iterator<Map.Entry<UUID, PostPaymentResponse>> iterator = segment.entrySet().iterator();
+      Map.Entry<UUID, PostPaymentResponse> eldest = iterator.next();
+      iterator.remove();
+      return eldest;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class TierStats {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "TierStats{" +
+        "hits=" + getHits() +
+        ", misses=" + getMisses() +
+        ", evictions=" + getEvictions() +
+        '}';
+  }
+}
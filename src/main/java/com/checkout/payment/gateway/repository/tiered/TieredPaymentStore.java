@@ -0,0 +1,134 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.OffHeapPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Three-tier store: a bounded hot tier of objects, a bounded warm tier of compressed records and a
+ * memory-mapped cold tier on disk. Writes land in the hot tier and cascade down as tiers evict;
+ * reads fall through the tiers and promote what they find back into the hot tier.
+ *
+ * <p>Once the cold tier is full, puts are rejected with an {@link IllegalStateException} before
+ * any tier is touched. A put racing another for the last cold slot may still fail in the cascade;
+ * a tier whose eviction is rejected keeps the payment, so nothing is lost either way.
+ */
+public class TieredPaymentStore implements PaymentStore {
+
+  private final HotPaymentTier hot;
+  private final WarmPaymentTier warm;
+  private final OffHeapPaymentStore cold;
+  private final TierStats coldStats = new TierStats();
+
+  public TieredPaymentStore(int hotCapacity, int warmCapacity, long coldCapacity, Path coldFile) {
+    this.cold = new OffHeapPaymentStore(coldCapacity, coldFile);
+    this.warm = new WarmPaymentTier(warmCapacity, cold::put);
+    this.hot = new HotPaymentTier(hotCapacity, warm::put);
+  }
+
+  @Override
+  public void put(PostPaymentResponse payment) {
+    if (isColdFull()) {
+      throw new IllegalStateException("Tiered payment store is full: " + cold.capacity()
+          + " payments in the cold tier");
+    }
+    hot.put(payment);
+  }
+
+  @Override
+  public PostPaymentResponse get(UUID id) {
+    PostPaymentResponse payment = hot.get(id);
+    if (payment != null) {
+      return payment;
+    }
+    byte[] record = warm.getRecord(id);
+    if (record != null) {
+      payment = CompactPaymentCodec.decode(id, record);
+      // Insert before removing so the payment stays visible to concurrent readers. If the hot
+      // tier has already evicted it back down, the warm tier holds a new record and keeps it
+      if (promote(payment)) {
+        warm.remove(id, record);
+      }
+      return payment;
+    }
+    payment = cold.get(id);
+    if (payment == null) {
+      coldStats.recordMiss();
+      return null;
+    }
+    coldStats.recordHit();
+    promote(payment);
+    return payment;
+  }
+
+  /**
+   * Puts a payment that was read from a lower tier into the hot tier, unless that could cascade
+   * another payment into a full cold tier.
+   *
+   * @return whether the payment was promoted
+   */
+  private boolean promote(PostPaymentResponse payment) {
+    if (isColdFull()) {
+      return false;
+    }
+    try {
+      hot.put(payment);
+      return true;
+    } catch (IllegalStateException ex) {
+      // The cold tier filled up meanwhile; the tier that could not demote kept its payment
+      return false;
+    }
+  }
+
+  private boolean isColdFull() {
+    return cold.size() >= cold.capacity();
+  }
+
+  /**
+   * Counts distinct payments per tier; payments promoted out of the cold tier are also still
+   * counted there.
+   */
+  @Override
+  public long size() {
+    return hot.size() + warm.size() + cold.size();
+  }
+
+  @Override
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    hot.forEach(action);
+    warm.forEach(action);
+    cold.forEach(payment -> {
+      // The cold tier keeps a copy of promoted payments; the upper tiers hold the current one
+      if (!hot.contains(payment.getId()) && !warm.contains(payment.getId())) {
+        action.accept(payment);
+      }
+    });
+  }
+
+  public TierStats getHotStats() {
+    return hot.getStats();
+  }
+
+  public TierStats getWarmStats() {
+    return warm.getStats();
+  }
+
+  public TierStats getColdStats() {
+    return coldStats;
+  }
+
+  public long getHotSize() {
+    return hot.size();
+  }
+
+  public long getWarmSize() {
+    return warm.size();
+  }
+
+  public long getColdSize() {
+    return cold.size();
+  }
+}
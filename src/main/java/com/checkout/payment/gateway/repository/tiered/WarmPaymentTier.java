@@ -0,0 +1,129 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded on-heap tier that keeps payments compressed by {@link CompactPaymentCodec} rather than
+ * as objects, evicting the oldest entry first.
+ */
+public class WarmPaymentTier {
+
+  private final int capacity;
+  private final LinkedHashMap<UUID, byte[]> records;
+  private final Consumer<PostPaymentResponse> evictionListener;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final TierStats stats = new TierStats();
+
+  public WarmPaymentTier(int capacity, Consumer<PostPaymentResponse> evictionListener) {
+    this.capacity = capacity;
+    this.records = new LinkedHashMap<>(Math.min(capacity, 1 << 16));
+    this.evictionListener = evictionListener;
+  }
+
+  public PostPaymentResponse get(UUID id) {
+    byte[] record = getRecord(id);
+    return record == null ? null : CompactPaymentCodec.decode(id, record);
+  }
+
+  /**
+   * The encoded payment, for {@link #remove(UUID, byte[])} once it has been promoted.
+   */
+  byte[] getRecord(UUID id) {
+    byte[] record;
+    lock.lock();
+    try {
+      record = records.get(id);
+    } finally {
+      lock.unlock();
+    }
+    if (record == null) {
+      stats.recordMiss();
+      return null;
+    }
+    stats.recordHit();
+    return record;
+  }
+
+  public void put(PostPaymentResponse payment) {
+    byte[] record = CompactPaymentCodec.encode(payment);
+    lock.lock();
+    try {
+      records.put(payment.getId(), record);
+      // Evicted records are demoted under the lock so they never disappear from every tier
+      Iterator<Map.Entry<UUID, byte[]>> eldest = records.entrySet().iterator();
+      while (records.size() > capacity) {
+        Map.Entry<UUID, byte[]> evicted = eldest.next();
+        PostPaymentResponse demoted =
+            CompactPaymentCodec.decode(evicted.getKey(), evicted.getValue());
+        // Demote before removing: if the tier below rejects it, the record stays here
+        evictionListener.accept(demoted);
+        eldest.remove();
+        stats.recordEviction();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the payment only if it is still held as {@code record}: a payment promoted and then
+   * demoted again in the meantime has a new record, which must stay.
+   *
+   * @return whether the record was removed
+   */
+  boolean remove(UUID id, byte[] record) {
+    lock.lock();
+    try {
+      if (records.get(id) != record) {
+        return false;
+      }
+      records.remove(id);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean contains(UUID id) {
+    lock.lock();
+    try {
+      return records.containsKey(id);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long size() {
+    lock.lock();
+    try {
+      return records.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    List<Map.Entry<UUID, byte[]>> snapshot;
+    lock.lock();
+    try {
+      snapshot = new ArrayList<>(records.size());
+      records.forEach((id, record) -> snapshot.add(Map.entry(id, record)));
+    } finally {
+      lock.unlock();
+    }
+    snapshot.forEach(
+        entry -> action.accept(CompactPaymentCodec.decode(entry.getKey(), entry.getValue())));
+  }
+
+  public TierStats getStats() {
+    return stats;
+  }
+}
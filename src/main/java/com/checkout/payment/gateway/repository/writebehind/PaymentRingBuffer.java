@@ -0,0 +1,111 @@
+package com.checkout.payment.gateway.repository.writebehind;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring of payments offered by any number of request threads and drained by a single
+ * writer thread.
+ *
+ * <p>Each slot carries a sequence number: a producer claims position {@code p} by moving the
+ * shared tail on from {@code p} once the slot's sequence says it is free, fills the slot, then
+ * publishes it by setting its sequence to {@code p + 1}. The writer takes slots in order while
+ * they are published and frees each by setting its sequence to {@code p + capacity}, so neither
+ * side takes a lock and a slot is never read half written.
+ */
+class PaymentRingBuffer {
+
+  private final int mask;
+  private final PostPaymentResponse[] slots;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  // Only touched by the writer thread, but read for the size gauge
+  private volatile long head;
+
+  PaymentRingBuffer(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+    }
+    this.mask = capacity - 1;
+    this.slots = new PostPaymentResponse[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * @return false if the ring is full
+   */
+  boolean offer(PostPaymentResponse payment) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long available = sequences.get(index) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slots[index] = payment;
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (available < 0) {
+        return false;
+      } else {
+        // Another producer claimed this position first
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Moves up to {@code max} published payments into {@code batch}. Writer thread only.
+   *
+   * @return how many were moved
+   */
+  int drainTo(List<PostPaymentResponse> batch, int max) {
+    long position = head;
+    int drained = 0;
+    while (drained < max) {
+      int index = (int) position & mask;
+      if (sequences.get(index) != position + 1) {
+        break;
+      }
+      batch.add(slots[index]);
+      slots[index] = null;
+      sequences.set(index, position + slots.length);
+      position++;
+      drained++;
+    }
+    head = position;
+    return drained;
+  }
+
+  /**
+   * Whether the writer has nothing published to take. Writer thread only.
+   */
+  boolean isEmpty() {
+    long position = head;
+    return sequences.get((int) position & mask) != position + 1;
+  }
+
+  /**
+   * Payments claimed but not yet drained; approximate while producers are offering.
+   */
+  int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * Positions claimed by producers so far; a payment offered before this call was at a lower one.
+   */
+  long claimed() {
+    return tail.get();
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+}
@@ -0,0 +1,218 @@
+package com.checkout.payment.gateway.repository.writebehind;
+
+import com.checkout.payment.gateway.enums.BackpressurePolicy;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes writes to another {@link PaymentStore} off the request path. A payment is put in a
+ * {@link PaymentRingBuffer} and the call returns; a single writer thread drains the ring and hands
+ * the delegate whole batches through {@link PaymentStore#putAll}, so a durable store pays one
+ * group commit per batch rather than one per payment.
+ *
+ * <p>Until its batch is written a payment is also held in a pending map that {@link #get} checks
+ * first, so a payment can be read back as soon as it has been put. When the ring is full the
+ * {@link BackpressurePolicy} either waits for the writer or writes on the caller's thread; a
+ * payment is never dropped. A batch the delegate fails to write is retried until it succeeds,
+ * and its payments stay readable meanwhile. As the ring cannot drain while the delegate keeps
+ * failing, a blocked caller waits at most {@code maxBlock} before writing through itself.
+ */
+public class WriteBehindPaymentStore implements PaymentStore, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindPaymentStore.class);
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long RETRY_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final PaymentStore delegate;
+  private final PaymentRingBuffer ring;
+  private final int maxBatchSize;
+  private final BackpressurePolicy backpressure;
+  private final long maxBlockNanos;
+  private final Map<UUID, PostPaymentResponse> pending = new ConcurrentHashMap<>();
+  private final Thread writer;
+  private final LongAdder overflows = new LongAdder();
+  private final LongAdder writeFailures = new LongAdder();
+  private volatile long written;
+  private volatile boolean writerIdle;
+  private volatile boolean running = true;
+
+  /**
+   * @param capacity payments the ring holds, a power of two
+   * @param maxBlock how long {@link BackpressurePolicy#BLOCK} waits for a slot
+   */
+  public WriteBehindPaymentStore(PaymentStore delegate, int capacity, int maxBatchSize,
+      BackpressurePolicy backpressure, Duration maxBlock) {
+    this.delegate = delegate;
+    this.ring = new PaymentRingBuffer(capacity);
+    this.maxBatchSize = maxBatchSize;
+    this.backpressure = backpressure;
+    this.maxBlockNanos = maxBlock.toNanos();
+    this.writer = new Thread(this::writeBehind, "payment-write-behind");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void put(PostPaymentResponse payment) {
+    pending.put(payment.getId(), payment);
+    if (ring.offer(payment)) {
+      wakeWriter();
+      return;
+    }
+    overflows.increment();
+    if (backpressure == BackpressurePolicy.BLOCK) {
+      long deadline = System.nanoTime() + maxBlockNanos;
+      while (running && deadline - System.nanoTime() > 0) {
+        wakeWriter();
+        LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        if (ring.offer(payment)) {
+          wakeWriter();
+          return;
+        }
+      }
+    }
+    // Write-through, the writer has stopped, or it has not freed a slot in time
+    try {
+      delegate.put(payment);
+    } finally {
+      pending.remove(payment.getId(), payment);
+    }
+  }
+
+  @Override
+  public PostPaymentResponse get(UUID id) {
+    // The writer removes a payment from pending only once the delegate has it
+    PostPaymentResponse payment = pending.get(id);
+    return payment != null ? payment : delegate.get(id);
+  }
+
+  /**
+   * Approximate: a payment is counted twice while its batch is being written.
+   */
+  @Override
+  public long size() {
+    return delegate.size() + pending.size();
+  }
+
+  @Override
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    Map<UUID, PostPaymentResponse> unwritten = new HashMap<>(pending);
+    unwritten.values().forEach(action);
+    delegate.forEach(payment -> {
+      if (!unwritten.containsKey(payment.getId())) {
+        action.accept(payment);
+      }
+    });
+  }
+
+  /**
+   * Waits until every payment put in the ring before this call has been written to the delegate.
+   */
+  public void flush() {
+    long target = ring.claimed();
+    while (written < target && writer.isAlive()) {
+      wakeWriter();
+      LockSupport.parkNanos(this, FULL_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Payments in the ring waiting for the writer.
+   */
+  public int getQueued() {
+    return ring.size();
+  }
+
+  public int getCapacity() {
+    return ring.capacity();
+  }
+
+  /**
+   * Times the ring was full when a payment was put.
+   */
+  public long getOverflows() {
+    return overflows.sum();
+  }
+
+  public long getWriteFailures() {
+    return writeFailures.sum();
+  }
+
+  /**
+   * Writes whatever is queued, stops the writer and closes the delegate.
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writer.isAlive()) {
+      LOG.error("Closed with {} payments not yet written", ring.size());
+    }
+    if (delegate instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+
+  private void wakeWriter() {
+    if (writerIdle) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  private void writeBehind() {
+    List<PostPaymentResponse> batch = new ArrayList<>(maxBatchSize);
+    while (running || !ring.isEmpty()) {
+      if (ring.drainTo(batch, maxBatchSize) == 0) {
+        // Marked idle before checking again, so a payment offered from here on unparks the writer
+        writerIdle = true;
+        if (running && ring.isEmpty()) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        writerIdle = false;
+        continue;
+      }
+      write(batch);
+      written += batch.size();
+      batch.clear();
+    }
+  }
+
+  private void write(List<PostPaymentResponse> batch) {
+    while (true) {
+      try {
+        delegate.putAll(batch);
+        break;
+      } catch (RuntimeException e) {
+        writeFailures.increment();
+        LOG.error("Failed to write {} payments behind, retrying", batch.size(), e);
+        LockSupport.parkNanos(this, RETRY_PAUSE_NANOS);
+      }
+    }
+    for (PostPaymentResponse payment : batch) {
+      pending.remove(payment.getId(), payment);
+    }
+  }
+}
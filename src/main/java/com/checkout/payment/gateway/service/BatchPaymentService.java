@@ -0,0 +1,186 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.codec.MalformedJsonException;
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.codec.PaymentRequestReader;
+import com.checkout.payment.gateway.exception.CommonExceptionHandler;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.ServiceUnavailableException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.tracing.TraceContext;
+import com.checkout.payment.gateway.tracing.Tracer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Processes a batch of payments read from one request body. Each payment is validated and sent
+ * through {@link PaymentGatewayService#processPaymentAsync(PostPaymentRequest, String)} as soon
+ * as it has been read, with at most {@code parallelism} of them waiting on the bank, and its
+ * outcome is written as a line of its own in the order the payments complete.
+ *
+ * <p>Every payment succeeds or fails on its own: a malformed or invalid item, or one the bank
+ * fails, gets an error line carrying the status and message {@code POST /payments} would have
+ * answered, and the rest of the batch carries on.
+ */
+public class BatchPaymentService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchPaymentService.class);
+
+  private static final String INTERNAL_ERROR =
+      "Internal server error. Please try again or contact support team.";
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final Validator validator;
+  private final ExecutorService executor;
+  private final int parallelism;
+  private final int maxItems;
+
+  public BatchPaymentService(PaymentGatewayService paymentGatewayService, Validator validator,
+      ExecutorService executor, int parallelism, int maxItems) {
+    this.paymentGatewayService = paymentGatewayService;
+    this.validator = validator;
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.maxItems = maxItems;
+  }
+
+  /**
+   * Processes the batch on the batch executor, so the caller's thread is free while the body is
+   * read and the bank is called. The bank calls join the caller's trace.
+   *
+   * @throws ServiceUnavailableException if the executor already runs as many batches as it allows
+   */
+  public CompletableFuture<Void> processAsync(InputStream body, String idempotencyKey,
+      ResultSink sink) {
+    // Captured on the request thread; the batch runs on the executor's
+    TraceContext traceContext = Tracer.currentContext();
+    try {
+      return CompletableFuture.runAsync(() -> Tracer.runWithContext(traceContext, () -> {
+        try {
+          process(body, idempotencyKey, sink);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }), executor);
+    } catch (RejectedExecutionException ex) {
+      throw new ServiceUnavailableException(
+          "Too many batches in progress. Please try again later.");
+    }
+  }
+
+  /**
+   * Processes the batch on the calling thread, returning once every payment's line has been
+   * written. Items are numbered from 0 in the order they appear in the body, and an
+   * {@code idempotencyKey} applies to each payment as {@code <idempotencyKey>:<index>}.
+   */
+  public void process(InputStream body, String idempotencyKey, ResultSink sink)
+      throws IOException {
+    PaymentRequestReader reader = new PaymentRequestReader(body);
+    BlockingQueue<byte[]> completed = new LinkedBlockingQueue<>();
+    int inFlight = 0;
+    int index = 0;
+    try {
+      while (true) {
+        PostPaymentRequest request = null;
+        String malformed = null;
+        try {
+          request = reader.next();
+          if (request == null) {
+            break;
+          }
+        } catch (MalformedJsonException ex) {
+          malformed = ex.getMessage();
+        }
+        int itemIndex = index++;
+        if (itemIndex == maxItems) {
+          sink.write(PaymentJsonCodec.writeBatchError(itemIndex,
+              HttpStatus.PAYLOAD_TOO_LARGE.value(),
+              "Batch is limited to " + maxItems + " payments", null));
+          break;
+        }
+
+        // Pass on whatever has completed while this item was being read
+        for (byte[] line; (line = completed.poll()) != null; inFlight--) {
+          sink.write(line);
+        }
+
+        if (malformed != null) {
+          sink.write(PaymentJsonCodec.writeBatchError(itemIndex, HttpStatus.BAD_REQUEST.value(),
+              "Malformed payment request: " + malformed, null));
+          continue;
+        }
+        Errors errors = new BeanPropertyBindingResult(request, "postPaymentRequest");
+        validator.validate(request, errors);
+        if (errors.hasErrors()) {
+          sink.write(PaymentJsonCodec.writeBatchError(itemIndex, HttpStatus.BAD_REQUEST.value(),
+              "Validation failed", CommonExceptionHandler.validationErrors(errors)));
+          continue;
+        }
+
+        for (; inFlight >= parallelism; inFlight--) {
+          sink.write(completed.take());
+        }
+        submit(request, idempotencyKey == null ? null : idempotencyKey + ":" + itemIndex,
+            itemIndex, completed);
+        inFlight++;
+      }
+
+      for (; inFlight > 0; inFlight--) {
+        sink.write(completed.take());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while processing a batch of payments");
+    }
+    LOG.info("Processed batch of {} payments", index);
+  }
+
+  private void submit(PostPaymentRequest request, String idempotencyKey, int index,
+      BlockingQueue<byte[]> completed) {
+    CompletableFuture<PostPaymentResponse> payment;
+    try {
+      payment = paymentGatewayService.processPaymentAsync(request, idempotencyKey);
+    } catch (RuntimeException ex) {
+      payment = CompletableFuture.failedFuture(ex);
+    }
+    payment.whenComplete((response, ex) -> completed.add(ex == null
+        ? PaymentJsonCodec.writeBatchPayment(index, response)
+        : errorLine(index, ex)));
+  }
+
+  private static byte[] errorLine(int index, Throwable ex) {
+    Throwable cause = ex instanceof CompletionException && ex.getCause() != null
+        ? ex.getCause() : ex;
+    if (cause instanceof EventProcessingException processingException) {
+      return PaymentJsonCodec.writeBatchError(index,
+          processingException.getHttpStatus().value(), processingException.getMessage(), null);
+    }
+    LOG.error("Payment {} of batch failed", index, cause);
+    return PaymentJsonCodec.writeBatchError(index, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+        INTERNAL_ERROR, null);
+  }
+
+  /**
+   * Receives the batch's result lines, one call per payment, from a single thread.
+   */
+  @FunctionalInterface
+  public interface ResultSink {
+
+    void write(byte[] line) throws IOException;
+  }
+}
@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Results of payments submitted with an {@code Idempotency-Key}, kept for {@code ttl} after the
+ * key was first seen. Each key maps to the future of the first request using it, so a duplicate
+ * either gets the stored response at once or waits for the request still in flight.
+ *
+ * <p>Expired keys are ignored on lookup and removed by a background sweep.
+ */
+public class IdempotencyCache implements AutoCloseable {
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final LongAdder replays = new LongAdder();
+  private final long ttlNanos;
+  private final LongSupplier nanoClock;
+  private final ScheduledExecutorService sweeper;
+
+  public IdempotencyCache(Duration ttl, Duration sweepInterval) {
+    this(ttl, System::nanoTime);
+    sweeper.scheduleWithFixedDelay(this::removeExpired, sweepInterval.toNanos(),
+        sweepInterval.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  IdempotencyCache(Duration ttl, LongSupplier nanoClock) {
+    this.ttlNanos = ttl.toNanos();
+    this.nanoClock = nanoClock;
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "idempotency-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Claims {@code key} for a new request unless a live entry already holds it.
+   *
+   * @return {@code null} if {@code pending} now owns the key, otherwise the existing entry, whose
+   *     result the caller should return instead of processing the payment again
+   */
+  public Entry claim(String key, String fingerprint,
+      CompletableFuture<PostPaymentResponse> pending) {
+    long now = nanoClock.getAsLong();
+    Entry claimed = new Entry(fingerprint, pending, now + ttlNanos);
+    Entry owner = entries.compute(key,
+        (k, existing) -> existing == null || existing.isExpired(now) ? claimed : existing);
+    if (owner == claimed) {
+      return null;
+    }
+    replays.increment();
+    return owner;
+  }
+
+  /**
+   * Releases {@code key} if it is still held by {@code pending}, so a request that failed before
+   * reaching a decision can be retried with the same key.
+   */
+  public void release(String key, CompletableFuture<PostPaymentResponse> pending) {
+    entries.computeIfPresent(key, (k, existing) -> existing.result() == pending ? null : existing);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getReplays() {
+    return replays.sum();
+  }
+
+  @Override
+  public void close() {
+    sweeper.shutdownNow();
+  }
+
+  void removeExpired() {
+    long now = nanoClock.getAsLong();
+    entries.values().removeIf(entry -> entry.isExpired(now));
+  }
+
+  /**
+   * @param fingerprint digest of the request that claimed the key, to detect a key reused for a
+   *     different payment
+   */
+  public record Entry(String fingerprint, CompletableFuture<PostPaymentResponse> result,
+                      long expiresAt) {
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
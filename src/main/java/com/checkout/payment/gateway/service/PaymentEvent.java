@@ -0,0 +1,75 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.metrics.ServerTiming;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.tracing.TraceContext;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * One payment in the {@link PaymentPipeline}, taken from the pipeline's pool when submitted, filled
+ * in by each stage in turn and returned once the payment has been answered. It is also the
+ * callback for its own bank call, so dispatching a payment allocates no lambda.
+ */
+final class PaymentEvent implements BiConsumer<BankResponse, Throwable> {
+
+  private final PaymentPipeline pipeline;
+
+  // Set by the request thread
+  PostPaymentRequest request;
+  CompletableFuture<PostPaymentResponse> result;
+  ServerTiming serverTiming;
+  TraceContext traceContext;
+  long startNanos;
+
+  // Set by the stages
+  UUID paymentId;
+  final BankRequest bankRequest = new BankRequest();
+  final StringBuilder expiryDate = new StringBuilder(7);
+  long bankCallStartNanos;
+  BankResponse bankResponse;
+  Throwable failure;
+  PaymentStatus status;
+  PostPaymentResponse response;
+  RuntimeException error;
+
+  // True from submission until the payment is answered
+  volatile boolean inFlight;
+
+  PaymentEvent(PaymentPipeline pipeline) {
+    this.pipeline = pipeline;
+  }
+
+  @Override
+  public void accept(BankResponse bankResponse, Throwable failure) {
+    pipeline.bankCallCompleted(this, bankResponse, failure);
+  }
+
+  /**
+   * Drops every reference to the payment and zeroes its card details.
+   */
+  void clear() {
+    request = null;
+    result = null;
+    serverTiming = null;
+    traceContext = null;
+    paymentId = null;
+    bankRequest.setCardNumber(null);
+    bankRequest.setExpiryDate(null);
+    bankRequest.setCurrency(null);
+    bankRequest.setAmount(0);
+    bankRequest.setCvv(0);
+    expiryDate.setLength(0);
+    bankResponse = null;
+    failure = null;
+    status = null;
+    response = null;
+    error = null;
+    inFlight = false;
+  }
+}
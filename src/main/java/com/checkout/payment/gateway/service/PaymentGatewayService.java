@@ -4,14 +4,29 @@ import com.checkout.payment.gateway.client.BankClient;
 import com.checkout.payment.gateway.client.model.BankRequest;
 import com.checkout.payment.gateway.client.model.BankResponse;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
 import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.PaymentNotRecordedException;
+import com.checkout.payment.gateway.exception.ServiceUnavailableException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.ServerTiming;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -21,12 +36,36 @@ public class PaymentGatewayService {
 
   private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
 
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
   private final PaymentsRepository paymentsRepository;
   private final BankClient bankClient;
+  private final IdempotencyCache idempotencyCache;
+  private final PaymentMetrics paymentMetrics;
+  private final PaymentIdGenerator paymentIdGenerator;
+  private final Executor paymentStoreExecutor;
+  // Only when payments.processing.engine=pipeline
+  private final PaymentPipeline paymentPipeline;
+
+  public PaymentGatewayService(PaymentsRepository paymentsRepository, BankClient bankClient,
+      IdempotencyCache idempotencyCache, PaymentMetrics paymentMetrics,
+      PaymentIdGenerator paymentIdGenerator, Executor paymentStoreExecutor) {
+    this(paymentsRepository, bankClient, idempotencyCache, paymentMetrics, paymentIdGenerator,
+        paymentStoreExecutor, null);
+  }
 
-  public PaymentGatewayService(PaymentsRepository paymentsRepository, BankClient bankClient) {
+  @Autowired
+  public PaymentGatewayService(PaymentsRepository paymentsRepository, BankClient bankClient,
+      IdempotencyCache idempotencyCache, PaymentMetrics paymentMetrics,
+      PaymentIdGenerator paymentIdGenerator, Executor paymentStoreExecutor,
+      @Nullable PaymentPipeline paymentPipeline) {
     this.paymentsRepository = paymentsRepository;
     this.bankClient = bankClient;
+    this.idempotencyCache = idempotencyCache;
+    this.paymentMetrics = paymentMetrics;
+    this.paymentIdGenerator = paymentIdGenerator;
+    this.paymentStoreExecutor = paymentStoreExecutor;
+    this.paymentPipeline = paymentPipeline;
   }
 
   public PostPaymentResponse getPaymentById(UUID id) {
@@ -36,73 +75,308 @@ public class PaymentGatewayService {
   }
 
   public PostPaymentResponse processPayment(PostPaymentRequest paymentRequest) {
-    LOG.info("Processing payment for card ending in {}", 
-        paymentRequest.getCardNumber().substring(paymentRequest.getCardNumber().length() - 4));
+    long start = System.nanoTime();
+    LOG.info("Processing payment for card ending in {}", paymentRequest.getCardNumberLastFour());
     
-    UUID paymentId = UUID.randomUUID();
-    PostPaymentResponse response = new PostPaymentResponse();
-    response.setId(paymentId);
+    UUID paymentId = paymentIdGenerator.nextId();
+    ServerTiming serverTiming = ServerTiming.current();
+    PaymentStatus status;
     
     try {
-      BankRequest bankRequest = new BankRequest(
-          paymentRequest.getCardNumber(),
-          paymentRequest.getExpiryDate(),
-          paymentRequest.getCurrency(),
-          paymentRequest.getAmount(),
-          paymentRequest.getCvv()
-      );
-      
+      BankResponse bankResponse = callBank(toBankRequest(paymentRequest), serverTiming);
+      status = toPaymentStatus(paymentId, bankResponse);
+    } catch (Exception ex) {
+      paymentMetrics.paymentFailed(start);
+      throw translateBankFailure(paymentId, ex);
+    }
+    
+    PostPaymentResponse response;
+    try {
+      response = store(toPaymentResponse(paymentId, status, paymentRequest), serverTiming);
+    } catch (PaymentNotRecordedException ex) {
+      paymentMetrics.paymentFailed(start);
+      throw ex;
+    }
+    paymentMetrics.paymentCompleted(start, status);
+    return response;
+  }
+
+  /**
+   * Processes the payment once per {@code idempotencyKey}. A repeated key returns the stored
+   * response, or waits for the request that holds it, without calling the bank again. A request
+   * that fails without a bank decision releases its key so the merchant can retry; one the bank
+   * decided but the gateway failed to store keeps it, so the card is not charged twice.
+   */
+  public PostPaymentResponse processPayment(PostPaymentRequest paymentRequest,
+      String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return processPayment(paymentRequest);
+    }
+
+    CompletableFuture<PostPaymentResponse> pending = new CompletableFuture<>();
+    IdempotencyCache.Entry existing = claim(idempotencyKey, paymentRequest, pending);
+    if (existing != null) {
+      try {
+        return existing.result().join();
+      } catch (CompletionException ex) {
+        throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+      }
+    }
+
+    try {
+      PostPaymentResponse response = processPayment(paymentRequest);
+      pending.complete(response);
+      return response;
+    } catch (RuntimeException ex) {
+      releaseUnlessDecided(idempotencyKey, pending, ex);
+      pending.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #processPayment(PostPaymentRequest, String)}.
+   */
+  public CompletableFuture<PostPaymentResponse> processPaymentAsync(
+      PostPaymentRequest paymentRequest, String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return processPaymentAsync(paymentRequest);
+    }
+
+    CompletableFuture<PostPaymentResponse> pending = new CompletableFuture<>();
+    IdempotencyCache.Entry existing;
+    try {
+      existing = claim(idempotencyKey, paymentRequest, pending);
+    } catch (EventProcessingException ex) {
+      return CompletableFuture.failedFuture(ex);
+    }
+    if (existing != null) {
+      return existing.result().copy();
+    }
+
+    processPaymentAsync(paymentRequest).whenComplete((response, ex) -> {
+      if (ex != null) {
+        releaseUnlessDecided(idempotencyKey, pending, unwrap(ex));
+        pending.completeExceptionally(unwrap(ex));
+      } else {
+        pending.complete(response);
+      }
+    });
+    return pending.copy();
+  }
+
+  /**
+   * Non-blocking variant of {@link #processPayment(PostPaymentRequest)}: the bank call, status
+   * mapping and repository write run as stages of the returned future, or of the
+   * {@link PaymentPipeline} if there is one, and the future fails with the same
+   * {@link EventProcessingException}s the blocking call throws. The repository write runs on the
+   * payment store executor, as it may wait on the disk.
+   */
+  public CompletableFuture<PostPaymentResponse> processPaymentAsync(
+      PostPaymentRequest paymentRequest) {
+    if (paymentPipeline != null) {
+      return paymentPipeline.submit(paymentRequest);
+    }
+    long start = System.nanoTime();
+    LOG.info("Processing payment asynchronously for card ending in {}",
+        paymentRequest.getCardNumberLastFour());
+
+    UUID paymentId = paymentIdGenerator.nextId();
+    // Captured on the request thread; the later stages run on the bank client's threads
+    ServerTiming serverTiming = ServerTiming.current();
+    CompletableFuture<BankResponse> bankCall;
+    try {
+      bankCall = callBankAsync(toBankRequest(paymentRequest), serverTiming);
+    } catch (Exception ex) {
+      paymentMetrics.paymentFailed(start);
+      return CompletableFuture.failedFuture(translateBankFailure(paymentId, ex));
+    }
+
+    return bankCall
+        .thenApply(bankResponse -> toPaymentStatus(paymentId, bankResponse))
+        .handle((status, ex) -> {
+          if (ex != null) {
+            throw translateBankFailure(paymentId, unwrap(ex));
+          }
+          return toPaymentResponse(paymentId, status, paymentRequest);
+        })
+        .thenApplyAsync(response -> store(response, serverTiming), paymentStoreExecutor)
+        .whenComplete((response, ex) -> {
+          if (ex != null) {
+            paymentMetrics.paymentFailed(start);
+          } else {
+            paymentMetrics.paymentCompleted(start, response.getStatus());
+          }
+        });
+  }
+
+  private IdempotencyCache.Entry claim(String idempotencyKey, PostPaymentRequest paymentRequest,
+      CompletableFuture<PostPaymentResponse> pending) {
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new EventProcessingException(
+          "Idempotency-Key must be between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.",
+          HttpStatus.BAD_REQUEST);
+    }
+    String fingerprint = fingerprint(paymentRequest);
+    IdempotencyCache.Entry existing = idempotencyCache.claim(idempotencyKey, fingerprint, pending);
+    if (existing == null) {
+      return null;
+    }
+    if (!existing.fingerprint().equals(fingerprint)) {
+      throw new EventProcessingException(
+          "Idempotency-Key has already been used for a different payment request.",
+          HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+    LOG.info("Replaying payment for Idempotency-Key {}", idempotencyKey);
+    return existing;
+  }
+
+  private void releaseUnlessDecided(String idempotencyKey,
+      CompletableFuture<PostPaymentResponse> pending, Throwable ex) {
+    if (!(ex instanceof PaymentNotRecordedException)) {
+      idempotencyCache.release(idempotencyKey, pending);
+    }
+  }
+
+  /**
+   * SHA-256 of the payment's fields, so a key reused for a different payment is told apart
+   * without keeping the card details in the cache.
+   */
+  private static String fingerprint(PostPaymentRequest paymentRequest) {
+    String fields = String.join("|", paymentRequest.getCardNumber(),
+        String.valueOf(paymentRequest.getExpiryMonth()),
+        String.valueOf(paymentRequest.getExpiryYear()), paymentRequest.getCurrency(),
+        String.valueOf(paymentRequest.getAmount()), String.valueOf(paymentRequest.getCvv()));
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(fields.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private BankRequest toBankRequest(PostPaymentRequest paymentRequest) {
+    long start = System.nanoTime();
+    BankRequest bankRequest = new BankRequest(
+        paymentRequest.getCardNumber(),
+        paymentRequest.getExpiryDate(),
+        paymentRequest.getCurrency(),
+        paymentRequest.getAmount(),
+        paymentRequest.getCvv()
+    );
+    paymentMetrics.bankRequestBuilt(start);
+    return bankRequest;
+  }
+
+  private BankResponse callBank(BankRequest bankRequest, ServerTiming serverTiming) {
+    long start = paymentMetrics.bankCallStarted();
+    try {
       BankResponse bankResponse = bankClient.processPayment(bankRequest);
-      
-      if (bankResponse.isAuthorized()) {
-        response.setStatus(PaymentStatus.AUTHORIZED);
-        LOG.info("Payment {} authorized with code: {}", paymentId, bankResponse.getAuthorizationCode());
+      serverTiming.addBank(paymentMetrics.bankCallCompleted(start, bankResponse.isAuthorized()));
+      return bankResponse;
+    } catch (RuntimeException ex) {
+      serverTiming.addBank(paymentMetrics.bankCallFailed(start, ex));
+      throw ex;
+    }
+  }
+
+  private CompletableFuture<BankResponse> callBankAsync(BankRequest bankRequest,
+      ServerTiming serverTiming) {
+    long start = paymentMetrics.bankCallStarted();
+    CompletableFuture<BankResponse> bankCall;
+    try {
+      bankCall = bankClient.processPaymentAsync(bankRequest);
+    } catch (RuntimeException ex) {
+      serverTiming.addBank(paymentMetrics.bankCallFailed(start, ex));
+      throw ex;
+    }
+    return bankCall.whenComplete((bankResponse, ex) -> {
+      if (ex != null) {
+        serverTiming.addBank(paymentMetrics.bankCallFailed(start, unwrap(ex)));
       } else {
-        response.setStatus(PaymentStatus.DECLINED);
-        LOG.info("Payment {} declined", paymentId);
+        serverTiming.addBank(
+            paymentMetrics.bankCallCompleted(start, bankResponse.isAuthorized()));
       }
-      
-    } catch (HttpClientErrorException ex) {
+    });
+  }
+
+  private PaymentStatus toPaymentStatus(UUID paymentId, BankResponse bankResponse) {
+    if (bankResponse.isAuthorized()) {
+      LOG.info("Payment {} authorized with code: {}", paymentId, bankResponse.getAuthorizationCode());
+      return PaymentStatus.AUTHORIZED;
+    }
+    LOG.info("Payment {} declined", paymentId);
+    return PaymentStatus.DECLINED;
+  }
+
+  static PostPaymentResponse toPaymentResponse(UUID paymentId, PaymentStatus status,
+      PostPaymentRequest paymentRequest) {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(paymentId);
+    response.setStatus(status);
+    
+    // Set card details in response (masked)
+    response.setCardNumberLastFour(Integer.parseInt(paymentRequest.getCardNumberLastFour()));
+    response.setExpiryMonth(paymentRequest.getExpiryMonth());
+    response.setExpiryYear(paymentRequest.getExpiryYear());
+    response.setCurrency(paymentRequest.getCurrency());
+    response.setAmount(paymentRequest.getAmount());
+    return response;
+  }
+
+  private PostPaymentResponse store(PostPaymentResponse response, ServerTiming serverTiming) {
+    long start = System.nanoTime();
+    try {
+      paymentsRepository.add(response);
+    } catch (RuntimeException ex) {
+      LOG.error("Payment {} was {} by the bank but could not be stored", response.getId(),
+          response.getStatus(), ex);
+      throw new PaymentNotRecordedException(response.getId(), response.getStatus(), ex);
+    }
+    serverTiming.addPersistence(paymentMetrics.repositoryWritten(start));
+    return response;
+  }
+
+  static EventProcessingException translateBankFailure(UUID paymentId, Throwable ex) {
+    if (ex instanceof BankCallRejectedException) {
+      // Circuit open or bulkhead full: the bank was never called, so fail fast without a trace.
+      LOG.warn("Bank call for payment {} rejected: {}", paymentId, ex.getMessage());
+      return new ServiceUnavailableException(
+          "Bank service temporarily unavailable. Please try again later or contact support team.");
+    }
+    if (ex instanceof HttpClientErrorException clientError) {
       // Bank service returned 4xx error.
       // This should not happen since we have done the validation in payment gateway already.
       // But in case there is validation update in Bank Service, we handle it gracefully.
       LOG.error("Bank client error for payment {}: HTTP {} - {}. Invalid request format.", 
-          paymentId, ex.getStatusCode(), ex.getResponseBodyAsString(), ex);
-      throw new EventProcessingException(
+          paymentId, clientError.getStatusCode(), clientError.getResponseBodyAsString(), ex);
+      return new EventProcessingException(
           "Payment request validation failed. Please contact support.",
           HttpStatus.BAD_REQUEST
       );
-      
-    } catch (HttpServerErrorException ex) {
+    }
+    if (ex instanceof HttpServerErrorException serverError) {
       // Bank service returned 5xx error.
       // Do not save payment record as we don't know the actual status.
       LOG.error("Bank service unavailable for payment {}: HTTP {} - {}. Transaction not completed.", 
-          paymentId, ex.getStatusCode(), ex.getStatusText(), ex);
-      throw new EventProcessingException(
+          paymentId, serverError.getStatusCode(), serverError.getStatusText(), ex);
+      return new EventProcessingException(
           "Bank service temporarily unavailable. Please try again later or contact support team.",
           HttpStatus.SERVICE_UNAVAILABLE
       );
-    }  catch (Exception ex) {
-      // Catch-all for unexpected errors
-      // Do not save payment record as we don't know the actual status.
-      LOG.error("Unexpected error processing payment {}: {}. Transaction not completed.", 
-          paymentId, ex.getMessage(), ex);
-      throw new EventProcessingException(
-          "Internal server error. Please try again or contact support team.",
-          HttpStatus.INTERNAL_SERVER_ERROR
-      );
     }
-    
-    // Set card details in response (masked)
-    response.setCardNumberLastFour(Integer.parseInt(paymentRequest.getCardNumberLastFour()));
-    response.setExpiryMonth(paymentRequest.getExpiryMonth());
-    response.setExpiryYear(paymentRequest.getExpiryYear());
-    response.setCurrency(paymentRequest.getCurrency());
-    response.setAmount(paymentRequest.getAmount());
-    
-    // Store payment
-    paymentsRepository.add(response);
-    
-    return response;
+    // Catch-all for unexpected errors
+    // Do not save payment record as we don't know the actual status.
+    LOG.error("Unexpected error processing payment {}: {}. Transaction not completed.", 
+        paymentId, ex.getMessage(), ex);
+    return new EventProcessingException(
+        "Internal server error. Please try again or contact support team.",
+        HttpStatus.INTERNAL_SERVER_ERROR
+    );
+  }
+
+  static Throwable unwrap(Throwable ex) {
+    return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
   }
 }
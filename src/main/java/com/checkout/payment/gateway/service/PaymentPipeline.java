@@ -0,0 +1,356 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.PaymentNotRecordedException;
+import com.checkout.payment.gateway.exception.ServiceUnavailableException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.metrics.ServerTiming;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.pipeline.EventHandler;
+import com.checkout.payment.gateway.pipeline.EventProcessor;
+import com.checkout.payment.gateway.pipeline.RingBuffer;
+import com.checkout.payment.gateway.pipeline.SequenceBarrier;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.tracing.Tracer;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Engine behind {@link PaymentGatewayService#processPaymentAsync(PostPaymentRequest)} when
+ * {@code payments.processing.engine=pipeline}: every payment passes through the same stages, each
+ * on its own thread, over rings of events allocated up front and reused.
+ *
+ * <p>Each payment in flight holds a {@link PaymentEvent} taken from a pool of {@code capacity}
+ * events, and a submission that finds none left fails at once with a 503 rather than blocking
+ * its caller. The payments ring carries the event to stages that assign the id and fill its
+ * {@link BankRequest}, then dispatch the bank call, which frees the ring slot. Bank calls finish
+ * in any order, so each finished call is published to the completions ring, whose stages map the
+ * status, persist and answer payments in the order the bank answered them: a slow bank call holds
+ * up only its own payment and event. The event goes back to the pool once answered.
+ *
+ * <p>The persist stage writes each batch of payments available to it with one
+ * {@link PaymentsRepository#addAll}; if that fails, the bank has already decided the payments, so
+ * they fail with a {@link PaymentNotRecordedException} that is not to be retried. Callbacks on
+ * the returned futures run on the respond stage's thread, so they should be short.
+ */
+public class PaymentPipeline implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentPipeline.class);
+
+  private static final long CLOSE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long STAGE_JOIN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+  private final PaymentsRepository paymentsRepository;
+  private final BankClient bankClient;
+  private final PaymentMetrics paymentMetrics;
+  private final PaymentIdGenerator paymentIdGenerator;
+  private final PaymentEvent[] events;
+  private final ArrayBlockingQueue<PaymentEvent> idleEvents;
+  private final RingBuffer<Submission> payments;
+  private final RingBuffer<Completion> completions;
+  private final List<EventProcessor<?>> stages = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
+  // Only touched by the persist stage
+  private final List<PaymentEvent> persistBatch = new ArrayList<>();
+  private final List<PostPaymentResponse> persistResponses = new ArrayList<>();
+  private volatile boolean running = true;
+
+  /**
+   * @param capacity payments in flight at once, a power of two
+   */
+  public PaymentPipeline(PaymentsRepository paymentsRepository, BankClient bankClient,
+      PaymentMetrics paymentMetrics, PaymentIdGenerator paymentIdGenerator, int capacity,
+      PipelineWaitStrategy waitStrategy) {
+    this.paymentsRepository = paymentsRepository;
+    this.bankClient = bankClient;
+    this.paymentMetrics = paymentMetrics;
+    this.paymentIdGenerator = paymentIdGenerator;
+    this.events = new PaymentEvent[capacity];
+    this.idleEvents = new ArrayBlockingQueue<>(capacity);
+    for (int i = 0; i < capacity; i++) {
+      events[i] = new PaymentEvent(this);
+      idleEvents.add(events[i]);
+    }
+    // A payment holds its event until answered, so neither ring has more than capacity in use
+    this.payments = new RingBuffer<>(capacity, Submission::new);
+    this.completions = new RingBuffer<>(capacity, Completion::new);
+
+    EventProcessor<Submission> prepare = stage("prepare", payments,
+        new SequenceBarrier(payments, waitStrategy), this::prepare);
+    EventProcessor<Submission> dispatch = stage("dispatch", payments,
+        new SequenceBarrier(payments, waitStrategy, prepare.getSequence()), this::dispatch);
+    payments.setGatingSequences(dispatch.getSequence());
+
+    EventProcessor<Completion> map = stage("map", completions,
+        new SequenceBarrier(completions, waitStrategy), this::map);
+    EventProcessor<Completion> persist = stage("persist", completions,
+        new SequenceBarrier(completions, waitStrategy, map.getSequence()), this::persist);
+    EventProcessor<Completion> respond = stage("respond", completions,
+        new SequenceBarrier(completions, waitStrategy, persist.getSequence()), this::respond);
+    completions.setGatingSequences(respond.getSequence());
+
+    threads.forEach(Thread::start);
+  }
+
+  /**
+   * @return a future completed by the respond stage, failing with the same
+   *     {@link EventProcessingException}s as the other engine, or with a 503 straight away when
+   *     {@code capacity} payments are already in flight
+   */
+  public CompletableFuture<PostPaymentResponse> submit(PostPaymentRequest paymentRequest) {
+    long start = System.nanoTime();
+    if (!running) {
+      return CompletableFuture.failedFuture(shuttingDown());
+    }
+    // Waiting for an event would hold the caller's thread for as long as the bank takes
+    PaymentEvent event = idleEvents.poll();
+    if (event == null) {
+      return tooManyPayments(start);
+    }
+    long sequence = payments.tryNext();
+    if (sequence < 0) {
+      // Not expected: every claimed slot not yet dispatched holds one of the other events
+      idleEvents.offer(event);
+      return tooManyPayments(start);
+    }
+    CompletableFuture<PostPaymentResponse> result = new CompletableFuture<>();
+    event.request = paymentRequest;
+    event.result = result;
+    event.serverTiming = ServerTiming.current();
+    event.traceContext = Tracer.currentContext();
+    event.startNanos = start;
+    event.inFlight = true;
+    payments.get(sequence).payment = event;
+    payments.publish(sequence);
+    return result;
+  }
+
+  /**
+   * Payments submitted and not yet answered.
+   */
+  public long getInFlight() {
+    return events.length - idleEvents.size();
+  }
+
+  private CompletableFuture<PostPaymentResponse> tooManyPayments(long start) {
+    paymentMetrics.paymentFailed(start);
+    return CompletableFuture.failedFuture(new ServiceUnavailableException(
+        "Too many payments in progress. Please try again later."));
+  }
+
+  private void prepare(Submission submission, long sequence, boolean endOfBatch) {
+    PaymentEvent event = submission.payment;
+    try {
+      event.paymentId = paymentIdGenerator.nextId();
+      long start = System.nanoTime();
+      PostPaymentRequest request = event.request;
+      event.expiryDate.setLength(0);
+      event.expiryDate.append((int) request.getExpiryMonth()).append('/')
+          .append((int) request.getExpiryYear());
+      BankRequest bankRequest = event.bankRequest;
+      bankRequest.setCardNumber(request.getCardNumber());
+      bankRequest.setExpiryDate(event.expiryDate.toString());
+      bankRequest.setCurrency(request.getCurrency());
+      bankRequest.setAmount(request.getAmount());
+      bankRequest.setCvv(request.getCvv());
+      paymentMetrics.bankRequestBuilt(start);
+    } catch (RuntimeException ex) {
+      event.failure = ex;
+    }
+  }
+
+  private void dispatch(Submission submission, long sequence, boolean endOfBatch) {
+    // The event carries the payment from here on, so the slot can be claimed again
+    PaymentEvent event = submission.payment;
+    submission.payment = null;
+    if (event.failure != null) {
+      publishCompletion(event);
+      return;
+    }
+    event.bankCallStartNanos = paymentMetrics.bankCallStarted();
+    if (event.traceContext != null) {
+      // The bank span is started on this thread, so it needs the request's trace made current
+      Tracer.runWithContext(event.traceContext, () -> callBank(event));
+    } else {
+      callBank(event);
+    }
+  }
+
+  private void callBank(PaymentEvent event) {
+    CompletableFuture<BankResponse> bankCall;
+    try {
+      bankCall = bankClient.processPaymentAsync(event.bankRequest);
+    } catch (RuntimeException ex) {
+      bankCallCompleted(event, null, ex);
+      return;
+    }
+    bankCall.whenComplete(event);
+  }
+
+  /**
+   * Called on whichever thread completes the bank call.
+   */
+  void bankCallCompleted(PaymentEvent event, BankResponse bankResponse, Throwable failure) {
+    if (failure != null) {
+      event.failure = PaymentGatewayService.unwrap(failure);
+      event.serverTiming.addBank(
+          paymentMetrics.bankCallFailed(event.bankCallStartNanos, event.failure));
+    } else {
+      event.bankResponse = bankResponse;
+      event.serverTiming.addBank(
+          paymentMetrics.bankCallCompleted(event.bankCallStartNanos, bankResponse.isAuthorized()));
+    }
+    publishCompletion(event);
+  }
+
+  private void publishCompletion(PaymentEvent event) {
+    long sequence = completions.next();
+    completions.get(sequence).payment = event;
+    completions.publish(sequence);
+  }
+
+  private void map(Completion completion, long sequence, boolean endOfBatch) {
+    PaymentEvent payment = completion.payment;
+    if (payment.failure != null) {
+      payment.error =
+          PaymentGatewayService.translateBankFailure(payment.paymentId, payment.failure);
+    } else if (payment.bankResponse.isAuthorized()) {
+      LOG.debug("Payment {} authorized", payment.paymentId);
+      payment.status = PaymentStatus.AUTHORIZED;
+    } else {
+      LOG.debug("Payment {} declined", payment.paymentId);
+      payment.status = PaymentStatus.DECLINED;
+    }
+  }
+
+  private void persist(Completion completion, long sequence, boolean endOfBatch) {
+    PaymentEvent payment = completion.payment;
+    if (payment.status != null) {
+      payment.response = PaymentGatewayService.toPaymentResponse(payment.paymentId,
+          payment.status, payment.request);
+      persistBatch.add(payment);
+      persistResponses.add(payment.response);
+    }
+    if (!endOfBatch || persistBatch.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      paymentsRepository.addAll(persistResponses);
+      long nanos = paymentMetrics.repositoryWritten(start);
+      for (int i = 0; i < persistBatch.size(); i++) {
+        persistBatch.get(i).serverTiming.addPersistence(nanos);
+      }
+    } catch (RuntimeException ex) {
+      LOG.error("Failed to store {} payments the bank has decided", persistBatch.size(), ex);
+      for (int i = 0; i < persistBatch.size(); i++) {
+        PaymentEvent failed = persistBatch.get(i);
+        failed.error = new PaymentNotRecordedException(failed.paymentId, failed.status, ex);
+      }
+    } finally {
+      persistBatch.clear();
+      persistResponses.clear();
+    }
+  }
+
+  private void respond(Completion completion, long sequence, boolean endOfBatch) {
+    PaymentEvent payment = completion.payment;
+    completion.payment = null;
+    CompletableFuture<PostPaymentResponse> result = payment.result;
+    PostPaymentResponse response = payment.response;
+    RuntimeException error = payment.error;
+    PaymentStatus status = payment.status;
+    long start = payment.startNanos;
+    // Free the event before running the caller's callbacks
+    payment.clear();
+    idleEvents.offer(payment);
+    if (error != null) {
+      paymentMetrics.paymentFailed(start);
+      result.completeExceptionally(error);
+    } else {
+      paymentMetrics.paymentCompleted(start, status);
+      result.complete(response);
+    }
+  }
+
+  private <E> EventProcessor<E> stage(String name, RingBuffer<E> ringBuffer,
+      SequenceBarrier barrier, EventHandler<E> handler) {
+    EventProcessor<E> stage = new EventProcessor<>(ringBuffer, barrier, handler);
+    Thread thread = new Thread(stage, "payment-pipeline-" + name);
+    thread.setDaemon(true);
+    stages.add(stage);
+    threads.add(thread);
+    return stage;
+  }
+
+  /**
+   * Stops taking payments, waits for those in flight to be answered, then stops the stages.
+   * Payments still waiting on the bank after the timeout are failed.
+   */
+  @Override
+  public void close() {
+    running = false;
+    long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+    while (getInFlight() > 0 && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(this, CLOSE_POLL_NANOS);
+    }
+    stages.forEach(EventProcessor::halt);
+    for (Thread thread : threads) {
+      try {
+        thread.join(STAGE_JOIN_MILLIS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    long abandoned = 0;
+    for (PaymentEvent event : events) {
+      CompletableFuture<PostPaymentResponse> result = event.result;
+      if (event.inFlight && result != null) {
+        result.completeExceptionally(shuttingDown());
+        abandoned++;
+      }
+    }
+    if (abandoned > 0) {
+      LOG.warn("Payment pipeline closed with {} payments still in flight", abandoned);
+    }
+  }
+
+  private static EventProcessingException shuttingDown() {
+    return new EventProcessingException(
+        "Bank service temporarily unavailable. Please try again later or contact support team.",
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  /**
+   * A slot of the payments ring: the payment on its way to the bank.
+   */
+  private static final class Submission {
+
+    private PaymentEvent payment;
+  }
+
+  /**
+   * A slot of the completions ring: the payment whose bank call finished.
+   */
+  private static final class Completion {
+
+    private PaymentEvent payment;
+  }
+}
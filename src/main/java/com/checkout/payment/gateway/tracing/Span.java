@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.tracing;
+
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A timed operation within a sampled trace. Finished spans are written as one line each to the
+ * {@code payments.tracing} logger. Requests that were not sampled get {@link #NOOP}, which records
+ * nothing.
+ */
+public class Span {
+
+  static final Span NOOP = new Span(null, null, null);
+
+  private static final Logger LOG = LoggerFactory.getLogger("payments.tracing");
+
+  private final String name;
+  private final TraceContext context;
+  private final String parentSpanId;
+  private final long startNanos = System.nanoTime();
+
+  Span(String name, TraceContext context, String parentSpanId) {
+    this.name = name;
+    this.context = context;
+    this.parentSpanId = parentSpanId;
+  }
+
+  public boolean isSampled() {
+    return context != null;
+  }
+
+  /**
+   * @return this span's context, or {@code null} for {@link #NOOP}
+   */
+  public TraceContext getContext() {
+    return context;
+  }
+
+  public void end() {
+    end(null);
+  }
+
+  public void end(Throwable error) {
+    if (context == null) {
+      return;
+    }
+    LOG.info("trace={} span={} parent={} name=\"{}\" duration_ms={} status={}",
+        context.traceId(), context.spanId(), parentSpanId == null ? "-" : parentSpanId, name,
+        String.format(Locale.ROOT, "%.3f", (System.nanoTime() - startNanos) / 1_000_000.0),
+        error == null ? "ok" : error.getClass().getSimpleName());
+  }
+}
@@ -0,0 +1,48 @@
+package com.checkout.payment.gateway.tracing;
+
+/**
+ * Identifiers of a span as carried in a W3C {@code traceparent} header:
+ * {@code 00-<32 hex trace id>-<16 hex span id>-<2 hex flags>}.
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+  public static final String HEADER = "traceparent";
+
+  private static final int LENGTH = 55;
+  private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+  private static final String INVALID_SPAN_ID = "0000000000000000";
+
+  /**
+   * @return the context, or {@code null} when the header is missing or malformed
+   */
+  public static TraceContext parse(String traceparent) {
+    if (traceparent == null || traceparent.length() < LENGTH
+        || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-'
+        || traceparent.charAt(52) != '-' || traceparent.startsWith("ff")) {
+      return null;
+    }
+    String traceId = traceparent.substring(3, 35);
+    String spanId = traceparent.substring(36, 52);
+    if (!isLowerHex(traceparent, 0, 2) || !isLowerHex(traceId, 0, 32)
+        || !isLowerHex(spanId, 0, 16) || !isLowerHex(traceparent, 53, 55)
+        || traceId.equals(INVALID_TRACE_ID) || spanId.equals(INVALID_SPAN_ID)) {
+      return null;
+    }
+    int flags = Integer.parseInt(traceparent.substring(53, 55), 16);
+    return new TraceContext(traceId, spanId, (flags & 1) == 1);
+  }
+
+  public String toTraceparent() {
+    return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+  }
+
+  private static boolean isLowerHex(String value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      char c = value.charAt(i);
+      if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,116 @@
+package com.checkout.payment.gateway.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples requests for tracing and creates their spans.
+ *
+ * <p>A request carrying a {@code traceparent} header follows its caller's sampling decision;
+ * any other request is sampled with probability {@link #getSamplingRate()}, which can be changed
+ * while the gateway is running. The span of the request being handled is kept in a thread local
+ * by {@link TracingFilter}, so code on the request thread can start child spans without it being
+ * passed around. Work that continues the request on another thread takes it along with
+ * {@link #currentContext()} and {@link #runWithContext}.
+ */
+public class Tracer {
+
+  private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+  private volatile double samplingRate;
+
+  public Tracer(double samplingRate) {
+    setSamplingRate(samplingRate);
+  }
+
+  public double getSamplingRate() {
+    return samplingRate;
+  }
+
+  public void setSamplingRate(double samplingRate) {
+    if (!(samplingRate >= 0 && samplingRate <= 1)) {
+      throw new IllegalArgumentException("Sampling rate must be between 0 and 1");
+    }
+    this.samplingRate = samplingRate;
+  }
+
+  /**
+   * Starts the span of an incoming request.
+   *
+   * @param traceparent the request's {@code traceparent} header, or {@code null}
+   */
+  public Span startRequestSpan(String name, String traceparent) {
+    TraceContext parent = TraceContext.parse(traceparent);
+    boolean sampled = parent != null
+        ? parent.sampled()
+        : ThreadLocalRandom.current().nextDouble() < samplingRate;
+    if (!sampled) {
+      return Span.NOOP;
+    }
+    String traceId = parent != null ? parent.traceId() : randomHex(2);
+    return new Span(name, new TraceContext(traceId, randomHex(1), true),
+        parent != null ? parent.spanId() : null);
+  }
+
+  /**
+   * Starts a child of the current thread's request span, or returns a no-op span when the request
+   * is not sampled.
+   */
+  public Span startSpan(String name) {
+    TraceContext parent = CURRENT.get();
+    if (parent == null) {
+      return Span.NOOP;
+    }
+    return new Span(name, new TraceContext(parent.traceId(), randomHex(1), true),
+        parent.spanId());
+  }
+
+  /**
+   * @return the current thread's request span, or {@code null} when there is none or it is not
+   *     sampled
+   */
+  public static TraceContext currentContext() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Runs {@code task} with {@code context}, taken from {@link #currentContext()} on the request
+   * thread, as the current span, so the spans it starts join the request's trace.
+   */
+  public static void runWithContext(TraceContext context, Runnable task) {
+    TraceContext previous = CURRENT.get();
+    CURRENT.set(context);
+    try {
+      task.run();
+    } finally {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  void makeCurrent(Span span) {
+    if (span.isSampled()) {
+      CURRENT.set(span.getContext());
+    }
+  }
+
+  void clearCurrent() {
+    CURRENT.remove();
+  }
+
+  private static String randomHex(int longs) {
+    StringBuilder hex = new StringBuilder(longs * 16);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < longs; i++) {
+      long value;
+      do {
+        value = random.nextLong();
+      } while (value == 0);
+      String digits = Long.toHexString(value);
+      hex.append("0".repeat(16 - digits.length())).append(digits);
+    }
+    return hex.toString();
+  }
+}
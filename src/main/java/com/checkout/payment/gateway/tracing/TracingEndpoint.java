@@ -0,0 +1,31 @@
+package com.checkout.payment.gateway.tracing;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * {@code /actuator/tracing}: reads, or with a POST of {@code {"samplingRate": 0.05}} changes,
+ * the fraction of requests traced.
+ */
+@Endpoint(id = "tracing")
+public class TracingEndpoint {
+
+  private final Tracer tracer;
+
+  public TracingEndpoint(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @ReadOperation
+  public Map<String, Double> samplingRate() {
+    return Map.of("samplingRate", tracer.getSamplingRate());
+  }
+
+  @WriteOperation
+  public Map<String, Double> setSamplingRate(double samplingRate) {
+    tracer.setSamplingRate(samplingRate);
+    return samplingRate();
+  }
+}
@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.tracing;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts a span for each request and makes it current for the request thread. Asynchronous
+ * requests end their span when the response completes rather than when this filter returns.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+  private final Tracer tracer;
+
+  public TracingFilter(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    Span span = tracer.startRequestSpan(request.getMethod() + " " + request.getRequestURI(),
+        request.getHeader(TraceContext.HEADER));
+    if (!span.isSampled()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    tracer.makeCurrent(span);
+    request.setAttribute(TraceContext.HEADER, span.getContext());
+    boolean async = false;
+    try {
+      filterChain.doFilter(request, response);
+      async = request.isAsyncStarted();
+      if (async) {
+        request.getAsyncContext().addListener(new EndSpanListener(span));
+      }
+    } finally {
+      tracer.clearCurrent();
+      if (!async) {
+        span.end();
+      }
+    }
+  }
+
+  private record EndSpanListener(Span span) implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      span.end();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+  }
+}
@@ -0,0 +1,409 @@
+package com.checkout.payment.gateway.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process stand-in for the Mountebank bank simulator in {@code imposters/bank_simulator.ejs}.
+ * {@code POST /payments} follows the same card number rules: an odd last digit is authorized, an
+ * even one declined, and 0 gets a 503. Missing fields get a 400. {@code POST /payments/batch}
+ * takes an array of payments and answers 200 with an array holding, for each payment, the status
+ * and body it would have got on its own: {@code [{"status":200,"authorized":true,...},
+ * {"status":503}]}. A payment sent with an {@code Idempotency-Key} header is authorized once, and
+ * later requests with the same key get the first answer, as from a bank that deduplicates on it.
+ *
+ * <p>On top of that every request, batched or not, can be delayed by a
+ * {@link LatencyDistribution}, answered with a 503 at {@code errorRate} whatever the card, or have
+ * its connection reset at {@code resetRate} before any response is written.
+ *
+ * <p>It speaks just enough HTTP/1.1 for {@code BankClient}: a request line, headers, a
+ * {@code Content-Length} body, and keep-alive. Each connection is served by its own virtual thread,
+ * so slow responses cost no platform threads and one box can sustain tens of thousands of requests
+ * per second.
+ */
+public class BankSimulator implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BankSimulator.class);
+
+  private static final int MAX_HEADER_LINE = 8192;
+  private static final int MAX_IDEMPOTENCY_KEYS = 100_000;
+  private static final byte[] DECLINED =
+      "{\"authorized\":false,\"authorization_code\":\"\"}".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] MISSING_PROPERTIES =
+      "{\"error_message\":\"Not all required properties were sent in the request\"}"
+          .getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] UNSUPPORTED =
+      "{\"errorMessage\":\"The request supplied is not supported by the simulator\"}"
+          .getBytes(StandardCharsets.US_ASCII);
+  private static final String[] REQUIRED_FIELDS =
+      {"card_number", "expiry_date", "currency", "amount", "cvv"};
+
+  private final int port;
+  private final LatencyDistribution latency;
+  private final double errorRate;
+  private final double resetRate;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SimulatorStats stats = new SimulatorStats();
+  private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+  private final Map<String, Response> idempotentResponses = new ConcurrentHashMap<>();
+
+  private ServerSocket serverSocket;
+  private ExecutorService connections;
+  private Thread acceptor;
+  private volatile boolean running;
+
+  public BankSimulator(int port, LatencyDistribution latency, double errorRate,
+      double resetRate) {
+    this.port = port;
+    this.latency = latency;
+    this.errorRate = errorRate;
+    this.resetRate = resetRate;
+  }
+
+  /**
+   * A simulator on an ephemeral port that answers at once and never fails on its own.
+   */
+  public static BankSimulator withDefaults() {
+    return new BankSimulator(0, LatencyDistribution.NONE, 0, 0);
+  }
+
+  /**
+   * Binds the listening socket and starts accepting connections.
+   *
+   * @return the bound port, which differs from the configured one when that was 0
+   */
+  public synchronized int start() throws IOException {
+    serverSocket = new ServerSocket();
+    serverSocket.setReuseAddress(true);
+    serverSocket.bind(new InetSocketAddress(port), 4096);
+    connections = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("bank-simulator-", 0).factory());
+    running = true;
+    acceptor = Thread.ofPlatform().name("bank-simulator-acceptor").daemon().start(this::accept);
+    LOG.info("Bank simulator listening on port {}", getPort());
+    return getPort();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public String getUrl() {
+    return "http://localhost:" + getPort();
+  }
+
+  public SimulatorStats getStats() {
+    return stats;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    serverSocket.close();
+    for (Socket socket : openSockets) {
+      socket.close();
+    }
+    connections.shutdownNow();
+    try {
+      acceptor.join(TimeUnit.SECONDS.toMillis(5));
+      connections.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void accept() {
+    while (running) {
+      try {
+        Socket socket = serverSocket.accept();
+        openSockets.add(socket);
+        connections.execute(() -> serve(socket));
+      } catch (IOException e) {
+        if (running) {
+          LOG.warn("Bank simulator failed to accept a connection", e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+      socket.setTcpNoDelay(true);
+      while (running) {
+        Request request = readRequest(in);
+        if (request == null) {
+          return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (resetRate > 0 && random.nextDouble() < resetRate) {
+          stats.resets.increment();
+          // A zero linger timeout makes close() send an RST instead of a FIN
+          socket.setSoLinger(true, 0);
+          return;
+        }
+        long delayNanos = latency.sampleNanos(random);
+        if (delayNanos > 0) {
+          Thread.sleep(Duration.ofNanos(delayNanos));
+        }
+        writeResponse(out, respond(request, random), request.keepAlive());
+        if (!request.keepAlive()) {
+          return;
+        }
+      }
+    } catch (SocketException e) {
+      // Client closed the connection
+    } catch (IOException e) {
+      LOG.debug("Bank simulator connection failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      openSockets.remove(socket);
+    }
+  }
+
+  private Response respond(Request request, ThreadLocalRandom random) {
+    boolean batch = "/payments/batch".equals(request.path());
+    if (!"POST".equals(request.method()) || !batch && !"/payments".equals(request.path())) {
+      stats.badRequests.increment();
+      return new Response(400, "Bad Request", UNSUPPORTED);
+    }
+    if (errorRate > 0 && random.nextDouble() < errorRate) {
+      stats.errors.increment();
+      return new Response(503, "Service Unavailable", EMPTY_OBJECT);
+    }
+
+    JsonNode body;
+    try {
+      body = objectMapper.readTree(request.body());
+    } catch (IOException e) {
+      stats.badRequests.increment();
+      return new Response(400, "Bad Request", MISSING_PROPERTIES);
+    }
+    if (!batch) {
+      return request.idempotencyKey() != null
+          ? authorizeOnce(request.idempotencyKey(), body) : authorize(body);
+    }
+    if (body == null || !body.isArray()) {
+      stats.badRequests.increment();
+      return new Response(400, "Bad Request", UNSUPPORTED);
+    }
+    stats.batches.increment();
+    ByteArrayOutputStream results = new ByteArrayOutputStream(64 * body.size() + 2);
+    results.write('[');
+    for (int i = 0; i < body.size(); i++) {
+      Response response = authorize(body.get(i));
+      results.writeBytes(((i > 0 ? ",{\"status\":" : "{\"status\":") + response.status()
+          + (response.body().length > 2 ? "," : "")).getBytes(StandardCharsets.US_ASCII));
+      results.write(response.body(), 1, response.body().length - 1);
+    }
+    results.write(']');
+    return new Response(200, "OK", results.toByteArray());
+  }
+
+  private Response authorizeOnce(String idempotencyKey, JsonNode body) {
+    // Forgets every key at once when full; enough for a simulator
+    if (idempotentResponses.size() >= MAX_IDEMPOTENCY_KEYS) {
+      idempotentResponses.clear();
+    }
+    boolean[] authorized = new boolean[1];
+    Response response = idempotentResponses.computeIfAbsent(idempotencyKey, key -> {
+      authorized[0] = true;
+      return authorize(body);
+    });
+    if (!authorized[0]) {
+      stats.replays.increment();
+    }
+    return response;
+  }
+
+  private Response authorize(JsonNode body) {
+    for (String field : REQUIRED_FIELDS) {
+      if (body == null || !body.hasNonNull(field)) {
+        stats.badRequests.increment();
+        return new Response(400, "Bad Request", MISSING_PROPERTIES);
+      }
+    }
+
+    String cardNumber = body.get("card_number").asText();
+    int lastDigit = cardNumber.isEmpty() ? -1 : cardNumber.charAt(cardNumber.length() - 1) - '0';
+    if (lastDigit == 0) {
+      stats.errors.increment();
+      return new Response(503, "Service Unavailable", EMPTY_OBJECT);
+    }
+    if (lastDigit > 0 && lastDigit <= 9 && lastDigit % 2 == 1) {
+      stats.authorized.increment();
+      return new Response(200, "OK", ("{\"authorized\":true,\"authorization_code\":\""
+          + UUID.randomUUID() + "\"}").getBytes(StandardCharsets.US_ASCII));
+    }
+    if (lastDigit > 0 && lastDigit <= 9) {
+      stats.declined.increment();
+      return new Response(200, "OK", DECLINED);
+    }
+    stats.badRequests.increment();
+    return new Response(400, "Bad Request", UNSUPPORTED);
+  }
+
+  private static Request readRequest(InputStream in) throws IOException {
+    String requestLine = readLine(in);
+    if (requestLine == null) {
+      return null;
+    }
+    String[] parts = requestLine.split(" ");
+    if (parts.length != 3) {
+      throw new IOException("Malformed request line: " + requestLine);
+    }
+    boolean keepAlive = !"HTTP/1.0".equals(parts[2]);
+    int contentLength = 0;
+    String idempotencyKey = null;
+    String line;
+    while ((line = readLine(in)) != null && !line.isEmpty()) {
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        continue;
+      }
+      String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+      String value = line.substring(colon + 1).trim();
+      if (name.equals("content-length")) {
+        contentLength = Integer.parseInt(value);
+      } else if (name.equals("connection")) {
+        keepAlive = !value.equalsIgnoreCase("close");
+      } else if (name.equals("idempotency-key")) {
+        idempotencyKey = value;
+      }
+    }
+    byte[] body = in.readNBytes(contentLength);
+    if (body.length < contentLength) {
+      return null;
+    }
+    return new Request(parts[0], parts[1], body, keepAlive, idempotencyKey);
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+    int b;
+    while ((b = in.read()) != -1) {
+      if (b == '\n') {
+        int length = line.size();
+        byte[] bytes = line.toByteArray();
+        return new String(bytes, 0, length > 0 && bytes[length - 1] == '\r' ? length - 1 : length,
+            StandardCharsets.US_ASCII);
+      }
+      if (line.size() == MAX_HEADER_LINE) {
+        throw new IOException("Header line too long");
+      }
+      line.write(b);
+    }
+    return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+  }
+
+  private static void writeResponse(OutputStream out, Response response, boolean keepAlive)
+      throws IOException {
+    String head = "HTTP/1.1 " + response.status() + " " + response.reason() + "\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: " + response.body().length + "\r\n"
+        + (keepAlive ? "Connection: keep-alive\r\n" : "Connection: close\r\n")
+        + "\r\n";
+    out.write(head.getBytes(StandardCharsets.US_ASCII));
+    out.write(response.body());
+    out.flush();
+  }
+
+  private record Request(String method, String path, byte[] body, boolean keepAlive,
+      String idempotencyKey) {
+  }
+
+  private record Response(int status, String reason, byte[] body) {
+  }
+
+  /**
+   * Counts of what the simulator answered, for load test reports.
+   */
+  public static class SimulatorStats {
+
+    private final LongAdder authorized = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder badRequests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+
+    public long getAuthorized() {
+      return authorized.sum();
+    }
+
+    public long getDeclined() {
+      return declined.sum();
+    }
+
+    public long getErrors() {
+      return errors.sum();
+    }
+
+    public long getResets() {
+      return resets.sum();
+    }
+
+    public long getBadRequests() {
+      return badRequests.sum();
+    }
+
+    /**
+     * Batch requests answered; the payments in them are counted one by one above.
+     */
+    public long getBatches() {
+      return batches.sum();
+    }
+
+    /**
+     * Requests answered with the earlier answer for the same {@code Idempotency-Key}.
+     */
+    public long getReplays() {
+      return replays.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "SimulatorStats{" +
+          "authorized=" + getAuthorized() +
+          ", declined=" + getDeclined() +
+          ", errors=" + getErrors() +
+          ", resets=" + getResets() +
+          ", badRequests=" + getBadRequests() +
+          ", batches=" + getBatches() +
+          ", replays=" + getReplays() +
+          '}';
+    }
+  }
+}
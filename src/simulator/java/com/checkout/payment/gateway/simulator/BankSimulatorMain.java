@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.simulator;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the {@link BankSimulator} as a standalone process, e.g. through
+ * {@code ./gradlew runBankSimulator}. Options:
+ * <ul>
+ *   <li>{@code --port=8080}</li>
+ *   <li>{@code --latency=none}, see {@link LatencyDistribution#parse(String)}</li>
+ *   <li>{@code --error-rate=0}: fraction of requests answered with a 503</li>
+ *   <li>{@code --reset-rate=0}: fraction of connections reset instead of answered</li>
+ * </ul>
+ */
+public final class BankSimulatorMain {
+
+  private BankSimulatorMain() {
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      int equals = arg.indexOf('=');
+      options.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+
+    BankSimulator simulator = new BankSimulator(
+        Integer.parseInt(options.getOrDefault("port", "8080")),
+        LatencyDistribution.parse(options.getOrDefault("latency", "none")),
+        Double.parseDouble(options.getOrDefault("error-rate", "0")),
+        Double.parseDouble(options.getOrDefault("reset-rate", "0")));
+    simulator.start();
+
+    CountDownLatch stopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        simulator.close();
+        System.out.println(simulator.getStats());
+      } catch (IOException e) {
+        e.printStackTrace();
+      } finally {
+        stopped.countDown();
+      }
+    }));
+    stopped.await();
+  }
+}
@@ -0,0 +1,81 @@
+package com.checkout.payment.gateway.simulator;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * How long the simulated bank takes to answer. Samples are in nanoseconds.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+  LatencyDistribution NONE = random -> 0;
+
+  long sampleNanos(RandomGenerator random);
+
+  static LatencyDistribution fixed(Duration latency) {
+    long nanos = latency.toNanos();
+    return random -> nanos;
+  }
+
+  /**
+   * Log-normal latency with the given median. {@code sigma} is the standard deviation of the
+   * underlying normal distribution: 0.25 gives a tight spread, 1.0 a long tail where p99 is about
+   * ten times the median.
+   */
+  static LatencyDistribution logNormal(Duration median, double sigma) {
+    double mu = Math.log(median.toNanos());
+    return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+  }
+
+  /**
+   * Two log-normal modes, for a bank that is usually fast but sends {@code slowFraction} of
+   * requests down a slow path.
+   */
+  static LatencyDistribution bimodal(Duration fastMedian, Duration slowMedian,
+      double slowFraction, double sigma) {
+    LatencyDistribution fast = logNormal(fastMedian, sigma);
+    LatencyDistribution slow = logNormal(slowMedian, sigma);
+    return random -> random.nextDouble() < slowFraction
+        ? slow.sampleNanos(random)
+        : fast.sampleNanos(random);
+  }
+
+  /**
+   * Parses a command-line specification:
+   * <ul>
+   *   <li>{@code none}</li>
+   *   <li>{@code fixed:<latency>}, e.g. {@code fixed:50ms}</li>
+   *   <li>{@code lognormal:<median>[,<sigma>]}, e.g. {@code lognormal:20ms,0.5}</li>
+   *   <li>{@code bimodal:<fast>,<slow>,<slowFraction>[,<sigma>]}, e.g.
+   *   {@code bimodal:10ms,800ms,0.02}</li>
+   * </ul>
+   * Durations take an {@code ms} or {@code s} suffix.
+   */
+  static LatencyDistribution parse(String spec) {
+    String[] typeAndArgs = spec.trim().split(":", 2);
+    String type = typeAndArgs[0].toLowerCase(Locale.ROOT);
+    String[] args = typeAndArgs.length > 1 ? typeAndArgs[1].split(",") : new String[0];
+    return switch (type) {
+      case "none" -> NONE;
+      case "fixed" -> fixed(parseDuration(args[0]));
+      case "lognormal" -> logNormal(parseDuration(args[0]),
+          args.length > 1 ? Double.parseDouble(args[1]) : 0.5);
+      case "bimodal" -> bimodal(parseDuration(args[0]), parseDuration(args[1]),
+          Double.parseDouble(args[2]), args.length > 3 ? Double.parseDouble(args[3]) : 0.25);
+      default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+    };
+  }
+
+  private static Duration parseDuration(String value) {
+    String trimmed = value.trim().toLowerCase(Locale.ROOT);
+    if (trimmed.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+    }
+    if (trimmed.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+    }
+    throw new IllegalArgumentException("Duration needs an ms or s suffix: " + value);
+  }
+}
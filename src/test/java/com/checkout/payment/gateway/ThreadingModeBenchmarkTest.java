@@ -0,0 +1,168 @@
+package com.checkout.payment.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares the platform and virtual thread modes with 5k concurrent payments against a bank that
+ * takes {@link #BANK_LATENCY} to answer. In-flight capacity is the peak number of requests the
+ * gateway had outstanding at the bank at once.
+ * Run with {@code ./gradlew benchmark}; excluded from {@code test}.
+ */
+@Tag("benchmark")
+class ThreadingModeBenchmarkTest {
+
+  private static final int CONCURRENT_REQUESTS = 5_000;
+  private static final Duration BANK_LATENCY = Duration.ofMillis(500);
+  private static final String PAYMENT_REQUEST = """
+      {
+        "card_number": "2222405343248877",
+        "expiry_month": 12,
+        "expiry_year": 2030,
+        "currency": "GBP",
+        "amount": 100,
+        "cvv": 123
+      }
+      """;
+
+  private static final AtomicInteger inFlight = new AtomicInteger();
+  private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+  private static HttpServer bank;
+
+  @BeforeAll
+  static void startBank() throws IOException {
+    bank = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS);
+    bank.createContext("/payments", exchange -> {
+      peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        exchange.getRequestBody().readAllBytes();
+        Thread.sleep(BANK_LATENCY.toMillis());
+        byte[] body = "{\"authorized\":true,\"authorization_code\":\"AUTH123\"}"
+            .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    });
+    // The bank itself must never be the bottleneck being measured
+    bank.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    bank.start();
+  }
+
+  @AfterAll
+  static void stopBank() {
+    bank.stop(0);
+  }
+
+  @Test
+  void comparePlatformAndVirtualThreadModes() throws Exception {
+    Result platform = run("platform");
+    Result virtual = run("virtual");
+
+    System.out.printf("%n%-10s %12s %10s %10s %10s%n",
+        "mode", "peak-bank", "p50(ms)", "p99(ms)", "wall(ms)");
+    for (Result result : List.of(platform, virtual)) {
+      System.out.printf("%-10s %12d %10d %10d %10d%n", result.mode(), result.peakInFlight(),
+          result.p50Millis(), result.p99Millis(), result.wallMillis());
+    }
+  }
+
+  private static Result run(String mode) throws Exception {
+    inFlight.set(0);
+    peakInFlight.set(0);
+    try (ConfigurableApplicationContext gateway = startGateway(mode);
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      int port = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+      HttpClient httpClient = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .executor(clients)
+          .build();
+      URI payments = URI.create("http://localhost:" + port + "/payments");
+      HttpRequest request = HttpRequest.newBuilder(payments)
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(PAYMENT_REQUEST))
+          .build();
+
+      // One warm-up round trip so class loading and pool creation are not measured
+      assertEquals(200, httpClient.send(request, HttpResponse.BodyHandlers.discarding())
+          .statusCode());
+      peakInFlight.set(0);
+
+      long start = System.nanoTime();
+      List<Future<Long>> latencies = new ArrayList<>(CONCURRENT_REQUESTS);
+      for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+        latencies.add(clients.submit(() -> {
+          long sent = System.nanoTime();
+          HttpResponse<Void> response =
+              httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+          assertEquals(200, response.statusCode());
+          return System.nanoTime() - sent;
+        }));
+      }
+      long[] sorted = new long[CONCURRENT_REQUESTS];
+      for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+        sorted[i] = latencies.get(i).get();
+      }
+      long wall = System.nanoTime() - start;
+      Arrays.sort(sorted);
+
+      return new Result(mode, peakInFlight.get(), percentileMillis(sorted, 0.50),
+          percentileMillis(sorted, 0.99), Duration.ofNanos(wall).toMillis());
+    }
+  }
+
+  private static ConfigurableApplicationContext startGateway(String mode) {
+    return new SpringApplicationBuilder(PaymentGatewayApplication.class)
+        .properties(
+            "server.port=0",
+            "payments.threads.mode=" + mode,
+            "bank.simulator.url=http://localhost:" + bank.getAddress().getPort(),
+            // Only the threading mode should bound concurrency, not connection limits
+            "bank.client.pool.max-connections=" + CONCURRENT_REQUESTS,
+            "bank.client.pool.max-connections-per-route=" + CONCURRENT_REQUESTS,
+            "bank.client.bulkhead.max-concurrent-calls=" + CONCURRENT_REQUESTS,
+            "server.tomcat.max-connections=" + 2 * CONCURRENT_REQUESTS,
+            "server.tomcat.accept-count=" + CONCURRENT_REQUESTS,
+            "logging.level.com.checkout=WARN")
+        .run();
+  }
+
+  private static long percentileMillis(long[] sortedNanos, double percentile) {
+    int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+    return Duration.ofNanos(sortedNanos[Math.max(0, index)]).toMillis();
+  }
+
+  private record Result(String mode, int peakInFlight, long p50Millis, long p99Millis,
+      long wallMillis) {
+  }
+}
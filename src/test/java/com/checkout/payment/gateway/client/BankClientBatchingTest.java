@@ -0,0 +1,100 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.simulator.BankSimulator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Sends payments through {@link BankClient} with batching on, against the in-process simulator,
+ * and checks every payment still gets its own answer.
+ */
+@SpringBootTest(properties = {
+    "bank.client.batching.enabled=true",
+    "bank.client.batching.max-size=16"
+})
+class BankClientBatchingTest {
+
+  private static final int PAYMENTS = 500;
+
+  private static BankSimulator bank;
+
+  @Autowired
+  private BankClient bankClient;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    bank = BankSimulator.withDefaults();
+    bank.start();
+    registry.add("bank.simulator.url", bank::getUrl);
+  }
+
+  @AfterAll
+  static void stopBank() throws IOException {
+    bank.close();
+  }
+
+  // 1. Batched payments
+  @Test
+  void whenPaymentsArriveTogetherThenTheyShareBankRequests() throws Exception {
+    long batchesBefore = bank.getStats().getBatches();
+    List<CompletableFuture<BankResponse>> responses = new ArrayList<>();
+    for (int i = 0; i < PAYMENTS; i++) {
+      responses.add(bankClient.processPaymentAsync(request(i % 2 == 0 ? "7" : "2")));
+    }
+
+    for (int i = 0; i < PAYMENTS; i++) {
+      BankResponse response = responses.get(i).get(10, TimeUnit.SECONDS);
+      assertEquals(i % 2 == 0, response.isAuthorized());
+    }
+    long batches = bank.getStats().getBatches() - batchesBefore;
+    assertTrue(batches > 0 && batches < PAYMENTS, "batches: " + batches);
+  }
+
+  @Test
+  void whenOnePaymentInABatchFailsThenOnlyThatPaymentFails() throws Exception {
+    List<CompletableFuture<BankResponse>> responses = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      responses.add(bankClient.processPaymentAsync(request(i == 25 ? "0" : "7")));
+    }
+
+    for (int i = 0; i < 50; i++) {
+      CompletableFuture<BankResponse> response = responses.get(i);
+      if (i == 25) {
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> response.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof HttpServerErrorException);
+      } else {
+        assertTrue(response.get(10, TimeUnit.SECONDS).isAuthorized());
+      }
+    }
+  }
+
+  @Test
+  void whenPaymentIsSentBlockingThenItIsBatchedAsWell() {
+    assertTrue(bankClient.processPayment(request("7")).isAuthorized());
+    assertFalse(bankClient.processPayment(request("2")).isAuthorized());
+    assertThrows(HttpServerErrorException.class, () -> bankClient.processPayment(request("0")));
+  }
+
+  private static BankRequest request(String lastDigit) {
+    return new BankRequest("222240534324887" + lastDigit, "12/2030", "GBP", 100, 123);
+  }
+}
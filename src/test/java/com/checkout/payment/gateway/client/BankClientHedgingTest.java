@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.simulator.BankSimulator;
+import com.checkout.payment.gateway.simulator.LatencyDistribution;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Sends payments through {@link BankClient} with hedging on, to a bank that answers one request in
+ * twenty after two seconds, and checks the hedges to a second bank keep every payment fast.
+ */
+@SpringBootTest(properties = {
+    "bank.client.hedging.enabled=true",
+    "bank.client.hedging.percentile=80",
+    "bank.client.hedging.min-delay=1ms",
+    "bank.client.latency.min-samples=20"
+})
+class BankClientHedgingTest {
+
+  private static final Duration SLOW = Duration.ofSeconds(2);
+
+  private static BankSimulator bank;
+  private static BankSimulator hedgeBank;
+
+  @Autowired
+  private BankClient bankClient;
+
+  @SpyBean
+  private RestTemplate restTemplate;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    bank = new BankSimulator(0, LatencyDistribution.parse("bimodal:2ms,2s,0.05"), 0, 0);
+    bank.start();
+    hedgeBank = BankSimulator.withDefaults();
+    hedgeBank.start();
+    registry.add("bank.simulator.url", bank::getUrl);
+    registry.add("bank.client.hedging.url", hedgeBank::getUrl);
+  }
+
+  @AfterAll
+  static void stopBanks() throws IOException {
+    bank.close();
+    hedgeBank.close();
+  }
+
+  @Test
+  void whenBankIsSlowForSomePaymentsThenHedgesAnswerThem() throws Exception {
+    // Enough latencies for the hedge delay to be known, sent one at a time so connection setup
+    // does not inflate them
+    for (int i = 0; i < 50; i++) {
+      bankClient.processPaymentAsync(request()).get(10, TimeUnit.SECONDS);
+    }
+    // The hedge delay is recomputed from them at most every 100ms
+    TimeUnit.MILLISECONDS.sleep(200);
+
+    long hedgedBefore = hedgeBank.getStats().getAuthorized();
+    for (int i = 0; i < 100; i++) {
+      long start = System.nanoTime();
+      assertTrue(bankClient.processPaymentAsync(request()).get(10, TimeUnit.SECONDS)
+          .isAuthorized());
+      long elapsed = System.nanoTime() - start;
+      assertTrue(elapsed < SLOW.toNanos() / 2, "payment " + i + " took " + elapsed + "ns");
+    }
+    assertTrue(hedgeBank.getStats().getAuthorized() > hedgedBefore);
+  }
+
+  @Test
+  void whenPaymentIsSentBlockingThenItGoesThroughTheHedgingClient() {
+    for (int i = 0; i < 30; i++) {
+      assertTrue(bankClient.processPayment(request()).isAuthorized());
+    }
+    // Hedging is only done by the asynchronous client, so the RestTemplate is bypassed
+    verifyNoInteractions(restTemplate);
+  }
+
+  private static BankRequest request() {
+    return new BankRequest("2222405343248877", "12/2030", "GBP", 100, 123);
+  }
+}
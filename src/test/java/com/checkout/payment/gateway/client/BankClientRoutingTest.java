@@ -0,0 +1,128 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.client.routing.BankEndpoint;
+import com.checkout.payment.gateway.client.routing.BankRouter;
+import com.checkout.payment.gateway.simulator.BankSimulator;
+import com.checkout.payment.gateway.simulator.LatencyDistribution;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Sends payments through {@link BankClient} routed over three simulators: a fast one, a slow one
+ * and one that resets every connection. The fast one should take most payments and the failing
+ * one should be ejected after a few, while 503 answers about single payments eject nothing.
+ */
+@SpringBootTest(properties = {
+    "bank.client.routing.policy=peak-ewma",
+    "bank.client.routing.ejection.consecutive-failures=5"
+})
+class BankClientRoutingTest {
+
+  private static final int PAYMENTS = 200;
+
+  private static BankSimulator fastBank;
+  private static BankSimulator slowBank;
+  private static BankSimulator failingBank;
+
+  @Autowired
+  private BankClient bankClient;
+
+  @Autowired
+  private BankRouter bankRouter;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    fastBank = new BankSimulator(0, LatencyDistribution.parse("fixed:1ms"), 0, 0);
+    slowBank = new BankSimulator(0, LatencyDistribution.parse("fixed:100ms"), 0, 0);
+    failingBank = new BankSimulator(0, LatencyDistribution.parse("fixed:1ms"), 0, 1);
+    fastBank.start();
+    slowBank.start();
+    failingBank.start();
+    registry.add("bank.client.routing.endpoints",
+        () -> fastBank.getUrl() + "," + slowBank.getUrl() + "," + failingBank.getUrl());
+  }
+
+  @AfterAll
+  static void stopBanks() throws IOException {
+    fastBank.close();
+    slowBank.close();
+    failingBank.close();
+  }
+
+  @Test
+  void whenPaymentsAreRoutedThenTheFastEndpointTakesMostAndTheFailingOneIsEjected() {
+    long fastBefore = fastBank.getStats().getAuthorized();
+    long slowBefore = slowBank.getStats().getAuthorized();
+    int failed = 0;
+    for (int i = 0; i < PAYMENTS; i++) {
+      try {
+        assertTrue(bankClient.processPayment(request()).isAuthorized());
+      } catch (ResourceAccessException ex) {
+        failed++;
+      }
+    }
+
+    long fast = fastBank.getStats().getAuthorized() - fastBefore;
+    long slow = slowBank.getStats().getAuthorized() - slowBefore;
+    assertTrue(fast > PAYMENTS * 0.9, "fast: " + fast + ", slow: " + slow);
+    assertTrue(failed <= 5, "failed: " + failed);
+    assertTrue(failingBank.getStats().getResets() <= 5, failingBank.getStats().toString());
+  }
+
+  @Test
+  void whenPaymentsAreSentAsynchronouslyThenTheyAreRoutedAsWell() throws Exception {
+    int authorized = 0;
+    for (int i = 0; i < PAYMENTS; i++) {
+      try {
+        BankResponse response = bankClient.processPaymentAsync(request()).get(5, TimeUnit.SECONDS);
+        assertTrue(response.isAuthorized());
+        authorized++;
+      } catch (ExecutionException ex) {
+        assertTrue(ex.getCause() instanceof ResourceAccessException);
+      }
+    }
+
+    assertTrue(authorized >= PAYMENTS - 5, "authorized: " + authorized);
+    assertTrue(failingBank.getStats().getResets() <= 5, failingBank.getStats().toString());
+  }
+
+  @Test
+  void whenBankAnswers503ForCardsEndingIn0ThenNoHealthyEndpointIsEjected() {
+    // Fewer than the circuit breaker's minimum calls, so only endpoint health is exercised
+    for (int i = 0; i < 10; i++) {
+      try {
+        bankClient.processPayment(request("2222405343248870"));
+      } catch (HttpServerErrorException | ResourceAccessException ex) {
+        // 503 from a healthy bank, or a reset from the failing one
+      }
+    }
+
+    for (BankEndpoint endpoint : bankRouter.getEndpoints()) {
+      if (!endpoint.getUrl().equals(failingBank.getUrl())) {
+        assertEquals(0, endpoint.getEjectionCount(), endpoint.getUrl());
+      }
+    }
+  }
+
+  private static BankRequest request() {
+    return request("2222405343248877");
+  }
+
+  private static BankRequest request(String cardNumber) {
+    return new BankRequest(cardNumber, "12/2030", "GBP", 100, 123);
+  }
+}
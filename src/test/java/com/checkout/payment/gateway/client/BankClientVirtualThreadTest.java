@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Checks that blocking bank calls made from virtual threads park rather than pin their carrier
+ * thread. The pool is smaller than the number of callers so the connection lease wait is covered
+ * as well as the socket read.
+ */
+@SpringBootTest(properties = {
+    "payments.threads.mode=virtual",
+    "bank.client.pool.max-connections=10",
+    "bank.client.pool.max-connections-per-route=10"
+})
+class BankClientVirtualThreadTest {
+
+  private static final int CONCURRENT_CALLS = 200;
+  private static final Duration BANK_LATENCY = Duration.ofMillis(50);
+
+  private static HttpServer bank;
+
+  @Autowired
+  private BankClient bankClient;
+
+  @Autowired
+  private ExecutorService bankClientExecutor;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    bank = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    bank.createContext("/payments", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      try {
+        Thread.sleep(BANK_LATENCY.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = "{\"authorized\":true,\"authorization_code\":\"AUTH123\"}"
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    bank.setExecutor(Executors.newCachedThreadPool());
+    bank.start();
+    registry.add("bank.simulator.url", () -> "http://localhost:" + bank.getAddress().getPort());
+  }
+
+  @AfterAll
+  static void stopBank() {
+    bank.stop(0);
+  }
+
+  // 1. Blocking RestTemplate path
+  @Test
+  void whenBankCallsRunOnVirtualThreadsThenCarrierThreadsAreNotPinned() throws Exception {
+    List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+    BankRequest request = new BankRequest("2222405343248877", "12/2030", "GBP", 100, 123);
+
+    try (RecordingStream recording = new RecordingStream()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+      recording.startAsync();
+
+      try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<BankResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+          calls.add(callers.submit(() -> bankClient.processPayment(request)));
+        }
+        for (Future<BankResponse> call : calls) {
+          assertTrue(call.get().isAuthorized());
+        }
+      }
+      // Flushes every event recorded so far to the handler before returning
+      recording.stop();
+    }
+
+    assertTrue(pinnedEvents.isEmpty(),
+        () -> pinnedEvents.size() + " pinned virtual threads, first at:\n" + pinnedEvents.get(0));
+  }
+
+  // 2. Asynchronous pipeline executor
+  @Test
+  void whenVirtualModeIsSelectedThenAsyncBankCallsCompleteOnVirtualThreads() throws Exception {
+    assertTrue(bankClientExecutor.submit(() -> Thread.currentThread().isVirtual()).get());
+  }
+}
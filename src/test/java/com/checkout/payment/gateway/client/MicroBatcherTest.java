@@ -0,0 +1,143 @@
+package com.checkout.payment.gateway.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MicroBatcherTest {
+
+  private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+  private MicroBatcher<Integer, String> batcher;
+
+  @AfterEach
+  void tearDown() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  // 1. Batching
+  @Test
+  void whenTrafficIsLowThenRequestIsSentWithoutWaiting() throws Exception {
+    batcher = new MicroBatcher<>("test-batcher", 32, Duration.ofMillis(200), this::echo);
+
+    // One request every 300ms is less than one per window
+    for (int i = 0; i < 4; i++) {
+      long start = System.nanoTime();
+      assertEquals("item-" + i, batcher.submit(i).get(5, TimeUnit.SECONDS));
+      assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+      Thread.sleep(300);
+    }
+    assertEquals(4, batches.size());
+  }
+
+  @Test
+  void whenRequestsQueueUpThenTheyAreSentInBatchesOfAtMostMaxSize() throws Exception {
+    CountDownLatch firstSending = new CountDownLatch(1);
+    CountDownLatch allSubmitted = new CountDownLatch(1);
+    batcher = new MicroBatcher<>("test-batcher", 32, Duration.ZERO, (items, results) -> {
+      // Hold the dispatcher on the first batch so the rest queue up behind it
+      if (batches.isEmpty()) {
+        firstSending.countDown();
+        await(allSubmitted);
+      }
+      echo(items, results);
+    });
+
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    results.add(batcher.submit(0));
+    assertTrue(firstSending.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i < 100; i++) {
+      results.add(batcher.submit(i));
+    }
+    allSubmitted.countDown();
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals("item-" + i, results.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(List.of(1, 32, 32, 32, 3), batches.stream().map(List::size).toList());
+  }
+
+  @Test
+  void whenTrafficIsSustainedThenBatchIsHeldOpenForMoreRequests() throws Exception {
+    batcher = new MicroBatcher<>("test-batcher", 10, Duration.ofMillis(200), this::echo);
+
+    // Warm the arrival rate up past one request per window
+    for (int i = 0; i < 50; i++) {
+      batcher.submit(i);
+      Thread.sleep(2);
+    }
+    Thread.sleep(500);
+    batches.clear();
+
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      results.add(batcher.submit(i));
+      Thread.sleep(5);
+    }
+    CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+    assertTrue(batches.size() < 10, "batches: " + batches);
+  }
+
+  // 2. Failures
+  @Test
+  void whenSenderThrowsThenEveryRequestInTheBatchFails() {
+    batcher = new MicroBatcher<>("test-batcher", 32, Duration.ZERO, (items, results) -> {
+      throw new IllegalArgumentException("bad batch");
+    });
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> batcher.submit(1).get(5, TimeUnit.SECONDS));
+
+    assertTrue(exception.getCause() instanceof IllegalArgumentException);
+  }
+
+  @Test
+  void whenBatcherIsClosedThenQueuedAndLaterRequestsFail() throws Exception {
+    CountDownLatch sending = new CountDownLatch(1);
+    batcher = new MicroBatcher<>("test-batcher", 1, Duration.ZERO, (items, results) -> {
+      sending.countDown();
+      // Returns when close() interrupts the dispatcher
+      await(new CountDownLatch(1));
+      echo(items, results);
+    });
+    CompletableFuture<String> sent = batcher.submit(1);
+    CompletableFuture<String> queued = batcher.submit(2);
+    assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+    batcher.close();
+
+    assertEquals("item-1", sent.get(5, TimeUnit.SECONDS));
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> queued.get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+    assertThrows(ExecutionException.class, () -> batcher.submit(3).get(5, TimeUnit.SECONDS));
+  }
+
+  private void echo(List<Integer> items, List<CompletableFuture<String>> results) {
+    batches.add(items);
+    for (int i = 0; i < items.size(); i++) {
+      results.get(i).complete("item-" + items.get(i));
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveTimeoutTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final LatencyHistogram latencies =
+      new LatencyHistogram(Duration.ofMinutes(1), clock::get);
+  private final AdaptiveTimeout timeout = new AdaptiveTimeout(latencies, 99, 3,
+      Duration.ofMillis(50), Duration.ofSeconds(10), 10);
+
+  @Test
+  void whenTooFewLatenciesAreKnownThenMaximumIsUsed() {
+    latencies.record(Duration.ofMillis(20).toNanos());
+
+    assertEquals(Duration.ofSeconds(10), timeout.timeout());
+  }
+
+  @Test
+  void whenLatenciesAreKnownThenTimeoutIsAMultipleOfThePercentile() {
+    for (int i = 0; i < 100; i++) {
+      latencies.record(Duration.ofMillis(100).toNanos());
+    }
+
+    Duration adapted = timeout.timeout();
+    assertTrue(adapted.compareTo(Duration.ofMillis(300)) >= 0
+        && adapted.compareTo(Duration.ofMillis(340)) <= 0, adapted.toString());
+  }
+
+  @Test
+  void whenPercentileIsOutOfBoundsThenTimeoutIsClamped() {
+    for (int i = 0; i < 100; i++) {
+      latencies.record(Duration.ofMillis(1).toNanos());
+    }
+    assertEquals(Duration.ofMillis(50), timeout.timeout());
+
+    for (int i = 0; i < 100; i++) {
+      latencies.record(Duration.ofSeconds(20).toNanos());
+    }
+    clock.addAndGet(LatencyHistogram.PERCENTILE_REFRESH_NANOS);
+    assertEquals(Duration.ofSeconds(10), timeout.timeout());
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveTimeout(latencies, 99, 3,
+        Duration.ofSeconds(2), Duration.ofSeconds(1), 10));
+  }
+}
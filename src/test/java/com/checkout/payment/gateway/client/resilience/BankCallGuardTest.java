@@ -0,0 +1,123 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.CircuitState;
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+class BankCallGuardTest {
+
+  private CircuitBreaker circuitBreaker;
+  private Bulkhead bulkhead;
+  private BankCallGuard guard;
+
+  @BeforeEach
+  void setUp() {
+    circuitBreaker = new CircuitBreaker(10, 4, 50, 100, Duration.ofSeconds(2),
+        Duration.ofMinutes(1), 1);
+    bulkhead = new Bulkhead(2, Duration.ZERO);
+    guard = new BankCallGuard(circuitBreaker, bulkhead);
+  }
+
+  // 1. Circuit breaker
+  @Test
+  void whenBankKeepsReturning5xxThenCallsAreRejectedWithoutReachingTheBank() {
+    for (int i = 0; i < 4; i++) {
+      assertThrows(HttpServerErrorException.class, () -> guard.call(() -> {
+        throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+      }));
+    }
+
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    assertThrows(BankCallRejectedException.class, () -> guard.call(() -> {
+      throw new AssertionError("Bank must not be called while the circuit is open");
+    }));
+    assertEquals(1, guard.getCircuitOpenRejections());
+    assertEquals(2, bulkhead.getAvailablePermits());
+  }
+
+  @Test
+  void whenBankReturns4xxThenCallsDoNotCountAsFailures() {
+    for (int i = 0; i < 10; i++) {
+      assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+        throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+      }));
+    }
+
+    assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void whenAsyncBankCallsFailThenCircuitOpens() {
+    for (int i = 0; i < 4; i++) {
+      guard.callAsync(() -> CompletableFuture.failedFuture(
+          new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+    }
+
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    assertThrows(BankCallRejectedException.class,
+        () -> guard.callAsync(() -> CompletableFuture.completedFuture("authorized")));
+  }
+
+  // 2. Bulkhead
+  @Test
+  void whenBulkheadIsFullThenCallIsRejectedUntilAPermitIsReleased() {
+    CompletableFuture<String> first = new CompletableFuture<>();
+    CompletableFuture<String> second = new CompletableFuture<>();
+    guard.callAsync(() -> first);
+    guard.callAsync(() -> second);
+
+    assertThrows(BankCallRejectedException.class,
+        () -> guard.call(() -> "authorized"));
+    assertEquals(1, guard.getBulkheadFullRejections());
+
+    first.complete("authorized");
+    assertEquals("authorized", guard.call(() -> "authorized"));
+    assertEquals(1, bulkhead.getAvailablePermits());
+  }
+
+  // 3. Adaptive concurrency limit
+  @Test
+  void whenConcurrencyLimitIsReachedThenCallIsRejectedAndPermitsAreReturned() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        new AimdLimit(1, 1, 10, 0.5, Duration.ofSeconds(1)), Duration.ZERO);
+    guard = new BankCallGuard(circuitBreaker, bulkhead, limiter);
+    CompletableFuture<String> first = new CompletableFuture<>();
+    guard.callAsync(() -> first);
+
+    assertThrows(BankCallRejectedException.class, () -> guard.call(() -> "authorized"));
+    assertEquals(1, guard.getLimitReachedRejections());
+    assertEquals(1, bulkhead.getAvailablePermits());
+
+    first.completeExceptionally(new ResourceAccessException("Read timed out"));
+    assertEquals(0, limiter.getInFlight());
+    assertEquals("authorized", guard.call(() -> "authorized"));
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  void whenBankAnswers5xxThenConcurrencyLimitDoesNotBackOff() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        new AimdLimit(4, 1, 10, 0.5, Duration.ofSeconds(1)), Duration.ZERO);
+    guard = new BankCallGuard(circuitBreaker, bulkhead, limiter);
+
+    assertThrows(HttpServerErrorException.class, () -> guard.call(() -> {
+      throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+    }));
+    assertEquals(4, limiter.getLimit());
+
+    assertThrows(ResourceAccessException.class, () -> guard.call(() -> {
+      throw new ResourceAccessException("Read timed out");
+    }));
+    assertEquals(2, limiter.getLimit());
+  }
+}
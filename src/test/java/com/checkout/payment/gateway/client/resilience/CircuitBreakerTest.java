@@ -0,0 +1,151 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.CircuitState;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<String> transitions = new ArrayList<>();
+  private CircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    // Window of 10, opens at 50% failures or 80% slow calls once 4 calls are recorded
+    circuitBreaker = new CircuitBreaker(10, 4, 50, 80, Duration.ofSeconds(2),
+        Duration.ofSeconds(10), 2, clock::get);
+    circuitBreaker.onStateTransition((from, to) -> transitions.add(from + "->" + to));
+  }
+
+  // 1. Closed state
+  @Test
+  void whenFailureRateStaysBelowThresholdThenCircuitStaysClosed() {
+    for (int i = 0; i < 20; i++) {
+      assertTrue(circuitBreaker.tryAcquirePermission());
+      if (i % 4 == 3) {
+        circuitBreaker.onFailure(FAST);
+      } else {
+        circuitBreaker.onSuccess(FAST);
+      }
+    }
+
+    assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+    assertTrue(transitions.isEmpty());
+  }
+
+  @Test
+  void whenFewerThanMinimumCallsFailThenCircuitStaysClosed() {
+    circuitBreaker.onFailure(FAST);
+    circuitBreaker.onFailure(FAST);
+    circuitBreaker.onFailure(FAST);
+
+    assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void whenFailuresFillTheWindowThenRateIsMeasuredOverTheWindowOnly() {
+    for (int i = 0; i < 10; i++) {
+      circuitBreaker.onSuccess(FAST);
+    }
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure(FAST);
+    }
+    assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+
+    // 5 of the last 10 calls failed, although only 5 of all 15 did
+    circuitBreaker.onFailure(FAST);
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+  }
+
+  // 2. Opening
+  @Test
+  void whenFailureRateReachesThresholdThenCircuitOpensAndRejectsCalls() {
+    circuitBreaker.onSuccess(FAST);
+    circuitBreaker.onSuccess(FAST);
+    circuitBreaker.onFailure(FAST);
+    circuitBreaker.onFailure(FAST);
+
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+    assertEquals(List.of("CLOSED->OPEN"), transitions);
+  }
+
+  @Test
+  void whenSlowCallRateReachesThresholdThenCircuitOpens() {
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onSuccess(SLOW);
+    }
+
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+  }
+
+  // 3. Half-open probing
+  @Test
+  void whenOpenDurationElapsesThenOnlyHalfOpenProbesArePermitted() {
+    open();
+    clock.addAndGet(Duration.ofSeconds(9).toNanos());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+    assertEquals(CircuitState.HALF_OPEN, circuitBreaker.getState());
+  }
+
+  @Test
+  void whenHalfOpenProbesSucceedThenCircuitCloses() {
+    open();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    circuitBreaker.onSuccess(FAST);
+    circuitBreaker.onSuccess(FAST);
+
+    assertEquals(CircuitState.CLOSED, circuitBreaker.getState());
+    assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+  }
+
+  @Test
+  void whenHalfOpenProbeFailsThenCircuitOpensAgain() {
+    open();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    circuitBreaker.onSuccess(FAST);
+    circuitBreaker.onFailure(FAST);
+
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+  }
+
+  @Test
+  void whenHalfOpenPermissionIsReleasedThenAnotherProbeIsPermitted() {
+    open();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    circuitBreaker.releasePermission();
+
+    assertTrue(circuitBreaker.tryAcquirePermission());
+  }
+
+  private void open() {
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure(FAST);
+    }
+    assertEquals(CircuitState.OPEN, circuitBreaker.getState());
+  }
+}
@@ -0,0 +1,110 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+  // 1. Limiter
+  @Test
+  void whenLimitIsReachedThenCallsAreRefusedUntilOneFinishes() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        new AimdLimit(2, 1, 10, 0.5, Duration.ofSeconds(1)), Duration.ZERO);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(2, limiter.getInFlight());
+
+    limiter.release(FAST, false);
+    assertEquals(3, limiter.getLimit());
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+  }
+
+  @Test
+  void whenMaxWaitIsSetThenCallWaitsForAnotherToFinish() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        new AimdLimit(1, 1, 1, 0.5, Duration.ofSeconds(1)), Duration.ofSeconds(5));
+    assertTrue(limiter.tryAcquire());
+
+    CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(limiter::tryAcquire);
+    Thread.sleep(50);
+    assertFalse(waiting.isDone());
+    limiter.release(FAST, false);
+
+    assertTrue(waiting.get(5, TimeUnit.SECONDS));
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  void whenMaxWaitElapsesThenCallIsRefused() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+        new AimdLimit(1, 1, 1, 0.5, Duration.ofSeconds(1)), Duration.ofMillis(20));
+    assertTrue(limiter.tryAcquire());
+
+    long start = System.nanoTime();
+    assertFalse(limiter.tryAcquire());
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  // 2. AIMD
+  @Test
+  void whenCallsFailOrAreSlowThenAimdLimitBacksOff() {
+    AimdLimit limit = new AimdLimit(20, 4, 100, 0.5, Duration.ofMillis(50));
+
+    assertEquals(21, limit.onSample(FAST, 20, false));
+    assertEquals(21, limit.onSample(FAST, 2, false));
+    assertEquals(10, limit.onSample(FAST, 20, true));
+    assertEquals(5, limit.onSample(SLOW, 10, false));
+    assertEquals(4, limit.onSample(SLOW, 5, false));
+  }
+
+  // 3. Gradient
+  @Test
+  void whenRoundTripTimesStayFlatThenGradientLimitGrowsToTheMax() {
+    GradientLimit limit = new GradientLimit(10, 4, 50, 1.5, 0.2);
+
+    for (int i = 0; i < 200; i++) {
+      limit.onSample(FAST, limit.getLimit(), false);
+    }
+
+    assertEquals(50, limit.getLimit());
+  }
+
+  @Test
+  void whenRoundTripTimesRiseThenGradientLimitShrinks() {
+    GradientLimit limit = new GradientLimit(40, 4, 50, 1.5, 0.2);
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(FAST, limit.getLimit(), false);
+    }
+    int before = limit.getLimit();
+
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(SLOW, limit.getLimit(), false);
+    }
+
+    assertTrue(limit.getLimit() < before / 2, "limit: " + limit.getLimit());
+  }
+
+  @Test
+  void whenLimitIsNotInUseThenGradientLimitStaysPut() {
+    GradientLimit limit = new GradientLimit(20, 4, 50, 1.5, 0.2);
+
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(FAST, 1, false);
+    }
+
+    assertEquals(20, limit.getLimit());
+  }
+}
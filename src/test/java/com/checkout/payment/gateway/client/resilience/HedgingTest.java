@@ -0,0 +1,132 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HedgingTest {
+
+  private final LatencyHistogram latencies = new LatencyHistogram(Duration.ofMinutes(1));
+  private final Hedging hedging = new Hedging(latencies, 95, Duration.ofMillis(1), 10);
+  private final AtomicInteger hedgesStarted = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    // Hedge after about 10ms
+    for (int i = 0; i < 100; i++) {
+      latencies.record(Duration.ofMillis(10).toNanos());
+    }
+  }
+
+  // 1. Hedging slow calls
+  @Test
+  void whenPrimaryIsSlowThenHedgeAnswers() throws Exception {
+    CompletableFuture<String> result = hedging.call(CompletableFuture::new,
+        () -> started(CompletableFuture.completedFuture("hedge")));
+
+    assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+    assertEquals(1, hedging.getHedges());
+    assertEquals(1, hedging.getHedgeWins());
+  }
+
+  @Test
+  void whenPrimaryAnswersBeforeTheDelayThenNoHedgeIsSent() throws Exception {
+    CompletableFuture<String> result = hedging.call(
+        () -> CompletableFuture.completedFuture("primary"),
+        () -> started(CompletableFuture.completedFuture("hedge")));
+
+    assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    assertEquals(0, hedgesStarted.get());
+  }
+
+  @Test
+  void whenTooFewLatenciesAreKnownThenPrimaryIsNotHedged() {
+    Hedging cold = new Hedging(new LatencyHistogram(Duration.ofMinutes(1)), 95,
+        Duration.ofMillis(1), 10);
+    CompletableFuture<String> primary = new CompletableFuture<>();
+
+    assertSame(primary, cold.call(() -> primary, () -> started(new CompletableFuture<>())));
+  }
+
+  // 2. Failures
+  @Test
+  void whenPrimaryFailsBeforeTheDelayThenCallFailsWithoutHedging() throws Exception {
+    CompletableFuture<String> result = hedging.call(
+        () -> CompletableFuture.failedFuture(new IllegalStateException("bank error")),
+        () -> started(CompletableFuture.completedFuture("hedge")));
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+        () -> result.get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof IllegalStateException);
+    Thread.sleep(50);
+    assertEquals(0, hedgesStarted.get());
+  }
+
+  @Test
+  void whenOneCopyFailsThenTheOtherAnswers() throws Exception {
+    CompletableFuture<String> primary = new CompletableFuture<>();
+    CompletableFuture<String> hedge = new CompletableFuture<>();
+    CompletableFuture<String> result = hedging.call(() -> primary, () -> started(hedge));
+    awaitHedge();
+
+    primary.completeExceptionally(new IllegalStateException("connection reset"));
+    assertFalse(result.isDone());
+    hedge.complete("hedge");
+
+    assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void whenBothCopiesFailThenCallFails() throws Exception {
+    CompletableFuture<String> primary = new CompletableFuture<>();
+    CompletableFuture<String> hedge = new CompletableFuture<>();
+    CompletableFuture<String> result = hedging.call(() -> primary, () -> started(hedge));
+    awaitHedge();
+
+    hedge.completeExceptionally(new IllegalStateException("hedge failed"));
+    assertFalse(result.isDone());
+    primary.completeExceptionally(new IllegalStateException("primary failed"));
+
+    assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void whenHedgeIsRejectedThenPrimaryAnswers() throws Exception {
+    CompletableFuture<String> primary = new CompletableFuture<>();
+    CompletableFuture<String> result = hedging.call(() -> primary, () -> {
+      hedgesStarted.incrementAndGet();
+      throw new BankCallRejectedException("Bank bulkhead is full");
+    });
+    awaitHedge();
+
+    primary.complete("primary");
+
+    assertEquals("primary", result.get(5, TimeUnit.SECONDS));
+    assertEquals(0, hedging.getHedges());
+  }
+
+  private <T> CompletableFuture<T> started(CompletableFuture<T> copy) {
+    hedgesStarted.incrementAndGet();
+    return copy;
+  }
+
+  private void awaitHedge() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (hedgesStarted.get() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(1, hedgesStarted.get());
+  }
+}
@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.client.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final LatencyHistogram histogram =
+      new LatencyHistogram(Duration.ofSeconds(60), clock::get);
+
+  // 1. Percentiles
+  @Test
+  void whenLatenciesAreRecordedThenPercentilesAreWithinABucket() {
+    for (int i = 1; i <= 1_000; i++) {
+      histogram.record(i * MILLIS);
+    }
+
+    assertBetween(500 * MILLIS, histogram.percentileNanos(50, 1));
+    assertBetween(950 * MILLIS, histogram.percentileNanos(95, 1));
+    assertBetween(1_000 * MILLIS, histogram.percentileNanos(100, 1));
+    assertEquals(1_000, histogram.count());
+  }
+
+  @Test
+  void whenTooFewLatenciesAreRecordedThenPercentileIsUnknown() {
+    assertEquals(-1, histogram.percentileNanos(95, 1));
+    for (int i = 0; i < 99; i++) {
+      histogram.record(MILLIS);
+    }
+
+    assertEquals(-1, histogram.percentileNanos(95, 100));
+    histogram.record(MILLIS);
+    assertBetween(MILLIS, histogram.percentileNanos(95, 100));
+  }
+
+  @Test
+  void whenValuesAreBucketedThenUpperBoundsAreCloseAndIncreasing() {
+    int previous = -1;
+    for (long micros = 0; micros < 10_000_000; micros += 1 + micros / 100) {
+      int bucket = LatencyHistogram.bucket(micros);
+      long upper = LatencyHistogram.upperBoundMicros(bucket);
+      assertTrue(bucket >= previous);
+      assertTrue(upper >= micros && upper <= micros * 1.125 + 1, micros + " -> " + upper);
+      previous = bucket;
+    }
+    assertTrue(LatencyHistogram.upperBoundMicros(LatencyHistogram.bucket(Long.MAX_VALUE / 1_000))
+        >= Long.MAX_VALUE / 1_000);
+  }
+
+  @Test
+  void whenPercentileIsReadAgainWithinRefreshIntervalThenCachedValueIsReturned() {
+    LatencyHistogram.Percentile p99 = histogram.percentile(99, 1);
+    histogram.record(10 * MILLIS);
+    assertBetween(10 * MILLIS, p99.nanos());
+
+    histogram.record(500 * MILLIS);
+    histogram.record(500 * MILLIS);
+    assertBetween(10 * MILLIS, p99.nanos());
+
+    clock.addAndGet(LatencyHistogram.PERCENTILE_REFRESH_NANOS);
+    assertBetween(500 * MILLIS, p99.nanos());
+  }
+
+  // 2. Rolling window
+  @Test
+  void whenWindowPassesThenOldLatenciesAgeOut() {
+    for (int i = 0; i < 100; i++) {
+      histogram.record(500 * MILLIS);
+    }
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+    for (int i = 0; i < 100; i++) {
+      histogram.record(10 * MILLIS);
+    }
+
+    assertEquals(200, histogram.count());
+    assertBetween(500 * MILLIS, histogram.percentileNanos(99, 1));
+
+    clock.addAndGet(Duration.ofSeconds(40).toNanos());
+    assertEquals(100, histogram.count());
+    assertBetween(10 * MILLIS, histogram.percentileNanos(99, 1));
+
+    clock.addAndGet(Duration.ofSeconds(60).toNanos());
+    assertEquals(0, histogram.count());
+    assertEquals(-1, histogram.percentileNanos(99, 1));
+  }
+
+  private static void assertBetween(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.125 + 1_000,
+        "expected about " + expected + " but was " + actual);
+  }
+}
@@ -0,0 +1,171 @@
+package com.checkout.payment.gateway.client.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.RoutingPolicy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BankRouterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+  private long now = 1_000_000_000L;
+
+  // 1. Peak-EWMA
+  @Test
+  void whenOneEndpointIsSlowerThenPeakEwmaRoutesToTheFasterOne() {
+    BankEndpoint fast = endpoint("fast", Map.of());
+    BankEndpoint slow = endpoint("slow", Map.of());
+    BankRouter router = router(RoutingPolicy.PEAK_EWMA, fast, slow);
+    call(fast, FAST, false);
+    call(slow, SLOW, false);
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(fast, router.select("GBP"));
+    }
+  }
+
+  @Test
+  void whenEndpointHasCallsInFlightThenItCostsMore() {
+    BankEndpoint busy = endpoint("busy", Map.of());
+    BankEndpoint idle = endpoint("idle", Map.of());
+    BankRouter router = router(RoutingPolicy.PEAK_EWMA, busy, idle);
+    call(busy, FAST, false);
+    call(idle, 2 * FAST, false);
+    for (int i = 0; i < 3; i++) {
+      busy.onStart();
+    }
+
+    assertSame(idle, router.select("GBP"));
+  }
+
+  @Test
+  void whenSlowSampleArrivesThenLatencyJumpsAndDecaysBack() {
+    BankEndpoint endpoint = endpoint("bank", Map.of());
+    call(endpoint, FAST, false);
+    call(endpoint, SLOW, false);
+    assertEquals(SLOW, endpoint.getLatencyNanos(), 1);
+
+    for (int i = 0; i < 100; i++) {
+      now += TimeUnit.MILLISECONDS.toNanos(100);
+      call(endpoint, FAST, false);
+    }
+    assertTrue(endpoint.getLatencyNanos() < 2 * FAST, "latency: " + endpoint.getLatencyNanos());
+  }
+
+  // 2. Power of two choices
+  @Test
+  void whenTwoEndpointsArePickedThenTheLessLoadedOneWins() {
+    BankEndpoint loaded = endpoint("loaded", Map.of());
+    BankEndpoint free = endpoint("free", Map.of());
+    BankRouter router = router(RoutingPolicy.POWER_OF_TWO_CHOICES, loaded, free);
+    loaded.onStart();
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(free, router.select("GBP"));
+    }
+  }
+
+  // 3. Currency weights
+  @Test
+  void whenCurrencyWeightedThenEndpointsShareTrafficByWeight() {
+    BankEndpoint heavy = endpoint("heavy", Map.of("GBP", 3, "USD", 1));
+    BankEndpoint light = endpoint("light", Map.of("GBP", 1));
+    BankRouter router = router(RoutingPolicy.CURRENCY_WEIGHTED, heavy, light);
+
+    Map<BankEndpoint, Integer> picks = new HashMap<>();
+    for (int i = 0; i < 4_000; i++) {
+      picks.merge(router.select("GBP"), 1, Integer::sum);
+    }
+    assertEquals(0.75, picks.get(heavy) / 4_000.0, 0.05);
+    for (int i = 0; i < 100; i++) {
+      assertSame(heavy, router.select("USD"));
+    }
+  }
+
+  @Test
+  void whenNoEndpointTakesTheCurrencyThenAnyEndpointIsUsed() {
+    BankEndpoint gbp = endpoint("gbp", Map.of("GBP", 1));
+    BankEndpoint usd = endpoint("usd", Map.of("USD", 1));
+    BankRouter router = router(RoutingPolicy.CURRENCY_WEIGHTED, gbp, usd);
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(List.of(gbp, usd).contains(router.select("EUR")));
+    }
+  }
+
+  // 4. Health and ejection
+  @Test
+  void whenEndpointFailsRepeatedlyThenItIsEjectedUntilTheEjectionEnds() {
+    BankEndpoint failing = endpoint("failing", Map.of());
+    BankEndpoint healthy = endpoint("healthy", Map.of());
+    BankRouter router = router(RoutingPolicy.PEAK_EWMA, failing, healthy);
+    call(healthy, SLOW, false);
+    for (int i = 0; i < 3; i++) {
+      call(failing, FAST, true);
+    }
+
+    assertTrue(failing.isEjected());
+    assertEquals(1, failing.getEjectionCount());
+    assertTrue(failing.getHealth() < 1);
+    for (int i = 0; i < 100; i++) {
+      assertSame(healthy, router.select("GBP"));
+    }
+
+    now += TimeUnit.SECONDS.toNanos(11);
+    assertFalse(failing.isEjected());
+  }
+
+  @Test
+  void whenEndpointIsEjectedAgainThenEjectionIsLonger() {
+    BankEndpoint failing = endpoint("failing", Map.of());
+    for (int i = 0; i < 3; i++) {
+      call(failing, FAST, true);
+    }
+    now += TimeUnit.SECONDS.toNanos(11);
+    for (int i = 0; i < 3; i++) {
+      call(failing, FAST, true);
+    }
+
+    now += TimeUnit.SECONDS.toNanos(11);
+    assertTrue(failing.isEjected());
+    now += TimeUnit.SECONDS.toNanos(10);
+    assertFalse(failing.isEjected());
+  }
+
+  @Test
+  void whenEveryEndpointIsEjectedThenTheyAreStillUsed() {
+    BankEndpoint first = endpoint("first", Map.of());
+    BankEndpoint second = endpoint("second", Map.of());
+    BankRouter router = router(RoutingPolicy.PEAK_EWMA, first, second);
+    for (int i = 0; i < 3; i++) {
+      call(first, FAST, true);
+      call(second, FAST, true);
+    }
+
+    assertTrue(List.of(first, second).contains(router.select("GBP")));
+  }
+
+  private BankEndpoint endpoint(String url, Map<String, Integer> currencyWeights) {
+    return new BankEndpoint(url, currencyWeights, Duration.ofSeconds(1), 3,
+        Duration.ofSeconds(10), Duration.ofSeconds(60), () -> now);
+  }
+
+  private BankRouter router(RoutingPolicy policy, BankEndpoint... endpoints) {
+    return new BankRouter(List.of(endpoints), policy, () -> now);
+  }
+
+  private static void call(BankEndpoint endpoint, long rttNanos, boolean failed) {
+    endpoint.onStart();
+    endpoint.onComplete(rttNanos, failed);
+  }
+}
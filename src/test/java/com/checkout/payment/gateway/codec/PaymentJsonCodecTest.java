@@ -0,0 +1,273 @@
+package com.checkout.payment.gateway.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.client.model.BankBatchResult;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class PaymentJsonCodecTest {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  // 1. Payment requests
+  @Test
+  void whenPaymentRequestIsReadThenFieldsMatchObjectMapper() throws IOException {
+    String json = """
+        {
+          "card_number": "2222405343248877",
+          "expiry_month": 12,
+          "expiry_year": 2030,
+          "currency": "GBP",
+          "amount": 100,
+          "cvv": 123
+        }
+        """;
+
+    PostPaymentRequest request = PaymentJsonCodec.readPaymentRequest(bytes(json));
+
+    assertEquals(objectMapper.readValue(json, PostPaymentRequest.class).toString(),
+        request.toString());
+    assertEquals("2222405343248877", request.getCardNumber());
+  }
+
+  @Test
+  void whenPaymentRequestHasUnknownFieldsThenTheyAreSkipped() throws IOException {
+    PostPaymentRequest request = PaymentJsonCodec.readPaymentRequest(bytes("""
+        {"metadata": {"order": [1, 2, {"x": null}]}, "amount": 100, "reference": "abc"}
+        """));
+
+    assertEquals(100, request.getAmount());
+    assertNull(request.getCardNumber());
+  }
+
+  @Test
+  void whenNumbersAreSentAsStringsThenTheyAreCoerced() throws IOException {
+    PostPaymentRequest request = PaymentJsonCodec.readPaymentRequest(bytes("""
+        {"card_number": 2222405343248877, "expiry_month": "12", "amount": " 100 "}
+        """));
+
+    assertEquals("2222405343248877", request.getCardNumber());
+    assertEquals(12, request.getExpiryMonth());
+    assertEquals(100, request.getAmount());
+  }
+
+  @Test
+  void whenFieldIsExplicitlyNullThenItIsLeftUnset() throws IOException {
+    PostPaymentRequest request = PaymentJsonCodec.readPaymentRequest(bytes("""
+        {"amount": null, "currency": null}
+        """));
+
+    assertNull(request.getAmount());
+    assertNull(request.getCurrency());
+  }
+
+  @Test
+  void whenPaymentRequestIsMalformedThenParsingFails() {
+    assertThrows(MalformedJsonException.class,
+        () -> PaymentJsonCodec.readPaymentRequest(bytes("{\"amount\": 100")));
+    assertThrows(MalformedJsonException.class,
+        () -> PaymentJsonCodec.readPaymentRequest(bytes("[{\"amount\": 100}]")));
+    assertThrows(MalformedJsonException.class,
+        () -> PaymentJsonCodec.readPaymentRequest(bytes("{\"amount\": \"ten\"}")));
+    assertThrows(MalformedJsonException.class,
+        () -> PaymentJsonCodec.readPaymentRequest(bytes("{\"amount\": [100]}")));
+  }
+
+  @Test
+  void whenStringsAreEscapedThenTheyAreDecoded() throws IOException {
+    String json = """
+        {"card_number": "2222\\u0034053432488\\u00377", "currency": "G\\"\\\\P\\n",
+         "reference": "café \\ud83d\\ude00", "amount": 100}
+        """;
+
+    PostPaymentRequest request = PaymentJsonCodec.readPaymentRequest(bytes(json));
+
+    assertEquals(objectMapper.readValue(json, PostPaymentRequest.class).toString(),
+        request.toString());
+    assertEquals("G\"\\P\n", request.getCurrency());
+  }
+
+  @Test
+  void whenBodyIsStreamedThenLargeBodiesAreRead() throws IOException {
+    String json = "{\"padding\": \"" + "x".repeat(100_000) + "\", \"amount\": 100}";
+
+    PostPaymentRequest request =
+        PaymentJsonCodec.readPaymentRequest(new ByteArrayInputStream(bytes(json)));
+
+    assertEquals(100, request.getAmount());
+  }
+
+  // 2. Payment responses
+  @Test
+  void whenPaymentResponseIsWrittenThenJsonMatchesObjectMapper() throws IOException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.fromString("0190f5a2-7c1e-7b3a-8f0d-00000000abcd"));
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PaymentJsonCodec.writePaymentResponse(payment, out);
+
+    assertEquals(objectMapper.writeValueAsString(payment), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void whenPaymentResponseHasNullsThenJsonMatchesObjectMapper() throws IOException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PaymentJsonCodec.writePaymentResponse(payment, out);
+
+    assertEquals(objectMapper.writeValueAsString(payment), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void whenStringsNeedEscapingThenJsonMatchesObjectMapper() throws IOException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setCurrency("\"\\/\n\t\u0001 café € 😀");
+    payment.setAmount(Integer.MIN_VALUE);
+    payment.setExpiryYear(-42);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PaymentJsonCodec.writePaymentResponse(payment, out);
+
+    assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(payment)),
+        objectMapper.readTree(out.toByteArray()));
+  }
+
+  @Test
+  void whenRandomIdsAreWrittenThenTheyMatchUuidToString() throws IOException {
+    for (int i = 0; i < 1_000; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(UUID.randomUUID());
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      PaymentJsonCodec.writePaymentResponse(payment, out);
+
+      assertEquals(payment.getId().toString(),
+          objectMapper.readTree(out.toByteArray()).get("id").asText());
+    }
+  }
+
+  // 3. Bank requests and responses
+  @Test
+  void whenBankRequestIsWrittenThenJsonMatchesObjectMapper() throws IOException {
+    BankRequest request = new BankRequest("2222405343248877", "12/2030", "GBP", 100, 123);
+
+    assertEquals(objectMapper.valueToTree(request),
+        objectMapper.readTree(PaymentJsonCodec.writeBankRequest(request)));
+  }
+
+  @Test
+  void whenBankResponseIsReadThenFieldsMatchObjectMapper() throws IOException {
+    String json = "{\"authorized\":true,\"authorization_code\":\"0bb07405-6d44-4b50\"}";
+
+    BankResponse response = PaymentJsonCodec.readBankResponse(bytes(json));
+
+    assertEquals(objectMapper.readValue(json, BankResponse.class).toString(),
+        response.toString());
+    assertTrue(response.isAuthorized());
+  }
+
+  @Test
+  void whenBankDeclinesThenResponseIsNotAuthorized() throws IOException {
+    BankResponse response = PaymentJsonCodec.readBankResponse(
+        bytes("{\"authorized\":false,\"authorization_code\":\"\"}"));
+
+    assertFalse(response.isAuthorized());
+    assertEquals("", response.getAuthorizationCode());
+  }
+
+  @Test
+  void whenBankBatchIsWrittenThenItIsAnArrayOfBankRequests() throws IOException {
+    List<BankRequest> requests = List.of(
+        new BankRequest("2222405343248877", "12/2030", "GBP", 100, 123),
+        new BankRequest("2222405343248112", "01/2031", "USD", 250, 4567));
+
+    assertEquals(objectMapper.valueToTree(requests),
+        objectMapper.readTree(PaymentJsonCodec.writeBankBatchRequest(requests)));
+  }
+
+  @Test
+  void whenBankBatchResponseIsReadThenEachResultKeepsItsStatus() throws IOException {
+    List<BankBatchResult> results = PaymentJsonCodec.readBankBatchResponse(bytes("""
+        [{"status":200,"authorized":true,"authorization_code":"0bb07405"},
+         {"status":503},
+         {"status":400,"error_message":"Not all required properties were sent"}]
+        """));
+
+    assertEquals(3, results.size());
+    assertEquals(200, results.get(0).getStatus());
+    assertTrue(results.get(0).toBankResponse().isAuthorized());
+    assertEquals("0bb07405", results.get(0).getAuthorizationCode());
+    assertEquals(503, results.get(1).getStatus());
+    assertEquals("Not all required properties were sent", results.get(2).getErrorMessage());
+    assertTrue(PaymentJsonCodec.readBankBatchResponse(bytes("[]")).isEmpty());
+    assertThrows(MalformedJsonException.class,
+        () -> PaymentJsonCodec.readBankBatchResponse(bytes("[{\"status\":200} {}]")));
+  }
+
+  // 4. Batch response lines
+  @Test
+  void whenBatchPaymentIsWrittenThenLineHoldsIndexAndPayment() throws IOException {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.fromString("0190f5a2-7c1e-7b3a-8f0d-00000000abcd"));
+    payment.setStatus(PaymentStatus.DECLINED);
+    payment.setAmount(100);
+
+    byte[] line = PaymentJsonCodec.writeBatchPayment(7, payment);
+
+    assertEquals('\n', line[line.length - 1]);
+    JsonNode node = objectMapper.readTree(line);
+    assertEquals(7, node.get("index").asInt());
+    assertEquals(200, node.get("status").asInt());
+    assertEquals(objectMapper.valueToTree(payment), node.get("payment"));
+  }
+
+  @Test
+  void whenBatchErrorIsWrittenThenLineHoldsStatusAndErrors() throws IOException {
+    Map<String, String> errors = new LinkedHashMap<>();
+    errors.put("cardNumber", "Card number is not valid");
+    errors.put("cvv", "CVV \"must\" be 3-4 digits");
+
+    JsonNode node = objectMapper.readTree(
+        PaymentJsonCodec.writeBatchError(3, 400, "Validation failed", errors));
+    JsonNode withoutErrors = objectMapper.readTree(
+        PaymentJsonCodec.writeBatchError(4, 503, "Bank unavailable", null));
+
+    assertEquals(3, node.get("index").asInt());
+    assertEquals(400, node.get("status").asInt());
+    assertEquals("Validation failed", node.at("/error/message").asText());
+    assertEquals(objectMapper.valueToTree(errors), node.at("/error/errors"));
+    assertEquals(503, withoutErrors.get("status").asInt());
+    assertFalse(withoutErrors.get("error").has("errors"));
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,119 @@
+package com.checkout.payment.gateway.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class PaymentRequestReaderTest {
+
+  // 1. Arrays and newline delimited JSON
+  @Test
+  void whenBodyIsJsonArrayThenEachObjectIsRead() throws IOException {
+    PaymentRequestReader reader = reader("""
+        [
+          {"amount": 100, "currency": "GBP"},
+          {"amount": 200, "metadata": {"tags": ["a", "}"]}}
+        ]
+        """);
+
+    assertEquals(100, reader.next().getAmount());
+    assertEquals(200, reader.next().getAmount());
+    assertNull(reader.next());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void whenBodyIsNewlineDelimitedThenEachLineIsRead() throws IOException {
+    PaymentRequestReader reader = reader("""
+        {"amount": 100, "currency": "G\\"}P"}
+        {"amount": 200}
+
+        {"amount": 300}""");
+
+    assertEquals("G\"}P", reader.next().getCurrency());
+    assertEquals(200, reader.next().getAmount());
+    assertEquals(300, reader.next().getAmount());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void whenBodyIsEmptyThenThereAreNoRequests() throws IOException {
+    assertNull(reader("").next());
+    assertNull(reader(" [ ] ").next());
+  }
+
+  @Test
+  void whenItemsSpanManyReadsThenTheyAreReassembled() throws IOException {
+    StringBuilder body = new StringBuilder("[");
+    for (int i = 0; i < 1_000; i++) {
+      body.append(i == 0 ? "" : ",")
+          .append("{\"padding\": \"").append("x".repeat(i % 50)).append("\", \"amount\": ")
+          .append(i).append('}');
+    }
+    // One byte per read, the worst case for the chunked buffer
+    InputStream in = new ByteArrayInputStream(
+        body.append(']').toString().getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+
+    PaymentRequestReader reader = new PaymentRequestReader(in);
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(i, reader.next().getAmount());
+    }
+    assertNull(reader.next());
+  }
+
+  // 2. Malformed input
+  @Test
+  void whenItemIsMalformedThenLaterItemsAreStillRead() throws IOException {
+    PaymentRequestReader reader = reader("""
+        {"amount": 100}
+        {"amount": "ten"}
+        {"amount" 300}
+        {"amount": 400}
+        """);
+
+    assertEquals(100, reader.next().getAmount());
+    assertThrows(MalformedJsonException.class, reader::next);
+    assertThrows(MalformedJsonException.class, reader::next);
+    assertEquals(400, reader.next().getAmount());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void whenBodyCannotBeSplitIntoObjectsThenReadingStops() throws IOException {
+    PaymentRequestReader reader = reader("[{\"amount\": 100}, 42, {\"amount\": 300}]");
+    assertEquals(100, reader.next().getAmount());
+    assertThrows(MalformedJsonException.class, reader::next);
+    assertNull(reader.next());
+
+    PaymentRequestReader truncated = reader("[{\"amount\": 100}, {\"amount\": ");
+    assertEquals(100, truncated.next().getAmount());
+    assertThrows(MalformedJsonException.class, truncated::next);
+    assertNull(truncated.next());
+  }
+
+  @Test
+  void whenItemIsTooLargeThenReadingStops() throws IOException {
+    PaymentRequestReader reader =
+        reader("{\"padding\": \"" + "x".repeat(100_000) + "\"}\n{\"amount\": 100}");
+
+    assertThrows(MalformedJsonException.class, reader::next);
+    assertNull(reader.next());
+  }
+
+  private static PaymentRequestReader reader(String body) {
+    return new PaymentRequestReader(
+        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Tests for POST /payments in the asynchronous processing mode.
+ * The bank is mocked so the non-blocking pipeline can be exercised without the simulator.
+ */
+@SpringBootTest(properties = "payments.processing.mode=async")
+@AutoConfigureMockMvc
+class AsyncPaymentGatewayControllerTest {
+
+  private static final String VALID_REQUEST = """
+      {
+        "card_number": "2222405343248877",
+        "expiry_month": 4,
+        "expiry_year": 2030,
+        "currency": "GBP",
+        "amount": 100,
+        "cvv": 123
+      }
+      """;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private BankClient bankClient;
+
+  // 1. Test for POST /payments endpoint - bank returns authorized
+  @Test
+  void whenBankAuthorizesPaymentThenReturn200WithAuthorizedStatus() throws Exception {
+    BankResponse bankResponse = new BankResponse();
+    bankResponse.setAuthorized(true);
+    bankResponse.setAuthorizationCode("AUTH123");
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(bankResponse));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").exists())
+        .andExpect(jsonPath("$.status").value("Authorized"))
+        .andExpect(jsonPath("$.cardNumberLastFour").value(8877))
+        .andExpect(jsonPath("$.amount").value(100));
+    verify(bankClient, never()).processPayment(any(BankRequest.class));
+  }
+
+  // 2. Test for POST /payments endpoint - bank returns server error
+  @Test
+  void whenBankReturnsServerErrorThenReturn503() throws Exception {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(HttpServerErrorException.create(
+            HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, new byte[0], null)));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.message").value("Bank service temporarily unavailable. Please try again later or contact support team."));
+  }
+
+  // 3. Test for POST /payments endpoint - validation still happens before the bank call
+  @Test
+  void whenRequestIsInvalidThenReturn400WithoutCallingBank() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST.replace("\"amount\": 100", "\"amount\": 0")))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errors.amount").value("Amount must be greater than 0"));
+    verify(bankClient, never()).processPaymentAsync(any(BankRequest.class));
+  }
+}
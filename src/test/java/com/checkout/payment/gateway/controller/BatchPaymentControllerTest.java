@@ -0,0 +1,113 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/**
+ * Tests for POST /payments/batch. The bank is mocked so each item's line can be checked.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchPaymentControllerTest {
+
+  private static final String VALID_ITEM = """
+      {"card_number": "2222405343248877", "expiry_month": 4, "expiry_year": 2030,
+       "currency": "GBP", "amount": 100, "cvv": 123}""".replace("\n", "");
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @MockBean
+  private BankClient bankClient;
+
+  // 1. Test for POST /payments/batch endpoint - JSON array
+  @Test
+  void whenBatchIsJsonArrayThenStreamOneLinePerPayment() throws Exception {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(authorized()));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/payments/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + VALID_ITEM + ", " + VALID_ITEM.replace("\"cvv\": 123", "\"cvv\": 1")
+                + ", " + VALID_ITEM + "]"))
+        .andExpect(request().asyncStarted())
+        .andExpect(status().isOk())
+        .andReturn();
+    result.getAsyncResult(5_000);
+
+    assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(
+        MediaType.parseMediaType(result.getResponse().getContentType())));
+    List<JsonNode> lines = lines(result);
+    assertEquals(3, lines.size());
+    assertEquals(200, lines.get(0).get("status").asInt());
+    assertEquals("Authorized", lines.get(0).at("/payment/status").asText());
+    assertEquals(8877, lines.get(0).at("/payment/cardNumberLastFour").asInt());
+    assertEquals(400, lines.get(1).get("status").asInt());
+    assertEquals("CVV must be between 3-4 digits", lines.get(1).at("/error/errors/cvv").asText());
+    assertEquals(200, lines.get(2).get("status").asInt());
+    verify(bankClient, times(2)).processPaymentAsync(any(BankRequest.class));
+  }
+
+  // 2. Test for POST /payments/batch endpoint - newline delimited JSON
+  @Test
+  void whenBatchIsNewlineDelimitedThenStreamOneLinePerPayment() throws Exception {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(authorized()));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/payments/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(VALID_ITEM + "\n" + VALID_ITEM + "\n"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    result.getAsyncResult(5_000);
+
+    List<JsonNode> lines = lines(result);
+    assertEquals(2, lines.size());
+    assertEquals(0, lines.get(0).get("index").asInt());
+    assertEquals(1, lines.get(1).get("index").asInt());
+  }
+
+  private List<JsonNode> lines(MvcResult result) throws Exception {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : result.getResponse().getContentAsString().split("\n")) {
+      lines.add(objectMapper.readTree(line));
+    }
+    lines.sort(Comparator.comparingInt(line -> line.get("index").asInt()));
+    return lines;
+  }
+
+  private static BankResponse authorized() {
+    BankResponse bankResponse = new BankResponse();
+    bankResponse.setAuthorized(true);
+    bankResponse.setAuthorizationCode("AUTH123");
+    return bankResponse;
+  }
+}
@@ -1,29 +1,69 @@
 package com.checkout.payment.gateway.controller;
 
 
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.simulator.BankSimulator;
+import com.jayway.jsonpath.JsonPath;
+import java.io.IOException;
 import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+/**
+ * End-to-end tests against the in-process {@link BankSimulator}, which follows the same card
+ * number rules as the Mountebank simulator in docker-compose.
+ */
 @SpringBootTest
 @AutoConfigureMockMvc
 class PaymentGatewayControllerTest {
 
+  private static BankSimulator bankSimulator;
+
+  // Card ending in 7 (odd number) will be authorized by bank simulator
+  private static final String AUTHORIZED_REQUEST = """
+      {
+        "card_number": "2222405343248877",
+        "expiry_month": 4,
+        "expiry_year": 2030,
+        "currency": "GBP",
+        "amount": 100,
+        "cvv": 123
+      }
+      """;
+
   @Autowired
   private MockMvc mvc;
   @Autowired
   PaymentsRepository paymentsRepository;
 
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    bankSimulator = BankSimulator.withDefaults();
+    bankSimulator.start();
+    registry.add("bank.simulator.url", bankSimulator::getUrl);
+  }
+
+  @AfterAll
+  static void stopBankSimulator() throws IOException {
+    bankSimulator.close();
+  }
+
   // 1. Test for GET /payment/{id} endpoint - successful retrieval
   @Test
   void whenPaymentWithIdExistThenCorrectPaymentIsReturned() throws Exception {
@@ -90,7 +130,7 @@ class PaymentGatewayControllerTest {
     // Card ending in 2 (even number, not 0) will be declined by bank simulator
     String declinedPaymentRequest = """
         {
-          "card_number": "2222405343248112",
+          "card_number": "2222405343298112",
           "expiry_month": 1,
           "expiry_year": 2026,
           "currency": "USD",
@@ -118,7 +158,7 @@ class PaymentGatewayControllerTest {
     // Card ending in 0 will trigger 503 error from bank simulator
     String serverErrorRequest = """
         {
-          "card_number": "2222405343248880",
+          "card_number": "2222405343298880",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -134,5 +174,69 @@ class PaymentGatewayControllerTest {
         .andExpect(jsonPath("$.message").value("Bank service temporarily unavailable. Please try again later or contact support team."));
   }
 
-  
+  // 6. Test for POST /payments endpoint - no Idempotency-Key, each request is a new payment
+  @Test
+  void whenIdempotencyKeyIsMissingThenEachRequestIsANewPayment() throws Exception {
+    String first = paymentId(postPayment(AUTHORIZED_REQUEST, null)
+        .andExpect(status().isOk()));
+
+    postPayment(AUTHORIZED_REQUEST, null)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(not(first)));
+  }
+
+  // 7. Test for POST /payments endpoint - Idempotency-Key too long
+  @Test
+  void whenIdempotencyKeyIsTooLongThenReturn400() throws Exception {
+    long authorized = bankSimulator.getStats().getAuthorized();
+
+    postPayment(AUTHORIZED_REQUEST, "k".repeat(256))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message")
+            .value("Idempotency-Key must be between 1 and 255 characters."));
+    assertEquals(authorized, bankSimulator.getStats().getAuthorized());
+  }
+
+  // 8. Test for POST /payments endpoint - replayed Idempotency-Key
+  @Test
+  void whenIdempotencyKeyIsReplayedThenStoredPaymentIsReturnedWithoutCallingBank()
+      throws Exception {
+    String key = UUID.randomUUID().toString();
+    String first = paymentId(postPayment(AUTHORIZED_REQUEST, key)
+        .andExpect(status().isOk()));
+    long authorized = bankSimulator.getStats().getAuthorized();
+
+    postPayment(AUTHORIZED_REQUEST, key)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(first))
+        .andExpect(jsonPath("$.status").value("Authorized"));
+    assertEquals(authorized, bankSimulator.getStats().getAuthorized());
+  }
+
+  // 9. Test for POST /payments endpoint - Idempotency-Key reused for another payment
+  @Test
+  void whenIdempotencyKeyIsReusedForDifferentPaymentThenReturn422() throws Exception {
+    String key = UUID.randomUUID().toString();
+    postPayment(AUTHORIZED_REQUEST, key)
+        .andExpect(status().isOk());
+
+    postPayment(AUTHORIZED_REQUEST.replace("\"amount\": 100", "\"amount\": 200"), key)
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.message")
+            .value("Idempotency-Key has already been used for a different payment request."));
+  }
+
+  private ResultActions postPayment(String body, String idempotencyKey) throws Exception {
+    MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post("/payments")
+        .contentType("application/json")
+        .content(body);
+    if (idempotencyKey != null) {
+      request.header("Idempotency-Key", idempotencyKey);
+    }
+    return mvc.perform(request);
+  }
+
+  private static String paymentId(ResultActions result) throws Exception {
+    return JsonPath.read(result.andReturn().getResponse().getContentAsString(), "$.id");
+  }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.checkout.payment.gateway.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -22,6 +24,9 @@ class PaymentGatewayControllerValidationTest {
   @Autowired
   private MockMvc mvc;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   // 1. Card Number Validation Tests
 
   @Test
@@ -113,7 +118,7 @@ class PaymentGatewayControllerValidationTest {
   void whenExpiryMonthIsLessThan1ThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 0,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -127,6 +132,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.expiryMonth").value("Expiry month must be between 1 and 12"));
   }
 
@@ -134,7 +140,7 @@ class PaymentGatewayControllerValidationTest {
   void whenExpiryMonthIsGreaterThan12ThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 13,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -148,6 +154,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.expiryMonth").value("Expiry month must be between 1 and 12"));
   }
 
@@ -157,7 +164,7 @@ class PaymentGatewayControllerValidationTest {
   void whenExpiryDateIsInThePastThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2025,
           "currency": "GBP",
@@ -171,6 +178,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.expiryDate").value("Card expiry date must be in the future"));
   }
 
@@ -180,7 +188,7 @@ class PaymentGatewayControllerValidationTest {
   void whenCurrencyIsNullThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "amount": 100,
@@ -193,6 +201,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.currency").value("Currency is required"));
   }
 
@@ -200,7 +209,7 @@ class PaymentGatewayControllerValidationTest {
   void whenCurrencyIsNotInWhitelistThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "JPY",
@@ -214,6 +223,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.currency").value("Currency must be one of: GBP, USD, CNY"));
   }
 
@@ -223,7 +233,7 @@ class PaymentGatewayControllerValidationTest {
   void whenAmountIsZeroThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -237,6 +247,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.amount").value("Amount must be greater than 0"));
   }
 
@@ -244,7 +255,7 @@ class PaymentGatewayControllerValidationTest {
   void whenAmountIsNegativeThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -258,6 +269,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.amount").value("Amount must be greater than 0"));
   }
 
@@ -267,7 +279,7 @@ class PaymentGatewayControllerValidationTest {
   void whenCvvIsTooSmallThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -281,6 +293,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.cvv").value("CVV must be between 3-4 digits"));
   }
 
@@ -288,7 +301,7 @@ class PaymentGatewayControllerValidationTest {
   void whenCvvIsTooLargeThenValidationFails() throws Exception {
     String requestBody = """
         {
-          "card_number": "1234567890123456",
+          "card_number": "2222405343248877",
           "expiry_month": 12,
           "expiry_year": 2026,
           "currency": "GBP",
@@ -302,6 +315,7 @@ class PaymentGatewayControllerValidationTest {
             .content(requestBody))
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.error").value("Validation failed"))
+        .andExpect(jsonPath("$.errors.cardNumber").doesNotExist())
         .andExpect(jsonPath("$.errors.cvv").value("CVV must be between 3-4 digits"));
   }
 
@@ -332,4 +346,34 @@ class PaymentGatewayControllerValidationTest {
         .andExpect(jsonPath("$.currency").value("GBP"))
         .andExpect(jsonPath("$.amount").value(100));
   }
+
+  // 8. Validation Metrics Test
+
+  @Test
+  void whenValidationFailsThenItIsTimedAndCountedAsRejected() throws Exception {
+    double rejected = meterRegistry.get("payments.status").tag("status", "rejected")
+        .counter().count();
+    long validations = meterRegistry.get("payments.stage").tag("stage", "validation")
+        .timer().count();
+    String requestBody = """
+        {
+          "card_number": "2222405343248877",
+          "expiry_month": 13,
+          "expiry_year": 2030,
+          "currency": "GBP",
+          "amount": 100,
+          "cvv": 123
+        }
+        """;
+
+    mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(requestBody))
+        .andExpect(status().isBadRequest());
+
+    assertEquals(rejected + 1, meterRegistry.get("payments.status").tag("status", "rejected")
+        .counter().count());
+    assertEquals(validations + 1, meterRegistry.get("payments.stage").tag("stage", "validation")
+        .timer().count());
+  }
 }
@@ -0,0 +1,130 @@
+package com.checkout.payment.gateway.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/**
+ * Tests for the opt-in Server-Timing header and for trace context propagation to the bank, which
+ * records the traceparent header of each call.
+ */
+@SpringBootTest(properties = {
+    "payments.server-timing.enabled=true",
+    "payments.tracing.sampling-rate=0"
+})
+@AutoConfigureMockMvc
+class ServerTimingControllerTest {
+
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String VALID_REQUEST = """
+      {
+        "card_number": "2222405343248877",
+        "expiry_month": 4,
+        "expiry_year": 2030,
+        "currency": "GBP",
+        "amount": 100,
+        "cvv": 123
+      }
+      """;
+
+  private static final AtomicReference<String> bankTraceparent = new AtomicReference<>();
+  private static HttpServer bank;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @DynamicPropertySource
+  static void bankProperties(DynamicPropertyRegistry registry) throws IOException {
+    bank = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    bank.createContext("/payments", exchange -> {
+      bankTraceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+      exchange.getRequestBody().readAllBytes();
+      byte[] body = "{\"authorized\":true,\"authorization_code\":\"AUTH123\"}"
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    bank.start();
+    registry.add("bank.simulator.url", () -> "http://localhost:" + bank.getAddress().getPort());
+  }
+
+  @AfterAll
+  static void stopBank() {
+    bank.stop(0);
+  }
+
+  @BeforeEach
+  void setUp() {
+    bankTraceparent.set(null);
+  }
+
+  // 1. Server-Timing header
+  @Test
+  void whenServerTimingIsEnabledThenResponseBreaksDownTimeByStage() throws Exception {
+    String serverTiming = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("Server-Timing");
+
+    assertTrue(serverTiming.matches("validation;dur=\\d+\\.\\d{3}, bank;dur=\\d+\\.\\d{3}, "
+        + "persistence;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), serverTiming);
+  }
+
+  @Test
+  void whenValidationFailsThenServerTimingIsStillReturned() throws Exception {
+    String serverTiming = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST.replace("\"GBP\"", "\"EUR\"")))
+        .andExpect(status().isBadRequest())
+        .andReturn().getResponse().getHeader("Server-Timing");
+
+    assertTrue(serverTiming.startsWith("validation;dur="), serverTiming);
+  }
+
+  // 2. Trace propagation
+  @Test
+  void whenCallerSampledTheRequestThenBankCallContinuesItsTrace() throws Exception {
+    String serverTiming = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("Server-Timing");
+
+    String propagated = bankTraceparent.get();
+    assertTrue(propagated.matches("00-" + TRACE_ID + "-[0-9a-f]{16}-01"), propagated);
+    assertTrue(serverTiming.contains("traceparent;desc=\"00-" + TRACE_ID + "-"), serverTiming);
+  }
+
+  @Test
+  void whenRequestIsNotSampledThenNoTraceContextReachesTheBank() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(VALID_REQUEST))
+        .andExpect(status().isOk());
+
+    assertNull(bankTraceparent.get());
+  }
+}
@@ -0,0 +1,118 @@
+package com.checkout.payment.gateway.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedPaymentIdGeneratorTest {
+
+  private static final long NOW = 1_760_000_000_000L;
+
+  private final AtomicLong clock = new AtomicLong(NOW);
+
+  // 1. Layout
+  @Test
+  void whenIdIsGeneratedThenItIsVersion7WithTheTimestamp() {
+    UUID id = new TimeOrderedPaymentIdGenerator(0, 0, clock::get).nextId();
+
+    assertEquals(7, id.version());
+    assertEquals(2, id.variant());
+    assertEquals(NOW, id.getMostSignificantBits() >>> 16);
+  }
+
+  @Test
+  void whenNodeIdIsSetThenItFollowsTheVariantBits() {
+    TimeOrderedPaymentIdGenerator generator =
+        new TimeOrderedPaymentIdGenerator(0xABC, 12, clock::get);
+
+    for (int i = 0; i < 100; i++) {
+      UUID id = generator.nextId();
+      assertEquals(2, id.variant());
+      assertEquals(0xABC, (id.getLeastSignificantBits() >>> 50) & 0xFFF);
+    }
+  }
+
+  @Test
+  void whenNodeIdDoesNotFitThenConstructionFails() {
+    assertThrows(IllegalArgumentException.class, () -> new TimeOrderedPaymentIdGenerator(16, 4));
+    assertThrows(IllegalArgumentException.class, () -> new TimeOrderedPaymentIdGenerator(-1, 4));
+    assertThrows(IllegalArgumentException.class, () -> new TimeOrderedPaymentIdGenerator(0, 17));
+  }
+
+  // 2. Ordering
+  @Test
+  void whenClockStandsStillThenIdsStillIncrease() {
+    TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator(0, 0, clock::get);
+
+    UUID previous = generator.nextId();
+    for (int i = 0; i < 10_000; i++) {
+      UUID next = generator.nextId();
+      assertTrue(Long.compareUnsigned(next.getMostSignificantBits(),
+          previous.getMostSignificantBits()) > 0, previous + " then " + next);
+      previous = next;
+    }
+    // 10,000 ids overflow the 12-bit counter, so later ones borrow the following milliseconds
+    assertTrue(previous.getMostSignificantBits() >>> 16 > NOW);
+  }
+
+  @Test
+  void whenClockStepsBackThenIdsKeepTheLastTimestamp() {
+    TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator(0, 0, clock::get);
+
+    UUID before = generator.nextId();
+    clock.addAndGet(-5_000);
+    UUID after = generator.nextId();
+
+    assertEquals(NOW, after.getMostSignificantBits() >>> 16);
+    assertTrue(after.getMostSignificantBits() > before.getMostSignificantBits());
+  }
+
+  @Test
+  void whenClockAdvancesThenIdsSortByTime() {
+    TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator(0, 0, clock::get);
+
+    UUID first = generator.nextId();
+    clock.incrementAndGet();
+    UUID second = generator.nextId();
+
+    assertTrue(first.compareTo(second) < 0);
+    assertEquals(NOW + 1, second.getMostSignificantBits() >>> 16);
+  }
+
+  // 3. Uniqueness
+  @Test
+  void whenManyThreadsGenerateIdsThenNoneCollide() throws Exception {
+    TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator();
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        tasks.add(executor.submit(() -> {
+          for (int i = 0; i < 50_000; i++) {
+            ids.add(generator.nextId());
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(400_000, ids.size());
+  }
+}
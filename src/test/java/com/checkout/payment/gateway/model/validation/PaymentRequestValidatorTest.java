@@ -0,0 +1,192 @@
+package com.checkout.payment.gateway.model.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import jakarta.validation.Validation;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+class PaymentRequestValidatorTest {
+
+  private static final String VALID_CARD = "2222405343248877";
+
+  private final SpringValidatorAdapter beanValidator = new SpringValidatorAdapter(
+      Validation.buildDefaultValidatorFactory().getValidator());
+
+  // 1. Equivalence with the Bean Validation annotations
+  @Test
+  void whenRequestsAreValidatedThenErrorsMatchBeanValidation() {
+    PaymentRequestValidator validator =
+        new PaymentRequestValidator(beanValidator, false, Clock.systemDefaultZone());
+
+    for (Consumer<PostPaymentRequest> change : List.<Consumer<PostPaymentRequest>>of(
+        request -> { },
+        request -> request.setCardNumber(null),
+        request -> request.setCardNumber("1234567890123"),
+        request -> request.setCardNumber("12345678901234567890"),
+        request -> request.setCardNumber("22224053432488a7"),
+        request -> request.setCardNumber("1234567890123456"),
+        request -> request.setExpiryMonth(0),
+        request -> request.setExpiryMonth(13),
+        request -> request.setExpiryYear(2024),
+        request -> {
+          request.setExpiryYear(2025);
+          request.setExpiryMonth(1);
+        },
+        request -> request.setCurrency(null),
+        request -> request.setCurrency("JPY"),
+        request -> request.setCurrency("gbp"),
+        request -> request.setAmount(0),
+        request -> request.setAmount(-1),
+        request -> request.setCvv(99),
+        request -> request.setCvv(10000),
+        request -> {
+          request.setCvv(100);
+          request.setAmount(1);
+        })) {
+      PostPaymentRequest request = validRequest();
+      change.accept(request);
+
+      assertEquals(errors(beanValidator, request), errors(validator, request));
+    }
+  }
+
+  @Test
+  void whenFieldsAreMissingThenErrorsMatchBeanValidation() {
+    PaymentRequestValidator validator =
+        new PaymentRequestValidator(beanValidator, false, Clock.systemDefaultZone());
+    PostPaymentRequest request = new PostPaymentRequest();
+
+    Map<String, String> errors = errors(validator, request);
+
+    assertEquals(errors(beanValidator, request), errors);
+    assertEquals(6, errors.size());
+  }
+
+  // 2. Luhn check
+  @Test
+  void whenLuhnCheckIsEnabledThenInvalidChecksumIsRejected() {
+    PaymentRequestValidator validator =
+        new PaymentRequestValidator(beanValidator, true, Clock.systemDefaultZone());
+    PostPaymentRequest request = validRequest();
+    request.setCardNumber("2222405343248878");
+
+    assertEquals(Map.of("cardNumber", "Card number is not valid"), errors(validator, request));
+  }
+
+  @Test
+  void whenLuhnCheckIsEnabledThenValidChecksumIsAccepted() {
+    PaymentRequestValidator validator =
+        new PaymentRequestValidator(beanValidator, true, Clock.systemDefaultZone());
+
+    for (String cardNumber : new String[] {VALID_CARD, "2222405343248844", "30569309025904",
+        "4111111111111111110"}) {
+      PostPaymentRequest request = validRequest();
+      request.setCardNumber(cardNumber);
+
+      assertTrue(errors(validator, request).isEmpty(), cardNumber);
+    }
+  }
+
+  @Test
+  void whenLuhnCheckIsDisabledThenInvalidChecksumIsAccepted() {
+    PaymentRequestValidator validator =
+        new PaymentRequestValidator(beanValidator, false, Clock.systemDefaultZone());
+    PostPaymentRequest request = validRequest();
+    request.setCardNumber("2222405343248878");
+
+    assertTrue(errors(validator, request).isEmpty());
+  }
+
+  // 3. Expiry date
+  @Test
+  void whenMonthRollsOverThenLastMonthsCardExpires() {
+    MutableClock clock = new MutableClock(Instant.parse("2030-06-30T23:59:59Z"), ZoneOffset.UTC);
+    PaymentRequestValidator validator = new PaymentRequestValidator(beanValidator, true, clock);
+    PostPaymentRequest request = validRequest();
+    request.setExpiryMonth(6);
+    request.setExpiryYear(2030);
+
+    assertTrue(errors(validator, request).isEmpty());
+
+    clock.instant = Instant.parse("2030-07-01T00:00:00Z");
+
+    assertEquals(Map.of("FutureExpiryDate", "Card expiry date must be in the future"),
+        errors(validator, request));
+  }
+
+  @Test
+  void whenClockZoneIsAheadOfUtcThenMonthFollowsTheZone() {
+    Clock clock = Clock.fixed(Instant.parse("2030-06-30T23:00:00Z"), ZoneId.of("Europe/London"));
+    PaymentRequestValidator validator = new PaymentRequestValidator(beanValidator, true, clock);
+    PostPaymentRequest request = validRequest();
+    request.setExpiryMonth(6);
+    request.setExpiryYear(2030);
+
+    assertFalse(errors(validator, request).isEmpty());
+  }
+
+  private static Map<String, String> errors(
+      org.springframework.validation.Validator validator, PostPaymentRequest request) {
+    Errors errors = new BeanPropertyBindingResult(request, "postPaymentRequest");
+    validator.validate(request, errors);
+    Map<String, String> messages = new TreeMap<>();
+    for (ObjectError error : errors.getAllErrors()) {
+      String key = error instanceof FieldError fieldError ? fieldError.getField() : error.getCode();
+      messages.put(key, error.getDefaultMessage());
+    }
+    return messages;
+  }
+
+  private static PostPaymentRequest validRequest() {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber(VALID_CARD);
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2099);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv(123);
+    return request;
+  }
+
+  private static class MutableClock extends Clock {
+
+    private final ZoneId zone;
+    private Instant instant;
+
+    MutableClock(Instant instant, ZoneId zone) {
+      this.instant = instant;
+      this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return new MutableClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
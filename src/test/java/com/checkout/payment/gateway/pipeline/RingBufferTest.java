@@ -0,0 +1,149 @@
+package com.checkout.payment.gateway.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+  // 1. Claiming and publishing
+  @Test
+  void whenCapacityIsNotAPowerOfTwoThenItIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(12, Slot::new));
+  }
+
+  @Test
+  void whenSequenceIsClaimedButNotPublishedThenStagesStopBeforeIt() {
+    RingBuffer<Slot> ring = new RingBuffer<>(8, Slot::new);
+    ring.setGatingSequences(new Sequence(-1));
+    long first = ring.next();
+    long second = ring.next();
+    ring.publish(second);
+
+    assertEquals(-1, ring.highestPublished(0, ring.getCursor()));
+    ring.publish(first);
+    assertEquals(1, ring.highestPublished(0, ring.getCursor()));
+  }
+
+  @Test
+  void whenRingIsFullThenClaimWaitsForTheGatingSequence() throws Exception {
+    RingBuffer<Slot> ring = new RingBuffer<>(4, Slot::new);
+    Sequence consumed = new Sequence(-1);
+    ring.setGatingSequences(consumed);
+    for (int i = 0; i < 4; i++) {
+      ring.publish(ring.next());
+    }
+
+    CompletableFuture<Long> claim = CompletableFuture.supplyAsync(ring::next);
+    Thread.sleep(50);
+    assertFalse(claim.isDone());
+
+    consumed.set(0);
+    assertEquals(4, (long) claim.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void whenRingIsFullThenTryNextClaimsNothing() {
+    RingBuffer<Slot> ring = new RingBuffer<>(4, Slot::new);
+    Sequence consumed = new Sequence(-1);
+    ring.setGatingSequences(consumed);
+    for (int i = 0; i < 4; i++) {
+      ring.publish(ring.tryNext());
+    }
+
+    assertEquals(-1, ring.tryNext());
+    assertEquals(3, ring.getCursor());
+    consumed.set(0);
+    assertEquals(4, ring.tryNext());
+  }
+
+  // 2. Stages
+  @Test
+  void whenManyProducersPublishThenEveryStageSeesEveryEventInOrder() throws Exception {
+    int producers = 4;
+    int eventsPerProducer = 20_000;
+    for (PipelineWaitStrategy waitStrategy : PipelineWaitStrategy.values()) {
+      RingBuffer<Slot> ring = new RingBuffer<>(64, Slot::new);
+      EventProcessor<Slot> doubler = new EventProcessor<>(ring,
+          new SequenceBarrier(ring, waitStrategy),
+          (slot, sequence, endOfBatch) -> slot.doubled = slot.value * 2);
+      AtomicLong sum = new AtomicLong();
+      AtomicLong mismatches = new AtomicLong();
+      AtomicLong lastSequence = new AtomicLong(-1);
+      CountDownLatch done = new CountDownLatch(producers * eventsPerProducer);
+      EventProcessor<Slot> summer = new EventProcessor<>(ring,
+          new SequenceBarrier(ring, waitStrategy, doubler.getSequence()),
+          (slot, sequence, endOfBatch) -> {
+            if (slot.doubled != slot.value * 2 || sequence != lastSequence.get() + 1) {
+              mismatches.incrementAndGet();
+            }
+            lastSequence.set(sequence);
+            sum.addAndGet(slot.value);
+            done.countDown();
+          });
+      ring.setGatingSequences(summer.getSequence());
+      List<Thread> threads = new ArrayList<>(List.of(new Thread(doubler), new Thread(summer)));
+      for (int p = 0; p < producers; p++) {
+        threads.add(new Thread(() -> {
+          for (int i = 1; i <= eventsPerProducer; i++) {
+            long sequence = ring.next();
+            ring.get(sequence).value = i;
+            ring.publish(sequence);
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+
+      assertTrue(done.await(30, TimeUnit.SECONDS), waitStrategy.name());
+      doubler.halt();
+      summer.halt();
+      for (Thread thread : threads) {
+        thread.join(5_000);
+        assertFalse(thread.isAlive());
+      }
+      assertEquals(0, mismatches.get());
+      assertEquals((long) producers * eventsPerProducer * (eventsPerProducer + 1) / 2, sum.get());
+      assertEquals(producers * eventsPerProducer - 1, summer.getSequence().get());
+    }
+  }
+
+  @Test
+  void whenHandlerThrowsThenStageMovesOn() throws Exception {
+    RingBuffer<Slot> ring = new RingBuffer<>(8, Slot::new);
+    CountDownLatch handled = new CountDownLatch(3);
+    EventProcessor<Slot> stage = new EventProcessor<>(ring,
+        new SequenceBarrier(ring, PipelineWaitStrategy.SLEEPING), (slot, sequence, endOfBatch) -> {
+          handled.countDown();
+          if (sequence == 1) {
+            throw new IllegalStateException("Failed");
+          }
+        });
+    ring.setGatingSequences(stage.getSequence());
+    Thread thread = new Thread(stage);
+    thread.start();
+    for (int i = 0; i < 3; i++) {
+      ring.publish(ring.next());
+    }
+
+    assertTrue(handled.await(5, TimeUnit.SECONDS));
+    stage.halt();
+    thread.join(5_000);
+    assertEquals(2, stage.getSequence().get());
+  }
+
+  private static final class Slot {
+
+    private long value;
+    private long doubled;
+  }
+}
@@ -0,0 +1,148 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Multi-threaded stress tests for ConcurrentPaymentStore.
+ * Verifies that concurrent writers never lose a payment, and (with {@code ./gradlew benchmark})
+ * that throughput grows with the thread count. {@code PaymentsRepositoryBenchmark} measures the
+ * same with JMH at 1, 4 and 16 threads.
+ */
+class ConcurrentPaymentStoreTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrentPaymentStoreTest.class);
+
+  private static final int PAYMENTS_PER_THREAD = 50_000;
+
+  // 1. Basic behaviour
+
+  @Test
+  void whenPaymentIsStoredThenItCanBeRetrieved() {
+    ConcurrentPaymentStore store = new ConcurrentPaymentStore(16, 1);
+    PostPaymentResponse payment = payment(UUID.randomUUID());
+
+    store.put(payment);
+
+    assertEquals(payment, store.get(payment.getId()));
+    assertNull(store.get(UUID.randomUUID()));
+    assertEquals(1, store.size());
+  }
+
+  // 2. Concurrency Tests
+
+  @Test
+  void whenManyThreadsWriteConcurrentlyThenNoWritesAreLost() throws Exception {
+    int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    // Deliberately undersized so that concurrent writers race through table resizes
+    ConcurrentPaymentStore store = new ConcurrentPaymentStore(16, threads);
+
+    List<List<UUID>> written = runWriters(store, threads);
+
+    assertEquals((long) threads * PAYMENTS_PER_THREAD, store.size());
+    for (List<UUID> ids : written) {
+      for (UUID id : ids) {
+        assertNotNull(store.get(id), "Lost write for payment " + id);
+      }
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  void throughputScalesWithThreadCount() throws Exception {
+    int cores = Runtime.getRuntime().availableProcessors();
+    // Warm up so the single-threaded run is not measured in the interpreter
+    measureOpsPerMs(Math.min(cores, 4));
+    double singleThreaded = 0;
+    double best = 0;
+    int bestThreads = 1;
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      double opsPerMs = measureOpsPerMs(threads);
+      LOG.info("ConcurrentPaymentStore: {} thread(s), {} ops/ms", threads,
+          String.format("%.0f", opsPerMs));
+      if (threads == 1) {
+        singleThreaded = opsPerMs;
+      }
+      if (opsPerMs > best) {
+        best = opsPerMs;
+        bestThreads = threads;
+      }
+    }
+    if (cores >= 4) {
+      // Far below linear, so a noisy machine still passes, but a global lock would not
+      assertTrue(best >= 1.5 * singleThreaded, "Best throughput " + best + " ops/ms at "
+          + bestThreads + " threads vs " + singleThreaded + " ops/ms single-threaded");
+    }
+  }
+
+  private double measureOpsPerMs(int threads) throws Exception {
+    ConcurrentPaymentStore store = new ConcurrentPaymentStore(threads * PAYMENTS_PER_THREAD,
+        threads);
+    long start = System.nanoTime();
+    runWriters(store, threads);
+    long elapsedNanos = System.nanoTime() - start;
+    assertEquals((long) threads * PAYMENTS_PER_THREAD, store.size());
+    // Each writer performs one put and one get per payment
+    return 2.0 * threads * PAYMENTS_PER_THREAD / (elapsedNanos / 1_000_000.0);
+  }
+
+  private List<List<UUID>> runWriters(PaymentStore store, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<UUID>>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          List<UUID> ids = new ArrayList<>(PAYMENTS_PER_THREAD);
+          start.await();
+          for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+            PostPaymentResponse payment = payment(UUID.randomUUID());
+            store.put(payment);
+            // Interleave reads with writes to exercise non-blocking lookups during resizes
+            assertNotNull(store.get(payment.getId()));
+            ids.add(payment.getId());
+          }
+          return ids;
+        }));
+      }
+      start.countDown();
+
+      List<List<UUID>> written = new ArrayList<>();
+      for (Future<List<UUID>> future : futures) {
+        written.add(future.get(60, TimeUnit.SECONDS));
+      }
+      return written;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static PostPaymentResponse payment(UUID id) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2026);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+}
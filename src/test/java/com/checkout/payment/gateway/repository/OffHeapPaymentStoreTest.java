@@ -0,0 +1,120 @@
+package com.checkout.payment.gateway.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for OffHeapPaymentStore.
+ */
+class OffHeapPaymentStoreTest {
+
+  // 1. Encoding Tests
+
+  @Test
+  void whenPaymentIsStoredThenAllFieldsAreDecoded() {
+    OffHeapPaymentStore store = new OffHeapPaymentStore(16);
+    PostPaymentResponse payment = payment(UUID.randomUUID(), PaymentStatus.DECLINED, 60000);
+
+    store.put(payment);
+    PostPaymentResponse stored = store.get(payment.getId());
+
+    assertEquals(payment.getId(), stored.getId());
+    assertEquals(PaymentStatus.DECLINED, stored.getStatus());
+    assertEquals(8112, stored.getCardNumberLastFour());
+    assertEquals(1, stored.getExpiryMonth());
+    assertEquals(2026, stored.getExpiryYear());
+    assertEquals("USD", stored.getCurrency());
+    assertEquals(60000, stored.getAmount());
+  }
+
+  @Test
+  void whenPaymentDoesNotExistThenNullIsReturned() {
+    OffHeapPaymentStore store = new OffHeapPaymentStore(16);
+    store.put(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED, 1));
+
+    assertNull(store.get(UUID.randomUUID()));
+  }
+
+  // 2. Capacity Tests
+
+  @Test
+  void whenPaymentIsStoredTwiceThenItIsOverwritten() {
+    OffHeapPaymentStore store = new OffHeapPaymentStore(16);
+    UUID id = UUID.randomUUID();
+
+    store.put(payment(id, PaymentStatus.AUTHORIZED, 100));
+    store.put(payment(id, PaymentStatus.DECLINED, 200));
+
+    assertEquals(1, store.size());
+    assertEquals(PaymentStatus.DECLINED, store.get(id).getStatus());
+    assertEquals(200, store.get(id).getAmount());
+  }
+
+  @Test
+  void whenStoreIsFullThenPutIsRejected() {
+    OffHeapPaymentStore store = new OffHeapPaymentStore(2);
+    store.put(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED, 1));
+    store.put(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED, 2));
+
+    assertThrows(IllegalStateException.class,
+        () -> store.put(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED, 3)));
+  }
+
+  // 3. Concurrency Tests
+
+  @Test
+  void whenManyThreadsWriteConcurrentlyThenNoWritesAreLost() throws Exception {
+    int threads = 8;
+    int perThread = 20_000;
+    OffHeapPaymentStore store = new OffHeapPaymentStore((long) threads * perThread);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<List<UUID>>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          List<UUID> ids = new ArrayList<>(perThread);
+          for (int i = 0; i < perThread; i++) {
+            PostPaymentResponse payment = payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED, i);
+            store.put(payment);
+            assertNotNull(store.get(payment.getId()));
+            ids.add(payment.getId());
+          }
+          return ids;
+        }));
+      }
+      for (Future<List<UUID>> future : futures) {
+        for (UUID id : future.get(60, TimeUnit.SECONDS)) {
+          assertNotNull(store.get(id), "Lost write for payment " + id);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals((long) threads * perThread, store.size());
+  }
+
+  private static PostPaymentResponse payment(UUID id, PaymentStatus status, int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    payment.setStatus(status);
+    payment.setCardNumberLastFour(8112);
+    payment.setExpiryMonth(1);
+    payment.setExpiryYear(2026);
+    payment.setCurrency("USD");
+    payment.setAmount(amount);
+    return payment;
+  }
+}
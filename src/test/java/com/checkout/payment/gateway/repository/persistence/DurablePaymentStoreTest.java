@@ -0,0 +1,237 @@
+package com.checkout.payment.gateway.repository.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.checkout.payment.gateway.enums.FsyncPolicy;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests for DurablePaymentStore, the segmented PaymentLog and PaymentSnapshots behind it.
+ */
+class DurablePaymentStoreTest {
+
+  private static final long SEGMENT_SIZE = PaymentLog.ENTRY_SIZE * 10L;
+
+  @TempDir
+  Path directory;
+
+  // 1. Recovery Tests
+
+  @ParameterizedTest
+  @EnumSource(FsyncPolicy.class)
+  void whenStoreIsReopenedThenPaymentsAreRecovered(FsyncPolicy fsyncPolicy) {
+    List<PostPaymentResponse> payments = new ArrayList<>();
+    try (DurablePaymentStore store = open(fsyncPolicy)) {
+      for (int i = 0; i < 25; i++) {
+        PostPaymentResponse payment = payment(i);
+        store.put(payment);
+        payments.add(payment);
+      }
+    }
+
+    try (DurablePaymentStore recovered = open(fsyncPolicy)) {
+      assertEquals(payments.size(), recovered.size());
+      for (PostPaymentResponse payment : payments) {
+        PostPaymentResponse stored = recovered.get(payment.getId());
+        assertNotNull(stored);
+        assertEquals(payment.getAmount(), stored.getAmount());
+        assertEquals(payment.getStatus(), stored.getStatus());
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(FsyncPolicy.class)
+  void whenBatchIsWrittenThenItIsRecoveredInOrder(FsyncPolicy fsyncPolicy) {
+    List<PostPaymentResponse> batch = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      batch.add(payment(i));
+    }
+    try (DurablePaymentStore store = open(fsyncPolicy)) {
+      store.putAll(batch);
+      assertEquals(batch.size(), store.size());
+    }
+
+    List<Integer> replayed = new ArrayList<>();
+    try (PaymentLog log = new PaymentLog(directory, SEGMENT_SIZE, fsyncPolicy,
+        Duration.ofMillis(1))) {
+      log.replay(LogPosition.START, payment -> replayed.add(payment.getAmount()));
+    }
+    assertEquals(batch.stream().map(PostPaymentResponse::getAmount).toList(), replayed);
+  }
+
+  @Test
+  void whenBatchIsWrittenPerWriteThenItIsForcedOnce() {
+    try (PaymentLog log = new PaymentLog(directory, SEGMENT_SIZE, FsyncPolicy.PER_WRITE,
+        Duration.ofMillis(1))) {
+      log.append(payment(0));
+      assertEquals(1, log.getForces());
+
+      List<PostPaymentResponse> batch = new ArrayList<>();
+      for (int i = 1; i < 8; i++) {
+        batch.add(payment(i));
+      }
+      log.appendAll(batch);
+      assertEquals(2, log.getForces());
+
+      // 12 more cross into the next segment, which is forced whole as it is rotated away from
+      batch.clear();
+      for (int i = 8; i < 20; i++) {
+        batch.add(payment(i));
+      }
+      log.appendAll(batch);
+      assertEquals(4, log.getForces());
+    }
+  }
+
+  @Test
+  void whenGroupCommitCannotForceThenAppendsFailInsteadOfWaiting() throws Exception {
+    try (PaymentLog log = new PaymentLog(directory, SEGMENT_SIZE, FsyncPolicy.GROUP_COMMIT,
+        Duration.ofMillis(1)) {
+      @Override
+      void force(MappedByteBuffer target) {
+        throw new UncheckedIOException(new IOException("Input/output error"));
+      }
+    }) {
+      CompletableFuture<Void> append = CompletableFuture.runAsync(() -> log.append(payment(0)));
+      ExecutionException ex = assertThrows(ExecutionException.class,
+          () -> append.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(UncheckedIOException.class, ex.getCause());
+
+      assertThrows(UncheckedIOException.class, () -> log.appendAll(List.of(payment(1))));
+    }
+  }
+
+  @Test
+  void whenSegmentIsFullThenLogRotatesToNewSegment() throws IOException {
+    try (DurablePaymentStore store = open(FsyncPolicy.OS)) {
+      for (int i = 0; i < 25; i++) {
+        store.put(payment(i));
+      }
+    }
+
+    assertEquals(3, files(".log").size());
+  }
+
+  @Test
+  void whenLastEntryIsTornThenItIsDiscardedAndAppendingContinues() throws IOException {
+    PostPaymentResponse intact = payment(1);
+    PostPaymentResponse torn = payment(2);
+    try (DurablePaymentStore store = open(FsyncPolicy.PER_WRITE)) {
+      store.put(intact);
+      store.put(torn);
+    }
+    // Corrupt the record body of the second entry, as a crash mid-write would
+    try (FileChannel channel = FileChannel.open(files(".log").get(0), StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}), PaymentLog.ENTRY_SIZE + 20L);
+    }
+
+    PostPaymentResponse next = payment(3);
+    try (DurablePaymentStore recovered = open(FsyncPolicy.PER_WRITE)) {
+      assertNotNull(recovered.get(intact.getId()));
+      assertNull(recovered.get(torn.getId()));
+      recovered.put(next);
+    }
+
+    try (DurablePaymentStore recovered = open(FsyncPolicy.PER_WRITE)) {
+      assertEquals(2, recovered.size());
+      assertNotNull(recovered.get(next.getId()));
+    }
+  }
+
+  // 2. Snapshot Tests
+
+  @Test
+  void whenSnapshotIsTakenThenRecoveryLoadsItAndReplaysOnlyTheTail() throws IOException {
+    List<PostPaymentResponse> payments = new ArrayList<>();
+    try (DurablePaymentStore store = open(FsyncPolicy.OS)) {
+      for (int i = 0; i < 25; i++) {
+        payments.add(payment(i));
+        store.put(payments.get(i));
+      }
+      store.snapshot();
+      for (int i = 25; i < 30; i++) {
+        payments.add(payment(i));
+        store.put(payments.get(i));
+      }
+    }
+
+    try (DurablePaymentStore recovered = open(FsyncPolicy.OS)) {
+      assertEquals(payments.size(), recovered.size());
+      assertEquals(payments.size(), recovered.getRecoveredPayments());
+      for (PostPaymentResponse payment : payments) {
+        assertNotNull(recovered.get(payment.getId()));
+      }
+    }
+  }
+
+  @Test
+  void whenSnapshotsAreTakenThenCoveredSegmentsAreDeleted() throws IOException {
+    try (DurablePaymentStore store = open(FsyncPolicy.OS)) {
+      for (int round = 0; round < 3; round++) {
+        for (int i = 0; i < 25; i++) {
+          store.put(payment(i));
+        }
+        store.snapshot();
+      }
+    }
+
+    assertEquals(2, files(".snap").size());
+    // 75 entries span 8 segments; only those after the older retained snapshot remain
+    assertEquals(3, files(".log").size());
+
+    try (DurablePaymentStore recovered = open(FsyncPolicy.OS)) {
+      assertEquals(75, recovered.size());
+    }
+  }
+
+  private DurablePaymentStore open(FsyncPolicy fsyncPolicy) {
+    PaymentLog log = new PaymentLog(directory, SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(1));
+    return new DurablePaymentStore(new ConcurrentPaymentStore(16, 1), log,
+        new PaymentSnapshots(directory, 2), Duration.ofHours(1));
+  }
+
+  private List<Path> files(String extension) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(extension)).sorted().toList();
+    }
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(amount % 2 == 0 ? PaymentStatus.DECLINED : PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(4321);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("CNY");
+    payment.setAmount(amount);
+    return payment;
+  }
+}
@@ -0,0 +1,243 @@
+package com.checkout.payment.gateway.repository.tiered;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for TieredPaymentStore and its hot, warm and cold tiers.
+ */
+class TieredPaymentStoreTest {
+
+  @TempDir
+  Path directory;
+
+  // 1. Tier Cascade Tests
+
+  @Test
+  void whenHotTierOverflowsThenPaymentsCascadeToLowerTiers() {
+    TieredPaymentStore store = store(64, 64);
+    List<PostPaymentResponse> payments = write(store, 1000);
+
+    assertEquals(64, store.getHotSize());
+    assertEquals(64, store.getWarmSize());
+    assertEquals(1000 - 128, store.getColdSize());
+    assertEquals(1000 - 64, store.getHotStats().getEvictions());
+    for (PostPaymentResponse payment : payments) {
+      PostPaymentResponse stored = store.get(payment.getId());
+      assertNotNull(stored);
+      assertEquals(payment.getAmount(), stored.getAmount());
+    }
+    assertNull(store.get(UUID.randomUUID()));
+    assertEquals(1, store.getColdStats().getMisses());
+  }
+
+  @Test
+  void whenColdPaymentIsReadThenItIsPromotedToHotTier() {
+    TieredPaymentStore store = store(64, 64);
+    List<PostPaymentResponse> payments = write(store, 1000);
+    UUID oldest = payments.get(0).getId();
+
+    store.get(oldest);
+    long coldHits = store.getColdStats().getHits();
+    store.get(oldest);
+
+    assertEquals(1, coldHits);
+    assertEquals(1, store.getColdStats().getHits());
+    assertEquals(1, store.getHotStats().getHits());
+  }
+
+  @Test
+  void whenPaymentIsReadAgainThenItSurvivesABurstOfNewWrites() {
+    TieredPaymentStore store = store(64, 64);
+    PostPaymentResponse polled = write(store, 1).get(0);
+    // A second read promotes the payment from probation to the protected segment
+    store.get(polled.getId());
+
+    write(store, 200);
+    long hotHits = store.getHotStats().getHits();
+    store.get(polled.getId());
+
+    assertEquals(hotHits + 1, store.getHotStats().getHits());
+  }
+
+  @Test
+  void whenIteratingThenEveryPaymentIsVisitedOnce() {
+    TieredPaymentStore store = store(64, 64);
+    List<PostPaymentResponse> payments = write(store, 500);
+    // Promote some cold payments so the cold tier also holds stale copies
+    for (int i = 0; i < 50; i++) {
+      store.get(payments.get(i).getId());
+    }
+
+    Set<UUID> visited = new HashSet<>();
+    List<UUID> all = new ArrayList<>();
+    store.forEach(payment -> {
+      visited.add(payment.getId());
+      all.add(payment.getId());
+    });
+
+    assertEquals(500, visited.size());
+    assertEquals(500, all.size());
+  }
+
+  @Test
+  void whenPromotedPaymentIsDemotedAgainBeforeItIsRemovedThenWarmTierKeepsIt() {
+    List<PostPaymentResponse> demoted = new ArrayList<>();
+    WarmPaymentTier warm = new WarmPaymentTier(16, demoted::add);
+    PostPaymentResponse payment = payment(1);
+    warm.put(payment);
+    byte[] promoted = warm.getRecord(payment.getId());
+
+    // The hot tier evicts it again before the promotion removes it from the warm tier
+    warm.put(payment);
+
+    assertFalse(warm.remove(payment.getId(), promoted));
+    assertTrue(warm.contains(payment.getId()));
+    assertTrue(warm.remove(payment.getId(), warm.getRecord(payment.getId())));
+    assertFalse(warm.contains(payment.getId()));
+  }
+
+  @Test
+  void whenPaymentIsCompressedForWarmTierThenEveryFieldSurvives() {
+    PostPaymentResponse payment = payment(12_345);
+    PostPaymentResponse odd = payment(-2);
+    odd.setStatus(null);
+    odd.setCurrency("gb");
+    PostPaymentResponse bare = payment(0);
+    bare.setCurrency(null);
+
+    byte[] record = CompactPaymentCodec.encode(payment);
+
+    assertTrue(record.length <= 12, "Record is " + record.length + " bytes");
+    for (PostPaymentResponse original : List.of(payment, odd, bare)) {
+      PostPaymentResponse decoded = CompactPaymentCodec.decode(original.getId(),
+          CompactPaymentCodec.encode(original));
+      assertEquals(original.getId(), decoded.getId());
+      assertEquals(original.getStatus(), decoded.getStatus());
+      assertEquals(original.getCardNumberLastFour(), decoded.getCardNumberLastFour());
+      assertEquals(original.getExpiryMonth(), decoded.getExpiryMonth());
+      assertEquals(original.getExpiryYear(), decoded.getExpiryYear());
+      assertEquals(original.getCurrency(), decoded.getCurrency());
+      assertEquals(original.getAmount(), decoded.getAmount());
+    }
+  }
+
+  // 2. Cold Tier Tests
+
+  @Test
+  void whenColdTierIsFullThenPutIsRejectedAndNoPaymentIsLost() {
+    TieredPaymentStore store = new TieredPaymentStore(4, 4, 8, directory.resolve("cold.tier"));
+    List<PostPaymentResponse> stored = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      PostPaymentResponse payment = payment(i);
+      try {
+        store.put(payment);
+      } catch (IllegalStateException ex) {
+        break;
+      }
+      stored.add(payment);
+    }
+
+    assertEquals(8, store.getColdSize());
+    assertThrows(IllegalStateException.class, () -> store.put(payment(100)));
+    for (PostPaymentResponse payment : stored) {
+      assertNotNull(store.get(payment.getId()), "Payment missing from every tier");
+    }
+  }
+
+  @Test
+  void whenColdFileIsReopenedThenItsPaymentsAreKept() {
+    List<PostPaymentResponse> payments = write(store(64, 64), 1000);
+
+    TieredPaymentStore reopened = store(64, 64);
+
+    assertEquals(1000 - 128, reopened.getColdSize());
+    assertEquals(payments.get(0).getAmount(), reopened.get(payments.get(0).getId()).getAmount());
+  }
+
+  @Test
+  void whenColdFileWasSizedForAnotherCapacityThenItIsRecreated() {
+    write(store(64, 64), 1000);
+
+    TieredPaymentStore resized = new TieredPaymentStore(64, 64, 1_000_000,
+        directory.resolve("cold.tier"));
+
+    assertEquals(0, resized.getColdSize());
+  }
+
+  // 3. Concurrency Tests
+
+  @Test
+  void whenTiersEvictConcurrentlyThenReadersNeverMissAPayment() throws Exception {
+    TieredPaymentStore store = store(256, 256);
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          List<PostPaymentResponse> written = new ArrayList<>();
+          for (int i = 0; i < 5_000; i++) {
+            PostPaymentResponse payment = payment(i);
+            store.put(payment);
+            written.add(payment);
+            // Re-read an older payment that is likely being demoted by other writers
+            UUID older = written.get(i / 2).getId();
+            assertNotNull(store.get(older), "Payment missing from every tier: " + older);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private TieredPaymentStore store(int hotCapacity, int warmCapacity) {
+    return new TieredPaymentStore(hotCapacity, warmCapacity, 100_000,
+        directory.resolve("cold.tier"));
+  }
+
+  private static List<PostPaymentResponse> write(TieredPaymentStore store, int count) {
+    List<PostPaymentResponse> payments = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      PostPaymentResponse payment = payment(i);
+      store.put(payment);
+      payments.add(payment);
+    }
+    return payments;
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(8877);
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2026);
+    payment.setCurrency("GBP");
+    payment.setAmount(amount + 1);
+    return payment;
+  }
+}
@@ -0,0 +1,293 @@
+package com.checkout.payment.gateway.repository.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.enums.BackpressurePolicy;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentStore;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindPaymentStoreTest {
+
+  private static final Duration MAX_BLOCK = Duration.ofSeconds(10);
+
+  // 1. Read-your-writes
+  @Test
+  void whenPaymentIsPutThenItCanBeReadBeforeItIsWritten() throws Exception {
+    GatedStore delegate = new GatedStore();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 16, 8,
+        BackpressurePolicy.BLOCK, MAX_BLOCK)) {
+      PostPaymentResponse first = payment(1);
+      store.put(first);
+      delegate.awaitWriter();
+      PostPaymentResponse second = payment(2);
+      store.put(second);
+
+      assertSame(first, store.get(first.getId()));
+      assertSame(second, store.get(second.getId()));
+      assertNull(delegate.get(second.getId()));
+
+      delegate.open();
+      store.flush();
+      assertSame(second, delegate.get(second.getId()));
+      assertSame(second, store.get(second.getId()));
+      assertEquals(2, store.size());
+      assertEquals(0, store.getQueued());
+    }
+  }
+
+  @Test
+  void whenPaymentsQueueUpThenTheyAreWrittenInBatches() throws Exception {
+    GatedStore delegate = new GatedStore();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 128, 32,
+        BackpressurePolicy.BLOCK, MAX_BLOCK)) {
+      store.put(payment(0));
+      delegate.awaitWriter();
+      for (int i = 1; i <= 100; i++) {
+        store.put(payment(i));
+      }
+
+      delegate.open();
+      store.flush();
+      assertEquals(List.of(1, 32, 32, 32, 4), delegate.batchSizes);
+      assertEquals(101, delegate.size());
+    }
+  }
+
+  // 2. Backpressure
+  @Test
+  void whenBufferIsFullAndPolicyIsBlockThenPutWaitsForTheWriter() throws Exception {
+    GatedStore delegate = new GatedStore();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 2, 8,
+        BackpressurePolicy.BLOCK, MAX_BLOCK)) {
+      store.put(payment(0));
+      delegate.awaitWriter();
+      store.put(payment(1));
+      store.put(payment(2));
+
+      PostPaymentResponse blocked = payment(3);
+      CompletableFuture<Void> put = CompletableFuture.runAsync(() -> store.put(blocked));
+      Thread.sleep(50);
+      assertFalse(put.isDone());
+      assertSame(blocked, store.get(blocked.getId()));
+
+      delegate.open();
+      put.get(5, TimeUnit.SECONDS);
+      store.flush();
+      assertSame(blocked, delegate.get(blocked.getId()));
+      assertEquals(1, store.getOverflows());
+      assertEquals(0, delegate.directPuts.get());
+    }
+  }
+
+  @Test
+  void whenBufferIsFullAndPolicyIsWriteThroughThenPutWritesDirectly() throws Exception {
+    GatedStore delegate = new GatedStore();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 2, 8,
+        BackpressurePolicy.WRITE_THROUGH, MAX_BLOCK)) {
+      store.put(payment(0));
+      delegate.awaitWriter();
+      store.put(payment(1));
+      store.put(payment(2));
+
+      PostPaymentResponse overflow = payment(3);
+      store.put(overflow);
+      assertSame(overflow, delegate.get(overflow.getId()));
+      assertEquals(1, store.getOverflows());
+      assertEquals(1, delegate.directPuts.get());
+      delegate.open();
+    }
+  }
+
+  @Test
+  void whenStoreNeverRecoversThenBlockedPutGivesUpAfterMaxBlock() throws Exception {
+    GatedStore delegate = new GatedStore();
+    delegate.failures.set(Integer.MAX_VALUE);
+    delegate.open();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 2, 8,
+        BackpressurePolicy.BLOCK, Duration.ofMillis(50))) {
+      store.put(payment(0));
+      delegate.awaitWriter();
+      store.put(payment(1));
+      store.put(payment(2));
+
+      // The writer retries its first batch forever, so the ring never drains
+      PostPaymentResponse blocked = payment(3);
+      CompletableFuture<Void> put = CompletableFuture.runAsync(() -> store.put(blocked));
+      ExecutionException exception = assertThrows(ExecutionException.class,
+          () -> put.get(5, TimeUnit.SECONDS));
+      assertTrue(exception.getCause() instanceof IllegalStateException);
+      assertNull(store.get(blocked.getId()));
+      assertEquals(1, store.getOverflows());
+      assertEquals(1, delegate.directPuts.get());
+
+      // Lets the writer drain the ring so the store closes
+      delegate.failures.set(0);
+    }
+  }
+
+  // 3. Failures and shutdown
+  @Test
+  void whenStoreFailsToWriteThenBatchIsRetriedAndStaysReadable() throws Exception {
+    GatedStore delegate = new GatedStore();
+    delegate.failures.set(2);
+    delegate.open();
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 16, 8,
+        BackpressurePolicy.BLOCK, MAX_BLOCK)) {
+      PostPaymentResponse payment = payment(1);
+      store.put(payment);
+      assertSame(payment, store.get(payment.getId()));
+
+      store.flush();
+      assertSame(payment, delegate.get(payment.getId()));
+      assertEquals(2, store.getWriteFailures());
+    }
+  }
+
+  @Test
+  void whenStoreIsClosedThenQueuedPaymentsAreWritten() throws IOException {
+    GatedStore delegate = new GatedStore();
+    delegate.open();
+    WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 1024, 64,
+        BackpressurePolicy.BLOCK, MAX_BLOCK);
+    for (int i = 0; i < 500; i++) {
+      store.put(payment(i));
+    }
+
+    store.close();
+    assertEquals(500, delegate.size());
+  }
+
+  // 4. Concurrent producers
+  @Test
+  void whenManyThreadsPutConcurrentlyThenEveryPaymentIsWrittenOnce() throws Exception {
+    GatedStore delegate = new GatedStore();
+    delegate.open();
+    int threads = 8;
+    int perThread = 10_000;
+    List<PostPaymentResponse> payments = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (WriteBehindPaymentStore store = new WriteBehindPaymentStore(delegate, 256, 64,
+        BackpressurePolicy.BLOCK, MAX_BLOCK)) {
+      List<Future<?>> producers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        producers.add(executor.submit(() -> {
+          for (int i = 0; i < perThread; i++) {
+            PostPaymentResponse payment = payment(i);
+            payments.add(payment);
+            store.put(payment);
+            assertSame(payment, store.get(payment.getId()));
+          }
+        }));
+      }
+      for (Future<?> producer : producers) {
+        producer.get(30, TimeUnit.SECONDS);
+      }
+
+      store.flush();
+      assertEquals(threads * perThread, delegate.size());
+      assertEquals(threads * perThread,
+          delegate.batchSizes.stream().mapToInt(Integer::intValue).sum());
+      for (PostPaymentResponse payment : payments) {
+        assertSame(payment, delegate.get(payment.getId()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour(4321);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2027);
+    payment.setCurrency("GBP");
+    payment.setAmount(amount);
+    return payment;
+  }
+
+  /**
+   * Holds the writer's first batch until opened, and can fail a number of batches, failing direct
+   * puts while any are left to fail.
+   */
+  private static class GatedStore implements PaymentStore {
+
+    private final ConcurrentPaymentStore payments = new ConcurrentPaymentStore(16, 1);
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger directPuts = new AtomicInteger();
+
+    void open() {
+      gate.countDown();
+    }
+
+    void awaitWriter() throws InterruptedException {
+      assertTrue(writing.await(5, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public void putAll(List<PostPaymentResponse> batch) {
+      writing.countDown();
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("Store unavailable");
+      }
+      batchSizes.add(batch.size());
+      batch.forEach(payments::put);
+    }
+
+    @Override
+    public void put(PostPaymentResponse payment) {
+      directPuts.incrementAndGet();
+      if (failures.get() > 0) {
+        throw new IllegalStateException("Store unavailable");
+      }
+      payments.put(payment);
+    }
+
+    @Override
+    public PostPaymentResponse get(UUID id) {
+      return payments.get(id);
+    }
+
+    @Override
+    public long size() {
+      return payments.size();
+    }
+
+    @Override
+    public void forEach(Consumer<PostPaymentResponse> action) {
+      payments.forEach(action);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.model.validation.PaymentRequestValidator;
+import com.checkout.payment.gateway.tracing.TraceContext;
+import com.checkout.payment.gateway.tracing.Tracer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+class BatchPaymentServiceTest {
+
+  private static final String VALID_ITEM = """
+      {"card_number": "2222405343248877", "expiry_month": 4, "expiry_year": 2030,
+       "currency": "GBP", "amount": %d, "cvv": 123}""".replace("\n", "");
+
+  private final PaymentGatewayService paymentGatewayService = mock(PaymentGatewayService.class);
+  private final Validator validator = new PaymentRequestValidator(
+      new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator()), true,
+      Clock.systemDefaultZone());
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<byte[]> lines = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  // 1. Successful batches
+  @Test
+  void whenBatchIsJsonArrayThenEachPaymentGetsALine() throws IOException {
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(
+            authorized(invocation.getArgument(0))));
+
+    service(32, 100).process(body("[" + item(100) + ",\n" + item(200) + ", " + item(300) + "]"),
+        null, lines::add);
+
+    List<JsonNode> results = results();
+    assertEquals(3, results.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, results.get(i).get("index").asInt());
+      assertEquals(200, results.get(i).get("status").asInt());
+      assertEquals("Authorized", results.get(i).at("/payment/status").asText());
+      assertEquals(100 * (i + 1), results.get(i).at("/payment/amount").asInt());
+    }
+  }
+
+  @Test
+  void whenBatchHasIdempotencyKeyThenEachPaymentGetsItsOwnKey() throws IOException {
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), any()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(
+            authorized(invocation.getArgument(0))));
+
+    service(32, 100).process(body(item(100) + "\n" + item(200) + "\n"), "payout-42",
+        lines::add);
+
+    verify(paymentGatewayService).processPaymentAsync(any(PostPaymentRequest.class),
+        eq("payout-42:0"));
+    verify(paymentGatewayService).processPaymentAsync(any(PostPaymentRequest.class),
+        eq("payout-42:1"));
+    assertEquals(2, results().size());
+  }
+
+  @Test
+  void whenRequestIsTracedThenBatchPaymentsAreSentInItsTraceContext() throws Exception {
+    TraceContext requestContext =
+        new TraceContext("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", true);
+    List<TraceContext> paymentContexts = new CopyOnWriteArrayList<>();
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenAnswer(invocation -> {
+          paymentContexts.add(Tracer.currentContext());
+          return CompletableFuture.completedFuture(authorized(invocation.getArgument(0)));
+        });
+
+    List<CompletableFuture<Void>> batch = new ArrayList<>();
+    Tracer.runWithContext(requestContext, () -> batch.add(service(32, 100).processAsync(
+        body(item(100) + item(200)), null, lines::add)));
+    batch.get(0).get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(requestContext, requestContext), paymentContexts);
+  }
+
+  // 2. Failed items
+  @Test
+  void whenItemsAreInvalidOrMalformedThenOnlyThoseFail() throws IOException {
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(
+            authorized(invocation.getArgument(0))));
+
+    service(32, 100).process(body(String.join("\n",
+        item(100),
+        item(200).replace("2222405343248877", "1234567890123456"),
+        "{\"amount\": \"ten\"}",
+        item(400))), null, lines::add);
+
+    List<JsonNode> results = results();
+    assertEquals(4, results.size());
+    assertEquals(200, results.get(0).get("status").asInt());
+    assertEquals(400, results.get(1).get("status").asInt());
+    assertEquals("Validation failed", results.get(1).at("/error/message").asText());
+    assertEquals("Card number is not valid",
+        results.get(1).at("/error/errors/cardNumber").asText());
+    assertEquals(400, results.get(2).get("status").asInt());
+    assertTrue(results.get(2).at("/error/message").asText().startsWith("Malformed"));
+    assertEquals(200, results.get(3).get("status").asInt());
+    verify(paymentGatewayService, times(2))
+        .processPaymentAsync(any(PostPaymentRequest.class), isNull());
+  }
+
+  @Test
+  void whenBankFailsThenItemGetsTheStatusOfTheSinglePaymentEndpoint() throws IOException {
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenReturn(CompletableFuture.failedFuture(new EventProcessingException(
+            "Bank service temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+    service(32, 100).process(body(item(100) + item(200)), null, lines::add);
+
+    List<JsonNode> results = results();
+    assertEquals(503, results.get(0).get("status").asInt());
+    assertEquals("Bank service temporarily unavailable",
+        results.get(0).at("/error/message").asText());
+    assertEquals(500, results.get(1).get("status").asInt());
+    assertFalse(results.get(1).at("/error/message").asText().contains("boom"));
+  }
+
+  // 3. Limits
+  @Test
+  void whenParallelismIsReachedThenReadingWaitsForAPaymentToComplete() throws Exception {
+    List<CompletableFuture<PostPaymentResponse>> pending = new CopyOnWriteArrayList<>();
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenAnswer(invocation -> {
+          CompletableFuture<PostPaymentResponse> payment = new CompletableFuture<>();
+          pending.add(payment);
+          return payment;
+        });
+
+    CompletableFuture<Void> batch = service(2, 100).processAsync(
+        body(item(100) + item(200) + item(300) + item(400)), null, lines::add);
+
+    awaitSize(pending, 2);
+    Thread.sleep(100);
+    assertEquals(2, pending.size());
+
+    pending.get(1).complete(authorized(new PostPaymentRequest()));
+    awaitSize(pending, 3);
+    Thread.sleep(100);
+    assertEquals(3, pending.size());
+
+    pending.get(0).complete(authorized(new PostPaymentRequest()));
+    awaitSize(pending, 4);
+    pending.get(2).complete(authorized(new PostPaymentRequest()));
+    pending.get(3).complete(authorized(new PostPaymentRequest()));
+    batch.get(5, TimeUnit.SECONDS);
+
+    assertEquals(4, results().size());
+  }
+
+  @Test
+  void whenBatchHasTooManyItemsThenTheRestIsRejected() throws IOException {
+    when(paymentGatewayService.processPaymentAsync(any(PostPaymentRequest.class), isNull()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(
+            authorized(invocation.getArgument(0))));
+
+    service(32, 2).process(body(item(100) + item(200) + item(300) + item(400)), null,
+        lines::add);
+
+    List<JsonNode> results = results();
+    assertEquals(3, results.size());
+    assertEquals(413, results.get(2).get("status").asInt());
+    verify(paymentGatewayService, times(2))
+        .processPaymentAsync(any(PostPaymentRequest.class), isNull());
+  }
+
+  @Test
+  void whenTooManyBatchesAreInProgressThenBatchIsRejected() {
+    executor.shutdown();
+
+    EventProcessingException exception = assertThrows(EventProcessingException.class,
+        () -> service(32, 100).processAsync(body(item(100)), null, lines::add));
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+  }
+
+  private BatchPaymentService service(int parallelism, int maxItems) {
+    return new BatchPaymentService(paymentGatewayService, validator, executor, parallelism,
+        maxItems);
+  }
+
+  private List<JsonNode> results() throws IOException {
+    List<JsonNode> results = new ArrayList<>();
+    for (byte[] line : lines) {
+      assertEquals('\n', line[line.length - 1]);
+      results.add(objectMapper.readTree(line));
+    }
+    results.sort(Comparator.comparingInt(result -> result.get("index").asInt()));
+    return results;
+  }
+
+  private static void awaitSize(List<?> list, int size) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (list.size() < size && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(size, list.size());
+  }
+
+  private static PostPaymentResponse authorized(PostPaymentRequest request) {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.randomUUID());
+    response.setStatus(PaymentStatus.AUTHORIZED);
+    response.setAmount(request.getAmount() != null ? request.getAmount() : 0);
+    return response;
+  }
+
+  private static String item(int amount) {
+    return VALID_ITEM.formatted(amount);
+  }
+
+  private static ByteArrayInputStream body(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,93 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private IdempotencyCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new IdempotencyCache(Duration.ofMinutes(10), clock::get);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.close();
+  }
+
+  // 1. Claiming keys
+  @Test
+  void whenKeyIsNewThenRequestClaimsIt() {
+    assertNull(cache.claim("key-1", "fp-1", new CompletableFuture<>()));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void whenKeyIsRepeatedThenFirstRequestsEntryIsReturned() {
+    CompletableFuture<PostPaymentResponse> first = new CompletableFuture<>();
+    cache.claim("key-1", "fp-1", first);
+
+    IdempotencyCache.Entry existing = cache.claim("key-1", "fp-1", new CompletableFuture<>());
+
+    assertNotNull(existing);
+    assertSame(first, existing.result());
+    assertEquals("fp-1", existing.fingerprint());
+    assertEquals(1, cache.getReplays());
+  }
+
+  // 2. Expiry
+  @Test
+  void whenTtlElapsesThenKeyCanBeClaimedAgain() {
+    cache.claim("key-1", "fp-1", new CompletableFuture<>());
+    clock.addAndGet(Duration.ofMinutes(10).toNanos());
+
+    assertNull(cache.claim("key-1", "fp-1", new CompletableFuture<>()));
+  }
+
+  @Test
+  void whenSweepRunsThenOnlyExpiredKeysAreRemoved() {
+    cache.claim("key-1", "fp-1", new CompletableFuture<>());
+    clock.addAndGet(Duration.ofMinutes(5).toNanos());
+    cache.claim("key-2", "fp-2", new CompletableFuture<>());
+    clock.addAndGet(Duration.ofMinutes(5).toNanos());
+
+    cache.removeExpired();
+
+    assertEquals(1, cache.size());
+    assertNull(cache.claim("key-1", "fp-1", new CompletableFuture<>()));
+  }
+
+  // 3. Releasing keys
+  @Test
+  void whenOwnerReleasesKeyThenItCanBeClaimedAgain() {
+    CompletableFuture<PostPaymentResponse> first = new CompletableFuture<>();
+    cache.claim("key-1", "fp-1", first);
+
+    cache.release("key-1", first);
+
+    assertNull(cache.claim("key-1", "fp-1", new CompletableFuture<>()));
+  }
+
+  @Test
+  void whenAnotherRequestReleasesKeyThenOwnerKeepsIt() {
+    CompletableFuture<PostPaymentResponse> first = new CompletableFuture<>();
+    cache.claim("key-1", "fp-1", first);
+
+    cache.release("key-1", new CompletableFuture<>());
+
+    assertSame(first, cache.claim("key-1", "fp-1", new CompletableFuture<>()).result());
+  }
+}
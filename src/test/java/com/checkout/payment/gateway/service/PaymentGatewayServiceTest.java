@@ -8,18 +8,31 @@ import com.checkout.payment.gateway.client.BankClient;
 import com.checkout.payment.gateway.client.model.BankRequest;
 import com.checkout.payment.gateway.client.model.BankResponse;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
 import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.PaymentNotRecordedException;
+import com.checkout.payment.gateway.exception.ServiceUnavailableException;
+import com.checkout.payment.gateway.id.PaymentIdGenerator;
+import com.checkout.payment.gateway.id.TimeOrderedPaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
@@ -39,15 +52,34 @@ class PaymentGatewayServiceTest {
   @Mock
   private BankClient bankClient;
 
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy
+  private PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry);
+
+  @Spy
+  private PaymentIdGenerator paymentIdGenerator = new TimeOrderedPaymentIdGenerator();
+
+  @Mock
+  private Executor paymentStoreExecutor;
+
   @InjectMocks
   private PaymentGatewayService paymentGatewayService;
 
+  private IdempotencyCache idempotencyCache;
+
   private PostPaymentRequest validRequest;
   private BankResponse authorizedBankResponse;
   private BankResponse declinedBankResponse;
 
   @BeforeEach
   void setUp() {
+    // Run asynchronous repository writes on the thread that hands them over
+    lenient().doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(paymentStoreExecutor).execute(any(Runnable.class));
+
     // Setup valid payment request
     validRequest = new PostPaymentRequest();
     validRequest.setCardNumber("2222405343248877");
@@ -68,6 +100,13 @@ class PaymentGatewayServiceTest {
     declinedBankResponse.setAuthorizationCode(null);
   }
 
+  @AfterEach
+  void tearDown() {
+    if (idempotencyCache != null) {
+      idempotencyCache.close();
+    }
+  }
+
   // 1. getPaymentById Tests
   @Test
   void whenPaymentExistsThenReturnPayment() {
@@ -209,6 +248,24 @@ class PaymentGatewayServiceTest {
     verify(paymentsRepository, never()).add(any());
   }
 
+  @Test
+  void whenBankCallIsRejectedByCircuitBreakerThenThrowServiceUnavailableException() {
+    when(bankClient.processPayment(any(BankRequest.class)))
+        .thenThrow(new BankCallRejectedException("Bank circuit breaker is open"));
+
+    EventProcessingException exception = assertThrows(
+        EventProcessingException.class,
+        () -> paymentGatewayService.processPayment(validRequest)
+    );
+
+    assertEquals("Bank service temporarily unavailable. Please try again later or contact support team.", exception.getMessage());
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+    // Raised on every request while the circuit is open, so it skips the stack capture
+    assertInstanceOf(ServiceUnavailableException.class, exception);
+    assertEquals(0, exception.getStackTrace().length);
+    verify(paymentsRepository, never()).add(any());
+  }
+
   // 5. processPayment - Repository Storage Tests
 
   @Test
@@ -251,4 +308,242 @@ class PaymentGatewayServiceTest {
 
     verify(paymentsRepository, never()).add(any());
   }
+
+  // 6. processPaymentAsync Tests
+
+  @Test
+  void whenBankAuthorizesAsyncPaymentThenFutureCompletesWithStoredPayment() throws Exception {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(authorizedBankResponse));
+
+    PostPaymentResponse response = paymentGatewayService.processPaymentAsync(validRequest).get();
+
+    assertNotNull(response.getId());
+    assertEquals(PaymentStatus.AUTHORIZED, response.getStatus());
+    assertEquals(8877, response.getCardNumberLastFour());
+    verify(paymentsRepository, times(1)).add(response);
+    verify(paymentStoreExecutor, times(1)).execute(any(Runnable.class));
+  }
+
+  @Test
+  void whenBankDeclinesAsyncPaymentThenFutureCompletesWithDeclinedStatus() throws Exception {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(declinedBankResponse));
+
+    PostPaymentResponse response = paymentGatewayService.processPaymentAsync(validRequest).get();
+
+    assertEquals(PaymentStatus.DECLINED, response.getStatus());
+    verify(paymentsRepository, times(1)).add(response);
+  }
+
+  @Test
+  void whenBankReturns5xxErrorAsyncThenFutureFailsWithServiceUnavailable() {
+    HttpServerErrorException serverError = HttpServerErrorException.create(
+        HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, new byte[0], null);
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(serverError));
+
+    ExecutionException exception = assertThrows(
+        ExecutionException.class,
+        () -> paymentGatewayService.processPaymentAsync(validRequest).get()
+    );
+
+    EventProcessingException cause = assertInstanceOf(EventProcessingException.class,
+        exception.getCause());
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, cause.getHttpStatus());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  @Test
+  void whenAsyncBankConnectionFailsThenFutureFailsWithInternalServerError() {
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(new ResourceAccessException("Connection refused")));
+
+    ExecutionException exception = assertThrows(
+        ExecutionException.class,
+        () -> paymentGatewayService.processPaymentAsync(validRequest).get()
+    );
+
+    EventProcessingException cause = assertInstanceOf(EventProcessingException.class,
+        exception.getCause());
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, cause.getHttpStatus());
+    verify(paymentsRepository, never()).add(any());
+  }
+
+  // 7. Idempotency-Key Tests
+
+  @Test
+  void whenIdempotencyKeyIsRepeatedThenStoredResponseIsReturnedWithoutCallingBank() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPayment(any(BankRequest.class))).thenReturn(authorizedBankResponse);
+
+    PostPaymentResponse first = service.processPayment(validRequest, "order-123");
+    PostPaymentResponse retry = service.processPayment(validRequest, "order-123");
+
+    assertSame(first, retry);
+    verify(bankClient, times(1)).processPayment(any(BankRequest.class));
+    verify(paymentsRepository, times(1)).add(any());
+  }
+
+  @Test
+  void whenIdempotencyKeyIsReusedForDifferentPaymentThenThrowUnprocessableEntity() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPayment(any(BankRequest.class))).thenReturn(authorizedBankResponse);
+    service.processPayment(validRequest, "order-123");
+    validRequest.setAmount(200);
+
+    EventProcessingException exception = assertThrows(
+        EventProcessingException.class,
+        () -> service.processPayment(validRequest, "order-123")
+    );
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getHttpStatus());
+    verify(bankClient, times(1)).processPayment(any(BankRequest.class));
+  }
+
+  @Test
+  void whenKeyIsReusedForPaymentWithSameFieldHashThenThrowUnprocessableEntity() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPayment(any(BankRequest.class))).thenReturn(authorizedBankResponse);
+    service.processPayment(validRequest, "order-123");
+    // One more in amount and 31 less in CVV gives the same Objects.hash of the fields
+    validRequest.setAmount(101);
+    validRequest.setCvv(92);
+
+    EventProcessingException exception = assertThrows(
+        EventProcessingException.class,
+        () -> service.processPayment(validRequest, "order-123")
+    );
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getHttpStatus());
+    verify(bankClient, times(1)).processPayment(any(BankRequest.class));
+  }
+
+  @Test
+  void whenFirstAttemptFailsThenRetryWithSameKeyCallsBankAgain() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPayment(any(BankRequest.class)))
+        .thenThrow(new ResourceAccessException("Read timed out"))
+        .thenReturn(authorizedBankResponse);
+
+    assertThrows(EventProcessingException.class,
+        () -> service.processPayment(validRequest, "order-123"));
+    PostPaymentResponse retry = service.processPayment(validRequest, "order-123");
+
+    assertEquals(PaymentStatus.AUTHORIZED, retry.getStatus());
+    verify(bankClient, times(2)).processPayment(any(BankRequest.class));
+  }
+
+  @Test
+  void whenAuthorizedPaymentCannotBeStoredThenRetryWithSameKeyDoesNotCallBankAgain() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPayment(any(BankRequest.class))).thenReturn(authorizedBankResponse);
+    doThrow(new IllegalStateException("Disk full")).when(paymentsRepository).add(any());
+
+    EventProcessingException first = assertThrows(PaymentNotRecordedException.class,
+        () -> service.processPayment(validRequest, "order-123"));
+    EventProcessingException retry = assertThrows(PaymentNotRecordedException.class,
+        () -> service.processPayment(validRequest, "order-123"));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, first.getHttpStatus());
+    assertSame(first, retry);
+    verify(bankClient, times(1)).processPayment(any(BankRequest.class));
+  }
+
+  @Test
+  void whenAuthorizedAsyncPaymentCannotBeStoredThenRetryWithSameKeyDoesNotCallBankAgain() {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    when(bankClient.processPaymentAsync(any(BankRequest.class)))
+        .thenReturn(CompletableFuture.completedFuture(authorizedBankResponse));
+    doThrow(new IllegalStateException("Disk full")).when(paymentsRepository).add(any());
+
+    ExecutionException first = assertThrows(ExecutionException.class,
+        () -> service.processPaymentAsync(validRequest, "order-123").get());
+    ExecutionException retry = assertThrows(ExecutionException.class,
+        () -> service.processPaymentAsync(validRequest, "order-123").get());
+
+    assertInstanceOf(PaymentNotRecordedException.class, first.getCause());
+    assertSame(first.getCause(), retry.getCause());
+    verify(bankClient, times(1)).processPaymentAsync(any(BankRequest.class));
+  }
+
+  @Test
+  void whenDuplicateArrivesWhileFirstIsInFlightThenItWaitsForFirstResult() throws Exception {
+    PaymentGatewayService service = serviceWithIdempotencyCache();
+    CompletableFuture<BankResponse> bankCall = new CompletableFuture<>();
+    when(bankClient.processPaymentAsync(any(BankRequest.class))).thenReturn(bankCall);
+
+    CompletableFuture<PostPaymentResponse> first =
+        service.processPaymentAsync(validRequest, "order-123");
+    CompletableFuture<PostPaymentResponse> duplicate =
+        service.processPaymentAsync(validRequest, "order-123");
+    assertFalse(duplicate.isDone());
+
+    bankCall.complete(authorizedBankResponse);
+
+    assertSame(first.get(), duplicate.get());
+    verify(bankClient, times(1)).processPaymentAsync(any(BankRequest.class));
+  }
+
+  // 8. Metrics Tests
+
+  @Test
+  void whenPaymentIsAuthorizedThenEveryStageIsTimedAndStatusIsCounted() {
+    when(bankClient.processPayment(any(BankRequest.class))).thenReturn(authorizedBankResponse);
+
+    paymentGatewayService.processPayment(validRequest);
+
+    for (String stage : new String[]{"bank-request", "repository-write", "total"}) {
+      assertEquals(1, meterRegistry.get("payments.stage").tag("stage", stage).timer().count());
+    }
+    assertEquals(1, meterRegistry.get("payments.bank.call").tag("outcome", "authorized")
+        .timer().count());
+    assertEquals(1, meterRegistry.get("payments.status").tag("status", "authorized")
+        .counter().count());
+    assertEquals(0, meterRegistry.get("payments.bank.in.flight").gauge().value());
+  }
+
+  @Test
+  void whenBankReturns5xxThenCallIsTimedAsServerErrorAndNoStatusIsCounted() {
+    HttpServerErrorException serverError = HttpServerErrorException.create(
+        HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, new byte[0], null);
+    when(bankClient.processPayment(any(BankRequest.class))).thenThrow(serverError);
+
+    assertThrows(EventProcessingException.class,
+        () -> paymentGatewayService.processPayment(validRequest));
+
+    assertEquals(1, meterRegistry.get("payments.bank.call").tag("outcome", "server-error")
+        .timer().count());
+    assertEquals(0, meterRegistry.get("payments.stage").tag("stage", "repository-write")
+        .timer().count());
+    assertEquals(1, meterRegistry.get("payments.stage").tag("stage", "total").timer().count());
+    assertEquals(0, meterRegistry.get("payments.status").tag("status", "authorized")
+        .counter().count());
+    assertEquals(0, meterRegistry.get("payments.bank.in.flight").gauge().value());
+  }
+
+  @Test
+  void whenAsyncBankCallIsPendingThenItIsCountedInFlight() throws Exception {
+    CompletableFuture<BankResponse> bankCall = new CompletableFuture<>();
+    when(bankClient.processPaymentAsync(any(BankRequest.class))).thenReturn(bankCall);
+
+    CompletableFuture<PostPaymentResponse> response =
+        paymentGatewayService.processPaymentAsync(validRequest);
+    assertEquals(1, meterRegistry.get("payments.bank.in.flight").gauge().value());
+
+    bankCall.complete(declinedBankResponse);
+    response.get();
+
+    assertEquals(0, meterRegistry.get("payments.bank.in.flight").gauge().value());
+    assertEquals(1, meterRegistry.get("payments.bank.call").tag("outcome", "declined")
+        .timer().count());
+    assertEquals(1, meterRegistry.get("payments.status").tag("status", "declined")
+        .counter().count());
+  }
+
+  private PaymentGatewayService serviceWithIdempotencyCache() {
+    idempotencyCache = new IdempotencyCache(Duration.ofHours(1), System::nanoTime);
+    return new PaymentGatewayService(paymentsRepository, bankClient, idempotencyCache,
+        paymentMetrics, paymentIdGenerator, paymentStoreExecutor);
+  }
 }
@@ -0,0 +1,307 @@
+package com.checkout.payment.gateway.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.checkout.payment.gateway.client.BankClient;
+import com.checkout.payment.gateway.client.model.BankRequest;
+import com.checkout.payment.gateway.client.model.BankResponse;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.PipelineWaitStrategy;
+import com.checkout.payment.gateway.exception.BankCallRejectedException;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.PaymentNotRecordedException;
+import com.checkout.payment.gateway.id.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.metrics.PaymentMetrics;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.ConcurrentPaymentStore;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.tracing.TraceContext;
+import com.checkout.payment.gateway.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+class PaymentPipelineTest {
+
+  private final ConcurrentPaymentStore paymentStore = new ConcurrentPaymentStore(1024, 4);
+  private final PaymentsRepository paymentsRepository = new PaymentsRepository(paymentStore);
+  private Function<BankRequest, CompletableFuture<BankResponse>> bank;
+  private final BankClient bankClient = new BankClient(null, null, null, null, null) {
+    @Override
+    public CompletableFuture<BankResponse> processPaymentAsync(BankRequest bankRequest) {
+      return bank.apply(bankRequest);
+    }
+  };
+  private PaymentPipeline pipeline;
+
+  @AfterEach
+  void closePipeline() {
+    if (pipeline != null) {
+      pipeline.close();
+    }
+  }
+
+  // 1. Bank outcomes
+  @Test
+  void whenBankAuthorizesThenPaymentIsStoredAndReturned() throws Exception {
+    // The bank request is reused for the event's next payment, so it is read during the call
+    List<String> sent = new ArrayList<>();
+    bank = request -> {
+      sent.add(request.getCardNumber() + " " + request.getExpiryDate() + " "
+          + request.getCurrency() + " " + request.getAmount() + " " + request.getCvv());
+      return CompletableFuture.completedFuture(bankResponse(true));
+    };
+    pipeline = pipeline(16);
+
+    PostPaymentResponse response = pipeline.submit(request(100)).get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of("2222405343248877 4/2030 GBP 100 123"), sent);
+
+    assertEquals(PaymentStatus.AUTHORIZED, response.getStatus());
+    assertEquals(8877, response.getCardNumberLastFour());
+    assertEquals(4, response.getExpiryMonth());
+    assertEquals(2030, response.getExpiryYear());
+    assertEquals("GBP", response.getCurrency());
+    assertEquals(100, response.getAmount());
+    assertSame(response, paymentsRepository.get(response.getId()).orElseThrow());
+  }
+
+  @Test
+  void whenBankDeclinesThenPaymentIsStoredAsDeclined() throws Exception {
+    bank = request -> CompletableFuture.completedFuture(bankResponse(false));
+    pipeline = pipeline(16);
+
+    PostPaymentResponse response = pipeline.submit(request(100)).get(5, TimeUnit.SECONDS);
+
+    assertEquals(PaymentStatus.DECLINED, response.getStatus());
+    assertTrue(paymentsRepository.get(response.getId()).isPresent());
+  }
+
+  @Test
+  void whenBankFailsThenPaymentFailsWithServiceUnavailableAndIsNotStored() {
+    bank = request -> CompletableFuture.failedFuture(
+        new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+    pipeline = pipeline(16);
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failure(pipeline.submit(request(100))));
+    assertEquals(0, paymentStore.size());
+  }
+
+  @Test
+  void whenBankCallIsRejectedThenPaymentFailsWithServiceUnavailable() {
+    bank = request -> {
+      throw new BankCallRejectedException("Bank circuit breaker is open");
+    };
+    pipeline = pipeline(16);
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failure(pipeline.submit(request(100))));
+  }
+
+  @Test
+  void whenDecidedPaymentsCannotBeStoredThenTheyFailAsNotRecorded() {
+    bank = request -> CompletableFuture.completedFuture(bankResponse(true));
+    PaymentsRepository failingRepository = new PaymentsRepository(paymentStore) {
+      @Override
+      public void addAll(List<PostPaymentResponse> payments) {
+        throw new IllegalStateException("Disk full");
+      }
+    };
+    pipeline = new PaymentPipeline(failingRepository, bankClient,
+        new PaymentMetrics(new SimpleMeterRegistry()), new RandomPaymentIdGenerator(), 16,
+        PipelineWaitStrategy.SLEEPING);
+
+    ExecutionException ex = assertThrows(ExecutionException.class,
+        () -> pipeline.submit(request(100)).get(5, TimeUnit.SECONDS));
+
+    assertInstanceOf(PaymentNotRecordedException.class, ex.getCause());
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+        ((PaymentNotRecordedException) ex.getCause()).getHttpStatus());
+  }
+
+  @Test
+  void whenRequestIsTracedThenBankIsCalledInItsTraceContext() throws Exception {
+    TraceContext requestContext =
+        new TraceContext("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", true);
+    List<TraceContext> bankContexts = new ArrayList<>();
+    bank = request -> {
+      bankContexts.add(Tracer.currentContext());
+      return CompletableFuture.completedFuture(bankResponse(true));
+    };
+    pipeline = pipeline(16);
+
+    List<CompletableFuture<PostPaymentResponse>> results = new ArrayList<>();
+    Tracer.runWithContext(requestContext, () -> results.add(pipeline.submit(request(100))));
+    results.add(pipeline.submit(request(200)));
+    for (CompletableFuture<PostPaymentResponse> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+
+    assertEquals(Arrays.asList(requestContext, null), bankContexts);
+  }
+
+  // 2. Ordering and capacity
+  @Test
+  void whenEarlierBankCallIsSlowThenLaterPaymentsAreAnsweredFirst() throws Exception {
+    CompletableFuture<BankResponse> slowCall = new CompletableFuture<>();
+    bank = request -> request.getAmount() == 1
+        ? slowCall : CompletableFuture.completedFuture(bankResponse(true));
+    pipeline = pipeline(16);
+
+    CompletableFuture<PostPaymentResponse> slow = pipeline.submit(request(1));
+    CompletableFuture<PostPaymentResponse> fast = pipeline.submit(request(2));
+
+    assertEquals(2, fast.get(5, TimeUnit.SECONDS).getAmount());
+    assertFalse(slow.isDone());
+    slowCall.complete(bankResponse(true));
+    assertEquals(1, slow.get(5, TimeUnit.SECONDS).getAmount());
+  }
+
+  @Test
+  void whenOneBankCallIsStuckThenOtherPaymentsKeepWrappingRoundTheRing() throws Exception {
+    CompletableFuture<BankResponse> stuckCall = new CompletableFuture<>();
+    bank = request -> request.getAmount() == 1
+        ? stuckCall : CompletableFuture.completedFuture(bankResponse(true));
+    pipeline = pipeline(2);
+
+    CompletableFuture<PostPaymentResponse> stuck = pipeline.submit(request(1));
+    // Each payment passes the stuck payment's ring slot on its way round
+    for (int i = 2; i <= 20; i++) {
+      assertEquals(i, pipeline.submit(request(i)).get(5, TimeUnit.SECONDS).getAmount());
+    }
+    assertFalse(stuck.isDone());
+    assertEquals(1, pipeline.getInFlight());
+
+    stuckCall.complete(bankResponse(true));
+    assertEquals(1, stuck.get(5, TimeUnit.SECONDS).getAmount());
+  }
+
+  @Test
+  void whenEveryPaymentIsWaitingOnBankThenSubmissionFailsAtOnce() throws Exception {
+    CompletableFuture<BankResponse> slowCall = new CompletableFuture<>();
+    bank = request -> slowCall;
+    pipeline = pipeline(2);
+
+    List<CompletableFuture<PostPaymentResponse>> slow =
+        List.of(pipeline.submit(request(1)), pipeline.submit(request(2)));
+
+    // The caller is turned away, not parked until the bank answers
+    CompletableFuture<PostPaymentResponse> turnedAway = pipeline.submit(request(3));
+    assertTrue(turnedAway.isDone());
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failure(turnedAway));
+
+    slowCall.complete(bankResponse(true));
+    for (CompletableFuture<PostPaymentResponse> result : slow) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(3, pipeline.submit(request(3)).get(5, TimeUnit.SECONDS).getAmount());
+  }
+
+  @Test
+  void whenMorePaymentsThanSlotsAreSubmittedThenTurnedAwayOnesAreAnsweredOnRetry()
+      throws Exception {
+    ExecutorService bankThreads = Executors.newFixedThreadPool(4);
+    ExecutorService merchants = Executors.newFixedThreadPool(4);
+    try {
+      bank = request -> {
+        boolean authorized = request.getAmount() % 2 == 0;
+        return CompletableFuture.supplyAsync(() -> bankResponse(authorized), bankThreads);
+      };
+      pipeline = pipeline(4);
+
+      List<Future<List<PostPaymentResponse>>> submitted = new ArrayList<>();
+      for (int m = 0; m < 4; m++) {
+        submitted.add(merchants.submit(() -> {
+          List<CompletableFuture<PostPaymentResponse>> results = new ArrayList<>();
+          for (int i = 1; i <= 250; i++) {
+            CompletableFuture<PostPaymentResponse> result = pipeline.submit(request(i));
+            while (result.isCompletedExceptionally()) {
+              assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failure(result));
+              Thread.sleep(1);
+              result = pipeline.submit(request(i));
+            }
+            results.add(result);
+          }
+          List<PostPaymentResponse> responses = new ArrayList<>();
+          for (CompletableFuture<PostPaymentResponse> result : results) {
+            responses.add(result.get(10, TimeUnit.SECONDS));
+          }
+          return responses;
+        }));
+      }
+
+      for (Future<List<PostPaymentResponse>> merchant : submitted) {
+        List<PostPaymentResponse> responses = merchant.get(30, TimeUnit.SECONDS);
+        assertEquals(250, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+          PostPaymentResponse response = responses.get(i);
+          assertEquals(i + 1, response.getAmount());
+          assertEquals(response.getAmount() % 2 == 0 ? PaymentStatus.AUTHORIZED
+              : PaymentStatus.DECLINED, response.getStatus());
+          assertSame(response, paymentsRepository.get(response.getId()).orElseThrow());
+        }
+      }
+    } finally {
+      bankThreads.shutdownNow();
+      merchants.shutdownNow();
+    }
+  }
+
+  // 3. Shutdown
+  @Test
+  void whenPipelineIsClosedThenPaymentsAreRefused() {
+    bank = request -> CompletableFuture.completedFuture(bankResponse(true));
+    pipeline = pipeline(16);
+    pipeline.close();
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failure(pipeline.submit(request(100))));
+    pipeline = null;
+  }
+
+  private PaymentPipeline pipeline(int capacity) {
+    return new PaymentPipeline(paymentsRepository, bankClient,
+        new PaymentMetrics(new SimpleMeterRegistry()), new RandomPaymentIdGenerator(), capacity,
+        PipelineWaitStrategy.SLEEPING);
+  }
+
+  private static HttpStatus failure(CompletableFuture<PostPaymentResponse> result) {
+    ExecutionException ex = assertThrows(ExecutionException.class,
+        () -> result.get(5, TimeUnit.SECONDS));
+    return assertInstanceOf(EventProcessingException.class, ex.getCause()).getHttpStatus();
+  }
+
+  private static PostPaymentRequest request(int amount) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("2222405343248877");
+    request.setExpiryMonth(4);
+    request.setExpiryYear(2030);
+    request.setCurrency("GBP");
+    request.setAmount(amount);
+    request.setCvv(123);
+    return request;
+  }
+
+  private static BankResponse bankResponse(boolean authorized) {
+    BankResponse response = new BankResponse();
+    response.setAuthorized(authorized);
+    response.setAuthorizationCode(authorized ? "AUTH123" : null);
+    return response;
+  }
+}
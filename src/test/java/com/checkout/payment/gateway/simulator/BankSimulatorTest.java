@@ -0,0 +1,189 @@
+package com.checkout.payment.gateway.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BankSimulatorTest {
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .build();
+  private BankSimulator simulator;
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (simulator != null) {
+      simulator.close();
+    }
+  }
+
+  // 1. Card number rules
+  @Test
+  void whenCardEndsInOddDigitThenPaymentIsAuthorized() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    HttpResponse<String> response = post(payment("2222405343248877"));
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().matches(
+        "\\{\"authorized\":true,\"authorization_code\":\"[0-9a-f-]{36}\"}"));
+  }
+
+  @Test
+  void whenCardEndsInEvenDigitThenPaymentIsDeclined() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    HttpResponse<String> response = post(payment("2222405343248112"));
+
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"authorized\":false,\"authorization_code\":\"\"}", response.body());
+  }
+
+  @Test
+  void whenCardEndsInZeroThenServiceIsUnavailable() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    assertEquals(503, post(payment("2222405343248880")).statusCode());
+  }
+
+  @Test
+  void whenRequiredFieldIsMissingThenBadRequestIsReturned() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    HttpResponse<String> response = post("{\"card_number\":\"2222405343248877\"}");
+
+    assertEquals(400, response.statusCode());
+    assertEquals(1, simulator.getStats().getBadRequests());
+  }
+
+  @Test
+  void whenPaymentsAreBatchedThenEachGetsItsOwnResult() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    HttpResponse<String> response = post("/payments/batch", "[" + payment("2222405343248877")
+        + "," + payment("2222405343248112") + "," + payment("2222405343248880")
+        + ",{\"card_number\":\"2222405343248877\"}]");
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().matches("\\[\\{\"status\":200,\"authorized\":true,"
+        + "\"authorization_code\":\"[0-9a-f-]{36}\"},"
+        + "\\{\"status\":200,\"authorized\":false,\"authorization_code\":\"\"},"
+        + "\\{\"status\":503},"
+        + "\\{\"status\":400,\"error_message\":\"[^\"]+\"}]"), response.body());
+    assertEquals(1, simulator.getStats().getBatches());
+    assertEquals(1, simulator.getStats().getAuthorized());
+    assertEquals(1, simulator.getStats().getDeclined());
+  }
+
+  @Test
+  void whenIdempotencyKeyIsRepeatedThenPaymentIsAuthorizedOnce() throws Exception {
+    start(BankSimulator.withDefaults());
+
+    HttpResponse<String> first = postWithKey("key-1", payment("2222405343248877"));
+    HttpResponse<String> repeated = postWithKey("key-1", payment("2222405343248877"));
+    HttpResponse<String> other = postWithKey("key-2", payment("2222405343248877"));
+
+    assertEquals(first.body(), repeated.body());
+    assertNotEquals(first.body(), other.body());
+    assertEquals(2, simulator.getStats().getAuthorized());
+    assertEquals(1, simulator.getStats().getReplays());
+  }
+
+  // 2. Injected latency and failures
+  @Test
+  void whenLatencyIsConfiguredThenResponsesAreDelayed() throws Exception {
+    start(new BankSimulator(0, LatencyDistribution.fixed(Duration.ofMillis(200)), 0, 0));
+
+    long start = System.nanoTime();
+    post(payment("2222405343248877"));
+
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+  }
+
+  @Test
+  void whenErrorRateIsOneThenEveryRequestGets503() throws Exception {
+    start(new BankSimulator(0, LatencyDistribution.NONE, 1.0, 0));
+
+    assertEquals(503, post(payment("2222405343248877")).statusCode());
+    assertEquals(1, simulator.getStats().getErrors());
+  }
+
+  @Test
+  void whenResetRateIsOneThenConnectionIsResetWithoutResponse() throws Exception {
+    start(new BankSimulator(0, LatencyDistribution.NONE, 0, 1.0));
+
+    assertThrows(IOException.class, () -> post(payment("2222405343248877")));
+    assertEquals(1, simulator.getStats().getResets());
+  }
+
+  // 3. Latency distributions
+  @Test
+  void whenBimodalLatencyIsSampledThenSlowFractionLandsInSlowMode() {
+    LatencyDistribution latency = LatencyDistribution.parse("bimodal:10ms,1s,0.05");
+    SplittableRandom random = new SplittableRandom(42);
+
+    long[] samples = new long[100_000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = latency.sampleNanos(random);
+    }
+    Arrays.sort(samples);
+
+    assertTrue(samples[samples.length / 2] < Duration.ofMillis(20).toNanos());
+    assertTrue(samples[(int) (samples.length * 0.99)] > Duration.ofMillis(500).toNanos());
+    long slow = Arrays.stream(samples).filter(s -> s > Duration.ofMillis(200).toNanos()).count();
+    assertTrue(slow > 4_500 && slow < 5_500, "slow samples: " + slow);
+  }
+
+  private void start(BankSimulator bankSimulator) throws IOException {
+    simulator = bankSimulator;
+    simulator.start();
+  }
+
+  private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+    return post("/payments", body);
+  }
+
+  private HttpResponse<String> post(String path, String body)
+      throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(simulator.getUrl() + path))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> postWithKey(String idempotencyKey, String body)
+      throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(simulator.getUrl() + "/payments"))
+        .header("Content-Type", "application/json")
+        .header("Idempotency-Key", idempotencyKey)
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static String payment(String cardNumber) {
+    return """
+        {
+          "card_number": "%s",
+          "expiry_date": "12/2030",
+          "currency": "GBP",
+          "amount": 100,
+          "cvv": 123
+        }
+        """.formatted(cardNumber);
+  }
+}
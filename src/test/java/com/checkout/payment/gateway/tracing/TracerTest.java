@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TracerTest {
+
+  private static final String SAMPLED_PARENT =
+      "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+  private static final String UNSAMPLED_PARENT =
+      "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00";
+
+  private final Tracer tracer = new Tracer(0);
+
+  @AfterEach
+  void tearDown() {
+    tracer.clearCurrent();
+  }
+
+  // 1. traceparent parsing
+  @Test
+  void whenTraceparentIsValidThenItIsParsedAndFormattedBack() {
+    TraceContext context = TraceContext.parse(SAMPLED_PARENT);
+
+    assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.traceId());
+    assertEquals("00f067aa0ba902b7", context.spanId());
+    assertTrue(context.sampled());
+    assertEquals(SAMPLED_PARENT, context.toTraceparent());
+  }
+
+  @Test
+  void whenTraceparentIsMalformedThenItIsIgnored() {
+    assertNull(TraceContext.parse(null));
+    assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+    assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+    assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+    assertNull(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+  }
+
+  // 2. Sampling
+  @Test
+  void whenCallerSampledTheRequestThenItIsTracedWhateverTheRate() {
+    Span span = tracer.startRequestSpan("POST /payments", SAMPLED_PARENT);
+
+    assertTrue(span.isSampled());
+    assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.getContext().traceId());
+    assertNotEquals("00f067aa0ba902b7", span.getContext().spanId());
+  }
+
+  @Test
+  void whenCallerDidNotSampleTheRequestThenItIsNotTraced() {
+    tracer.setSamplingRate(1);
+
+    assertFalse(tracer.startRequestSpan("POST /payments", UNSAMPLED_PARENT).isSampled());
+  }
+
+  @Test
+  void whenSamplingRateChangesThenNewRequestsFollowIt() {
+    assertFalse(tracer.startRequestSpan("POST /payments", null).isSampled());
+
+    tracer.setSamplingRate(1);
+
+    assertTrue(tracer.startRequestSpan("POST /payments", null).isSampled());
+    assertThrows(IllegalArgumentException.class, () -> tracer.setSamplingRate(1.5));
+  }
+
+  // 3. Child spans
+  @Test
+  void whenRequestSpanIsCurrentThenChildSpansJoinItsTrace() {
+    Span request = tracer.startRequestSpan("POST /payments", SAMPLED_PARENT);
+    tracer.makeCurrent(request);
+
+    Span bank = tracer.startSpan("bank POST /payments");
+
+    assertEquals(request.getContext().traceId(), bank.getContext().traceId());
+    assertNotEquals(request.getContext().spanId(), bank.getContext().spanId());
+  }
+
+  @Test
+  void whenNoRequestSpanIsCurrentThenChildSpansAreNoOps() {
+    assertFalse(tracer.startSpan("bank POST /payments").isSampled());
+  }
+
+  @Test
+  void whenRequestContextIsPassedToAnotherThreadThenItsSpansJoinTheTrace() throws Exception {
+    Span request = tracer.startRequestSpan("POST /payments", SAMPLED_PARENT);
+    tracer.makeCurrent(request);
+    TraceContext context = Tracer.currentContext();
+    AtomicReference<Span> bank = new AtomicReference<>();
+    AtomicReference<TraceContext> after = new AtomicReference<>();
+
+    Thread worker = new Thread(() -> {
+      Tracer.runWithContext(context,
+          () -> bank.set(tracer.startSpan("bank POST /payments")));
+      after.set(Tracer.currentContext());
+    });
+    worker.start();
+    worker.join();
+
+    assertEquals(request.getContext().traceId(), bank.get().getContext().traceId());
+    assertTrue(bank.get().isSampled());
+    assertNull(after.get());
+  }
+}